@@ -0,0 +1,729 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.httpclient;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.builder.IBuilder;
+import com.helger.base.concurrent.BasicThreadFactory;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
+import com.helger.statistics.impl.StatisticsManager;
+
+/**
+ * A caching implementation of {@link DnsResolver}. In contrast to the JVM internal cache the time
+ * to live of the DNS records is honoured:
+ * <ul>
+ * <li>The time to live of a successful resolution is the minimum TTL of the received records,
+ * clamped into the configured minimum and maximum. If no TTL is known (e.g. for IP addresses or
+ * when the delegate is not a {@link NonCachingDnsResolver}), the default TTL is used.</li>
+ * <li>Failed resolutions are cached for the negative TTL.</li>
+ * <li>After expiration an entry may still be served for the stale period, while it is refreshed in
+ * the background. If the refresh fails, the stale entry continues to be served until the stale
+ * period ends.</li>
+ * <li>Concurrent resolutions of the same host are coalesced, so that only one DNS lookup is
+ * performed.</li>
+ * <li>The number of cached hosts is limited. If the limit is exceeded, the least recently used
+ * entry is evicted. Entries that can no longer be served are purged regularly.</li>
+ * </ul>
+ * Instances should be shared between all HTTP clients, e.g. via
+ * {@link HttpClientSettings#setCustomDNSResolver(DnsResolver)}.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public class CachingDnsResolver implements DnsResolver
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CachingDnsResolver.class);
+  private static final IMutableStatisticsHandlerCounter STATS_HIT = StatisticsManager.getCounterHandler (CachingDnsResolver.class.getName () +
+                                                                                                         "$hit");
+  private static final IMutableStatisticsHandlerCounter STATS_MISS = StatisticsManager.getCounterHandler (CachingDnsResolver.class.getName () +
+                                                                                                          "$miss");
+  private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos (1);
+
+  private static final class CacheEntry
+  {
+    private final InetAddress [] m_aAddresses;
+    private final String m_sErrorMsg;
+    private final long m_nExpiresNanos;
+    private final long m_nStaleUntilNanos;
+    private final AtomicBoolean m_aRefreshing = new AtomicBoolean (false);
+
+    CacheEntry (@Nullable final InetAddress [] aAddresses,
+                @Nullable final String sErrorMsg,
+                final long nExpiresNanos,
+                final long nStaleUntilNanos)
+    {
+      m_aAddresses = aAddresses;
+      m_sErrorMsg = sErrorMsg;
+      m_nExpiresNanos = nExpiresNanos;
+      m_nStaleUntilNanos = nStaleUntilNanos;
+    }
+
+    boolean isNegative ()
+    {
+      return m_aAddresses == null;
+    }
+
+    boolean isFresh (final long nNowNanos)
+    {
+      return nNowNanos - m_nExpiresNanos < 0;
+    }
+
+    boolean isServableStale (final long nNowNanos)
+    {
+      return !isNegative () && nNowNanos - m_nStaleUntilNanos < 0;
+    }
+
+    boolean isExpired (final long nNowNanos)
+    {
+      return !isFresh (nNowNanos) && !isServableStale (nNowNanos);
+    }
+
+    @NonNull
+    InetAddress [] getResult () throws UnknownHostException
+    {
+      if (m_aAddresses == null)
+      {
+        // Always create a new exception, to have a meaningful stack trace
+        throw new UnknownHostException (m_sErrorMsg);
+      }
+      return m_aAddresses.clone ();
+    }
+  }
+
+  private final DnsResolver m_aDelegate;
+  private final Duration m_aMinTTL;
+  private final Duration m_aMaxTTL;
+  private final Duration m_aDefaultTTL;
+  private final Duration m_aNegativeTTL;
+  private final Duration m_aStalePeriod;
+  private final Executor m_aRefreshExecutor;
+  private final int m_nMaxSize;
+
+  private final ReentrantLock m_aCacheLock = new ReentrantLock ();
+  @GuardedBy ("m_aCacheLock")
+  private final LinkedHashMap <String, CacheEntry> m_aCache;
+  @GuardedBy ("m_aCacheLock")
+  private long m_nLastPurgeNanos = System.nanoTime ();
+  private final ConcurrentHashMap <String, CompletableFuture <CacheEntry>> m_aInFlight = new ConcurrentHashMap <> ();
+
+  private final LongAdder m_aHitCount = new LongAdder ();
+  private final LongAdder m_aStaleHitCount = new LongAdder ();
+  private final LongAdder m_aMissCount = new LongAdder ();
+  private final LongAdder m_aLookupCount = new LongAdder ();
+  private final LongAdder m_aCoalescedCount = new LongAdder ();
+  private final LongAdder m_aEvictionCount = new LongAdder ();
+
+  protected CachingDnsResolver (@NonNull final DnsResolver aDelegate,
+                                @NonNull final Duration aMinTTL,
+                                @NonNull final Duration aMaxTTL,
+                                @NonNull final Duration aDefaultTTL,
+                                @NonNull final Duration aNegativeTTL,
+                                @NonNull final Duration aStalePeriod,
+                                @NonNull final Executor aRefreshExecutor,
+                                @Nonnegative final int nMaxSize)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aMinTTL, "MinTTL");
+    ValueEnforcer.notNull (aMaxTTL, "MaxTTL");
+    ValueEnforcer.isTrue (aMinTTL.compareTo (aMaxTTL) <= 0, "MinTTL must be <= MaxTTL");
+    ValueEnforcer.notNull (aDefaultTTL, "DefaultTTL");
+    ValueEnforcer.notNull (aNegativeTTL, "NegativeTTL");
+    ValueEnforcer.notNull (aStalePeriod, "StalePeriod");
+    ValueEnforcer.notNull (aRefreshExecutor, "RefreshExecutor");
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    m_aDelegate = aDelegate;
+    m_aMinTTL = aMinTTL;
+    m_aMaxTTL = aMaxTTL;
+    m_aDefaultTTL = aDefaultTTL;
+    m_aNegativeTTL = aNegativeTTL;
+    m_aStalePeriod = aStalePeriod;
+    m_aRefreshExecutor = aRefreshExecutor;
+    m_nMaxSize = nMaxSize;
+    // Access order for LRU
+    m_aCache = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (final Map.Entry <String, CacheEntry> aEldest)
+      {
+        if (size () > m_nMaxSize)
+        {
+          m_aEvictionCount.increment ();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @NonNull
+  private static String _getKey (@NonNull final String sHost)
+  {
+    final String ret = sHost.toLowerCase (Locale.ROOT);
+    return ret.endsWith (".") ? ret.substring (0, ret.length () - 1) : ret;
+  }
+
+  /**
+   * Clamp the provided TTL into the configured range.
+   *
+   * @param aTTL
+   *        The TTL to clamp. May not be <code>null</code>.
+   * @return The clamped TTL. Never <code>null</code>.
+   */
+  @NonNull
+  final Duration getClampedTTL (@NonNull final Duration aTTL)
+  {
+    if (aTTL.compareTo (m_aMinTTL) < 0)
+      return m_aMinTTL;
+    if (aTTL.compareTo (m_aMaxTTL) > 0)
+      return m_aMaxTTL;
+    return aTTL;
+  }
+
+  @NonNull
+  private CacheEntry _lookup (@NonNull final String sKey)
+  {
+    m_aLookupCount.increment ();
+    try
+    {
+      final AtomicLong aMinTTLSecs = new AtomicLong (Long.MAX_VALUE);
+      final InetAddress [] aAddresses;
+      if (m_aDelegate instanceof NonCachingDnsResolver)
+        aAddresses = ((NonCachingDnsResolver) m_aDelegate).resolveExt (sKey,
+                                                                        aRecord -> aMinTTLSecs.accumulateAndGet (aRecord.getTTL (),
+                                                                                                                 Math::min));
+      else
+        aAddresses = m_aDelegate.resolve (sKey);
+
+      if (aAddresses == null || aAddresses.length == 0)
+        throw new UnknownHostException (sKey);
+
+      final Duration aTTL = aMinTTLSecs.get () == Long.MAX_VALUE ? m_aDefaultTTL : Duration.ofSeconds (aMinTTLSecs.get ());
+      final long nExpires = System.nanoTime () + getClampedTTL (aTTL).toNanos ();
+      return new CacheEntry (aAddresses, null, nExpires, nExpires + m_aStalePeriod.toNanos ());
+    }
+    catch (final UnknownHostException ex)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Failed to resolve host '" + sKey + "': " + ex.getMessage ());
+      final long nExpires = System.nanoTime () + m_aNegativeTTL.toNanos ();
+      return new CacheEntry (null, ex.getMessage (), nExpires, nExpires);
+    }
+  }
+
+  @Nullable
+  private CacheEntry _get (@NonNull final String sKey)
+  {
+    m_aCacheLock.lock ();
+    try
+    {
+      return m_aCache.get (sKey);
+    }
+    finally
+    {
+      m_aCacheLock.unlock ();
+    }
+  }
+
+  @GuardedBy ("m_aCacheLock")
+  private int _purgeExpired (final long nNowNanos)
+  {
+    int ret = 0;
+    final Iterator <CacheEntry> it = m_aCache.values ().iterator ();
+    while (it.hasNext ())
+      if (it.next ().isExpired (nNowNanos))
+      {
+        it.remove ();
+        ret++;
+      }
+    m_nLastPurgeNanos = nNowNanos;
+    return ret;
+  }
+
+  private void _store (@NonNull final String sKey, @NonNull final CacheEntry aNewEntry)
+  {
+    final long nNow = System.nanoTime ();
+    m_aCacheLock.lock ();
+    try
+    {
+      if (nNow - m_nLastPurgeNanos >= PURGE_INTERVAL_NANOS)
+        _purgeExpired (nNow);
+
+      if (aNewEntry.isNegative ())
+      {
+        final CacheEntry aOldEntry = m_aCache.get (sKey);
+        if (aOldEntry != null && aOldEntry.isServableStale (nNow))
+        {
+          // Failed refresh - continue serving the stale entry
+          aOldEntry.m_aRefreshing.set (false);
+          return;
+        }
+        if (m_aNegativeTTL.isZero ())
+        {
+          m_aCache.remove (sKey);
+          return;
+        }
+      }
+      m_aCache.put (sKey, aNewEntry);
+    }
+    finally
+    {
+      m_aCacheLock.unlock ();
+    }
+  }
+
+  @NonNull
+  private CacheEntry _lookupCoalesced (@NonNull final String sKey)
+  {
+    final CompletableFuture <CacheEntry> aNewFuture = new CompletableFuture <> ();
+    final CompletableFuture <CacheEntry> aExistingFuture = m_aInFlight.putIfAbsent (sKey, aNewFuture);
+    if (aExistingFuture != null)
+    {
+      // Somebody else is already resolving this host
+      m_aCoalescedCount.increment ();
+      try
+      {
+        return aExistingFuture.join ();
+      }
+      catch (final CompletionException ex)
+      {
+        if (ex.getCause () instanceof RuntimeException)
+          throw (RuntimeException) ex.getCause ();
+        throw ex;
+      }
+    }
+
+    try
+    {
+      final CacheEntry ret = _lookup (sKey);
+      _store (sKey, ret);
+      aNewFuture.complete (ret);
+      return ret;
+    }
+    catch (final RuntimeException ex)
+    {
+      aNewFuture.completeExceptionally (ex);
+      throw ex;
+    }
+    finally
+    {
+      m_aInFlight.remove (sKey, aNewFuture);
+
+      // Allow further refreshes, even if the lookup failed unexpectedly
+      final CacheEntry aEntry = _get (sKey);
+      if (aEntry != null)
+        aEntry.m_aRefreshing.set (false);
+    }
+  }
+
+  @NonNull
+  public InetAddress [] resolve (@NonNull final String sHost) throws UnknownHostException
+  {
+    ValueEnforcer.notNull (sHost, "Host");
+    final String sKey = _getKey (sHost);
+
+    final long nNow = System.nanoTime ();
+    final CacheEntry aEntry = _get (sKey);
+    if (aEntry != null)
+    {
+      if (aEntry.isFresh (nNow))
+      {
+        m_aHitCount.increment ();
+        STATS_HIT.increment ();
+        return aEntry.getResult ();
+      }
+
+      if (aEntry.isServableStale (nNow))
+      {
+        m_aStaleHitCount.increment ();
+        STATS_HIT.increment ();
+        if (aEntry.m_aRefreshing.compareAndSet (false, true))
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Refreshing stale DNS entry for '" + sKey + "' in the background");
+          try
+          {
+            m_aRefreshExecutor.execute ( () -> {
+              try
+              {
+                _lookupCoalesced (sKey);
+              }
+              catch (final RuntimeException ex)
+              {
+                LOGGER.warn ("Failed to refresh the DNS entry of '" + sKey + "'", ex);
+              }
+            });
+          }
+          catch (final RuntimeException ex)
+          {
+            aEntry.m_aRefreshing.set (false);
+            LOGGER.warn ("Failed to schedule the DNS refresh of '" + sKey + "'", ex);
+          }
+        }
+        return aEntry.getResult ();
+      }
+    }
+
+    m_aMissCount.increment ();
+    STATS_MISS.increment ();
+    return _lookupCoalesced (sKey).getResult ();
+  }
+
+  @NonNull
+  public String resolveCanonicalHostname (@NonNull final String sHost) throws UnknownHostException
+  {
+    final InetAddress [] aResolvedAddresses = resolve (sHost);
+    if (aResolvedAddresses.length > 0)
+      return aResolvedAddresses[0].getCanonicalHostName ();
+
+    return sHost;
+  }
+
+  /**
+   * Remove the cache entry of a single host.
+   *
+   * @param sHost
+   *        The host name to remove. May be <code>null</code>.
+   */
+  public void evict (@Nullable final String sHost)
+  {
+    if (sHost != null)
+    {
+      m_aCacheLock.lock ();
+      try
+      {
+        m_aCache.remove (_getKey (sHost));
+      }
+      finally
+      {
+        m_aCacheLock.unlock ();
+      }
+    }
+  }
+
+  /**
+   * Remove all cache entries.
+   */
+  public void clear ()
+  {
+    m_aCacheLock.lock ();
+    try
+    {
+      m_aCache.clear ();
+    }
+    finally
+    {
+      m_aCacheLock.unlock ();
+    }
+  }
+
+  /**
+   * Remove all entries that can no longer be served, i.e. expired negative entries and entries
+   * beyond the stale period. This happens automatically from time to time.
+   *
+   * @return The number of removed entries. Always &ge; 0.
+   */
+  @Nonnegative
+  public int purgeExpired ()
+  {
+    m_aCacheLock.lock ();
+    try
+    {
+      return _purgeExpired (System.nanoTime ());
+    }
+    finally
+    {
+      m_aCacheLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The maximum number of cached entries. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * @return The number of cached entries, including negative and stale ones.
+   */
+  @Nonnegative
+  public int getCacheSize ()
+  {
+    m_aCacheLock.lock ();
+    try
+    {
+      return m_aCache.size ();
+    }
+    finally
+    {
+      m_aCacheLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The number of resolutions answered from a fresh cache entry.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHitCount.sum ();
+  }
+
+  /**
+   * @return The number of resolutions answered from a stale cache entry, while refreshing it.
+   */
+  @Nonnegative
+  public long getStaleHitCount ()
+  {
+    return m_aStaleHitCount.sum ();
+  }
+
+  /**
+   * @return The number of resolutions that could not be answered from the cache.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMissCount.sum ();
+  }
+
+  /**
+   * @return The number of lookups performed by the delegate resolver.
+   */
+  @Nonnegative
+  public long getLookupCount ()
+  {
+    return m_aLookupCount.sum ();
+  }
+
+  /**
+   * @return The number of resolutions that waited for a lookup of another thread.
+   */
+  @Nonnegative
+  public long getCoalescedCount ()
+  {
+    return m_aCoalescedCount.sum ();
+  }
+
+  /**
+   * @return The number of entries evicted because the maximum size was exceeded.
+   */
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictionCount.sum ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Delegate", m_aDelegate)
+                                       .append ("MinTTL", m_aMinTTL)
+                                       .append ("MaxTTL", m_aMaxTTL)
+                                       .append ("DefaultTTL", m_aDefaultTTL)
+                                       .append ("NegativeTTL", m_aNegativeTTL)
+                                       .append ("StalePeriod", m_aStalePeriod)
+                                       .append ("MaxSize", m_nMaxSize)
+                                       .append ("CacheSize", getCacheSize ())
+                                       .getToString ();
+  }
+
+  @NonNull
+  public static CachingDnsResolverBuilder builder ()
+  {
+    return new CachingDnsResolverBuilder ();
+  }
+
+  /**
+   * Builder class for {@link CachingDnsResolver} objects.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public static class CachingDnsResolverBuilder implements IBuilder <CachingDnsResolver>
+  {
+    public static final Duration DEFAULT_MIN_TTL = Duration.ofSeconds (5);
+    public static final Duration DEFAULT_MAX_TTL = Duration.ofHours (1);
+    public static final Duration DEFAULT_DEFAULT_TTL = Duration.ofSeconds (60);
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds (10);
+    public static final Duration DEFAULT_STALE_PERIOD = Duration.ofMinutes (5);
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private DnsResolver m_aDelegate = NonCachingDnsResolver.INSTANCE;
+    private Duration m_aMinTTL = DEFAULT_MIN_TTL;
+    private Duration m_aMaxTTL = DEFAULT_MAX_TTL;
+    private Duration m_aDefaultTTL = DEFAULT_DEFAULT_TTL;
+    private Duration m_aNegativeTTL = DEFAULT_NEGATIVE_TTL;
+    private Duration m_aStalePeriod = DEFAULT_STALE_PERIOD;
+    private Executor m_aRefreshExecutor;
+    private int m_nMaxSize = DEFAULT_MAX_SIZE;
+
+    public CachingDnsResolverBuilder ()
+    {}
+
+    /**
+     * @param a
+     *        The resolver that performs the real lookups. Only if it is a
+     *        {@link NonCachingDnsResolver} the record TTLs are known.
+     * @return this for chaining
+     */
+    @NonNull
+    public final CachingDnsResolverBuilder delegate (@Nullable final DnsResolver a)
+    {
+      m_aDelegate = a;
+      return this;
+    }
+
+    @NonNull
+    public final CachingDnsResolverBuilder minTTL (@Nullable final Duration a)
+    {
+      m_aMinTTL = a;
+      return this;
+    }
+
+    @NonNull
+    public final CachingDnsResolverBuilder maxTTL (@Nullable final Duration a)
+    {
+      m_aMaxTTL = a;
+      return this;
+    }
+
+    /**
+     * @param a
+     *        The TTL to be used if the records have no TTL. Is clamped like the record TTLs.
+     * @return this for chaining
+     */
+    @NonNull
+    public final CachingDnsResolverBuilder defaultTTL (@Nullable final Duration a)
+    {
+      m_aDefaultTTL = a;
+      return this;
+    }
+
+    /**
+     * @param a
+     *        The duration for which failed resolutions are cached. Use {@link Duration#ZERO} to
+     *        disable negative caching.
+     * @return this for chaining
+     */
+    @NonNull
+    public final CachingDnsResolverBuilder negativeTTL (@Nullable final Duration a)
+    {
+      m_aNegativeTTL = a;
+      return this;
+    }
+
+    /**
+     * @param a
+     *        The duration after expiration in which an entry is still served while it is refreshed
+     *        in the background. Use {@link Duration#ZERO} to disable it.
+     * @return this for chaining
+     */
+    @NonNull
+    public final CachingDnsResolverBuilder stalePeriod (@Nullable final Duration a)
+    {
+      m_aStalePeriod = a;
+      return this;
+    }
+
+    /**
+     * @param a
+     *        The executor for background refreshes. If none is provided, a new executor with daemon
+     *        threads is used.
+     * @return this for chaining
+     */
+    @NonNull
+    public final CachingDnsResolverBuilder refreshExecutor (@Nullable final Executor a)
+    {
+      m_aRefreshExecutor = a;
+      return this;
+    }
+
+    /**
+     * @param n
+     *        The maximum number of cached hosts. If it is exceeded, the least recently used entry is
+     *        evicted. Must be &gt; 0.
+     * @return this for chaining
+     */
+    @NonNull
+    public final CachingDnsResolverBuilder maxSize (final int n)
+    {
+      m_nMaxSize = n;
+      return this;
+    }
+
+    @NonNull
+    public CachingDnsResolver build ()
+    {
+      if (m_aDelegate == null)
+        throw new IllegalStateException ("The delegate resolver is required");
+      if (m_aMinTTL == null || m_aMaxTTL == null || m_aDefaultTTL == null || m_aNegativeTTL == null)
+        throw new IllegalStateException ("All TTLs are required");
+      if (m_aStalePeriod == null)
+        throw new IllegalStateException ("The stale period is required");
+      if (m_aMinTTL.isNegative () || m_aMinTTL.compareTo (m_aMaxTTL) > 0)
+        throw new IllegalStateException ("The minimum TTL must be >= 0 and <= the maximum TTL");
+      if (m_nMaxSize <= 0)
+        throw new IllegalStateException ("The maximum size must be > 0");
+
+      final Executor aRefreshExecutor = m_aRefreshExecutor != null ? m_aRefreshExecutor : Executors.newCachedThreadPool (BasicThreadFactory.builder ()
+                                                                                                                                        .namingPattern ("CachingDnsResolver-%d")
+                                                                                                                                        .daemon (true)
+                                                                                                                                        .build ());
+      return new CachingDnsResolver (m_aDelegate,
+                                     m_aMinTTL,
+                                     m_aMaxTTL,
+                                     m_aDefaultTTL,
+                                     m_aNegativeTTL,
+                                     m_aStalePeriod,
+                                     aRefreshExecutor,
+                                     m_nMaxSize);
+    }
+  }
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.httpclient;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.BasicResponseConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A small wrapper around {@link CloseableHttpAsyncClient}. This is the non-blocking counterpart of
+ * {@link HttpClientManager}: all execute methods return a {@link CompletableFuture} and the
+ * existing {@link HttpClientResponseHandler} implementations (e.g. from package
+ * <code>com.helger.httpclient.response</code>) can be reused.<br>
+ * The response body is collected chunk by chunk by the I/O reactor, and the response handler is
+ * invoked once the response is complete. By default the handler runs on the
+ * {@link ForkJoinPool#commonPool() common pool}, so that it never blocks the I/O reactor thread that
+ * serves all connections. Handlers that block (e.g. on other I/O) should use a dedicated executor
+ * set via {@link #setResponseHandlerExecutor(Executor)}. To process large responses without
+ * buffering them, use one of the <code>executeStreaming</code> methods with a custom consumer.<br>
+ * The entity of a request is read into memory on the calling thread before the request is
+ * submitted, because classic entities may block while reading. Override
+ * {@link #createRequestProducer(ClassicHttpRequest)} to stream large request bodies.<br>
+ * Cancelling a returned future cancels the underlying message exchange.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+public class HttpAsyncClientManager implements AutoCloseable
+{
+  /** The default executor for invoking the response handlers */
+  public static final Executor DEFAULT_RESPONSE_HANDLER_EXECUTOR = ForkJoinPool.commonPool ();
+
+  private CloseableHttpAsyncClient m_aHttpClient;
+  private Executor m_aResponseHandlerExecutor = DEFAULT_RESPONSE_HANDLER_EXECUTOR;
+
+  public HttpAsyncClientManager ()
+  {
+    this (new HttpClientFactory ());
+  }
+
+  public HttpAsyncClientManager (@NonNull final HttpClientFactory aHttpClientFactory)
+  {
+    ValueEnforcer.notNull (aHttpClientFactory, "HttpClientFactory");
+    final HttpAsyncClientBuilder aBuilder = HttpAsyncClientBuilder.create ();
+    aHttpClientFactory.applyTo (aBuilder);
+    m_aHttpClient = aBuilder.build ();
+    m_aHttpClient.start ();
+  }
+
+  public void close ()
+  {
+    StreamHelper.close (m_aHttpClient);
+    m_aHttpClient = null;
+  }
+
+  /**
+   * @return <code>true</code> if this manager is already closed, and no further requests can be
+   *         executed, <code>false</code> if this manager is not yet closed.
+   */
+  public final boolean isClosed ()
+  {
+    return m_aHttpClient == null;
+  }
+
+  protected final void checkIfClosed ()
+  {
+    if (isClosed ())
+      throw new IllegalStateException ("This HttpAsyncClientManager was already closed!");
+  }
+
+  /**
+   * @return The executor used to invoke the response handlers. May be <code>null</code> in which
+   *         case the handlers are invoked on the I/O reactor thread. Defaults to
+   *         {@link #DEFAULT_RESPONSE_HANDLER_EXECUTOR}.
+   */
+  @Nullable
+  public final Executor getResponseHandlerExecutor ()
+  {
+    return m_aResponseHandlerExecutor;
+  }
+
+  /**
+   * Set the executor to be used for invoking the response handlers.
+   *
+   * @param aResponseHandlerExecutor
+   *        The executor to be used. May be <code>null</code> to invoke the response handlers on the
+   *        I/O reactor thread. This is only safe for handlers that neither block nor take long,
+   *        because all connections are stalled in the meantime.
+   * @return this for chaining
+   */
+  @NonNull
+  public final HttpAsyncClientManager setResponseHandlerExecutor (@Nullable final Executor aResponseHandlerExecutor)
+  {
+    m_aResponseHandlerExecutor = aResponseHandlerExecutor;
+    return this;
+  }
+
+  /**
+   * Create the asynchronous request producer for the provided classic request. An eventually
+   * contained entity is read into memory on the calling thread.
+   *
+   * @param aRequest
+   *        The classic request to be converted. May not be <code>null</code>.
+   * @return The request producer and never <code>null</code>.
+   * @throws IOException
+   *         In case the request entity cannot be read
+   */
+  @NonNull
+  protected AsyncRequestProducer createRequestProducer (@NonNull final ClassicHttpRequest aRequest) throws IOException
+  {
+    final HttpEntity aEntity = aRequest.getEntity ();
+    AsyncEntityProducer aEntityProducer = null;
+    if (aEntity != null)
+    {
+      final byte [] aBytes = EntityUtils.toByteArray (aEntity);
+      aEntityProducer = AsyncEntityProducers.create (aBytes, ContentType.parseLenient (aEntity.getContentType ()));
+    }
+    return new BasicRequestProducer (aRequest, aEntityProducer);
+  }
+
+  /**
+   * Convert the fully received asynchronous response into a classic response, so that the classic
+   * response handlers can be applied.
+   *
+   * @param aMessage
+   *        The received message. May not be <code>null</code>.
+   * @return The classic response and never <code>null</code>.
+   */
+  @NonNull
+  static BasicClassicHttpResponse createClassicResponse (@NonNull final Message <HttpResponse, byte []> aMessage)
+  {
+    final HttpResponse aHead = aMessage.getHead ();
+    final BasicClassicHttpResponse ret = new BasicClassicHttpResponse (aHead.getCode (), aHead.getReasonPhrase ());
+    ret.setVersion (aHead.getVersion ());
+    ret.setHeaders (aHead.getHeaders ());
+
+    final byte [] aBody = aMessage.getBody ();
+    if (aBody != null)
+    {
+      final Header aContentType = aHead.getFirstHeader (HttpHeaders.CONTENT_TYPE);
+      final Header aContentEncoding = aHead.getFirstHeader (HttpHeaders.CONTENT_ENCODING);
+      ret.setEntity (new ByteArrayEntity (aBody,
+                                          aContentType == null ? null : ContentType.parseLenient (aContentType.getValue ()),
+                                          aContentEncoding == null ? null : aContentEncoding.getValue ()));
+    }
+    return ret;
+  }
+
+  /**
+   * Execute the provided request without any special context. The response handler is invoked
+   * when the response was received completely.
+   *
+   * @param aRequest
+   *        The request to be executed. May not be <code>null</code>.
+   * @param aResponseHandler
+   *        The response handler to be executed. May not be <code>null</code>.
+   * @return The future with the evaluated response of the response handler. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         If this manager was already closed!
+   * @param <T>
+   *        return type
+   */
+  @NonNull
+  public <T> CompletableFuture <T> execute (@NonNull final ClassicHttpRequest aRequest,
+                                            @NonNull final HttpClientResponseHandler <? extends T> aResponseHandler)
+  {
+    return execute (aRequest, HttpClientContext.create (), aResponseHandler);
+  }
+
+  /**
+   * Execute the provided request with an optional special context. The response handler is
+   * invoked when the response was received completely.
+   *
+   * @param aRequest
+   *        The request to be executed. May not be <code>null</code>.
+   * @param aHttpClientContext
+   *        The optional client context to be used. May be <code>null</code>.
+   * @param aResponseHandler
+   *        The response handler to be executed. May not be <code>null</code>.
+   * @return The future with the evaluated response of the response handler. Never
+   *         <code>null</code>. If the request or the response handler fail, the future is completed
+   *         exceptionally.
+   * @throws IllegalStateException
+   *         If this manager was already closed!
+   * @param <T>
+   *        return type
+   */
+  @NonNull
+  public <T> CompletableFuture <T> execute (@NonNull final ClassicHttpRequest aRequest,
+                                            @Nullable final HttpContext aHttpClientContext,
+                                            @NonNull final HttpClientResponseHandler <? extends T> aResponseHandler)
+  {
+    ValueEnforcer.notNull (aRequest, "Request");
+    ValueEnforcer.notNull (aResponseHandler, "ResponseHandler");
+    checkIfClosed ();
+
+    final CompletableFuture <T> ret = new CompletableFuture <> ();
+    final Executor aHandlerExecutor = m_aResponseHandlerExecutor;
+    _execute (aRequest,
+              aHttpClientContext,
+              new BasicResponseConsumer <> (new BasicAsyncEntityConsumer ()),
+              ret,
+              new FutureCallback <Message <HttpResponse, byte []>> ()
+              {
+                private void _handle (@NonNull final Message <HttpResponse, byte []> aMessage)
+                {
+                  try
+                  {
+                    final T aResult = aResponseHandler.handleResponse (createClassicResponse (aMessage));
+                    HttpDebugger.afterRequest (aRequest, aResult, null);
+                    ret.complete (aResult);
+                  }
+                  catch (final Exception ex)
+                  {
+                    HttpDebugger.afterRequest (aRequest, null, ex);
+                    ret.completeExceptionally (ex);
+                  }
+                }
+
+                public void completed (final Message <HttpResponse, byte []> aMessage)
+                {
+                  if (aHandlerExecutor != null)
+                  {
+                    try
+                    {
+                      aHandlerExecutor.execute ( () -> _handle (aMessage));
+                    }
+                    catch (final RejectedExecutionException ex)
+                    {
+                      failed (ex);
+                    }
+                  }
+                  else
+                    _handle (aMessage);
+                }
+
+                public void failed (final Exception ex)
+                {
+                  HttpDebugger.afterRequest (aRequest, null, ex);
+                  ret.completeExceptionally (ex);
+                }
+
+                public void cancelled ()
+                {
+                  HttpDebugger.afterRequest (aRequest, null, null);
+                  ret.cancel (false);
+                }
+              });
+    return ret;
+  }
+
+  /**
+   * Execute the provided request with a custom response consumer. In contrast to the other execute
+   * methods, the response body is not collected in memory, but handed to the consumer chunk by
+   * chunk as it is received. The consumer is invoked on the I/O reactor thread.
+   *
+   * @param aRequest
+   *        The request to be executed. May not be <code>null</code>.
+   * @param aHttpClientContext
+   *        The optional client context to be used. May be <code>null</code>.
+   * @param aResponseConsumer
+   *        The response consumer to be used. May not be <code>null</code>.
+   * @return The future with the result of the response consumer. Never <code>null</code>.
+   *         Cancelling the future cancels the message exchange.
+   * @throws IllegalStateException
+   *         If this manager was already closed!
+   * @param <T>
+   *        return type
+   */
+  @NonNull
+  public <T> CompletableFuture <T> executeStreaming (@NonNull final ClassicHttpRequest aRequest,
+                                                     @Nullable final HttpContext aHttpClientContext,
+                                                     @NonNull final AsyncResponseConsumer <T> aResponseConsumer)
+  {
+    ValueEnforcer.notNull (aRequest, "Request");
+    ValueEnforcer.notNull (aResponseConsumer, "ResponseConsumer");
+    checkIfClosed ();
+
+    final CompletableFuture <T> ret = new CompletableFuture <> ();
+    _execute (aRequest, aHttpClientContext, aResponseConsumer, ret, new FutureCallback <T> ()
+    {
+      public void completed (final T aResult)
+      {
+        HttpDebugger.afterRequest (aRequest, aResult, null);
+        ret.complete (aResult);
+      }
+
+      public void failed (final Exception ex)
+      {
+        HttpDebugger.afterRequest (aRequest, null, ex);
+        ret.completeExceptionally (ex);
+      }
+
+      public void cancelled ()
+      {
+        HttpDebugger.afterRequest (aRequest, null, null);
+        ret.cancel (false);
+      }
+    });
+    return ret;
+  }
+
+  /**
+   * Execute the provided request with a custom entity consumer, that receives the response body
+   * chunk by chunk as it is received.
+   *
+   * @param aRequest
+   *        The request to be executed. May not be <code>null</code>.
+   * @param aHttpClientContext
+   *        The optional client context to be used. May be <code>null</code>.
+   * @param aEntityConsumer
+   *        The entity consumer to be used. May not be <code>null</code>.
+   * @return The future with the response head and the result of the entity consumer. Never
+   *         <code>null</code>. Cancelling the future cancels the message exchange.
+   * @throws IllegalStateException
+   *         If this manager was already closed!
+   * @param <T>
+   *        body type
+   * @see #executeStreaming(ClassicHttpRequest, HttpContext, AsyncResponseConsumer)
+   */
+  @NonNull
+  public <T> CompletableFuture <Message <HttpResponse, T>> executeStreaming (@NonNull final ClassicHttpRequest aRequest,
+                                                                             @Nullable final HttpContext aHttpClientContext,
+                                                                             @NonNull final AsyncEntityConsumer <T> aEntityConsumer)
+  {
+    ValueEnforcer.notNull (aEntityConsumer, "EntityConsumer");
+    return executeStreaming (aRequest, aHttpClientContext, new BasicResponseConsumer <> (aEntityConsumer));
+  }
+
+  private <R> void _execute (@NonNull final ClassicHttpRequest aRequest,
+                             @Nullable final HttpContext aHttpClientContext,
+                             @NonNull final AsyncResponseConsumer <R> aResponseConsumer,
+                             @NonNull final CompletableFuture <?> aResultFuture,
+                             @NonNull final FutureCallback <R> aCallback)
+  {
+    HttpDebugger.beforeRequest (aRequest, aHttpClientContext);
+
+    final AsyncRequestProducer aRequestProducer;
+    try
+    {
+      aRequestProducer = createRequestProducer (aRequest);
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      aCallback.failed (ex);
+      return;
+    }
+
+    final Future <R> aExchange = m_aHttpClient.execute (aRequestProducer,
+                                                        aResponseConsumer,
+                                                        aHttpClientContext,
+                                                        aCallback);
+    // Cancelling the returned future cancels the message exchange
+    aResultFuture.whenComplete ( (x, ex) -> {
+      if (aResultFuture.isCancelled ())
+        aExchange.cancel (true);
+    });
+  }
+
+  private <T> void _executeNext (@NonNull final List <? extends ClassicHttpRequest> aRequests,
+                                 @NonNull final List <CompletableFuture <T>> aFutures,
+                                 @NonNull final AtomicInteger aNextIndex,
+                                 @NonNull final HttpClientResponseHandler <? extends T> aResponseHandler)
+  {
+    // Requests that complete synchronously (e.g. because the manager is closed) continue in this
+    // loop instead of recursing, so that large batches cannot overflow the stack
+    while (true)
+    {
+      final int nIndex = aNextIndex.getAndIncrement ();
+      if (nIndex >= aRequests.size ())
+        return;
+
+      final CompletableFuture <T> aTarget = aFutures.get (nIndex);
+      CompletableFuture <T> aFuture;
+      try
+      {
+        aFuture = execute (aRequests.get (nIndex), aResponseHandler);
+      }
+      catch (final RuntimeException ex)
+      {
+        aFuture = CompletableFuture.failedFuture (ex);
+      }
+
+      // Whoever comes second - this thread or the completion - starts the next request
+      final AtomicBoolean aFirst = new AtomicBoolean (true);
+      aFuture.whenComplete ( (aResult, ex) -> {
+        if (ex != null)
+          aTarget.completeExceptionally (ex);
+        else
+          aTarget.complete (aResult);
+        if (!aFirst.compareAndSet (true, false))
+        {
+          // Completed asynchronously - start the next request, as one slot became free
+          _executeNext (aRequests, aFutures, aNextIndex, aResponseHandler);
+        }
+      });
+      if (aFirst.compareAndSet (true, false))
+      {
+        // Not yet completed - the completion starts the next request
+        return;
+      }
+    }
+  }
+
+  /**
+   * Execute many requests at once, but not more than the provided number of requests in parallel.
+   * Each request uses its own client context.
+   *
+   * @param aRequests
+   *        The requests to be executed. May not be <code>null</code> but may be empty.
+   * @param aResponseHandler
+   *        The response handler to be used for all requests. Must be thread-safe. May not be
+   *        <code>null</code>.
+   * @param nMaxConcurrency
+   *        The maximum number of requests in flight. Must be &gt; 0.
+   * @return The future with the results of the response handler in the order of the requests.
+   *         Never <code>null</code>. It completes, after all requests were completed. If at least
+   *         one request failed, the future is completed exceptionally.
+   * @throws IllegalStateException
+   *         If this manager was already closed!
+   * @param <T>
+   *        return type
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public <T> CompletableFuture <ICommonsList <T>> executeAll (@NonNull final Collection <? extends ClassicHttpRequest> aRequests,
+                                                              @NonNull final HttpClientResponseHandler <? extends T> aResponseHandler,
+                                                              @Nonnegative final int nMaxConcurrency)
+  {
+    ValueEnforcer.notNull (aRequests, "Requests");
+    ValueEnforcer.notNull (aResponseHandler, "ResponseHandler");
+    ValueEnforcer.isGT0 (nMaxConcurrency, "MaxConcurrency");
+    checkIfClosed ();
+
+    final ICommonsList <ClassicHttpRequest> aRequestList = new CommonsArrayList <> (aRequests);
+    final ICommonsList <CompletableFuture <T>> aFutures = new CommonsArrayList <> (aRequestList.size ());
+    for (int i = 0; i < aRequestList.size (); ++i)
+      aFutures.add (new CompletableFuture <> ());
+
+    final AtomicInteger aNextIndex = new AtomicInteger (0);
+    final int nInitial = Math.min (nMaxConcurrency, aRequestList.size ());
+    for (int i = 0; i < nInitial; ++i)
+      _executeNext (aRequestList, aFutures, aNextIndex, aResponseHandler);
+
+    return CompletableFuture.allOf (aFutures.toArray (new CompletableFuture <?> [0]))
+                            .thenApply (x -> aFutures.getAllMapped (CompletableFuture::join));
+  }
+
+  @NonNull
+  public static HttpAsyncClientManager create (@NonNull final HttpClientSettings aHttpClientSettings)
+  {
+    return new HttpAsyncClientManager (new HttpClientFactory (aHttpClientSettings));
+  }
+}
@@ -26,8 +26,14 @@ import java.security.cert.CertPathBuilder;
 import java.security.cert.PKIXBuilderParameters;
 import java.security.cert.PKIXRevocationChecker;
 import java.security.cert.X509CertSelector;
+import java.time.Duration;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import javax.net.ssl.CertPathTrustManagerParameters;
@@ -77,6 +83,8 @@ import org.apache.hc.core5.http.io.SocketConfig;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.ssl.SSLBufferMode;
 import org.apache.hc.core5.ssl.SSLContexts;
@@ -237,9 +245,294 @@ public class HttpClientFactory implements IHttpClientProvider
     }
   }
 
+  /**
+   * Implements {@link ConnPoolControl} by delegating to the pool, because the HttpClientBuilder only
+   * starts the idle connection evictor for connection managers implementing it.
+   */
+  private static final class MyMetricsClientConnectionMgr implements
+                                                          HttpClientConnectionManager,
+                                                          ConnPoolControl <HttpRoute>
+  {
+    private final HttpClientConnectionManager m_aConnMgr;
+    private final ConnPoolControl <HttpRoute> m_aPool;
+    private final HttpClientPoolMetrics m_aMetrics;
+
+    private MyMetricsClientConnectionMgr (final HttpClientConnectionManager aConnMgr,
+                                          final ConnPoolControl <HttpRoute> aPool,
+                                          final HttpClientPoolMetrics aMetrics)
+    {
+      m_aConnMgr = aConnMgr;
+      m_aPool = aPool;
+      m_aMetrics = aMetrics;
+    }
+
+    public void close (final CloseMode closeMode)
+    {
+      m_aConnMgr.close (closeMode);
+    }
+
+    public void close () throws IOException
+    {
+      m_aConnMgr.close ();
+    }
+
+    public LeaseRequest lease (final String id, final HttpRoute route, final Timeout requestTimeout, final Object state)
+    {
+      final long nStartNanos = System.nanoTime ();
+      m_aMetrics.onLeaseRequested (route);
+      final LeaseRequest aLeaseRequest = m_aConnMgr.lease (id, route, requestTimeout, state);
+      // Make sure the lease is only reported once
+      final AtomicBoolean aDone = new AtomicBoolean (false);
+      return new LeaseRequest ()
+      {
+        public ConnectionEndpoint get (final Timeout timeout) throws InterruptedException,
+                                                               ExecutionException,
+                                                               TimeoutException
+        {
+          try
+          {
+            final ConnectionEndpoint ret = aLeaseRequest.get (timeout);
+            if (aDone.compareAndSet (false, true))
+              m_aMetrics.onLeased (route, ret, System.nanoTime () - nStartNanos);
+            return ret;
+          }
+          catch (final InterruptedException | ExecutionException | TimeoutException | RuntimeException ex)
+          {
+            if (aDone.compareAndSet (false, true))
+              m_aMetrics.onLeaseFailed (route, false);
+            throw ex;
+          }
+        }
+
+        public boolean cancel ()
+        {
+          final boolean ret = aLeaseRequest.cancel ();
+          if (ret && aDone.compareAndSet (false, true))
+            m_aMetrics.onLeaseFailed (route, true);
+          return ret;
+        }
+      };
+    }
+
+    public void connect (final ConnectionEndpoint endpoint, final TimeValue connectTimeout, final HttpContext context)
+                                                                                                                       throws IOException
+    {
+      m_aConnMgr.connect (endpoint, connectTimeout, context);
+    }
+
+    public void upgrade (final ConnectionEndpoint endpoint, final HttpContext context) throws IOException
+    {
+      m_aConnMgr.upgrade (endpoint, context);
+    }
+
+    public void release (final ConnectionEndpoint endpoint, final Object newState, final TimeValue validDuration)
+    {
+      m_aMetrics.onReleased (endpoint);
+      m_aConnMgr.release (endpoint, newState, validDuration);
+    }
+
+    public void closeIdle (final TimeValue idleTime)
+    {
+      m_aPool.closeIdle (idleTime);
+    }
+
+    public void closeExpired ()
+    {
+      m_aPool.closeExpired ();
+    }
+
+    public Set <HttpRoute> getRoutes ()
+    {
+      return m_aPool.getRoutes ();
+    }
+
+    public int getMaxTotal ()
+    {
+      return m_aPool.getMaxTotal ();
+    }
+
+    public void setMaxTotal (final int max)
+    {
+      m_aPool.setMaxTotal (max);
+    }
+
+    public int getDefaultMaxPerRoute ()
+    {
+      return m_aPool.getDefaultMaxPerRoute ();
+    }
+
+    public void setDefaultMaxPerRoute (final int max)
+    {
+      m_aPool.setDefaultMaxPerRoute (max);
+    }
+
+    public int getMaxPerRoute (final HttpRoute route)
+    {
+      return m_aPool.getMaxPerRoute (route);
+    }
+
+    public void setMaxPerRoute (final HttpRoute route, final int max)
+    {
+      m_aPool.setMaxPerRoute (route, max);
+    }
+
+    public PoolStats getTotalStats ()
+    {
+      return m_aPool.getTotalStats ();
+    }
+
+    public PoolStats getStats (final HttpRoute route)
+    {
+      return m_aPool.getStats (route);
+    }
+  }
+
+  /**
+   * Implements {@link ConnPoolControl} by delegating to the pool, because the
+   * HttpAsyncClientBuilder only starts the idle connection evictor for connection managers
+   * implementing it.
+   */
+  private static final class MyMetricsAsyncClientConnectionMgr implements
+                                                               AsyncClientConnectionManager,
+                                                               ConnPoolControl <HttpRoute>
+  {
+    private final AsyncClientConnectionManager m_aConnMgr;
+    private final ConnPoolControl <HttpRoute> m_aPool;
+    private final HttpClientPoolMetrics m_aMetrics;
+
+    private MyMetricsAsyncClientConnectionMgr (final AsyncClientConnectionManager aConnMgr,
+                                               final ConnPoolControl <HttpRoute> aPool,
+                                               final HttpClientPoolMetrics aMetrics)
+    {
+      m_aConnMgr = aConnMgr;
+      m_aPool = aPool;
+      m_aMetrics = aMetrics;
+    }
+
+    public void close (final CloseMode closeMode)
+    {
+      m_aConnMgr.close (closeMode);
+    }
+
+    public void close () throws IOException
+    {
+      m_aConnMgr.close ();
+    }
+
+    public Future <AsyncConnectionEndpoint> lease (final String id,
+                                                   final HttpRoute route,
+                                                   final Object state,
+                                                   final Timeout requestTimeout,
+                                                   final FutureCallback <AsyncConnectionEndpoint> callback)
+    {
+      final long nStartNanos = System.nanoTime ();
+      m_aMetrics.onLeaseRequested (route);
+      return m_aConnMgr.lease (id, route, state, requestTimeout, new FutureCallback <AsyncConnectionEndpoint> ()
+      {
+        public void completed (final AsyncConnectionEndpoint result)
+        {
+          m_aMetrics.onLeased (route, result, System.nanoTime () - nStartNanos);
+          if (callback != null)
+            callback.completed (result);
+        }
+
+        public void failed (final Exception ex)
+        {
+          m_aMetrics.onLeaseFailed (route, false);
+          if (callback != null)
+            callback.failed (ex);
+        }
+
+        public void cancelled ()
+        {
+          m_aMetrics.onLeaseFailed (route, true);
+          if (callback != null)
+            callback.cancelled ();
+        }
+      });
+    }
+
+    public void release (final AsyncConnectionEndpoint endpoint, final Object newState, final TimeValue validDuration)
+    {
+      m_aMetrics.onReleased (endpoint);
+      m_aConnMgr.release (endpoint, newState, validDuration);
+    }
+
+    public void closeIdle (final TimeValue idleTime)
+    {
+      m_aPool.closeIdle (idleTime);
+    }
+
+    public void closeExpired ()
+    {
+      m_aPool.closeExpired ();
+    }
+
+    public Set <HttpRoute> getRoutes ()
+    {
+      return m_aPool.getRoutes ();
+    }
+
+    public int getMaxTotal ()
+    {
+      return m_aPool.getMaxTotal ();
+    }
+
+    public void setMaxTotal (final int max)
+    {
+      m_aPool.setMaxTotal (max);
+    }
+
+    public int getDefaultMaxPerRoute ()
+    {
+      return m_aPool.getDefaultMaxPerRoute ();
+    }
+
+    public void setDefaultMaxPerRoute (final int max)
+    {
+      m_aPool.setDefaultMaxPerRoute (max);
+    }
+
+    public int getMaxPerRoute (final HttpRoute route)
+    {
+      return m_aPool.getMaxPerRoute (route);
+    }
+
+    public void setMaxPerRoute (final HttpRoute route, final int max)
+    {
+      m_aPool.setMaxPerRoute (route, max);
+    }
+
+    public PoolStats getTotalStats ()
+    {
+      return m_aPool.getTotalStats ();
+    }
+
+    public PoolStats getStats (final HttpRoute route)
+    {
+      return m_aPool.getStats (route);
+    }
+
+    public Future <AsyncConnectionEndpoint> connect (final AsyncConnectionEndpoint endpoint,
+                                                     final ConnectionInitiator connectionInitiator,
+                                                     final Timeout connectTimeout,
+                                                     final Object attachment,
+                                                     final HttpContext context,
+                                                     final FutureCallback <AsyncConnectionEndpoint> callback)
+    {
+      return m_aConnMgr.connect (endpoint, connectionInitiator, connectTimeout, attachment, context, callback);
+    }
+
+    public void upgrade (final AsyncConnectionEndpoint endpoint, final Object attachment, final HttpContext context)
+    {
+      m_aConnMgr.upgrade (endpoint, attachment, context);
+    }
+  }
+
   private static final Logger LOGGER = LoggerFactory.getLogger (HttpClientFactory.class);
 
   private final HttpClientSettings m_aSettings;
+  private HttpClientPoolMetrics m_aPoolMetrics;
 
   /**
    * Default constructor.
@@ -272,6 +565,37 @@ public class HttpClientFactory implements IHttpClientProvider
     return m_aSettings;
   }
 
+  /**
+   * @return The metrics of the connection pool that was created last by this factory. Only present
+   *         if {@link IHttpClientSettings#isConnectionPoolMetricsEnabled()} is enabled and a
+   *         connection manager was already created. May be <code>null</code>.
+   * @since 11.4.3
+   */
+  @Nullable
+  public final HttpClientPoolMetrics getPoolMetrics ()
+  {
+    return m_aPoolMetrics;
+  }
+
+  /**
+   * Apply the pool sizing of the settings to the provided connection pool.
+   *
+   * @param aPool
+   *        The pool to be configured. May not be <code>null</code>.
+   * @since 11.4.3
+   */
+  protected void configureConnectionPool (@NonNull final ConnPoolControl <HttpRoute> aPool)
+  {
+    aPool.setMaxTotal (m_aSettings.getMaxConnectionsTotal ());
+    aPool.setDefaultMaxPerRoute (m_aSettings.getMaxConnectionsPerRoute ());
+    for (final Map.Entry <HttpHost, Integer> aEntry : m_aSettings.getAllMaxConnectionsPerRouteOverrides ().entrySet ())
+    {
+      final HttpHost aTargetHost = aEntry.getKey ();
+      final boolean bSecure = URIScheme.HTTPS.same (aTargetHost.getSchemeName ());
+      aPool.setMaxPerRoute (new HttpRoute (aTargetHost, null, bSecure), aEntry.getValue ().intValue ());
+    }
+  }
+
   /**
    * Create the scheme to port resolver.
    *
@@ -527,6 +851,10 @@ public class HttpClientFactory implements IHttpClientProvider
   @Nullable
   public DnsResolver createDNSResolver ()
   {
+    final DnsResolver aCustomResolver = m_aSettings.getCustomDNSResolver ();
+    if (aCustomResolver != null)
+      return aCustomResolver;
+
     // If caching is active, use the default System resolver
     return m_aSettings.isUseDNSClientCache () ? SystemDefaultDnsResolver.INSTANCE : NonCachingDnsResolver.INSTANCE;
   }
@@ -541,8 +869,7 @@ public class HttpClientFactory implements IHttpClientProvider
                                                                                                  .setDnsResolver (aDNSResolver)
                                                                                                  .setDefaultConnectionConfig (aConnectionConfig)
                                                                                                  .build ();
-    aConnMgr.setDefaultMaxPerRoute (100);
-    aConnMgr.setMaxTotal (200);
+    configureConnectionPool (aConnMgr);
 
     final SocketConfig aSocketConfig = createSocketConfig ();
     aConnMgr.setDefaultSocketConfig (aSocketConfig);
@@ -559,6 +886,11 @@ public class HttpClientFactory implements IHttpClientProvider
       ret = aConnMgr;
     }
 
+    if (m_aSettings.isConnectionPoolMetricsEnabled ())
+    {
+      m_aPoolMetrics = new HttpClientPoolMetrics (aConnMgr);
+      return new MyMetricsClientConnectionMgr (ret, aConnMgr, m_aPoolMetrics);
+    }
     return ret;
   }
 
@@ -572,8 +904,7 @@ public class HttpClientFactory implements IHttpClientProvider
                                                                                                    .setDnsResolver (aDNSResolver)
                                                                                                    .setDefaultConnectionConfig (aConnectionConfig)
                                                                                                    .build ();
-    aConnMgr.setDefaultMaxPerRoute (100);
-    aConnMgr.setMaxTotal (200);
+    configureConnectionPool (aConnMgr);
 
     final AsyncClientConnectionManager ret;
     if (HttpDebugger.isEnabled ())
@@ -587,6 +918,11 @@ public class HttpClientFactory implements IHttpClientProvider
       ret = aConnMgr;
     }
 
+    if (m_aSettings.isConnectionPoolMetricsEnabled ())
+    {
+      m_aPoolMetrics = new HttpClientPoolMetrics (aConnMgr);
+      return new MyMetricsAsyncClientConnectionMgr (ret, aConnMgr, m_aPoolMetrics);
+    }
     return ret;
   }
 
@@ -602,7 +938,14 @@ public class HttpClientFactory implements IHttpClientProvider
 
   public ConnectionConfig.@NonNull Builder createConnectionConfigBuilder ()
   {
-    return ConnectionConfig.custom ().setConnectTimeout (m_aSettings.getConnectTimeout ());
+    final ConnectionConfig.Builder ret = ConnectionConfig.custom ().setConnectTimeout (m_aSettings.getConnectTimeout ());
+    final Duration aTimeToLive = m_aSettings.getConnectionTimeToLive ();
+    if (aTimeToLive != null)
+      ret.setTimeToLive (TimeValue.ofMilliseconds (aTimeToLive.toMillis ()));
+    final Duration aValidateAfterInactivity = m_aSettings.getValidateAfterInactivity ();
+    if (aValidateAfterInactivity != null)
+      ret.setValidateAfterInactivity (TimeValue.ofMilliseconds (aValidateAfterInactivity.toMillis ()));
+    return ret;
   }
 
   @NonNull
@@ -800,6 +1143,11 @@ public class HttpClientFactory implements IHttpClientProvider
     if (m_aSettings.hasUserAgent ())
       ret.setUserAgent (m_aSettings.getUserAgent ());
 
+    // Background eviction of idle connections (if any)
+    final Duration aIdleEvictionTime = m_aSettings.getIdleConnectionEvictionTime ();
+    if (aIdleEvictionTime != null)
+      ret.evictExpiredConnections ().evictIdleConnections (TimeValue.ofMilliseconds (aIdleEvictionTime.toMillis ()));
+
     return ret;
   }
 
@@ -846,5 +1194,11 @@ public class HttpClientFactory implements IHttpClientProvider
     // Set user agent (if any)
     if (m_aSettings.hasUserAgent ())
       aBuilder.setUserAgent (m_aSettings.getUserAgent ());
+
+    // Background eviction of idle connections (if any)
+    final Duration aIdleEvictionTime = m_aSettings.getIdleConnectionEvictionTime ();
+    if (aIdleEvictionTime != null)
+      aBuilder.evictExpiredConnections ()
+              .evictIdleConnections (TimeValue.ofMilliseconds (aIdleEvictionTime.toMillis ()));
   }
 }
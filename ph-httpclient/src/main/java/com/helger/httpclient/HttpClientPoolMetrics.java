@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.httpclient;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.statistics.api.IMutableStatisticsHandlerKeyedSize;
+import com.helger.statistics.api.IMutableStatisticsHandlerKeyedTimer;
+import com.helger.statistics.impl.StatisticsManager;
+
+/**
+ * Metrics of a single HttpClient connection pool. The current pool state (leased, available and
+ * pending connections) is read from the pool on demand. Additionally every connection lease is
+ * recorded: the lease wait time and the number of leased and pending connections of the route are
+ * registered with the {@link StatisticsManager}, keyed by the target host of the route. These
+ * numbers are tracked with counters, so that the pool lock is not needed for every lease.<br>
+ * Instances are created by {@link HttpClientFactory} if
+ * {@link IHttpClientSettings#isConnectionPoolMetricsEnabled()} is <code>true</code>.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public class HttpClientPoolMetrics
+{
+  private static final IMutableStatisticsHandlerKeyedTimer STATS_LEASE_WAIT = StatisticsManager.getKeyedTimerHandler (HttpClientPoolMetrics.class.getName () +
+                                                                                                                      "$leasewait");
+  private static final IMutableStatisticsHandlerKeyedSize STATS_LEASED = StatisticsManager.getKeyedSizeHandler (HttpClientPoolMetrics.class.getName () +
+                                                                                                                "$leased");
+  private static final IMutableStatisticsHandlerKeyedSize STATS_PENDING = StatisticsManager.getKeyedSizeHandler (HttpClientPoolMetrics.class.getName () +
+                                                                                                                 "$pending");
+
+  private static final class RouteCounter
+  {
+    private final AtomicInteger m_aLeased = new AtomicInteger (0);
+    private final AtomicInteger m_aPending = new AtomicInteger (0);
+  }
+
+  private final ConnPoolControl <HttpRoute> m_aPool;
+  private final ConcurrentHashMap <String, RouteCounter> m_aRouteCounters = new ConcurrentHashMap <> ();
+  // Leased endpoint to the counter of its route
+  private final ConcurrentHashMap <Object, RouteCounter> m_aLeasedEndpoints = new ConcurrentHashMap <> ();
+  private final LongAdder m_aLeaseCount = new LongAdder ();
+  private final LongAdder m_aLeaseFailedCount = new LongAdder ();
+  private final LongAdder m_aTotalLeaseWaitNanos = new LongAdder ();
+  private final AtomicLong m_aMaxLeaseWaitNanos = new AtomicLong (0);
+
+  public HttpClientPoolMetrics (@NonNull final ConnPoolControl <HttpRoute> aPool)
+  {
+    ValueEnforcer.notNull (aPool, "Pool");
+    m_aPool = aPool;
+  }
+
+  /**
+   * Get the statistics key for the provided route.
+   *
+   * @param aRoute
+   *        The route to use. May not be <code>null</code>.
+   * @return The target host of the route as URI string. Never <code>null</code>.
+   */
+  @NonNull
+  public static String getStatisticsKey (@NonNull final HttpRoute aRoute)
+  {
+    return aRoute.getTargetHost ().toURI ();
+  }
+
+  /**
+   * @return The statistics of the whole pool. Never <code>null</code>.
+   */
+  @NonNull
+  public PoolStats getTotalStats ()
+  {
+    return m_aPool.getTotalStats ();
+  }
+
+  /**
+   * @param aRoute
+   *        The route to query. May not be <code>null</code>.
+   * @return The statistics of a single route. Never <code>null</code>.
+   */
+  @NonNull
+  public PoolStats getRouteStats (@NonNull final HttpRoute aRoute)
+  {
+    ValueEnforcer.notNull (aRoute, "Route");
+    return m_aPool.getStats (aRoute);
+  }
+
+  /**
+   * @return The statistics of all routes known to the pool. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <HttpRoute, PoolStats> getAllRouteStats ()
+  {
+    final ICommonsOrderedMap <HttpRoute, PoolStats> ret = new CommonsLinkedHashMap <> ();
+    for (final HttpRoute aRoute : m_aPool.getRoutes ())
+      ret.put (aRoute, m_aPool.getStats (aRoute));
+    return ret;
+  }
+
+  /**
+   * @return The number of successful connection leases.
+   */
+  @Nonnegative
+  public long getLeaseCount ()
+  {
+    return m_aLeaseCount.sum ();
+  }
+
+  /**
+   * @return The number of connection leases that failed or timed out.
+   */
+  @Nonnegative
+  public long getLeaseFailedCount ()
+  {
+    return m_aLeaseFailedCount.sum ();
+  }
+
+  /**
+   * @return The average time in milliseconds that was needed to lease a connection from the pool.
+   */
+  @Nonnegative
+  public long getAverageLeaseWaitMillis ()
+  {
+    final long nCount = m_aLeaseCount.sum ();
+    return nCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis (m_aTotalLeaseWaitNanos.sum () / nCount);
+  }
+
+  /**
+   * @return The maximum time in milliseconds that was needed to lease a connection from the pool.
+   */
+  @Nonnegative
+  public long getMaxLeaseWaitMillis ()
+  {
+    return TimeUnit.NANOSECONDS.toMillis (m_aMaxLeaseWaitNanos.get ());
+  }
+
+  @NonNull
+  private RouteCounter _getRouteCounter (@NonNull final String sKey)
+  {
+    return m_aRouteCounters.computeIfAbsent (sKey, k -> new RouteCounter ());
+  }
+
+  /**
+   * Called before a connection is requested from the pool.
+   *
+   * @param aRoute
+   *        The requested route. May not be <code>null</code>.
+   */
+  protected void onLeaseRequested (@NonNull final HttpRoute aRoute)
+  {
+    final String sKey = getStatisticsKey (aRoute);
+    STATS_PENDING.addSize (sKey, _getRouteCounter (sKey).m_aPending.incrementAndGet ());
+  }
+
+  /**
+   * Called after a connection was leased from the pool.
+   *
+   * @param aRoute
+   *        The route of the connection. May not be <code>null</code>.
+   * @param aEndpoint
+   *        The leased endpoint. Must be passed to {@link #onReleased(Object)} later on. May not be
+   *        <code>null</code>.
+   * @param nWaitNanos
+   *        The nano seconds between the lease request and the successful lease.
+   */
+  protected void onLeased (@NonNull final HttpRoute aRoute, @NonNull final Object aEndpoint, final long nWaitNanos)
+  {
+    m_aLeaseCount.increment ();
+    m_aTotalLeaseWaitNanos.add (nWaitNanos);
+    m_aMaxLeaseWaitNanos.accumulateAndGet (nWaitNanos, Math::max);
+
+    final String sKey = getStatisticsKey (aRoute);
+    STATS_LEASE_WAIT.addTime (sKey, TimeUnit.NANOSECONDS.toMillis (nWaitNanos));
+
+    final RouteCounter aCounter = _getRouteCounter (sKey);
+    aCounter.m_aPending.decrementAndGet ();
+    m_aLeasedEndpoints.put (aEndpoint, aCounter);
+    STATS_LEASED.addSize (sKey, aCounter.m_aLeased.incrementAndGet ());
+  }
+
+  /**
+   * Called if leasing a connection from the pool failed, timed out or was cancelled.
+   *
+   * @param aRoute
+   *        The requested route. May not be <code>null</code>.
+   * @param bCancelled
+   *        <code>true</code> if the lease was cancelled, <code>false</code> if it failed.
+   */
+  protected void onLeaseFailed (@NonNull final HttpRoute aRoute, final boolean bCancelled)
+  {
+    if (!bCancelled)
+      m_aLeaseFailedCount.increment ();
+    _getRouteCounter (getStatisticsKey (aRoute)).m_aPending.decrementAndGet ();
+  }
+
+  /**
+   * Called when a connection is returned to the pool.
+   *
+   * @param aEndpoint
+   *        The endpoint previously passed to {@link #onLeased(HttpRoute, Object, long)}. May be
+   *        <code>null</code>.
+   */
+  protected void onReleased (@Nullable final Object aEndpoint)
+  {
+    if (aEndpoint != null)
+    {
+      final RouteCounter aCounter = m_aLeasedEndpoints.remove (aEndpoint);
+      if (aCounter != null)
+        aCounter.m_aLeased.decrementAndGet ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("TotalStats", getTotalStats ())
+                                       .append ("LeaseCount", getLeaseCount ())
+                                       .append ("LeaseFailedCount", getLeaseFailedCount ())
+                                       .append ("AverageLeaseWaitMillis", getAverageLeaseWaitMillis ())
+                                       .append ("MaxLeaseWaitMillis", getMaxLeaseWaitMillis ())
+                                       .getToString ();
+  }
+}
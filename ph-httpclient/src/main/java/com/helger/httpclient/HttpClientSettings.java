@@ -23,6 +23,9 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.jspecify.annotations.NonNull;
@@ -35,7 +38,10 @@ import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.CGlobal;
 import com.helger.base.clone.ICloneable;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.EChange;
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.http.security.HostnameVerifierVerifyAll;
 import com.helger.http.security.TrustManagerTrustAll;
 import com.helger.http.tls.ETLSVersion;
@@ -76,9 +82,16 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
   public static final ERevocationCheckMode DEFAULT_REVOCATION_CHECK_MODE = ERevocationCheckMode.NONE;
   @Deprecated (forRemoval = true, since = "11.4.0")
   public static final boolean DEFAULT_REVOCATION_CHECK_SOFT_FAIL = false;
+  /** @since 11.4.3 */
+  public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 200;
+  /** @since 11.4.3 */
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 100;
+  /** @since 11.4.3 */
+  public static final boolean DEFAULT_CONNECTION_POOL_METRICS_ENABLED = false;
 
   private final boolean m_bUseSystemProperties = DEFAULT_USE_SYSTEM_PROPERTIES;
   private boolean m_bUseDNSClientCache = DEFAULT_USE_DNS_CACHE;
+  private DnsResolver m_aCustomDNSResolver;
 
   private SSLContext m_aSSLContext;
   private ITLSConfigurationMode m_aTLSConfigurationMode;
@@ -106,6 +119,14 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
   private ERevocationCheckMode m_eRevocationCheckMode = DEFAULT_REVOCATION_CHECK_MODE;
   private boolean m_bRevocationCheckSoftFail = CertificateRevocationCheckerDefaults.isAllowSoftFail ();
 
+  private int m_nMaxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+  private int m_nMaxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+  private final ICommonsOrderedMap <HttpHost, Integer> m_aMaxConnectionsPerRouteOverrides = new CommonsLinkedHashMap <> ();
+  private Duration m_aConnectionTimeToLive;
+  private Duration m_aValidateAfterInactivity;
+  private Duration m_aIdleConnectionEvictionTime;
+  private boolean m_bConnectionPoolMetricsEnabled = DEFAULT_CONNECTION_POOL_METRICS_ENABLED;
+
   /**
    * Default constructor.
    */
@@ -135,6 +156,7 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
   {
     ValueEnforcer.notNull (aSource, "Source");
     setUseDNSClientCache (aSource.isUseDNSClientCache ());
+    setCustomDNSResolver (aSource.getCustomDNSResolver ());
     setSSLContext (aSource.getSSLContext ());
     setTLSConfigurationMode (aSource.getTLSConfigurationMode ());
     setHostnameVerifier (aSource.getHostnameVerifier ());
@@ -153,6 +175,13 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
     setProtocolUpgradeEnabled (aSource.isProtocolUpgradeEnabled ());
     setRevocationCheckMode (aSource.getRevocationCheckMode ());
     setRevocationCheckSoftFail (aSource.isRevocationCheckSoftFail ());
+    setMaxConnectionsTotal (aSource.getMaxConnectionsTotal ());
+    setMaxConnectionsPerRoute (aSource.getMaxConnectionsPerRoute ());
+    m_aMaxConnectionsPerRouteOverrides.setAll (aSource.getAllMaxConnectionsPerRouteOverrides ());
+    setConnectionTimeToLive (aSource.getConnectionTimeToLive ());
+    setValidateAfterInactivity (aSource.getValidateAfterInactivity ());
+    setIdleConnectionEvictionTime (aSource.getIdleConnectionEvictionTime ());
+    setConnectionPoolMetricsEnabled (aSource.isConnectionPoolMetricsEnabled ());
     return this;
   }
 
@@ -179,6 +208,28 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
     return this;
   }
 
+  @Nullable
+  public final DnsResolver getCustomDNSResolver ()
+  {
+    return m_aCustomDNSResolver;
+  }
+
+  /**
+   * Set a custom DNS resolver. If set, it takes precedence over the "use DNS client cache" setting.
+   * As DNS resolvers usually hold a cache, the same instance should be shared between settings.
+   *
+   * @param aCustomDNSResolver
+   *        The DNS resolver to use, e.g. a {@link CachingDnsResolver}. May be <code>null</code>.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setCustomDNSResolver (@Nullable final DnsResolver aCustomDNSResolver)
+  {
+    m_aCustomDNSResolver = aCustomDNSResolver;
+    return this;
+  }
+
   /**
    * Create a custom SSLContext to use for the SSL Socket factory.
    *
@@ -555,6 +606,201 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
     return this;
   }
 
+  @Nonnegative
+  public final int getMaxConnectionsTotal ()
+  {
+    return m_nMaxConnectionsTotal;
+  }
+
+  /**
+   * Set the maximum number of connections in the connection pool. Defaults to
+   * {@link #DEFAULT_MAX_CONNECTIONS_TOTAL}.
+   *
+   * @param nMaxConnectionsTotal
+   *        The maximum number of connections. Must be &gt; 0.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setMaxConnectionsTotal (@Nonnegative final int nMaxConnectionsTotal)
+  {
+    ValueEnforcer.isGT0 (nMaxConnectionsTotal, "MaxConnectionsTotal");
+    m_nMaxConnectionsTotal = nMaxConnectionsTotal;
+    return this;
+  }
+
+  @Nonnegative
+  public final int getMaxConnectionsPerRoute ()
+  {
+    return m_nMaxConnectionsPerRoute;
+  }
+
+  /**
+   * Set the default maximum number of connections per route. Defaults to
+   * {@link #DEFAULT_MAX_CONNECTIONS_PER_ROUTE}.
+   *
+   * @param nMaxConnectionsPerRoute
+   *        The maximum number of connections per route. Must be &gt; 0.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setMaxConnectionsPerRoute (@Nonnegative final int nMaxConnectionsPerRoute)
+  {
+    ValueEnforcer.isGT0 (nMaxConnectionsPerRoute, "MaxConnectionsPerRoute");
+    m_nMaxConnectionsPerRoute = nMaxConnectionsPerRoute;
+    return this;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public final ICommonsOrderedMap <HttpHost, Integer> getAllMaxConnectionsPerRouteOverrides ()
+  {
+    return m_aMaxConnectionsPerRouteOverrides.getClone ();
+  }
+
+  /**
+   * Get the target host with an explicit port, as used in the connection pool routes.
+   *
+   * @param aTargetHost
+   *        The target host. May not be <code>null</code>.
+   * @return The target host with the default port of the scheme, if no port was present.
+   */
+  @NonNull
+  static HttpHost getWithExplicitPort (@NonNull final HttpHost aTargetHost)
+  {
+    if (aTargetHost.getPort () >= 0)
+      return aTargetHost;
+    final boolean bHttps = URIScheme.HTTPS.same (aTargetHost.getSchemeName ());
+    return new HttpHost (aTargetHost.getSchemeName (), aTargetHost.getHostName (), bHttps ? 443 : 80);
+  }
+
+  /**
+   * Set the maximum number of connections for a specific target host, overriding
+   * {@link #getMaxConnectionsPerRoute()}. Only direct routes (without a proxy) are considered.
+   *
+   * @param aTargetHost
+   *        The target host (scheme, host name and port). If no port is present, the default port of
+   *        the scheme is used. May not be <code>null</code>.
+   * @param nMaxConnections
+   *        The maximum number of connections for this route. Must be &gt; 0.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setMaxConnectionsForRoute (@NonNull final HttpHost aTargetHost,
+                                                             @Nonnegative final int nMaxConnections)
+  {
+    ValueEnforcer.notNull (aTargetHost, "TargetHost");
+    ValueEnforcer.isGT0 (nMaxConnections, "MaxConnections");
+    m_aMaxConnectionsPerRouteOverrides.put (getWithExplicitPort (aTargetHost), Integer.valueOf (nMaxConnections));
+    return this;
+  }
+
+  /**
+   * Remove a per route override previously set with
+   * {@link #setMaxConnectionsForRoute(HttpHost, int)}.
+   *
+   * @param aTargetHost
+   *        The target host to remove. May be <code>null</code>.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public final EChange removeMaxConnectionsForRoute (@Nullable final HttpHost aTargetHost)
+  {
+    if (aTargetHost == null)
+      return EChange.UNCHANGED;
+    return m_aMaxConnectionsPerRouteOverrides.removeObject (getWithExplicitPort (aTargetHost));
+  }
+
+  @Nullable
+  public final Duration getConnectionTimeToLive ()
+  {
+    return m_aConnectionTimeToLive;
+  }
+
+  /**
+   * Set the total time to live of pooled connections. After that time a connection is not reused
+   * anymore.
+   *
+   * @param aConnectionTimeToLive
+   *        The time to live. May be <code>null</code> to use an unlimited time to live.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setConnectionTimeToLive (@Nullable final Duration aConnectionTimeToLive)
+  {
+    m_aConnectionTimeToLive = aConnectionTimeToLive;
+    return this;
+  }
+
+  @Nullable
+  public final Duration getValidateAfterInactivity ()
+  {
+    return m_aValidateAfterInactivity;
+  }
+
+  /**
+   * Set the period of inactivity after which a pooled connection is validated, before it is leased
+   * again.
+   *
+   * @param aValidateAfterInactivity
+   *        The period of inactivity. May be <code>null</code> to use the HttpClient default.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setValidateAfterInactivity (@Nullable final Duration aValidateAfterInactivity)
+  {
+    m_aValidateAfterInactivity = aValidateAfterInactivity;
+    return this;
+  }
+
+  @Nullable
+  public final Duration getIdleConnectionEvictionTime ()
+  {
+    return m_aIdleConnectionEvictionTime;
+  }
+
+  /**
+   * Set the time after which idle connections are evicted by a background thread. If set, expired
+   * connections are evicted as well.
+   *
+   * @param aIdleConnectionEvictionTime
+   *        The maximum idle time. May be <code>null</code> to disable the background eviction.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setIdleConnectionEvictionTime (@Nullable final Duration aIdleConnectionEvictionTime)
+  {
+    m_aIdleConnectionEvictionTime = aIdleConnectionEvictionTime;
+    return this;
+  }
+
+  public final boolean isConnectionPoolMetricsEnabled ()
+  {
+    return m_bConnectionPoolMetricsEnabled;
+  }
+
+  /**
+   * Enable or disable the recording of connection pool metrics. See
+   * {@link HttpClientPoolMetrics} for details.
+   *
+   * @param bConnectionPoolMetricsEnabled
+   *        <code>true</code> to enable the metrics, <code>false</code> to disable them.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final HttpClientSettings setConnectionPoolMetricsEnabled (final boolean bConnectionPoolMetricsEnabled)
+  {
+    m_bConnectionPoolMetricsEnabled = bConnectionPoolMetricsEnabled;
+    return this;
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public HttpClientSettings getClone ()
@@ -567,6 +813,7 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
   {
     return new ToStringGenerator (this).append ("UseSystemProperties", m_bUseSystemProperties)
                                        .append ("UseDNSClientCache", m_bUseDNSClientCache)
+                                       .append ("CustomDNSResolver", m_aCustomDNSResolver)
                                        .append ("SSLContext", m_aSSLContext)
                                        .append ("TLSConfigurationMode", m_aTLSConfigurationMode)
                                        .append ("HostnameVerifier", m_aHostnameVerifier)
@@ -585,6 +832,13 @@ public class HttpClientSettings implements IHttpClientSettings, ICloneable <Http
                                        .append ("ProtocolUpgradeEnabled", m_bProtocolUpgradeEnabled)
                                        .append ("RevocationCheckMode", m_eRevocationCheckMode)
                                        .append ("RevocationCheckSoftFail", m_bRevocationCheckSoftFail)
+                                       .append ("MaxConnectionsTotal", m_nMaxConnectionsTotal)
+                                       .append ("MaxConnectionsPerRoute", m_nMaxConnectionsPerRoute)
+                                       .append ("MaxConnectionsPerRouteOverrides", m_aMaxConnectionsPerRouteOverrides)
+                                       .append ("ConnectionTimeToLive", m_aConnectionTimeToLive)
+                                       .append ("ValidateAfterInactivity", m_aValidateAfterInactivity)
+                                       .append ("IdleConnectionEvictionTime", m_aIdleConnectionEvictionTime)
+                                       .append ("ConnectionPoolMetricsEnabled", m_bConnectionPoolMetricsEnabled)
                                        .getToString ();
   }
 }
@@ -16,6 +16,7 @@
  */
 package com.helger.httpclient;
 
+import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
 import java.time.Duration;
 import java.util.Set;
@@ -36,6 +37,7 @@ import com.helger.base.array.ArrayHelper;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.state.ETriState;
 import com.helger.base.string.StringHelper;
+import com.helger.base.string.StringParser;
 import com.helger.collection.commons.CommonsLinkedHashSet;
 import com.helger.collection.commons.ICommonsOrderedSet;
 import com.helger.config.IConfig;
@@ -580,6 +582,88 @@ public class HttpClientSettingsConfig
       return _findBoolean ("http.tls.certificate-check.disabled", bDefault);
     }
 
+    /**
+     * @return The maximum number of pooled connections. Reads <code>http.pool.max-total</code>. A
+     *         return value of <code>-1</code> means that the value is not configured.
+     * @since 11.4.3
+     */
+    @CheckForSigned
+    public int getPoolMaxTotal ()
+    {
+      return _findInt ("http.pool.max-total", -1);
+    }
+
+    /**
+     * @return The default maximum number of pooled connections per route. Reads
+     *         <code>http.pool.max-per-route</code>. A return value of <code>-1</code> means that the
+     *         value is not configured.
+     * @since 11.4.3
+     */
+    @CheckForSigned
+    public int getPoolMaxPerRoute ()
+    {
+      return _findInt ("http.pool.max-per-route", -1);
+    }
+
+    /**
+     * @return The per route overrides of the maximum number of connections. Reads
+     *         <code>http.pool.route-overrides</code>. May be <code>null</code> if not configured.
+     * @since 11.4.3
+     */
+    @Nullable
+    public String getPoolRouteOverrides ()
+    {
+      return _findString ("http.pool.route-overrides");
+    }
+
+    /**
+     * @return The time to live of pooled connections. Reads <code>http.pool.ttl</code>. May be
+     *         <code>null</code> if not configured.
+     * @since 11.4.3
+     */
+    @Nullable
+    public Duration getPoolConnectionTimeToLive ()
+    {
+      return _findDuration ("http.pool.ttl");
+    }
+
+    /**
+     * @return The inactivity period after which pooled connections are validated. Reads
+     *         <code>http.pool.validate-after-inactivity</code>. May be <code>null</code> if not
+     *         configured.
+     * @since 11.4.3
+     */
+    @Nullable
+    public Duration getPoolValidateAfterInactivity ()
+    {
+      return _findDuration ("http.pool.validate-after-inactivity");
+    }
+
+    /**
+     * @return The maximum idle time after which pooled connections are evicted. Reads
+     *         <code>http.pool.idle-eviction</code>. May be <code>null</code> if not configured.
+     * @since 11.4.3
+     */
+    @Nullable
+    public Duration getPoolIdleEvictionTime ()
+    {
+      return _findDuration ("http.pool.idle-eviction");
+    }
+
+    /**
+     * @param bDefault
+     *        The default value to be used if the configuration value cannot be parsed as a boolean.
+     * @return Whether connection pool metrics should be recorded. Reads
+     *         <code>http.pool.metrics.enabled</code>. Never <code>null</code>; may be
+     *         {@link ETriState#UNDEFINED} if not configured.
+     * @since 11.4.3
+     */
+    @NonNull
+    public ETriState getPoolMetricsEnabled (final boolean bDefault)
+    {
+      return _findBoolean ("http.pool.metrics.enabled", bDefault);
+    }
+
     /**
      * Factory method that creates a new {@link HttpClientConfig} for the provided prefixes. Each
      * prefix is normalized to end with a trailing dot (unless it is the empty string).
@@ -941,6 +1025,117 @@ public class HttpClientSettingsConfig
     }
   }
 
+  /**
+   * Assign connection pool related configuration values. The primary configuration parameters
+   * consumed are:
+   * <ul>
+   * <li><code>http.pool.max-total</code> - maximum number of pooled connections (int)</li>
+   * <li><code>http.pool.max-per-route</code> - default maximum number of connections per route
+   * (int)</li>
+   * <li><code>http.pool.route-overrides</code> - pipe separated list of per route maximums as in
+   * <code>https://api.example.org=20 | http://localhost:8080=5</code></li>
+   * <li><code>http.pool.ttl</code> - time to live of pooled connections (duration)</li>
+   * <li><code>http.pool.validate-after-inactivity</code> - inactivity period after which pooled
+   * connections are validated (duration)</li>
+   * <li><code>http.pool.idle-eviction</code> - maximum idle time before connections are evicted
+   * (duration)</li>
+   * <li><code>http.pool.metrics.enabled</code> - whether connection pool metrics are recorded
+   * (boolean)</li>
+   * </ul>
+   *
+   * @param aHCS
+   *        The {@link HttpClientSettings} to be configured. May not be <code>null</code>.
+   * @param aHCC
+   *        The configuration source. May not be <code>null</code>.
+   * @since 11.4.3
+   */
+  public static void assignConfigValuesForConnectionPool (@NonNull final HttpClientSettings aHCS,
+                                                          @NonNull final HttpClientConfig aHCC)
+  {
+    final int nMaxTotal = aHCC.getPoolMaxTotal ();
+    if (nMaxTotal > 0)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Setting configured HttpClientSettings.maxConnectionsTotal(" + nMaxTotal + ")");
+      aHCS.setMaxConnectionsTotal (nMaxTotal);
+    }
+
+    final int nMaxPerRoute = aHCC.getPoolMaxPerRoute ();
+    if (nMaxPerRoute > 0)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Setting configured HttpClientSettings.maxConnectionsPerRoute(" + nMaxPerRoute + ")");
+      aHCS.setMaxConnectionsPerRoute (nMaxPerRoute);
+    }
+
+    final String sRouteOverrides = aHCC.getPoolRouteOverrides ();
+    if (StringHelper.isNotEmpty (sRouteOverrides))
+      StringHelper.explode ('|', sRouteOverrides, sEntry -> {
+        final String sTrimmedEntry = sEntry.trim ();
+        final int nSep = sTrimmedEntry.lastIndexOf ('=');
+        final int nMax = nSep > 0 ? StringParser.parseInt (sTrimmedEntry.substring (nSep + 1).trim (), -1) : -1;
+        HttpHost aTargetHost = null;
+        if (nMax > 0)
+          try
+          {
+            aTargetHost = HttpHost.create (sTrimmedEntry.substring (0, nSep).trim ());
+          }
+          catch (final URISyntaxException | IllegalArgumentException ex)
+          {
+            // Handled below
+          }
+        if (aTargetHost != null)
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Setting configured HttpClientSettings.maxConnectionsForRoute(" +
+                          aTargetHost +
+                          ", " +
+                          nMax +
+                          ")");
+          aHCS.setMaxConnectionsForRoute (aTargetHost, nMax);
+        }
+        else
+          if (StringHelper.isNotEmpty (sTrimmedEntry))
+            LOGGER.warn ("Ignoring invalid connection pool route override '" + sTrimmedEntry + "'");
+      });
+
+    final Duration aTimeToLive = aHCC.getPoolConnectionTimeToLive ();
+    if (aTimeToLive != null)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Setting configured HttpClientSettings.connectionTimeToLive(" + aTimeToLive + ")");
+      aHCS.setConnectionTimeToLive (aTimeToLive);
+    }
+
+    final Duration aValidateAfterInactivity = aHCC.getPoolValidateAfterInactivity ();
+    if (aValidateAfterInactivity != null)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Setting configured HttpClientSettings.validateAfterInactivity(" +
+                      aValidateAfterInactivity +
+                      ")");
+      aHCS.setValidateAfterInactivity (aValidateAfterInactivity);
+    }
+
+    final Duration aIdleEvictionTime = aHCC.getPoolIdleEvictionTime ();
+    if (aIdleEvictionTime != null)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Setting configured HttpClientSettings.idleConnectionEvictionTime(" + aIdleEvictionTime + ")");
+      aHCS.setIdleConnectionEvictionTime (aIdleEvictionTime);
+    }
+
+    // Use existing value as fallback to avoid changing to default
+    final ETriState eMetricsEnabled = aHCC.getPoolMetricsEnabled (aHCS.isConnectionPoolMetricsEnabled ());
+    if (eMetricsEnabled.isDefined ())
+    {
+      final boolean b = eMetricsEnabled.getAsBooleanValue ();
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Setting configured HttpClientSettings.connectionPoolMetricsEnabled(" + b + ")");
+      aHCS.setConnectionPoolMetricsEnabled (b);
+    }
+  }
+
   /**
    * Assign all settings of {@link HttpClientSettings} from configuration values. The primary
    * configuration parameters consumed by this method are (each key is implicitly prefixed with the
@@ -995,6 +1190,18 @@ public class HttpClientSettingsConfig
    * (boolean)</li>
    * </ul>
    * </li>
+   * <li>Connection pool:
+   * <ul>
+   * <li><code>http.pool.max-total</code> - maximum number of pooled connections (int)</li>
+   * <li><code>http.pool.max-per-route</code> - default maximum number of connections per route
+   * (int)</li>
+   * <li><code>http.pool.route-overrides</code> - pipe separated list of per route maximums</li>
+   * <li><code>http.pool.ttl</code> - time to live of pooled connections (duration)</li>
+   * <li><code>http.pool.validate-after-inactivity</code> - validation period (duration)</li>
+   * <li><code>http.pool.idle-eviction</code> - idle connection eviction time (duration)</li>
+   * <li><code>http.pool.metrics.enabled</code> - whether pool metrics are recorded (boolean)</li>
+   * </ul>
+   * </li>
    * <li>Miscellaneous:
    * <ul>
    * <li><code>http.useragent</code> - the User-Agent HTTP header value</li>
@@ -1044,6 +1251,9 @@ public class HttpClientSettingsConfig
       // Certificate revocation
       assignConfigValuesForRevocation (aHCS, aHCC);
 
+      // Connection pool
+      assignConfigValuesForConnectionPool (aHCS, aHCC);
+
       // Other stuff
       assignConfigValuesForMisc (aHCS, aHCC);
     }
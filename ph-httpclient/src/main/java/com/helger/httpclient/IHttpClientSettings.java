@@ -21,12 +21,16 @@ import java.time.Duration;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.util.Timeout;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonnegative;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.http.tls.ITLSConfigurationMode;
 import com.helger.security.revocation.ERevocationCheckMode;
 
@@ -44,6 +48,15 @@ public interface IHttpClientSettings
    */
   boolean isUseDNSClientCache ();
 
+  /**
+   * @return The custom DNS resolver to be used. If it is non-<code>null</code>, it takes precedence
+   *         over {@link #isUseDNSClientCache()}. May be <code>null</code>.
+   * @see CachingDnsResolver
+   * @since 11.4.3
+   */
+  @Nullable
+  DnsResolver getCustomDNSResolver ();
+
   /**
    * Create a custom SSLContext to use for the SSL Socket factory.
    *
@@ -193,4 +206,58 @@ public interface IHttpClientSettings
    * @since 11.3.0
    */
   boolean isRevocationCheckSoftFail ();
+
+  /**
+   * @return The maximum number of connections in the connection pool. Always &gt; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  int getMaxConnectionsTotal ();
+
+  /**
+   * @return The default maximum number of connections per route. Always &gt; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  int getMaxConnectionsPerRoute ();
+
+  /**
+   * @return The maximum number of connections for specific target hosts, overriding
+   *         {@link #getMaxConnectionsPerRoute()}. The keys always contain an explicit port. Never
+   *         <code>null</code> but maybe empty.
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  ICommonsOrderedMap <HttpHost, Integer> getAllMaxConnectionsPerRouteOverrides ();
+
+  /**
+   * @return The total time to live of a pooled connection. <code>null</code> means unlimited.
+   * @since 11.4.3
+   */
+  @Nullable
+  Duration getConnectionTimeToLive ();
+
+  /**
+   * @return The period of inactivity after which a pooled connection is validated before it is
+   *         leased again. <code>null</code> means to use the HttpClient default.
+   * @since 11.4.3
+   */
+  @Nullable
+  Duration getValidateAfterInactivity ();
+
+  /**
+   * @return The time after which idle connections are evicted from the pool by a background
+   *         thread. <code>null</code> means no background eviction.
+   * @since 11.4.3
+   */
+  @Nullable
+  Duration getIdleConnectionEvictionTime ();
+
+  /**
+   * @return <code>true</code> if connection pool metrics (leased/available/pending connections
+   *         and lease wait time) should be recorded, <code>false</code> if not.
+   * @since 11.4.3
+   */
+  boolean isConnectionPoolMetricsEnabled ();
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.httpclient;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link CachingDnsResolver}.
+ *
+ * @author Philip Helger
+ */
+public final class CachingDnsResolverTest
+{
+  private static final class MockResolver implements DnsResolver
+  {
+    private final AtomicInteger m_aCalls = new AtomicInteger (0);
+    private volatile InetAddress [] m_aResult;
+    private volatile CountDownLatch m_aBlock;
+    private volatile boolean m_bThrowRuntimeException;
+
+    public InetAddress [] resolve (final String sHost) throws UnknownHostException
+    {
+      m_aCalls.incrementAndGet ();
+      final CountDownLatch aBlock = m_aBlock;
+      if (aBlock != null)
+        try
+        {
+          aBlock.await (5, TimeUnit.SECONDS);
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+        }
+      if (m_bThrowRuntimeException)
+        throw new IllegalStateException ("test");
+      final InetAddress [] ret = m_aResult;
+      if (ret == null)
+        throw new UnknownHostException (sHost);
+      return ret;
+    }
+
+    public String resolveCanonicalHostname (final String sHost) throws UnknownHostException
+    {
+      return sHost;
+    }
+  }
+
+  private static InetAddress [] _addr (final int nLastByte) throws UnknownHostException
+  {
+    return new InetAddress [] { InetAddress.getByAddress (new byte [] { 10, 0, 0, (byte) nLastByte }) };
+  }
+
+  private static void _waitForLookups (final CachingDnsResolver aResolver, final long nExpected) throws InterruptedException
+  {
+    for (int i = 0; i < 500 && aResolver.getLookupCount () < nExpected; ++i)
+      Thread.sleep (10);
+  }
+
+  @Test
+  public void testHitAndMiss () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    aMock.m_aResult = _addr (1);
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ().delegate (aMock).build ();
+
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    assertArrayEquals (_addr (1), aResolver.resolve ("WWW.example.org."));
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    assertEquals (1, aMock.m_aCalls.get ());
+    assertEquals (1, aResolver.getMissCount ());
+    assertEquals (2, aResolver.getHitCount ());
+    assertEquals (1, aResolver.getCacheSize ());
+
+    aResolver.evict ("www.example.org");
+    assertEquals (0, aResolver.getCacheSize ());
+    aResolver.resolve ("www.example.org");
+    assertEquals (2, aMock.m_aCalls.get ());
+  }
+
+  @Test
+  public void testNegativeCaching () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ().delegate (aMock).build ();
+    for (int i = 0; i < 3; ++i)
+      try
+      {
+        aResolver.resolve ("unknown.example.org");
+        fail ();
+      }
+      catch (final UnknownHostException ex)
+      {
+        // expected
+      }
+    assertEquals (1, aMock.m_aCalls.get ());
+
+    // Disabled negative caching
+    final MockResolver aMock2 = new MockResolver ();
+    final CachingDnsResolver aResolver2 = CachingDnsResolver.builder ()
+                                                            .delegate (aMock2)
+                                                            .negativeTTL (Duration.ZERO)
+                                                            .build ();
+    for (int i = 0; i < 3; ++i)
+      try
+      {
+        aResolver2.resolve ("unknown.example.org");
+        fail ();
+      }
+      catch (final UnknownHostException ex)
+      {
+        // expected
+      }
+    assertEquals (3, aMock2.m_aCalls.get ());
+    assertEquals (0, aResolver2.getCacheSize ());
+  }
+
+  @Test
+  public void testTTLClamp ()
+  {
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ()
+                                                           .delegate (new MockResolver ())
+                                                           .minTTL (Duration.ofSeconds (10))
+                                                           .maxTTL (Duration.ofMinutes (5))
+                                                           .build ();
+    assertEquals (Duration.ofSeconds (10), aResolver.getClampedTTL (Duration.ZERO));
+    assertEquals (Duration.ofSeconds (60), aResolver.getClampedTTL (Duration.ofSeconds (60)));
+    assertEquals (Duration.ofMinutes (5), aResolver.getClampedTTL (Duration.ofDays (1)));
+
+    try
+    {
+      CachingDnsResolver.builder ().minTTL (Duration.ofMinutes (5)).maxTTL (Duration.ofSeconds (1)).build ();
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testStaleWhileRevalidate () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    aMock.m_aResult = _addr (1);
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ()
+                                                           .delegate (aMock)
+                                                           .minTTL (Duration.ZERO)
+                                                           .defaultTTL (Duration.ofMillis (50))
+                                                           .stalePeriod (Duration.ofMinutes (1))
+                                                           .build ();
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    Thread.sleep (100);
+
+    // Stale value is served, refresh happens in the background
+    aMock.m_aResult = _addr (2);
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    assertEquals (1, aResolver.getStaleHitCount ());
+    _waitForLookups (aResolver, 2);
+    assertEquals (2, aResolver.getLookupCount ());
+    assertArrayEquals (_addr (2), aResolver.resolve ("www.example.org"));
+
+    // A failed refresh keeps the stale value
+    Thread.sleep (100);
+    aMock.m_aResult = null;
+    assertArrayEquals (_addr (2), aResolver.resolve ("www.example.org"));
+    _waitForLookups (aResolver, 3);
+    Thread.sleep (50);
+    assertArrayEquals (_addr (2), aResolver.resolve ("www.example.org"));
+  }
+
+  @Test
+  public void testCoalescing () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    aMock.m_aResult = _addr (1);
+    aMock.m_aBlock = new CountDownLatch (1);
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ().delegate (aMock).build ();
+
+    final int nThreads = 8;
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+    try
+    {
+      final Future <?> [] aFutures = new Future <?> [nThreads];
+      for (int i = 0; i < nThreads; ++i)
+        aFutures[i] = aES.submit ( () -> aResolver.resolve ("www.example.org"));
+
+      // Wait until all threads are waiting
+      for (int i = 0; i < 500 && aResolver.getCoalescedCount () < nThreads - 1; ++i)
+        Thread.sleep (10);
+      aMock.m_aBlock.countDown ();
+
+      for (final Future <?> aFuture : aFutures)
+        assertArrayEquals (_addr (1), (InetAddress []) aFuture.get (5, TimeUnit.SECONDS));
+      assertEquals (1, aMock.m_aCalls.get ());
+      assertTrue (aResolver.getCoalescedCount () > 0);
+    }
+    finally
+    {
+      aES.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testFailedRefreshWithRuntimeException () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    aMock.m_aResult = _addr (1);
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ()
+                                                           .delegate (aMock)
+                                                           .minTTL (Duration.ZERO)
+                                                           .defaultTTL (Duration.ofMillis (50))
+                                                           .stalePeriod (Duration.ofMinutes (1))
+                                                           .build ();
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    Thread.sleep (100);
+
+    // The background refresh fails unexpectedly
+    aMock.m_bThrowRuntimeException = true;
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    _waitForLookups (aResolver, 2);
+    Thread.sleep (50);
+
+    // The next access must trigger another refresh
+    aMock.m_bThrowRuntimeException = false;
+    aMock.m_aResult = _addr (2);
+    assertArrayEquals (_addr (1), aResolver.resolve ("www.example.org"));
+    _waitForLookups (aResolver, 3);
+    assertEquals (3, aResolver.getLookupCount ());
+  }
+
+  @Test
+  public void testMaxSize () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    aMock.m_aResult = _addr (1);
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ().delegate (aMock).maxSize (3).build ();
+    assertEquals (3, aResolver.getMaxSize ());
+
+    aResolver.resolve ("a.example.org");
+    aResolver.resolve ("b.example.org");
+    aResolver.resolve ("c.example.org");
+    // Access "a", so that "b" is the least recently used one
+    aResolver.resolve ("a.example.org");
+    aResolver.resolve ("d.example.org");
+    assertEquals (3, aResolver.getCacheSize ());
+    assertEquals (1, aResolver.getEvictionCount ());
+    assertEquals (4, aMock.m_aCalls.get ());
+
+    aResolver.resolve ("a.example.org");
+    assertEquals (4, aMock.m_aCalls.get ());
+    aResolver.resolve ("b.example.org");
+    assertEquals (5, aMock.m_aCalls.get ());
+
+    try
+    {
+      CachingDnsResolver.builder ().maxSize (0).build ();
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testPurgeExpired () throws Exception
+  {
+    final MockResolver aMock = new MockResolver ();
+    final CachingDnsResolver aResolver = CachingDnsResolver.builder ()
+                                                           .delegate (aMock)
+                                                           .negativeTTL (Duration.ofMillis (20))
+                                                           .build ();
+    try
+    {
+      aResolver.resolve ("unknown.example.org");
+      fail ();
+    }
+    catch (final UnknownHostException ex)
+    {
+      // expected
+    }
+    assertEquals (1, aResolver.getCacheSize ());
+    assertEquals (0, aResolver.purgeExpired ());
+    Thread.sleep (50);
+    assertEquals (1, aResolver.purgeExpired ());
+    assertEquals (0, aResolver.getCacheSize ());
+  }
+}
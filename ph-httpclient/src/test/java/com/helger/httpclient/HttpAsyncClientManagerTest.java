@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.httpclient;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.httpclient.response.ExtendedHttpResponseException;
+import com.helger.httpclient.response.ResponseHandlerByteArray;
+import com.helger.httpclient.response.ResponseHandlerString;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test class for class {@link HttpAsyncClientManager}.
+ *
+ * @author Philip Helger
+ */
+public final class HttpAsyncClientManagerTest
+{
+  private static HttpServer s_aServer;
+  private static ExecutorService s_aExecutor;
+  private static final AtomicInteger IN_FLIGHT = new AtomicInteger (0);
+  private static final AtomicInteger MAX_IN_FLIGHT = new AtomicInteger (0);
+
+  @BeforeClass
+  public static void beforeClass () throws IOException
+  {
+    s_aServer = HttpServer.create (new InetSocketAddress ("localhost", 0), 0);
+    s_aServer.createContext ("/echo", aExchange -> {
+      final int nNow = IN_FLIGHT.incrementAndGet ();
+      MAX_IN_FLIGHT.accumulateAndGet (nNow, Math::max);
+      try
+      {
+        final byte [] aBody = aExchange.getRequestBody ().readAllBytes ();
+        final byte [] aResponse = aBody.length > 0 ? aBody : aExchange.getRequestURI ()
+                                                                       .getQuery ()
+                                                                       .getBytes (StandardCharsets.UTF_8);
+        Thread.sleep (5);
+        aExchange.getResponseHeaders ().add ("Content-Type", "text/plain; charset=UTF-8");
+        aExchange.sendResponseHeaders (200, aResponse.length);
+        try (final OutputStream aOS = aExchange.getResponseBody ())
+        {
+          aOS.write (aResponse);
+        }
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      finally
+      {
+        IN_FLIGHT.decrementAndGet ();
+      }
+    });
+    s_aServer.createContext ("/missing", aExchange -> {
+      aExchange.sendResponseHeaders (404, -1);
+      aExchange.close ();
+    });
+    s_aExecutor = Executors.newFixedThreadPool (16);
+    s_aServer.setExecutor (s_aExecutor);
+    s_aServer.start ();
+  }
+
+  @AfterClass
+  public static void afterClass ()
+  {
+    s_aServer.stop (0);
+    s_aExecutor.shutdownNow ();
+  }
+
+  private static String _url (final String sPath)
+  {
+    return "http://localhost:" + s_aServer.getAddress ().getPort () + sPath;
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    try (final HttpAsyncClientManager aMgr = new HttpAsyncClientManager ())
+    {
+      assertEquals ("a=b",
+                    aMgr.execute (new HttpGet (_url ("/echo?a=b")), new ResponseHandlerString (ContentType.TEXT_PLAIN))
+                        .join ());
+
+      final HttpPost aPost = new HttpPost (_url ("/echo"));
+      aPost.setEntity (new StringEntity ("payload", ContentType.TEXT_PLAIN));
+      assertArrayEquals ("payload".getBytes (StandardCharsets.UTF_8),
+                         aMgr.execute (aPost, new ResponseHandlerByteArray ()).join ());
+
+      try
+      {
+        aMgr.execute (new HttpGet (_url ("/missing")), new ResponseHandlerByteArray ()).join ();
+        fail ();
+      }
+      catch (final CompletionException ex)
+      {
+        assertTrue (ex.getCause () instanceof ExtendedHttpResponseException);
+      }
+    }
+  }
+
+  @Test
+  public void testExecuteAll ()
+  {
+    final ICommonsList <ClassicHttpRequest> aRequests = new CommonsArrayList <> ();
+    for (int i = 0; i < 50; ++i)
+      aRequests.add (new HttpGet (_url ("/echo?i=" + i)));
+
+    MAX_IN_FLIGHT.set (0);
+    try (final HttpAsyncClientManager aMgr = new HttpAsyncClientManager ())
+    {
+      final ICommonsList <String> aResults = aMgr.executeAll (aRequests,
+                                                              new ResponseHandlerString (ContentType.TEXT_PLAIN),
+                                                              4)
+                                                 .join ();
+      assertEquals (50, aResults.size ());
+      for (int i = 0; i < 50; ++i)
+        assertEquals ("i=" + i, aResults.get (i));
+    }
+    assertTrue (MAX_IN_FLIGHT.get () <= 4);
+  }
+
+  @Test
+  public void testExecuteStreaming ()
+  {
+    try (final HttpAsyncClientManager aMgr = new HttpAsyncClientManager ())
+    {
+      final Message <HttpResponse, String> aMsg = aMgr.executeStreaming (new HttpGet (_url ("/echo?s=t")),
+                                                                          null,
+                                                                          new StringAsyncEntityConsumer ())
+                                                      .join ();
+      assertEquals (200, aMsg.getHead ().getCode ());
+      assertEquals ("s=t", aMsg.getBody ());
+    }
+  }
+
+  @Test
+  public void testExecuteAllSynchronousFailures ()
+  {
+    // Each request fails synchronously - must not overflow the stack
+    final ICommonsList <ClassicHttpRequest> aRequests = new CommonsArrayList <> ();
+    for (int i = 0; i < 50_000; ++i)
+      aRequests.add (new HttpGet (_url ("/echo?i=" + i)));
+
+    try (final HttpAsyncClientManager aMgr = new HttpAsyncClientManager ()
+    {
+      @Override
+      protected AsyncRequestProducer createRequestProducer (final ClassicHttpRequest aRequest) throws IOException
+      {
+        throw new IOException ("test");
+      }
+    })
+    {
+      aMgr.executeAll (aRequests, new ResponseHandlerByteArray (), 1).join ();
+      fail ();
+    }
+    catch (final CompletionException ex)
+    {
+      assertTrue (ex.getCause () instanceof IOException);
+    }
+  }
+}
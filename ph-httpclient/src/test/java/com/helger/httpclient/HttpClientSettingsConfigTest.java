@@ -23,6 +23,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
 
+import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.util.Timeout;
 import org.jspecify.annotations.NonNull;
 import org.junit.Test;
@@ -30,6 +31,7 @@ import org.junit.Test;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.collection.commons.CommonsLinkedHashSet;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.config.fallback.ConfigWithFallback;
 import com.helger.config.fallback.IConfigWithFallback;
 import com.helger.config.source.appl.ConfigurationSourceFunction;
@@ -330,4 +332,32 @@ public final class HttpClientSettingsConfigTest
     // Difference
     assertNull (aHCS.getSSLContext ());
   }
+
+  @Test
+  public void testConnectionPool ()
+  {
+    final ICommonsMap <String, String> aMap = new CommonsHashMap <> ();
+    aMap.put ("p.http.pool.max-total", "500");
+    aMap.put ("p.http.pool.max-per-route", "50");
+    aMap.put ("p.http.pool.route-overrides", "https://api.example.org=20 | http://localhost:8080=5 | bla | x=y");
+    aMap.put ("p.http.pool.ttl", "5m");
+    aMap.put ("p.http.pool.validate-after-inactivity", "2s");
+    aMap.put ("p.http.pool.idle-eviction", "30s");
+    aMap.put ("p.http.pool.metrics.enabled", "true");
+    final IConfigWithFallback aConfig = new ConfigWithFallback (new ConfigurationSourceFunction (aMap::get));
+
+    final HttpClientSettings aHCS = new HttpClientSettings ();
+    HttpClientSettingsConfig.assignConfigValues (aHCS, aConfig, "p");
+
+    assertEquals (500, aHCS.getMaxConnectionsTotal ());
+    assertEquals (50, aHCS.getMaxConnectionsPerRoute ());
+    final ICommonsOrderedMap <HttpHost, Integer> aOverrides = aHCS.getAllMaxConnectionsPerRouteOverrides ();
+    assertEquals (2, aOverrides.size ());
+    assertEquals (Integer.valueOf (20), aOverrides.get (new HttpHost ("https", "api.example.org", 443)));
+    assertEquals (Integer.valueOf (5), aOverrides.get (new HttpHost ("http", "localhost", 8080)));
+    assertEquals (Duration.ofMinutes (5), aHCS.getConnectionTimeToLive ());
+    assertEquals (Duration.ofSeconds (2), aHCS.getValidateAfterInactivity ());
+    assertEquals (Duration.ofSeconds (30), aHCS.getIdleConnectionEvictionTime ());
+    assertTrue (aHCS.isConnectionPoolMetricsEnabled ());
+  }
 }
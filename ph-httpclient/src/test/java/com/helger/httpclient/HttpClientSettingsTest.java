@@ -17,14 +17,18 @@
 package com.helger.httpclient;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.security.GeneralSecurityException;
+import java.time.Duration;
 
 import javax.net.ssl.SSLContext;
 
+import org.apache.hc.core5.http.HttpHost;
 import org.junit.Test;
 
 import com.helger.http.tls.ETLSConfigurationMode_2020_02;
@@ -68,4 +72,31 @@ public final class HttpClientSettingsTest
     assertNull ("Default SSLContext should be null (use JVM default)", aSettings.getSSLContext ());
     assertNull ("Default HostnameVerifier should be null (use JVM default)", aSettings.getHostnameVerifier ());
   }
+
+  @Test
+  public void testConnectionPool ()
+  {
+    final HttpClientSettings x = new HttpClientSettings ();
+    assertEquals (HttpClientSettings.DEFAULT_MAX_CONNECTIONS_TOTAL, x.getMaxConnectionsTotal ());
+    assertEquals (HttpClientSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE, x.getMaxConnectionsPerRoute ());
+    assertTrue (x.getAllMaxConnectionsPerRouteOverrides ().isEmpty ());
+    assertNull (x.getConnectionTimeToLive ());
+    assertFalse (x.isConnectionPoolMetricsEnabled ());
+
+    x.setMaxConnectionsTotal (10).setMaxConnectionsPerRoute (5).setConnectionTimeToLive (Duration.ofMinutes (1));
+    // Port is made explicit
+    x.setMaxConnectionsForRoute (new HttpHost ("https", "example.org"), 7);
+    assertEquals (Integer.valueOf (7),
+                  x.getAllMaxConnectionsPerRouteOverrides ().get (new HttpHost ("https", "example.org", 443)));
+
+    final HttpClientSettings aClone = x.getClone ();
+    assertEquals (10, aClone.getMaxConnectionsTotal ());
+    assertEquals (5, aClone.getMaxConnectionsPerRoute ());
+    assertEquals (Duration.ofMinutes (1), aClone.getConnectionTimeToLive ());
+    assertEquals (1, aClone.getAllMaxConnectionsPerRouteOverrides ().size ());
+
+    assertTrue (x.removeMaxConnectionsForRoute (new HttpHost ("https", "example.org", 443)).isChanged ());
+    assertTrue (x.getAllMaxConnectionsPerRouteOverrides ().isEmpty ());
+    assertEquals (1, aClone.getAllMaxConnectionsPerRouteOverrides ().size ());
+  }
 }
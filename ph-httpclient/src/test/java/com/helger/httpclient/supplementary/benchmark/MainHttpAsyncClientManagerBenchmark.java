@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.httpclient.supplementary.benchmark;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.timing.StopWatch;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.httpclient.HttpAsyncClientManager;
+import com.helger.httpclient.HttpClientManager;
+import com.helger.httpclient.response.ResponseHandlerByteArray;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Benchmark comparing the blocking {@link HttpClientManager} (using a thread pool for fan-out) with
+ * the non-blocking {@link HttpAsyncClientManager} against a local stub server with a fixed
+ * response latency.
+ *
+ * @author Philip Helger
+ */
+public final class MainHttpAsyncClientManagerBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainHttpAsyncClientManagerBenchmark.class);
+  private static final int REQUESTS = 2_000;
+  private static final int LATENCY_MILLIS = 20;
+  private static final byte [] RESPONSE = "Hello benchmark".repeat (64).getBytes (StandardCharsets.UTF_8);
+
+  private static void _log (final String sName, final int nConcurrency, final StopWatch aSW)
+  {
+    LOGGER.info (sName +
+                 " with concurrency " +
+                 nConcurrency +
+                 ": " +
+                 REQUESTS +
+                 " requests in " +
+                 aSW.getMillis () +
+                 " ms (" +
+                 (REQUESTS * 1000L / Math.max (1, aSW.getMillis ())) +
+                 " requests/s)");
+  }
+
+  private static void _runBlocking (final String sURL, final int nConcurrency) throws Exception
+  {
+    final ExecutorService aES = Executors.newFixedThreadPool (nConcurrency);
+    try (final HttpClientManager aMgr = new HttpClientManager ())
+    {
+      final ResponseHandlerByteArray aRH = new ResponseHandlerByteArray ();
+      final StopWatch aSW = StopWatch.createdStarted ();
+      final ICommonsList <Future <byte []>> aFutures = new CommonsArrayList <> (REQUESTS);
+      for (int i = 0; i < REQUESTS; ++i)
+        aFutures.add (aES.submit ( () -> aMgr.execute (new HttpGet (sURL), aRH)));
+      for (final Future <byte []> aFuture : aFutures)
+        aFuture.get ();
+      aSW.stop ();
+      _log ("Blocking", nConcurrency, aSW);
+    }
+    finally
+    {
+      aES.shutdown ();
+      aES.awaitTermination (1, TimeUnit.MINUTES);
+    }
+  }
+
+  private static void _runAsync (final String sURL, final int nConcurrency)
+  {
+    try (final HttpAsyncClientManager aMgr = new HttpAsyncClientManager ())
+    {
+      final ICommonsList <ClassicHttpRequest> aRequests = new CommonsArrayList <> (REQUESTS);
+      for (int i = 0; i < REQUESTS; ++i)
+        aRequests.add (new HttpGet (sURL));
+      final StopWatch aSW = StopWatch.createdStarted ();
+      aMgr.executeAll (aRequests, new ResponseHandlerByteArray (), nConcurrency).join ();
+      aSW.stop ();
+      _log ("Async", nConcurrency, aSW);
+    }
+  }
+
+  public static void main (final String [] args) throws Exception
+  {
+    final ExecutorService aServerES = Executors.newFixedThreadPool (256);
+    final HttpServer aServer = HttpServer.create (new InetSocketAddress ("localhost", 0), 0);
+    aServer.createContext ("/", aExchange -> {
+      try
+      {
+        Thread.sleep (LATENCY_MILLIS);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      aExchange.sendResponseHeaders (200, RESPONSE.length);
+      try (final OutputStream aOS = aExchange.getResponseBody ())
+      {
+        aOS.write (RESPONSE);
+      }
+    });
+    aServer.setExecutor (aServerES);
+    aServer.start ();
+    try
+    {
+      final String sURL = "http://localhost:" + aServer.getAddress ().getPort () + "/";
+      // Warm up
+      _runBlocking (sURL, 8);
+      _runAsync (sURL, 8);
+
+      for (final int nConcurrency : new int [] { 8, 32, 100 })
+      {
+        _runBlocking (sURL, nConcurrency);
+        _runAsync (sURL, nConcurrency);
+      }
+    }
+    finally
+    {
+      aServer.stop (0);
+      aServerES.shutdown ();
+    }
+  }
+}
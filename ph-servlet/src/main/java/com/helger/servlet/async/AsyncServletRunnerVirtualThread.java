@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.BasicThreadFactory;
+import com.helger.base.concurrent.ExecutorServiceHelper;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Implementation of {@link IAsyncServletRunner} that runs every handler on its own virtual thread
+ * instead of a container thread. Optionally the number of concurrently running handlers can be
+ * bounded (additional handlers wait for a free slot) and each handler can be given a maximum
+ * execution time. If it is exceeded, the handler thread is interrupted. If the handler returns
+ * without having completed the request, it is completed with HTTP status 503 (Service
+ * Unavailable) on the handler thread.<br>
+ * Virtual threads are only available on Java 21 or later. On older runtimes a cached pool of
+ * platform threads is used instead, so a platform thread may be reused for subsequent handlers.<br>
+ * Note: in contrast to {@link AsyncServletRunnerDefault} the handler is not started via
+ * {@link ExtAsyncContext#start(Runnable)}, so container specific thread bindings are not
+ * available inside the handler. The thread context class loader of the calling thread is
+ * propagated.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public class AsyncServletRunnerVirtualThread implements IAsyncServletRunner, AutoCloseable
+{
+  /** By default the concurrency is not limited */
+  public static final int DEFAULT_MAX_CONCURRENCY = 0;
+  /** By default there is no handler timeout */
+  public static final long DEFAULT_HANDLER_TIMEOUT_MILLIS = 0;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (AsyncServletRunnerVirtualThread.class);
+
+  private final int m_nMaxConcurrency;
+  private final long m_nHandlerTimeoutMillis;
+  private final ExecutorService m_aExecutor;
+  private final boolean m_bVirtualThreads;
+  private final Semaphore m_aSemaphore;
+  private final ScheduledExecutorService m_aTimeoutScheduler;
+  private final AtomicInteger m_aActiveCount = new AtomicInteger (0);
+  private final LongAdder m_aExecutedCount = new LongAdder ();
+  private final LongAdder m_aTimedOutCount = new LongAdder ();
+  private final LongAdder m_aRejectedCount = new LongAdder ();
+
+  /**
+   * Constructor with unlimited concurrency and no handler timeout.
+   */
+  public AsyncServletRunnerVirtualThread ()
+  {
+    this (DEFAULT_MAX_CONCURRENCY, DEFAULT_HANDLER_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxConcurrency
+   *        The maximum number of handlers running at the same time. Use 0 for no limit. Must be
+   *        &ge; 0.
+   * @param nHandlerTimeoutMillis
+   *        The maximum number of milliseconds a single handler may run, before its thread is
+   *        interrupted and the request is completed with an error status. Use 0 for no timeout.
+   *        Must be &ge; 0.
+   */
+  public AsyncServletRunnerVirtualThread (@Nonnegative final int nMaxConcurrency,
+                                          @Nonnegative final long nHandlerTimeoutMillis)
+  {
+    ValueEnforcer.isGE0 (nMaxConcurrency, "MaxConcurrency");
+    ValueEnforcer.isGE0 (nHandlerTimeoutMillis, "HandlerTimeoutMillis");
+    m_nMaxConcurrency = nMaxConcurrency;
+    m_nHandlerTimeoutMillis = nHandlerTimeoutMillis;
+
+    final ExecutorService aVirtualExecutor = createVirtualThreadPerTaskExecutor ();
+    m_bVirtualThreads = aVirtualExecutor != null;
+    if (aVirtualExecutor != null)
+      m_aExecutor = aVirtualExecutor;
+    else
+    {
+      LOGGER.warn ("Virtual threads are not supported by this JVM - using a cached pool of platform threads instead");
+      // Threads may be reused, but a timeout interrupt never outlives its handler (see _runGuarded)
+      m_aExecutor = Executors.newCachedThreadPool (BasicThreadFactory.builder ()
+                                                                     .namingPattern ("AsyncServletRunner-%d")
+                                                                     .daemon (true)
+                                                                     .build ());
+    }
+    m_aSemaphore = nMaxConcurrency > 0 ? new Semaphore (nMaxConcurrency, true) : null;
+    m_aTimeoutScheduler = nHandlerTimeoutMillis > 0 ? Executors.newSingleThreadScheduledExecutor (BasicThreadFactory.builder ()
+                                                                                                                    .namingPattern ("AsyncServletRunnerTimeout-%d")
+                                                                                                                    .daemon (true)
+                                                                                                                    .build ())
+                                                    : null;
+  }
+
+  /**
+   * Try to create the virtual thread executor introduced in Java 21. Reflection is used, because
+   * the code base must still compile with Java 17.
+   *
+   * @return <code>null</code> if the current runtime does not support virtual threads.
+   */
+  @Nullable
+  static ExecutorService createVirtualThreadPerTaskExecutor ()
+  {
+    try
+    {
+      final Method aMethod = Executors.class.getMethod ("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) aMethod.invoke (null);
+    }
+    catch (final ReflectiveOperationException | RuntimeException ex)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if handlers are run on virtual threads, <code>false</code> if the
+   *         platform thread fallback is used.
+   */
+  public final boolean isUsingVirtualThreads ()
+  {
+    return m_bVirtualThreads;
+  }
+
+  /**
+   * @return The maximum number of concurrently running handlers. 0 means unlimited.
+   */
+  @Nonnegative
+  public final int getMaxConcurrency ()
+  {
+    return m_nMaxConcurrency;
+  }
+
+  /**
+   * @return The maximum handler execution time in milliseconds. 0 means no timeout.
+   */
+  @Nonnegative
+  public final long getHandlerTimeoutMillis ()
+  {
+    return m_nHandlerTimeoutMillis;
+  }
+
+  /**
+   * @return The number of handlers currently running. Handlers waiting for a free slot are not
+   *         counted.
+   */
+  @Nonnegative
+  public final int getActiveCount ()
+  {
+    return m_aActiveCount.get ();
+  }
+
+  /**
+   * @return The total number of handlers that were executed.
+   */
+  @Nonnegative
+  public final long getExecutedCount ()
+  {
+    return m_aExecutedCount.sum ();
+  }
+
+  /**
+   * @return The total number of handlers that were interrupted because they exceeded the handler
+   *         timeout.
+   */
+  @Nonnegative
+  public final long getTimedOutCount ()
+  {
+    return m_aTimedOutCount.sum ();
+  }
+
+  /**
+   * @return The total number of handlers that could not be executed, because this runner was
+   *         closed or the waiting thread was interrupted.
+   */
+  @Nonnegative
+  public final long getRejectedCount ()
+  {
+    return m_aRejectedCount.sum ();
+  }
+
+  private void _runGuarded (@NonNull final Runnable aRunnable,
+                            @NonNull final Runnable aOnUnavailable,
+                            @NonNull final Runnable aOnTimeout,
+                            @Nullable final ClassLoader aContextClassLoader)
+  {
+    final Thread aThread = Thread.currentThread ();
+    final ClassLoader aOldClassLoader = aThread.getContextClassLoader ();
+    aThread.setContextClassLoader (aContextClassLoader);
+    try
+    {
+      if (m_aSemaphore != null)
+      {
+        try
+        {
+          m_aSemaphore.acquire ();
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+          LOGGER.warn ("Interrupted while waiting for a free async handler slot");
+          m_aRejectedCount.increment ();
+          aOnUnavailable.run ();
+          return;
+        }
+      }
+
+      // Guarded by itself: the timeout may only interrupt while the handler is running
+      // [0] = running, [1] = timed out
+      final boolean [] aState = { true, false };
+      ScheduledFuture <?> aTimeout = null;
+      m_aActiveCount.incrementAndGet ();
+      try
+      {
+        if (m_aTimeoutScheduler != null)
+          aTimeout = m_aTimeoutScheduler.schedule ( () -> {
+            synchronized (aState)
+            {
+              if (aState[0])
+              {
+                aState[1] = true;
+                m_aTimedOutCount.increment ();
+                LOGGER.warn ("Async handler exceeded the timeout of " + m_nHandlerTimeoutMillis + " ms and is interrupted");
+                aThread.interrupt ();
+              }
+            }
+          }, m_nHandlerTimeoutMillis, TimeUnit.MILLISECONDS);
+
+        aRunnable.run ();
+      }
+      finally
+      {
+        final boolean bTimedOut;
+        synchronized (aState)
+        {
+          aState[0] = false;
+          bTimedOut = aState[1];
+        }
+        if (aTimeout != null)
+        {
+          aTimeout.cancel (false);
+          // Don't leak a timeout interrupt beyond the handler
+          Thread.interrupted ();
+        }
+        if (bTimedOut)
+        {
+          // Invoked on the handler thread, so that the response is never used concurrently
+          try
+          {
+            aOnTimeout.run ();
+          }
+          catch (final RuntimeException ex)
+          {
+            LOGGER.error ("Error handling the async handler timeout", ex);
+          }
+        }
+        m_aActiveCount.decrementAndGet ();
+        m_aExecutedCount.increment ();
+        if (m_aSemaphore != null)
+          m_aSemaphore.release ();
+      }
+    }
+    finally
+    {
+      aThread.setContextClassLoader (aOldClassLoader);
+    }
+  }
+
+  /**
+   * Run the provided task on a new thread, considering concurrency limit and timeout.
+   *
+   * @param aRunnable
+   *        The handler to run. May not be <code>null</code>.
+   * @param aOnUnavailable
+   *        The callback to be invoked if the handler cannot be run at all. May not be
+   *        <code>null</code>.
+   * @param aOnTimeout
+   *        The callback to be invoked if the handler exceeded the timeout and was interrupted. It is
+   *        invoked on the handler thread after the handler returned. May not be <code>null</code>.
+   */
+  final void execute (@NonNull final Runnable aRunnable,
+                      @NonNull final Runnable aOnUnavailable,
+                      @NonNull final Runnable aOnTimeout)
+  {
+    final ClassLoader aContextClassLoader = Thread.currentThread ().getContextClassLoader ();
+    try
+    {
+      m_aExecutor.execute ( () -> _runGuarded (aRunnable, aOnUnavailable, aOnTimeout, aContextClassLoader));
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      LOGGER.warn ("Async handler was rejected: " + ex.getMessage ());
+      m_aRejectedCount.increment ();
+      aOnUnavailable.run ();
+    }
+  }
+
+  public void runAsync (@NonNull final HttpServletRequest aOriginalHttpRequest,
+                        @NonNull final HttpServletResponse aOriginalHttpResponse,
+                        @NonNull final ExtAsyncContext aAsyncContext,
+                        @NonNull final Runnable aRunnable)
+  {
+    final Runnable aCompleteUnavailable = () -> {
+      // The handler may have already responded
+      if (aAsyncContext.isCompleted ())
+        return;
+      try
+      {
+        final HttpServletResponse aResponse = aAsyncContext.getResponse ();
+        if (!aResponse.isCommitted ())
+          aResponse.setStatus (HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error ("Error setting 'service unavailable' on async response", ex);
+      }
+      finally
+      {
+        aAsyncContext.complete ();
+      }
+    };
+    execute (aRunnable, aCompleteUnavailable, aCompleteUnavailable);
+  }
+
+  /**
+   * Stop accepting new handlers and wait until all running handlers are finished.
+   */
+  public void close ()
+  {
+    ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (m_aExecutor);
+    if (m_aTimeoutScheduler != null)
+      m_aTimeoutScheduler.shutdownNow ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxConcurrency", m_nMaxConcurrency)
+                                       .append ("HandlerTimeoutMillis", m_nHandlerTimeoutMillis)
+                                       .append ("VirtualThreads", m_bVirtualThreads)
+                                       .getToString ();
+  }
+}
@@ -16,6 +16,8 @@
  */
 package com.helger.servlet.async;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
@@ -44,6 +46,7 @@ public class ExtAsyncContext
   private final String m_sRequestURI;
   private final String m_sServletPath;
   private boolean m_bSetAttrs = false;
+  private final AtomicBoolean m_aCompleted = new AtomicBoolean (false);
 
   public ExtAsyncContext (@NonNull final AsyncContext aAsyncContext,
                           @NonNull final EHttpVersion eHttpVersion,
@@ -110,9 +113,23 @@ public class ExtAsyncContext
     m_aAsyncContext.start (r);
   }
 
+  /**
+   * Complete the asynchronous processing. Only the first invocation completes the underlying
+   * {@link AsyncContext}, all subsequent invocations have no effect.
+   */
   public void complete ()
   {
-    m_aAsyncContext.complete ();
+    if (m_aCompleted.compareAndSet (false, true))
+      m_aAsyncContext.complete ();
+  }
+
+  /**
+   * @return <code>true</code> if {@link #complete()} was already called.
+   * @since 11.4.3
+   */
+  public boolean isCompleted ()
+  {
+    return m_aCompleted.get ();
   }
 
   @NonNull
@@ -17,15 +17,25 @@
 package com.helger.servlet.logging;
 
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.OverridingMethodsMustInvokeSuper;
 import com.helger.annotation.style.OverrideOnDemand;
+import com.helger.base.concurrent.BasicThreadFactory;
 import com.helger.base.string.StringHelper;
+import com.helger.base.string.StringParser;
 import com.helger.cache.regex.RegExHelper;
 import com.helger.collection.commons.CommonsHashSet;
 import com.helger.collection.commons.ICommonsSet;
@@ -42,6 +52,10 @@ import jakarta.servlet.http.HttpServletResponse;
 
 public class LoggingFilter extends AbstractHttpServletFilter
 {
+  /** The default maximum number of queued log messages in asynchronous mode */
+  public static final int DEFAULT_ASYNC_QUEUE_SIZE = 10_000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (LoggingFilter.class);
   private static final AtomicBoolean ENABLED = new AtomicBoolean (true);
 
   private Logger m_aLogger = LoggerFactory.getLogger (getClass ());
@@ -49,6 +63,11 @@ public class LoggingFilter extends AbstractHttpServletFilter
   private final ICommonsSet <String> m_aExcludedPaths = new CommonsHashSet <> ();
   private String m_sRequestPrefix = "REQUEST: ";
   private String m_sResponsePrefix = "RESPONSE: ";
+  private boolean m_bBufferResponse = false;
+  private boolean m_bAsyncLogging = false;
+  private int m_nAsyncQueueSize = DEFAULT_ASYNC_QUEUE_SIZE;
+  private ExecutorService m_aAsyncLogExecutor;
+  private final AtomicLong m_aDroppedLogMessages = new AtomicLong (0);
 
   public static void setGloballyEnabled (final boolean bEnabled)
   {
@@ -88,6 +107,143 @@ public class LoggingFilter extends AbstractHttpServletFilter
     final String sResponsePrefix = aFilterConfig.getInitParameter ("responsePrefix");
     if (StringHelper.isNotEmpty (sResponsePrefix))
       m_sResponsePrefix = sResponsePrefix;
+
+    // "tee" (default) or "buffer"
+    final String sCaptureMode = aFilterConfig.getInitParameter ("captureMode");
+    if (StringHelper.isNotEmpty (sCaptureMode))
+      m_bBufferResponse = "buffer".equalsIgnoreCase (sCaptureMode);
+
+    final String sAsyncLogging = aFilterConfig.getInitParameter ("asyncLogging");
+    if (StringHelper.isNotEmpty (sAsyncLogging))
+      m_bAsyncLogging = Boolean.parseBoolean (sAsyncLogging);
+
+    final String sAsyncQueueSize = aFilterConfig.getInitParameter ("asyncQueueSize");
+    if (sAsyncQueueSize != null)
+    {
+      final int nAsyncQueueSize = StringParser.parseInt (sAsyncQueueSize.trim (), -1);
+      if (nAsyncQueueSize <= 0)
+        throw new ServletException ("The init parameter 'asyncQueueSize' must be an integer > 0 but is '" +
+                                    sAsyncQueueSize +
+                                    "'");
+      m_nAsyncQueueSize = nAsyncQueueSize;
+    }
+
+    if (m_bAsyncLogging)
+    {
+      // One thread to keep the log order; bounded queue so that request threads never block
+      m_aAsyncLogExecutor = new ThreadPoolExecutor (1,
+                                                    1,
+                                                    0L,
+                                                    TimeUnit.MILLISECONDS,
+                                                    new ArrayBlockingQueue <> (m_nAsyncQueueSize),
+                                                    BasicThreadFactory.builder ()
+                                                                      .namingPattern ("ph-LoggingFilter-%d")
+                                                                      .daemon (true)
+                                                                      .build (),
+                                                    new ThreadPoolExecutor.AbortPolicy ());
+    }
+  }
+
+  @Override
+  @OverridingMethodsMustInvokeSuper
+  public void destroy ()
+  {
+    if (m_aAsyncLogExecutor != null)
+    {
+      // Write all pending log messages
+      m_aAsyncLogExecutor.shutdown ();
+      try
+      {
+        if (!m_aAsyncLogExecutor.awaitTermination (10, TimeUnit.SECONDS))
+          LOGGER.warn ("Not all pending log messages could be written");
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      m_aAsyncLogExecutor = null;
+    }
+    super.destroy ();
+  }
+
+  /**
+   * @return <code>true</code> if the whole response is buffered and only sent to the client after
+   *         processing, <code>false</code> if the response is streamed through to the client and
+   *         only the first <code>maxContentSize</code> bytes are captured. Default is
+   *         <code>false</code>.
+   * @since 11.4.3
+   */
+  public final boolean isBufferResponse ()
+  {
+    return m_bBufferResponse;
+  }
+
+  /**
+   * @return <code>true</code> if log messages are written in a separate thread. Default is
+   *         <code>false</code>.
+   * @since 11.4.3
+   */
+  public final boolean isAsyncLogging ()
+  {
+    return m_bAsyncLogging;
+  }
+
+  /**
+   * @return The number of log messages that were dropped, because the asynchronous log queue was
+   *         full.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public final long getDroppedLogMessageCount ()
+  {
+    return m_aDroppedLogMessages.get ();
+  }
+
+  /**
+   * @return <code>true</code> if the logger is enabled for the level used to log requests and
+   *         responses. If not, no capturing happens at all.
+   * @since 11.4.3
+   */
+  @OverrideOnDemand
+  protected boolean isLogLevelEnabled ()
+  {
+    return m_aLogger.isInfoEnabled ();
+  }
+
+  /**
+   * Write a single log message. The message is only created from the supplier in the thread that
+   * actually writes the log message.
+   *
+   * @param aMessageSupplier
+   *        The supplier of the message to be logged. May not be <code>null</code>.
+   * @since 11.4.3
+   */
+  @OverrideOnDemand
+  protected void writeLogMessage (@NonNull final Supplier <String> aMessageSupplier)
+  {
+    final ExecutorService aExecutor = m_aAsyncLogExecutor;
+    if (aExecutor == null)
+      m_aLogger.info (aMessageSupplier.get ());
+    else
+      try
+      {
+        aExecutor.execute ( () -> m_aLogger.info (aMessageSupplier.get ()));
+      }
+      catch (final RejectedExecutionException ex)
+      {
+        // Queue is full or executor is shut down - never block the request thread
+        m_aDroppedLogMessages.incrementAndGet ();
+      }
+  }
+
+  /**
+   * @return The maximum number of body bytes to be captured, or
+   *         {@link LoggingHttpServletResponseWrapper#CAPTURE_UNLIMITED}.
+   */
+  private int _getMaxCaptureSize ()
+  {
+    return m_aLogger.isTraceEnabled () || m_nMaxContentSize <= 0 ? LoggingHttpServletResponseWrapper.CAPTURE_UNLIMITED
+                                                                 : m_nMaxContentSize;
   }
 
   @NonNull
@@ -119,15 +275,21 @@ public class LoggingFilter extends AbstractHttpServletFilter
     final LoggingResponse aLoggingResponse = new LoggingResponse ();
     aLoggingResponse.setStatus (responseWrapper.getStatus ());
     aLoggingResponse.setHeaders (ResponseHelper.getResponseHeaderMap (responseWrapper));
-    final String content = responseWrapper.getContentAsString ();
-    if (m_aLogger.isTraceEnabled () || m_nMaxContentSize <= 0)
+    String content = responseWrapper.getContentAsString ();
+    boolean bTruncated = responseWrapper.isContentTruncated ();
+    if (bTruncated && content.endsWith ("\uFFFD"))
     {
-      aLoggingResponse.setBody (content);
+      // The captured byte prefix may end in the middle of a multi-byte character
+      content = content.substring (0, content.length () - 1);
     }
-    else
+    if (!m_aLogger.isTraceEnabled () && m_nMaxContentSize > 0 && content.length () > m_nMaxContentSize)
     {
-      aLoggingResponse.setBody (content.substring (0, Math.min (content.length (), m_nMaxContentSize)));
+      content = content.substring (0, m_nMaxContentSize);
+      bTruncated = true;
     }
+    aLoggingResponse.setBody (content);
+    aLoggingResponse.setBodyLength (responseWrapper.getTotalContentLength ());
+    aLoggingResponse.setBodyTruncated (bTruncated);
     return aLoggingResponse.getAsJson ().getAsJsonString ();
   }
 
@@ -164,18 +326,24 @@ public class LoggingFilter extends AbstractHttpServletFilter
                             @NonNull final HttpServletResponse aHttpResponse,
                             @NonNull final FilterChain aFilterChain) throws IOException, ServletException
   {
-    if (isLogRequest (aHttpRequest, aHttpResponse))
+    if (isLogLevelEnabled () && isLogRequest (aHttpRequest, aHttpResponse))
     {
       final LoggingHttpServletRequestWrapper aRequestWrapper = new LoggingHttpServletRequestWrapper (aHttpRequest);
-      final LoggingHttpServletResponseWrapper aResponseWrapper = new LoggingHttpServletResponseWrapper (aHttpResponse);
+      final LoggingHttpServletResponseWrapper aResponseWrapper = m_bBufferResponse ? new LoggingHttpServletResponseWrapper (aHttpResponse)
+                                                                                   : new LoggingHttpServletResponseWrapper (aHttpResponse,
+                                                                                                                            _getMaxCaptureSize ());
 
-      m_aLogger.info (m_sRequestPrefix + getRequestDescription (aRequestWrapper));
+      // The description must be created in the request thread, as the request is not valid
+      // afterwards
+      final String sRequestDesc = getRequestDescription (aRequestWrapper);
+      writeLogMessage ( () -> m_sRequestPrefix + sRequestDesc);
 
       aFilterChain.doFilter (aRequestWrapper, aResponseWrapper);
 
-      m_aLogger.info (m_sResponsePrefix + getResponseDescription (aResponseWrapper));
+      final String sResponseDesc = getResponseDescription (aResponseWrapper);
+      writeLogMessage ( () -> m_sResponsePrefix + sResponseDesc);
 
-      aResponseWrapper.writeContentTo (aHttpResponse.getOutputStream ());
+      aResponseWrapper.finishResponse ();
     }
     else
     {
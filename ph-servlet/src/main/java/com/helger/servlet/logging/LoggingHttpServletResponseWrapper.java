@@ -23,7 +23,9 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.charset.CharsetHelper;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
@@ -34,15 +36,80 @@ import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
 
+/**
+ * Response wrapper that captures the response body for logging. Two modes are supported:
+ * <ul>
+ * <li>Buffering mode (default constructor): the whole body is buffered and only written to the
+ * client when {@link #finishResponse()} is called.</li>
+ * <li>Tee mode: everything is directly written through to the client and only the first
+ * <code>nMaxCaptureSize</code> bytes are copied for logging.</li>
+ * </ul>
+ */
 public class LoggingHttpServletResponseWrapper extends HttpServletResponseWrapper
 {
-  private final LoggingServletOutpuStream m_aOS = new LoggingServletOutpuStream ();
+  /** Capture size value to indicate that the whole body should be captured */
+  public static final int CAPTURE_UNLIMITED = -1;
+
   private final HttpServletResponse m_aDelegate;
+  private final boolean m_bTee;
+  private final int m_nMaxCaptureSize;
+  private final LoggingServletOutpuStream m_aOS;
+  private PrintWriter m_aWriter;
 
+  /**
+   * Constructor for buffering mode.
+   *
+   * @param aDelegate
+   *        The response to wrap. May not be <code>null</code>.
+   */
   public LoggingHttpServletResponseWrapper (@NonNull final HttpServletResponse aDelegate)
+  {
+    this (aDelegate, false, CAPTURE_UNLIMITED);
+  }
+
+  /**
+   * Constructor for tee mode.
+   *
+   * @param aDelegate
+   *        The response to wrap. May not be <code>null</code>.
+   * @param nMaxCaptureSize
+   *        The maximum number of bytes to be captured for logging. Use {@link #CAPTURE_UNLIMITED}
+   *        to capture everything.
+   * @since 11.4.3
+   */
+  public LoggingHttpServletResponseWrapper (@NonNull final HttpServletResponse aDelegate, final int nMaxCaptureSize)
+  {
+    this (aDelegate, true, nMaxCaptureSize);
+  }
+
+  private LoggingHttpServletResponseWrapper (@NonNull final HttpServletResponse aDelegate,
+                                             final boolean bTee,
+                                             final int nMaxCaptureSize)
   {
     super (aDelegate);
     m_aDelegate = aDelegate;
+    m_bTee = bTee;
+    m_nMaxCaptureSize = nMaxCaptureSize;
+    m_aOS = new LoggingServletOutpuStream ();
+  }
+
+  /**
+   * @return <code>true</code> if the content is written through to the client directly,
+   *         <code>false</code> if it is buffered until {@link #finishResponse()} is called.
+   * @since 11.4.3
+   */
+  public final boolean isTeeMode ()
+  {
+    return m_bTee;
+  }
+
+  /**
+   * @return The maximum number of bytes captured for logging or {@link #CAPTURE_UNLIMITED}.
+   * @since 11.4.3
+   */
+  public final int getMaxCaptureSize ()
+  {
+    return m_nMaxCaptureSize;
   }
 
   @Override
@@ -56,7 +123,24 @@ public class LoggingHttpServletResponseWrapper extends HttpServletResponseWrappe
   @NonNull
   public PrintWriter getWriter () throws IOException
   {
-    return new PrintWriter (StreamHelper.createWriter (m_aOS.m_aBAOS, _getCharset ()));
+    // Reuse the writer, so that nothing gets lost in not flushed writers
+    if (m_aWriter == null)
+      m_aWriter = new PrintWriter (StreamHelper.createWriter (m_aOS, _getCharset ()));
+    return m_aWriter;
+  }
+
+  @Override
+  public void flushBuffer () throws IOException
+  {
+    _flushWriter ();
+    if (m_bTee)
+      super.flushBuffer ();
+  }
+
+  private void _flushWriter ()
+  {
+    if (m_aWriter != null)
+      m_aWriter.flush ();
   }
 
   @NonNull
@@ -66,55 +150,156 @@ public class LoggingHttpServletResponseWrapper extends HttpServletResponseWrappe
     return CharsetHelper.getCharsetFromNameOrDefault (sResponseEncoding, StandardCharsets.UTF_8);
   }
 
+  /**
+   * @return The captured content as a String in the response charset. In tee mode this may be
+   *         truncated - see {@link #isContentTruncated()}.
+   */
   @NonNull
   public String getContentAsString ()
   {
+    _flushWriter ();
     return m_aOS.m_aBAOS.getAsString (_getCharset ());
   }
 
+  /**
+   * @return A copy of the captured content bytes. In tee mode this may be truncated - see
+   *         {@link #isContentTruncated()}.
+   */
   @NonNull
   @ReturnsMutableCopy
   public byte [] getContentAsBytes ()
   {
+    _flushWriter ();
     return m_aOS.m_aBAOS.toByteArray ();
   }
 
+  /**
+   * @return The total number of bytes written to the response body so far, independent of the
+   *         capture limit.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public long getTotalContentLength ()
+  {
+    _flushWriter ();
+    return m_aOS.m_nTotalBytes;
+  }
+
+  /**
+   * @return <code>true</code> if more bytes were written than captured.
+   * @since 11.4.3
+   */
+  public boolean isContentTruncated ()
+  {
+    _flushWriter ();
+    return m_aOS.m_nTotalBytes > m_aOS.m_aBAOS.size ();
+  }
+
+  /**
+   * Write the buffered content to the provided stream. Only has an effect in buffering mode.
+   *
+   * @param aOS
+   *        The stream to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         on error
+   */
   public void writeContentTo (@NonNull final OutputStream aOS) throws IOException
   {
-    if (!m_aDelegate.isCommitted () && m_aOS.m_aBAOS.isNotEmpty ())
+    _flushWriter ();
+    if (!m_bTee && !m_aDelegate.isCommitted () && m_aOS.m_aBAOS.isNotEmpty ())
       m_aOS.m_aBAOS.writeTo (aOS);
   }
 
-  private static class LoggingServletOutpuStream extends ServletOutputStream
+  /**
+   * Must be called after the filter chain was invoked. Flushes any pending writer content and in
+   * buffering mode writes the buffered content to the original response.
+   *
+   * @throws IOException
+   *         on error
+   * @since 11.4.3
+   */
+  public void finishResponse () throws IOException
+  {
+    _flushWriter ();
+    if (!m_bTee)
+      writeContentTo (m_aDelegate.getOutputStream ());
+  }
+
+  private final class LoggingServletOutpuStream extends ServletOutputStream
   {
     private final NonBlockingByteArrayOutputStream m_aBAOS = new NonBlockingByteArrayOutputStream ();
+    private long m_nTotalBytes;
+    // The original output stream - only used in tee mode
+    private ServletOutputStream m_aTarget;
+
+    @Nullable
+    private ServletOutputStream _getTarget () throws IOException
+    {
+      if (m_bTee && m_aTarget == null)
+        m_aTarget = m_aDelegate.getOutputStream ();
+      return m_aTarget;
+    }
+
+    private void _capture (final byte [] b, final int nOfs, final int nLen)
+    {
+      m_nTotalBytes += nLen;
+      final int nCapture = m_nMaxCaptureSize < 0 ? nLen : (int) Math.min (nLen,
+                                                                           m_nMaxCaptureSize - (long) m_aBAOS.size ());
+      if (nCapture > 0)
+        m_aBAOS.write (b, nOfs, nCapture);
+    }
 
     @Override
     public boolean isReady ()
     {
+      if (m_bTee && m_aTarget != null)
+        return m_aTarget.isReady ();
       return true;
     }
 
     @Override
-    public void setWriteListener (final WriteListener writeListener)
-    {}
+    public void setWriteListener (final WriteListener aWriteListener)
+    {
+      if (m_bTee)
+        try
+        {
+          _getTarget ().setWriteListener (aWriteListener);
+        }
+        catch (final IOException ex)
+        {
+          throw new IllegalStateException (ex);
+        }
+    }
 
     @Override
     public void write (final int b) throws IOException
     {
-      m_aBAOS.write (b);
+      m_nTotalBytes++;
+      if (m_nMaxCaptureSize < 0 || m_aBAOS.size () < m_nMaxCaptureSize)
+        m_aBAOS.write (b);
+      if (m_bTee)
+        _getTarget ().write (b);
     }
 
     @Override
     public void write (final byte [] b) throws IOException
     {
-      m_aBAOS.write (b);
+      write (b, 0, b.length);
     }
 
     @Override
     public void write (final byte [] b, final int nOfs, final int nLen) throws IOException
     {
-      m_aBAOS.write (b, nOfs, nLen);
+      _capture (b, nOfs, nLen);
+      if (m_bTee)
+        _getTarget ().write (b, nOfs, nLen);
+    }
+
+    @Override
+    public void flush () throws IOException
+    {
+      if (m_bTee)
+        _getTarget ().flush ();
     }
   }
 }
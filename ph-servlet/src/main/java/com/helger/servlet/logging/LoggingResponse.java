@@ -28,6 +28,8 @@ final class LoggingResponse
   private int m_nStatus;
   private HttpHeaderMap m_aHeaders;
   private String m_sBody;
+  private long m_nBodyLength = -1;
+  private boolean m_bBodyTruncated;
 
   public int getStatus ()
   {
@@ -61,6 +63,33 @@ final class LoggingResponse
     m_sBody = sBody;
   }
 
+  /**
+   * @return The total number of body bytes sent to the client, or -1 if unknown.
+   */
+  public long getBodyLength ()
+  {
+    return m_nBodyLength;
+  }
+
+  public void setBodyLength (final long nBodyLength)
+  {
+    m_nBodyLength = nBodyLength;
+  }
+
+  /**
+   * @return <code>true</code> if the body contains only the beginning of the content sent to the
+   *         client.
+   */
+  public boolean isBodyTruncated ()
+  {
+    return m_bBodyTruncated;
+  }
+
+  public void setBodyTruncated (final boolean bBodyTruncated)
+  {
+    m_bBodyTruncated = bBodyTruncated;
+  }
+
   @NonNull
   public IJsonObject getAsJson ()
   {
@@ -75,6 +104,10 @@ final class LoggingResponse
     }
     if (m_sBody != null)
       ret.add ("body", m_sBody);
+    if (m_nBodyLength >= 0)
+      ret.add ("bodyLength", m_nBodyLength);
+    if (m_bBodyTruncated)
+      ret.add ("bodyTruncated", true);
     return ret;
   }
 }
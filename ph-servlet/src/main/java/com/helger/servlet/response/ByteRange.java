@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.base.string.StringHelper;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A single satisfiable byte range of an HTTP <code>Range</code> request header as defined in RFC
+ * 9110, section 14. Both positions are inclusive.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@Immutable
+public final class ByteRange
+{
+  /** The only supported range unit */
+  public static final String RANGE_UNIT_BYTES = "bytes";
+  /**
+   * The maximum number of ranges accepted in a single request. Requests with more ranges are
+   * served completely to avoid excessive overhead.
+   */
+  public static final int MAX_RANGES = 32;
+
+  private final long m_nFirstBytePos;
+  private final long m_nLastBytePos;
+
+  public ByteRange (@Nonnegative final long nFirstBytePos, @Nonnegative final long nLastBytePos)
+  {
+    ValueEnforcer.isGE0 (nFirstBytePos, "FirstBytePos");
+    ValueEnforcer.isTrue (nLastBytePos >= nFirstBytePos, "LastBytePos must be >= FirstBytePos");
+    m_nFirstBytePos = nFirstBytePos;
+    m_nLastBytePos = nLastBytePos;
+  }
+
+  /**
+   * @return The position of the first byte (inclusive). Always &ge; 0.
+   */
+  @Nonnegative
+  public long getFirstBytePos ()
+  {
+    return m_nFirstBytePos;
+  }
+
+  /**
+   * @return The position of the last byte (inclusive). Always &ge; first byte position.
+   */
+  @Nonnegative
+  public long getLastBytePos ()
+  {
+    return m_nLastBytePos;
+  }
+
+  /**
+   * @return The number of bytes in this range. Always &gt; 0.
+   */
+  @Nonnegative
+  public long getLength ()
+  {
+    return m_nLastBytePos - m_nFirstBytePos + 1;
+  }
+
+  /**
+   * @param nCompleteLength
+   *        The complete length of the representation.
+   * @return The value of the <code>Content-Range</code> HTTP header for this range, e.g.
+   *         <code>bytes 0-499/1234</code>.
+   */
+  @NonNull
+  @Nonempty
+  public String getContentRangeValue (@Nonnegative final long nCompleteLength)
+  {
+    return RANGE_UNIT_BYTES + " " + m_nFirstBytePos + "-" + m_nLastBytePos + "/" + nCompleteLength;
+  }
+
+  /**
+   * @param nCompleteLength
+   *        The complete length of the representation.
+   * @return The value of the <code>Content-Range</code> HTTP header for a 416 response, e.g.
+   *         <code>bytes *&#47;1234</code>.
+   */
+  @NonNull
+  @Nonempty
+  public static String getUnsatisfiedContentRangeValue (@Nonnegative final long nCompleteLength)
+  {
+    return RANGE_UNIT_BYTES + " */" + nCompleteLength;
+  }
+
+  private static boolean _isDigits (@NonNull final String s)
+  {
+    if (s.isEmpty ())
+      return false;
+    for (final char c : s.toCharArray ())
+      if (c < '0' || c > '9')
+        return false;
+    return true;
+  }
+
+  private static long _parseLong (@NonNull final String s)
+  {
+    try
+    {
+      return Long.parseLong (s);
+    }
+    catch (final NumberFormatException ex)
+    {
+      // Overflow
+      return Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Parse the value of an HTTP <code>Range</code> header.
+   *
+   * @param sRangeHeader
+   *        The header value to parse. May be <code>null</code>.
+   * @param nCompleteLength
+   *        The complete length of the representation. Must be &ge; 0.
+   * @return <code>null</code> if the header is not present, syntactically invalid, uses an unknown
+   *         range unit or contains more than {@link #MAX_RANGES} ranges - in all these cases the
+   *         header must be ignored. An empty list if none of the ranges is satisfiable (HTTP 416).
+   *         Otherwise the list of satisfiable ranges in the requested order.
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public static ICommonsList <ByteRange> parseRangeHeader (@Nullable final String sRangeHeader,
+                                                           @Nonnegative final long nCompleteLength)
+  {
+    ValueEnforcer.isGE0 (nCompleteLength, "CompleteLength");
+    if (StringHelper.isEmpty (sRangeHeader))
+      return null;
+
+    final String sValue = sRangeHeader.trim ();
+    final int nEquals = sValue.indexOf ('=');
+    if (nEquals < 0 || !sValue.substring (0, nEquals).trim ().equalsIgnoreCase (RANGE_UNIT_BYTES))
+      return null;
+
+    final ICommonsList <ByteRange> ret = new CommonsArrayList <> ();
+    int nRangeCount = 0;
+    for (final String sPart : StringHelper.getExploded (',', sValue.substring (nEquals + 1)))
+    {
+      final String sSpec = sPart.trim ();
+      if (sSpec.isEmpty ())
+        continue;
+      if (++nRangeCount > MAX_RANGES)
+        return null;
+
+      final int nDash = sSpec.indexOf ('-');
+      if (nDash < 0)
+        return null;
+      final String sFirst = sSpec.substring (0, nDash).trim ();
+      final String sLast = sSpec.substring (nDash + 1).trim ();
+
+      if (sFirst.isEmpty ())
+      {
+        // Suffix range "-500"
+        if (!_isDigits (sLast))
+          return null;
+        final long nSuffixLength = _parseLong (sLast);
+        if (nSuffixLength > 0 && nCompleteLength > 0)
+          ret.add (new ByteRange (Math.max (0, nCompleteLength - nSuffixLength), nCompleteLength - 1));
+      }
+      else
+      {
+        if (!_isDigits (sFirst))
+          return null;
+        final long nFirst = _parseLong (sFirst);
+        long nLast;
+        if (sLast.isEmpty ())
+          nLast = Long.MAX_VALUE;
+        else
+        {
+          if (!_isDigits (sLast))
+            return null;
+          nLast = _parseLong (sLast);
+          if (nLast < nFirst)
+            return null;
+        }
+        if (nFirst < nCompleteLength)
+          ret.add (new ByteRange (nFirst, Math.min (nLast, nCompleteLength - 1)));
+      }
+    }
+    if (nRangeCount == 0)
+      return null;
+    return ret;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final ByteRange rhs = (ByteRange) o;
+    return m_nFirstBytePos == rhs.m_nFirstBytePos && m_nLastBytePos == rhs.m_nLastBytePos;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_nFirstBytePos).append (m_nLastBytePos).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("FirstBytePos", m_nFirstBytePos)
+                                       .append ("LastBytePos", m_nLastBytePos)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A bounded in-memory LRU cache for compressed response bodies. Hot static content that is served
+ * via {@link UnifiedResponse#setContent(byte[])} is compressed only once per
+ * {@link EResponseStreamType} and afterwards served from this cache, including an exact
+ * <code>Content-Length</code>. The cache is bounded by the total number of compressed bytes it
+ * holds; the least recently used entries are evicted first.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public class CompressedContentCache
+{
+  /** Default maximum number of compressed bytes held: 16 MB */
+  public static final long DEFAULT_MAX_TOTAL_BYTES = 16L * 1024 * 1024;
+  /** Default minimum uncompressed content length to be considered for caching */
+  public static final int DEFAULT_MIN_CONTENT_LENGTH = 1024;
+  /** Default maximum uncompressed content length to be considered for caching: 1 MB */
+  public static final int DEFAULT_MAX_CONTENT_LENGTH = 1024 * 1024;
+
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  private final long m_nMaxTotalBytes;
+  private final int m_nMinContentLength;
+  private final int m_nMaxContentLength;
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, byte []> m_aMap = new LinkedHashMap <> (16, 0.75f, true);
+  @GuardedBy ("m_aRWLock")
+  private long m_nTotalBytes;
+  private final AtomicLong m_aHits = new AtomicLong ();
+  private final AtomicLong m_aMisses = new AtomicLong ();
+
+  /**
+   * Constructor using the default limits.
+   */
+  public CompressedContentCache ()
+  {
+    this (DEFAULT_MAX_TOTAL_BYTES, DEFAULT_MIN_CONTENT_LENGTH, DEFAULT_MAX_CONTENT_LENGTH);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxTotalBytes
+   *        The maximum number of compressed bytes to be held in total. Must be &gt; 0.
+   * @param nMinContentLength
+   *        The minimum uncompressed content length to be cached. Smaller content is compressed on
+   *        the fly. Must be &ge; 0.
+   * @param nMaxContentLength
+   *        The maximum uncompressed content length to be cached. Larger content is compressed on
+   *        the fly. Must be &ge; nMinContentLength.
+   */
+  public CompressedContentCache (final long nMaxTotalBytes,
+                                 @Nonnegative final int nMinContentLength,
+                                 @Nonnegative final int nMaxContentLength)
+  {
+    ValueEnforcer.isGT0 (nMaxTotalBytes, "MaxTotalBytes");
+    ValueEnforcer.isGE0 (nMinContentLength, "MinContentLength");
+    ValueEnforcer.isTrue (nMaxContentLength >= nMinContentLength,
+                          "MaxContentLength must be >= MinContentLength");
+    m_nMaxTotalBytes = nMaxTotalBytes;
+    m_nMinContentLength = nMinContentLength;
+    m_nMaxContentLength = nMaxContentLength;
+  }
+
+  public final long getMaxTotalBytes ()
+  {
+    return m_nMaxTotalBytes;
+  }
+
+  @Nonnegative
+  public final int getMinContentLength ()
+  {
+    return m_nMinContentLength;
+  }
+
+  @Nonnegative
+  public final int getMaxContentLength ()
+  {
+    return m_nMaxContentLength;
+  }
+
+  /**
+   * Check if content of the provided length is handled by this cache.
+   *
+   * @param nContentLength
+   *        Uncompressed content length
+   * @return <code>true</code> if content of that length is cached.
+   */
+  public final boolean isCacheable (final int nContentLength)
+  {
+    return nContentLength >= m_nMinContentLength && nContentLength <= m_nMaxContentLength;
+  }
+
+  /**
+   * @return The number of cached entries.
+   */
+  @Nonnegative
+  public final int size ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  /**
+   * @return The number of compressed bytes currently held.
+   */
+  @Nonnegative
+  public final long getTotalBytes ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nTotalBytes);
+  }
+
+  /**
+   * @return The number of cache hits since creation or the last {@link #clear()}.
+   */
+  @Nonnegative
+  public final long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  /**
+   * @return The number of cache misses since creation or the last {@link #clear()}.
+   */
+  @Nonnegative
+  public final long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  /**
+   * Remove all entries and reset the statistics.
+   */
+  public final void clear ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_aMap.clear ();
+      m_nTotalBytes = 0;
+    });
+    m_aHits.set (0);
+    m_aMisses.set (0);
+  }
+
+  /**
+   * Get the compressed variant of the provided content, compressing and caching it if it is not yet
+   * present. Compression happens outside of the lock, so concurrent misses on the same key may
+   * compress the same content more than once.
+   *
+   * @param sKey
+   *        The key identifying the uncompressed content. Use either a strong ETag qualified by the
+   *        request URI and query string or {@link #getContentHash(byte[], int, int)}. May neither be
+   *        <code>null</code> nor empty.
+   * @param eStreamType
+   *        The compression to be applied. Must be a compressed type.
+   * @param aContent
+   *        Content bytes. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the content. Must be &ge; 0.
+   * @param nLen
+   *        Number of content bytes. Must be &ge; 0.
+   * @return The compressed bytes. Never <code>null</code>. The returned array must not be modified.
+   * @throws IOException
+   *         In case compression fails
+   */
+  @NonNull
+  public byte [] getOrCompress (@NonNull @Nonempty final String sKey,
+                                @NonNull final EResponseStreamType eStreamType,
+                                @NonNull final byte [] aContent,
+                                @Nonnegative final int nOfs,
+                                @Nonnegative final int nLen) throws IOException
+  {
+    ValueEnforcer.notEmpty (sKey, "Key");
+    ValueEnforcer.notNull (eStreamType, "StreamType");
+    ValueEnforcer.isTrue (eStreamType.isCompressed (), "StreamType must be compressed");
+    ValueEnforcer.isArrayOfsLen (aContent, nOfs, nLen);
+
+    final String sRealKey = eStreamType.name () + ':' + sKey;
+    // Access ordered map - even reading modifies the order
+    final byte [] aCached = m_aRWLock.writeLockedGet ( () -> m_aMap.get (sRealKey));
+    if (aCached != null)
+    {
+      m_aHits.incrementAndGet ();
+      return aCached;
+    }
+
+    m_aMisses.incrementAndGet ();
+    final byte [] aCompressed = compress (eStreamType, aContent, nOfs, nLen);
+    if (aCompressed.length <= m_nMaxTotalBytes)
+    {
+      m_aRWLock.writeLocked ( () -> {
+        final byte [] aOld = m_aMap.put (sRealKey, aCompressed);
+        if (aOld != null)
+          m_nTotalBytes -= aOld.length;
+        m_nTotalBytes += aCompressed.length;
+
+        // Evict least recently used entries
+        final Iterator <byte []> it = m_aMap.values ().iterator ();
+        while (m_nTotalBytes > m_nMaxTotalBytes && it.hasNext ())
+        {
+          m_nTotalBytes -= it.next ().length;
+          it.remove ();
+        }
+      });
+    }
+    return aCompressed;
+  }
+
+  /**
+   * Compress the provided content in the same format as
+   * {@link ResponseHelper#getBestSuitableOutputStream(jakarta.servlet.http.HttpServletRequest, jakarta.servlet.http.HttpServletResponse)}
+   * does.
+   *
+   * @param eStreamType
+   *        The compression to be applied. Must be a compressed type.
+   * @param aContent
+   *        Content bytes. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the content. Must be &ge; 0.
+   * @param nLen
+   *        Number of content bytes. Must be &ge; 0.
+   * @return The compressed bytes. Never <code>null</code>.
+   * @throws IOException
+   *         In case compression fails
+   */
+  @NonNull
+  public static byte [] compress (@NonNull final EResponseStreamType eStreamType,
+                                  @NonNull final byte [] aContent,
+                                  @Nonnegative final int nOfs,
+                                  @Nonnegative final int nLen) throws IOException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (Math.max (64, nLen / 3));
+    final OutputStream aOS;
+    switch (eStreamType)
+    {
+      case GZIP:
+        aOS = new GZIPOutputStream (aBAOS);
+        break;
+      case DEFLATE:
+        aOS = new ZipOutputStream (aBAOS);
+        // A dummy ZIP entry is required!
+        ((ZipOutputStream) aOS).putNextEntry (new ZipEntry ("dummy name"));
+        break;
+      default:
+        throw new IllegalArgumentException ("Unsupported stream type " + eStreamType);
+    }
+    try (aOS)
+    {
+      aOS.write (aContent, nOfs, nLen);
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * Get a hash over the provided content that is suitable as a cache key.
+   *
+   * @param aContent
+   *        Content bytes. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the content. Must be &ge; 0.
+   * @param nLen
+   *        Number of content bytes. Must be &ge; 0.
+   * @return The hex encoded SHA-256 hash of the content. Never <code>null</code>.
+   */
+  @NonNull
+  @Nonempty
+  public static String getContentHash (@NonNull final byte [] aContent,
+                                       @Nonnegative final int nOfs,
+                                       @Nonnegative final int nLen)
+  {
+    try
+    {
+      final MessageDigest aMD = MessageDigest.getInstance ("SHA-256");
+      aMD.update (aContent, nOfs, nLen);
+      return HexFormat.of ().formatHex (aMD.digest ());
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      // Every JRE must support SHA-256
+      throw new IllegalStateException (ex);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("MaxTotalBytes", m_nMaxTotalBytes)
+                                       .append ("MinContentLength", m_nMinContentLength)
+                                       .append ("MaxContentLength", m_nMaxContentLength)
+                                       .getToString ();
+  }
+}
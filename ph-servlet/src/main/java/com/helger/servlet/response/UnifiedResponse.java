@@ -16,15 +16,23 @@
  */
 package com.helger.servlet.response;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -47,6 +55,7 @@ import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.numeric.mutable.MutableLong;
 import com.helger.base.state.EChange;
 import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
@@ -59,6 +68,7 @@ import com.helger.http.cache.CacheControlBuilder;
 import com.helger.http.header.HttpHeaderMap;
 import com.helger.http.header.QValue;
 import com.helger.http.header.specific.AcceptCharsetList;
+import com.helger.http.header.specific.AcceptEncodingList;
 import com.helger.http.header.specific.AcceptMimeTypeList;
 import com.helger.io.file.FilenameHelper;
 import com.helger.mime.CMimeType;
@@ -98,6 +108,10 @@ public class UnifiedResponse
   public static final int MAX_CSS_KB_FOR_IE = 288;
 
   private static final Logger LOGGER = LoggerFactory.getLogger (UnifiedResponse.class);
+  private static final String MIME_TYPE_MULTIPART_BYTERANGES = "multipart/byteranges";
+  private static final String CONTENT_ENCODING_BROTLI = "br";
+  private static final String PRECOMPRESSED_EXTENSION_BROTLI = ".br";
+  private static final String PRECOMPRESSED_EXTENSION_GZIP = ".gz";
   private static final AtomicInteger RESPONSE_NUM = new AtomicInteger (0);
   private static final AtomicBoolean SILENT_MODE = new AtomicBoolean (GlobalDebug.DEFAULT_SILENT_MODE);
 
@@ -126,6 +140,7 @@ public class UnifiedResponse
   private int m_nContentArrayOfs;
   private int m_nContentArrayLength;
   private IHasInputStream m_aContentISP;
+  private Path m_aContentPath;
   private EContentDispositionType m_eContentDispositionType = DEFAULT_CONTENT_DISPOSITION_TYPE;
   private String m_sContentDispositionFilename;
   private CacheControlBuilder m_aCacheControl;
@@ -137,6 +152,8 @@ public class UnifiedResponse
   private ICommonsOrderedMap <String, Cookie> m_aCookies;
   private boolean m_bHttpHeaderValuesUnified;
   private boolean m_bHttpHeaderValuesQuoteIfNecessary;
+  private boolean m_bUsePrecompressedFiles;
+  private CompressedContentCache m_aCompressedContentCache;
 
   // Internal status members
   /**
@@ -211,6 +228,8 @@ public class UnifiedResponse
     }
     m_bHttpHeaderValuesUnified = UnifiedResponseDefaultSettings.isHttpHeaderValuesUnified ();
     m_bHttpHeaderValuesQuoteIfNecessary = UnifiedResponseDefaultSettings.isHttpHeaderValuesQuoteIfNecessary ();
+    m_bUsePrecompressedFiles = UnifiedResponseDefaultSettings.isUsePrecompressedFiles ();
+    m_aCompressedContentCache = UnifiedResponseDefaultSettings.getCompressedContentCache ();
   }
 
   @NonNull
@@ -380,7 +399,7 @@ public class UnifiedResponse
    */
   public final boolean hasContent ()
   {
-    return m_aContentArray != null || m_aContentISP != null;
+    return m_aContentArray != null || m_aContentISP != null || m_aContentPath != null;
   }
 
   /**
@@ -453,6 +472,7 @@ public class UnifiedResponse
     m_nContentArrayOfs = nOfs;
     m_nContentArrayLength = nLen;
     m_aContentISP = null;
+    m_aContentPath = null;
     return this;
   }
 
@@ -473,6 +493,32 @@ public class UnifiedResponse
     m_nContentArrayOfs = -1;
     m_nContentArrayLength = -1;
     m_aContentISP = aISP;
+    m_aContentPath = null;
+    return this;
+  }
+
+  /**
+   * Set the response content from a file. Compared to {@link #setContent(IHasInputStream)} the
+   * Content-Length is emitted, HTTP <code>Range</code> requests (including <code>If-Range</code>
+   * and multiple ranges) are answered with partial content and the file is transferred via
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+   *
+   * @param aPath
+   *        The file to be returned. May not be <code>null</code>.
+   * @return this
+   * @since 11.4.3
+   */
+  @NonNull
+  public final UnifiedResponse setContent (@NonNull final Path aPath)
+  {
+    ValueEnforcer.notNull (aPath, "Path");
+    if (hasContent ())
+      logInfo ("Overwriting content with file!");
+    m_aContentArray = null;
+    m_nContentArrayOfs = -1;
+    m_nContentArrayLength = -1;
+    m_aContentISP = null;
+    m_aContentPath = aPath;
     return this;
   }
 
@@ -483,6 +529,7 @@ public class UnifiedResponse
     m_nContentArrayOfs = -1;
     m_nContentArrayLength = -1;
     m_aContentISP = null;
+    m_aContentPath = null;
     return this;
   }
 
@@ -1079,6 +1126,63 @@ public class UnifiedResponse
     return this;
   }
 
+  /**
+   * @return <code>true</code> if pre-compressed sibling files are served for file content,
+   *         <code>false</code> if not.
+   * @see UnifiedResponseDefaultSettings#isUsePrecompressedFiles()
+   * @since 11.4.3
+   */
+  public final boolean isUsePrecompressedFiles ()
+  {
+    return m_bUsePrecompressedFiles;
+  }
+
+  /**
+   * Enable or disable the usage of pre-compressed sibling files for content set via
+   * {@link #setContent(Path)}. If enabled and the client accepts it, an up-to-date
+   * <code>&lt;file&gt;.br</code> or <code>&lt;file&gt;.gz</code> next to the original file is sent
+   * instead of the original, together with the matching <code>Content-Encoding</code>.
+   *
+   * @param bUsePrecompressedFiles
+   *        <code>true</code> to enable it, <code>false</code> to disable it.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final UnifiedResponse setUsePrecompressedFiles (final boolean bUsePrecompressedFiles)
+  {
+    m_bUsePrecompressedFiles = bUsePrecompressedFiles;
+    return this;
+  }
+
+  /**
+   * @return The cache for compressed byte array content. May be <code>null</code>.
+   * @see UnifiedResponseDefaultSettings#getCompressedContentCache()
+   * @since 11.4.3
+   */
+  @Nullable
+  public final CompressedContentCache getCompressedContentCache ()
+  {
+    return m_aCompressedContentCache;
+  }
+
+  /**
+   * Set the cache to be used for compressed byte array content. If a strong ETag is present, it is
+   * used together with the request URL as the cache key, otherwise a hash over the content is
+   * used.
+   *
+   * @param aCompressedContentCache
+   *        The cache to be used. May be <code>null</code> to always compress on the fly.
+   * @return this for chaining
+   * @since 11.4.3
+   */
+  @NonNull
+  public final UnifiedResponse setCompressedContentCache (@Nullable final CompressedContentCache aCompressedContentCache)
+  {
+    m_aCompressedContentCache = aCompressedContentCache;
+    return this;
+  }
+
   /**
    * When specifying <code>false</code>, this method uses a special response header to prevent
    * certain browsers from MIME-sniffing a response away from the declared content-type. When
@@ -1355,6 +1459,297 @@ public class UnifiedResponse
     }
   }
 
+  /**
+   * @param sETag
+   *        The ETag effectively sent. May be <code>null</code>.
+   * @return <code>true</code> if there is no <code>If-Range</code> request header or if it matches
+   *         the ETag or the Last-Modified date of this response.
+   */
+  private boolean _isIfRangeMatching (@Nullable final String sETag)
+  {
+    final String sIfRange = m_aHttpRequest.getHeader (CHttpHeader.IF_RANGE);
+    if (sIfRange == null)
+      return true;
+
+    final String sValue = sIfRange.trim ();
+    if (sValue.startsWith ("W/"))
+    {
+      // Weak ETags never match
+      return false;
+    }
+    // An exact match is required
+    if (sValue.startsWith ("\""))
+      return sValue.equals (sETag);
+    return sValue.equals (m_aResponseHeaderMap.getAllHeaderValues (CHttpHeader.LAST_MODIFIED).getFirstOrNull ());
+  }
+
+  /**
+   * Get the ETag for a content coded variant of this response. Different representations need
+   * different ETags, so the content coding is appended to the opaque tag.
+   *
+   * @param sETag
+   *        The original ETag. May be <code>null</code>.
+   * @param sContentEncoding
+   *        The content coding applied. May not be <code>null</code>.
+   * @return <code>null</code> if the original ETag is <code>null</code> or malformed.
+   */
+  @Nullable
+  static String getContentEncodedETag (@Nullable final String sETag, @NonNull final String sContentEncoding)
+  {
+    if (sETag == null || sETag.length () < 2 || !sETag.endsWith ("\""))
+      return null;
+    return sETag.substring (0, sETag.length () - 1) + '-' + sContentEncoding + '"';
+  }
+
+  /**
+   * Check if the pre-compressed sibling file exists and is not older than the original file.
+   *
+   * @param aPath
+   *        Original file. May not be <code>null</code>.
+   * @param sExtension
+   *        The extension of the sibling including the dot.
+   * @return The sibling or <code>null</code> if it cannot be used.
+   */
+  @Nullable
+  private static Path _getPrecompressedSibling (@NonNull final Path aPath, @NonNull final String sExtension)
+  {
+    final Path aSibling = aPath.resolveSibling (aPath.getFileName ().toString () + sExtension);
+    try
+    {
+      if (Files.isRegularFile (aSibling) &&
+          Files.getLastModifiedTime (aSibling).compareTo (Files.getLastModifiedTime (aPath)) >= 0)
+        return aSibling;
+    }
+    catch (final IOException ex)
+    {
+      // Fall through - the original file will be used
+    }
+    return null;
+  }
+
+  private static void _transferFile (@NonNull final FileChannel aFC,
+                                     @Nonnegative final long nPosition,
+                                     @Nonnegative final long nCount,
+                                     @NonNull final OutputStream aOS) throws IOException
+  {
+    // Use the channel of the container if available - otherwise wrap it
+    // without closing the output stream
+    final WritableByteChannel aTarget = aOS instanceof WritableByteChannel ? (WritableByteChannel) aOS
+                                                                           : Channels.newChannel (aOS);
+    long nDone = 0;
+    while (nDone < nCount)
+    {
+      final long nTransferred = aFC.transferTo (nPosition + nDone, nCount - nDone, aTarget);
+      if (nTransferred <= 0)
+        throw new EOFException ("File ended after " + (nPosition + nDone) + " bytes");
+      nDone += nTransferred;
+    }
+  }
+
+  private void _applyPathContent (@NonNull final HttpServletResponse aHttpResponse,
+                                  final boolean bStatusCodeWasAlreadySet) throws IOException
+  {
+    Path aPath = m_aContentPath;
+    String sETag = m_aResponseHeaderMap.getAllHeaderValues (CHttpHeader.ETAG).getFirstOrNull ();
+    if (m_bUsePrecompressedFiles && ResponseHelperSettings.isResponseCompressionEnabled ())
+    {
+      final AcceptEncodingList aAcceptEncodings = RequestHelper.getAcceptEncodings (m_aHttpRequest);
+      String sContentEncoding = null;
+      Path aVariant = null;
+      if (aAcceptEncodings.explicitlySupportsEncoding (CONTENT_ENCODING_BROTLI))
+      {
+        aVariant = _getPrecompressedSibling (m_aContentPath, PRECOMPRESSED_EXTENSION_BROTLI);
+        if (aVariant != null)
+          sContentEncoding = CONTENT_ENCODING_BROTLI;
+      }
+      if (aVariant == null && ResponseHelperSettings.isResponseGzipEnabled ())
+      {
+        final String sGZipEncoding = aAcceptEncodings.getUsedGZIPEncoding ();
+        if (sGZipEncoding != null)
+        {
+          aVariant = _getPrecompressedSibling (m_aContentPath, PRECOMPRESSED_EXTENSION_GZIP);
+          if (aVariant != null)
+            sContentEncoding = sGZipEncoding;
+        }
+      }
+
+      // Inform caches that responses may vary according to Accept-Encoding
+      aHttpResponse.setHeader (CHttpHeader.VARY, CHttpHeader.ACCEPT_ENCODING);
+      if (aVariant != null)
+      {
+        aPath = aVariant;
+        aHttpResponse.setHeader (CHttpHeader.CONTENT_ENCODING, sContentEncoding);
+        sETag = getContentEncodedETag (sETag, sContentEncoding);
+        if (sETag != null)
+          aHttpResponse.setHeader (CHttpHeader.ETAG, sETag);
+      }
+    }
+
+    final FileChannel aFC;
+    try
+    {
+      aFC = FileChannel.open (aPath, StandardOpenOption.READ);
+    }
+    catch (final IOException ex)
+    {
+      logError ("Failed to open file " + aPath + ": " + ex.getMessage ());
+
+      // Handle it gracefully with a 404 and not with a 500
+      aHttpResponse.setStatus (HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+
+    long nBytesWritten = 0;
+    try
+    {
+      final long nFileSize = aFC.size ();
+      aHttpResponse.setHeader (CHttpHeader.ACCEPT_RANGES, ByteRange.RANGE_UNIT_BYTES);
+
+      // Ranges are only applicable for GET requests without a custom status
+      ICommonsList <ByteRange> aRanges = null;
+      if (!bStatusCodeWasAlreadySet && m_eHttpMethod == EHttpMethod.GET && _isIfRangeMatching (sETag))
+        aRanges = ByteRange.parseRangeHeader (m_aHttpRequest.getHeader (CHttpHeader.RANGE), nFileSize);
+
+      if (aRanges == null)
+      {
+        // Complete file
+        ResponseHelper.setContentLength (aHttpResponse, nFileSize);
+        if (nFileSize > 0 && m_eHttpMethod.isContentAllowed ())
+        {
+          try (final OutputStream aOS = aHttpResponse.getOutputStream ())
+          {
+            _transferFile (aFC, 0, nFileSize, aOS);
+            nBytesWritten = nFileSize;
+          }
+          _applyLengthChecks (nFileSize);
+        }
+      }
+      else
+        if (aRanges.isEmpty ())
+        {
+          // None of the ranges is satisfiable
+          aHttpResponse.setStatus (HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+          aHttpResponse.setHeader (CHttpHeader.CONTENT_RANGE, ByteRange.getUnsatisfiedContentRangeValue (nFileSize));
+          ResponseHelper.setContentLength (aHttpResponse, 0);
+        }
+        else
+          if (aRanges.size () == 1)
+          {
+            // Single part
+            final ByteRange aRange = aRanges.getFirstOrNull ();
+            aHttpResponse.setStatus (HttpServletResponse.SC_PARTIAL_CONTENT);
+            aHttpResponse.setHeader (CHttpHeader.CONTENT_RANGE, aRange.getContentRangeValue (nFileSize));
+            ResponseHelper.setContentLength (aHttpResponse, aRange.getLength ());
+            try (final OutputStream aOS = aHttpResponse.getOutputStream ())
+            {
+              _transferFile (aFC, aRange.getFirstBytePos (), aRange.getLength (), aOS);
+              nBytesWritten = aRange.getLength ();
+            }
+          }
+          else
+          {
+            // Multiple parts
+            final String sBoundary = "ph-byteranges-" + Long.toHexString (ThreadLocalRandom.current ().nextLong ());
+            final ICommonsList <byte []> aPartHeaders = new CommonsArrayList <> (aRanges.size ());
+            long nContentLength = 0;
+            for (final ByteRange aRange : aRanges)
+            {
+              final StringBuilder aSB = new StringBuilder ();
+              aSB.append ("\r\n--").append (sBoundary).append ("\r\n");
+              if (m_aMimeType != null)
+                aSB.append (CHttpHeader.CONTENT_TYPE).append (": ").append (m_aMimeType.getAsString ()).append ("\r\n");
+              aSB.append (CHttpHeader.CONTENT_RANGE)
+                 .append (": ")
+                 .append (aRange.getContentRangeValue (nFileSize))
+                 .append ("\r\n\r\n");
+              final byte [] aPartHeader = aSB.toString ().getBytes (StandardCharsets.ISO_8859_1);
+              aPartHeaders.add (aPartHeader);
+              nContentLength += aPartHeader.length + aRange.getLength ();
+            }
+            final byte [] aTrailer = ("\r\n--" + sBoundary + "--\r\n").getBytes (StandardCharsets.ISO_8859_1);
+            nContentLength += aTrailer.length;
+
+            aHttpResponse.setStatus (HttpServletResponse.SC_PARTIAL_CONTENT);
+            aHttpResponse.setContentType (MIME_TYPE_MULTIPART_BYTERANGES + "; boundary=" + sBoundary);
+            ResponseHelper.setContentLength (aHttpResponse, nContentLength);
+            try (final OutputStream aOS = aHttpResponse.getOutputStream ())
+            {
+              for (int i = 0; i < aRanges.size (); ++i)
+              {
+                final ByteRange aRange = aRanges.get (i);
+                final byte [] aPartHeader = aPartHeaders.get (i);
+                aOS.write (aPartHeader);
+                _transferFile (aFC, aRange.getFirstBytePos (), aRange.getLength (), aOS);
+                nBytesWritten += aPartHeader.length + aRange.getLength ();
+              }
+              aOS.write (aTrailer);
+              aOS.flush ();
+            }
+          }
+    }
+    catch (final IOException ex)
+    {
+      // Copying failed -> this is a 500
+      final boolean bResponseCommitted = aHttpResponse.isCommitted ();
+      logError ("Sending file " +
+                aPath +
+                " failed after " +
+                nBytesWritten +
+                " bytes! Response is committed: " +
+                bResponseCommitted +
+                " - " +
+                ex.getMessage ());
+
+      if (!bResponseCommitted)
+        aHttpResponse.sendError (HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    }
+    finally
+    {
+      aFC.close ();
+    }
+  }
+
+  private void _applyCachedCompressedContent (@NonNull final HttpServletResponse aHttpResponse,
+                                              @NonNull final EResponseStreamType eResponseStreamType) throws IOException
+  {
+    final String sETag = m_aResponseHeaderMap.getAllHeaderValues (CHttpHeader.ETAG).getFirstOrNull ();
+    final String sKey;
+    if (sETag != null && sETag.startsWith ("\""))
+    {
+      // The ETag is only unique per resource, so qualify it with the full URL
+      final String sQueryString = m_aHttpRequest.getQueryString ();
+      sKey = m_aHttpRequest.getRequestURI () + (sQueryString != null ? "?" + sQueryString : "") + ' ' + sETag;
+    }
+    else
+    {
+      // Weak ETags don't guarantee byte equality, so hash the content instead
+      sKey = CompressedContentCache.getContentHash (m_aContentArray, m_nContentArrayOfs, m_nContentArrayLength);
+    }
+    final byte [] aCompressed = m_aCompressedContentCache.getOrCompress (sKey,
+                                                                        eResponseStreamType,
+                                                                        m_aContentArray,
+                                                                        m_nContentArrayOfs,
+                                                                        m_nContentArrayLength);
+
+    // Same headers as in ResponseHelper.getBestSuitableOutputStream
+    final AcceptEncodingList aAcceptEncodings = RequestHelper.getAcceptEncodings (m_aHttpRequest);
+    aHttpResponse.setHeader (CHttpHeader.VARY, CHttpHeader.ACCEPT_ENCODING);
+    aHttpResponse.setHeader (CHttpHeader.CONTENT_ENCODING,
+                             eResponseStreamType == EResponseStreamType.GZIP ? aAcceptEncodings.getUsedGZIPEncoding ()
+                                                                             : aAcceptEncodings.getUsedDeflateEncoding ());
+    // The compressed length is known in advance
+    ResponseHelper.setContentLength (aHttpResponse, aCompressed.length);
+    if (m_eHttpMethod.isContentAllowed ())
+    {
+      try (final OutputStream aOS = aHttpResponse.getOutputStream ())
+      {
+        aOS.write (aCompressed);
+        aOS.flush ();
+      }
+      _applyLengthChecks (m_nContentArrayLength);
+    }
+  }
+
   private void _applyContent (@NonNull final HttpServletResponse aHttpResponse, final boolean bStatusCodeWasAlreadySet)
                                                                                                                         throws IOException
   {
@@ -1365,6 +1760,14 @@ public class UnifiedResponse
 
       // Determine the response stream type to use
       final EResponseStreamType eResponseStreamType = ResponseHelper.getBestSuitableOutputStreamType (m_aHttpRequest);
+      if (eResponseStreamType.isCompressed () &&
+          m_aCompressedContentCache != null &&
+          m_aCompressedContentCache.isCacheable (nContentLength))
+      {
+        // Compress only once and send the cached variant
+        _applyCachedCompressedContent (aHttpResponse, eResponseStreamType);
+        return;
+      }
       if (eResponseStreamType.isUncompressed ())
       {
         // Must be set before the content itself arrives
@@ -1444,13 +1847,19 @@ public class UnifiedResponse
         }
       }
       else
-        if (!bStatusCodeWasAlreadySet)
+        if (m_aContentPath != null)
         {
-          // Set status 204 - no content; this is most likely a programming
-          // error
-          aHttpResponse.setStatus (HttpServletResponse.SC_NO_CONTENT);
-          logWarn ("No content present for the response");
+          // We have a file
+          _applyPathContent (aHttpResponse, bStatusCodeWasAlreadySet);
         }
+        else
+          if (!bStatusCodeWasAlreadySet)
+          {
+            // Set status 204 - no content; this is most likely a programming
+            // error
+            aHttpResponse.setStatus (HttpServletResponse.SC_NO_CONTENT);
+            logWarn ("No content present for the response");
+          }
   }
 
   public final void applyToResponse (@NonNull final HttpServletResponse aHttpResponse) throws IOException
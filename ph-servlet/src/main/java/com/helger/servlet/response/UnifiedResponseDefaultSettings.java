@@ -52,6 +52,12 @@ public final class UnifiedResponseDefaultSettings
   public static final boolean DEFAULT_HTTP_HEADER_VALUES_UNIFIED = true;
   /** By default HTTP header value unification is disabled */
   public static final boolean DEFAULT_HTTP_HEADER_VALUES_QUOTE_IF_NECESSARY = false;
+  /**
+   * By default pre-compressed sibling files are not looked up
+   *
+   * @since 11.4.3
+   */
+  public static final boolean DEFAULT_USE_PRECOMPRESSED_FILES = false;
 
   private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
   @GuardedBy ("RW_LOCK")
@@ -62,6 +68,10 @@ public final class UnifiedResponseDefaultSettings
   private static boolean s_bHttpHeaderValuesUnified = DEFAULT_HTTP_HEADER_VALUES_UNIFIED;
   @GuardedBy ("RW_LOCK")
   private static boolean s_bHttpHeaderValuesQuoteIfNecessary = DEFAULT_HTTP_HEADER_VALUES_QUOTE_IF_NECESSARY;
+  @GuardedBy ("RW_LOCK")
+  private static boolean s_bUsePrecompressedFiles = DEFAULT_USE_PRECOMPRESSED_FILES;
+  @GuardedBy ("RW_LOCK")
+  private static CompressedContentCache s_aCompressedContentCache;
 
   static
   {
@@ -356,4 +366,52 @@ public final class UnifiedResponseDefaultSettings
   {
     RW_LOCK.writeLocked ( () -> s_bHttpHeaderValuesQuoteIfNecessary = bHttpHeaderValuesQuoteIfNecessary);
   }
+
+  /**
+   * @return <code>true</code> if pre-compressed sibling files (<code>.br</code> and
+   *         <code>.gz</code>) are served for file content, <code>false</code> if not.
+   * @see #DEFAULT_USE_PRECOMPRESSED_FILES
+   * @since 11.4.3
+   */
+  public static boolean isUsePrecompressedFiles ()
+  {
+    return RW_LOCK.readLockedBoolean ( () -> s_bUsePrecompressedFiles);
+  }
+
+  /**
+   * Enable or disable the usage of pre-compressed sibling files for file content.
+   *
+   * @param bUsePrecompressedFiles
+   *        <code>true</code> to enable it, <code>false</code> to disable it.
+   * @see UnifiedResponse#setUsePrecompressedFiles(boolean)
+   * @since 11.4.3
+   */
+  public static void setUsePrecompressedFiles (final boolean bUsePrecompressedFiles)
+  {
+    RW_LOCK.writeLocked ( () -> s_bUsePrecompressedFiles = bUsePrecompressedFiles);
+  }
+
+  /**
+   * @return The cache for compressed byte array content to be used by default. May be
+   *         <code>null</code> in which case byte array content is always compressed on the fly.
+   * @since 11.4.3
+   */
+  @Nullable
+  public static CompressedContentCache getCompressedContentCache ()
+  {
+    return RW_LOCK.readLockedGet ( () -> s_aCompressedContentCache);
+  }
+
+  /**
+   * Set the cache for compressed byte array content to be used by default.
+   *
+   * @param aCompressedContentCache
+   *        The cache to be used. May be <code>null</code> to disable caching.
+   * @see UnifiedResponse#setCompressedContentCache(CompressedContentCache)
+   * @since 11.4.3
+   */
+  public static void setCompressedContentCache (@Nullable final CompressedContentCache aCompressedContentCache)
+  {
+    RW_LOCK.writeLocked ( () -> s_aCompressedContentCache = aCompressedContentCache);
+  }
 }
@@ -130,6 +130,15 @@ public abstract class AbstractCompressedResponseWrapper extends StatusAwareHttpR
         // Deflate or Gzip was manually set
         setNoCompression ();
       }
+      else
+        if (!CompressFilterSettings.isCompressibleMimeType (sRealContentType))
+        {
+          if (CompressFilterSettings.isDebugModeEnabled ())
+            LOGGER.info ("Explicitly disabling compression because of non-compressible content type " + sContentType);
+
+          // E.g. images or archives that are already compressed
+          setNoCompression ();
+        }
     }
   }
 
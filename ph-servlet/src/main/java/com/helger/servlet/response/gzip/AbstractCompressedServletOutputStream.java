@@ -25,6 +25,7 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
@@ -52,7 +53,7 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
   private final String m_sContentEncoding;
   private OutputStream m_aOS;
   private NonBlockingByteArrayOutputStream m_aBAOS;
-  private DeflaterOutputStream m_aCompressedOS;
+  private OutputStream m_aCompressedOS;
   private boolean m_bClosed = false;
   private boolean m_bDoNotCompress = false;
   private long m_nContentLength;
@@ -69,8 +70,24 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
     m_sContentEncoding = ValueEnforcer.notEmpty (sContentEncoding, "ContentEncoding");
     m_nContentLength = nContentLength;
     m_nMinCompressSize = nMinCompressSize;
-    if (nMinCompressSize == 0)
-      doCompress ("ctor: no min compress size");
+  }
+
+  /**
+   * Without a minimum compress size compression starts with the first access. This is not done in
+   * the constructor, because subclasses are not yet initialized there.
+   *
+   * @throws IOException
+   *         In case of error
+   */
+  private void _compressWithoutMinSize () throws IOException
+  {
+    if (m_aOS == null && m_nMinCompressSize == 0 && !m_bClosed)
+    {
+      if (m_aHttpResponse.isCommitted ())
+        doNotCompress ("no min compress size - response already committed");
+      else
+        doCompress ("no min compress size");
+    }
   }
 
   private static void _debugLog (final boolean bCompress, final String sMsg)
@@ -105,8 +122,65 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
       ResponseHelper.setContentLength (m_aHttpResponse, m_nContentLength);
   }
 
+  /**
+   * Create the deflater output stream. Only called from the default implementation of
+   * {@link #createEncodingOutputStream(OutputStream)}.
+   *
+   * @param aOS
+   *        The response output stream. Never <code>null</code>.
+   * @return The deflater output stream. May not be <code>null</code>.
+   * @throws IOException
+   *         In case of error
+   * @deprecated Override {@link #createEncodingOutputStream(OutputStream)} instead
+   */
+  @Deprecated (forRemoval = true, since = "11.4.3")
   @NonNull
-  protected abstract DeflaterOutputStream createDeflaterOutputStream (@NonNull OutputStream aOS) throws IOException;
+  protected DeflaterOutputStream createDeflaterOutputStream (@NonNull final OutputStream aOS) throws IOException
+  {
+    throw new UnsupportedOperationException ("createEncodingOutputStream must be overridden");
+  }
+
+  /**
+   * Create the output stream that applies the content encoding. The default implementation
+   * delegates to the deprecated {@link #createDeflaterOutputStream(OutputStream)} for
+   * compatibility, so all subclasses should override this method.
+   *
+   * @param aOS
+   *        The response output stream. Never <code>null</code>.
+   * @return The encoding output stream. May not be <code>null</code>.
+   * @throws IOException
+   *         In case of error
+   * @since 11.4.3
+   */
+  @NonNull
+  @SuppressWarnings ("removal")
+  protected OutputStream createEncodingOutputStream (@NonNull final OutputStream aOS) throws IOException
+  {
+    return createDeflaterOutputStream (aOS);
+  }
+
+  /**
+   * Get the compression level configured for the provided content coding and the MIME type of the
+   * current response.
+   *
+   * @param sContentEncoding
+   *        The content coding token the level is configured for, e.g. <code>gzip</code>. May not be
+   *        <code>null</code>.
+   * @return The level or {@link CompressFilterSettings#COMPRESSION_LEVEL_DEFAULT}
+   * @see CompressFilterSettings#getCompressionLevel(String, String)
+   * @since 11.4.3
+   */
+  protected final int getCompressionLevel (@NonNull @Nonempty final String sContentEncoding)
+  {
+    final String sContentType = m_aHttpResponse.getContentType ();
+    String sMimeType = null;
+    if (sContentType != null)
+    {
+      final int nSemicolon = sContentType.indexOf (';');
+      sMimeType = (nSemicolon >= 0 ? sContentType.substring (0, nSemicolon) : sContentType).trim ();
+    }
+    return CompressFilterSettings.getCompressionLevel (sContentEncoding, sMimeType);
+  }
 
   public final void doCompress (@Nullable final String sDebugInfo) throws IOException
   {
@@ -123,7 +197,7 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
       {
         _debugLog (true, sDebugInfo);
 
-        m_aCompressedOS = createDeflaterOutputStream (m_aHttpResponse.getOutputStream ());
+        m_aCompressedOS = createEncodingOutputStream (m_aHttpResponse.getOutputStream ());
         m_aOS = m_aCompressedOS;
         if (m_aBAOS != null)
         {
@@ -165,6 +239,12 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
   @Override
   public final void flush () throws IOException
   {
+    if (m_bClosed)
+    {
+      // The underlying streams may already have released their resources
+      return;
+    }
+    _compressWithoutMinSize ();
     if (m_aOS == null || m_aBAOS != null)
     {
       if (m_nContentLength > 0 && m_nContentLength < m_nMinCompressSize)
@@ -191,6 +271,7 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
       }
       else
       {
+        _compressWithoutMinSize ();
         if (m_aBAOS != null)
         {
           if (m_nContentLength < 0)
@@ -206,11 +287,18 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
         if (CompressFilterSettings.isDebugModeEnabled ())
           LOGGER.info ("Closing stream. compressed=" + (m_aCompressedOS != null));
 
-        if (m_aCompressedOS != null)
-          m_aCompressedOS.close ();
-        else
-          m_aOS.close ();
-        m_bClosed = true;
+        try
+        {
+          if (m_aCompressedOS != null)
+            m_aCompressedOS.close ();
+          else
+            m_aOS.close ();
+        }
+        finally
+        {
+          // Even if closing failed, the stream must not be written to anymore
+          m_bClosed = true;
+        }
       }
     }
   }
@@ -224,6 +312,7 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
   {
     if (!m_bClosed)
     {
+      _compressWithoutMinSize ();
       if (m_aOS == null || m_aBAOS != null)
       {
         if (m_nContentLength > 0 && m_nContentLength < m_nMinCompressSize)
@@ -251,6 +340,7 @@ public abstract class AbstractCompressedServletOutputStream extends AbstractServ
   {
     if (m_bClosed)
       throw new IOException ("Already closed");
+    _compressWithoutMinSize ();
     if (m_aOS == null)
     {
       if (m_aHttpResponse.isCommitted ())
@@ -16,15 +16,29 @@
  */
 package com.helger.servlet.response.gzip;
 
+import java.util.Locale;
+
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.GuardedBy;
 import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.state.EChange;
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsSet;
 
 /**
  * Contains the settings for the CompressFilter class.
@@ -34,6 +48,48 @@ import com.helger.base.state.EChange;
 @ThreadSafe
 public final class CompressFilterSettings
 {
+  /**
+   * The compression level indicating that the default level of the respective encoding should be
+   * used.
+   *
+   * @since 11.4.3
+   */
+  public static final int COMPRESSION_LEVEL_DEFAULT = -1;
+  /**
+   * The default minimum response size in bytes below which no compression happens.
+   *
+   * @since 11.4.3
+   */
+  public static final long DEFAULT_MIN_COMPRESS_SIZE = AbstractCompressedResponseWrapper.DEFAULT_MIN_COMPRESSED_SIZE;
+  /**
+   * The MIME types that are by default not compressed, because they are already compressed. A
+   * trailing <code>/*</code> matches all sub types.
+   */
+  private static final String [] DEFAULT_NON_COMPRESSIBLE_MIME_TYPES = { "image/png",
+                                                                         "image/jpeg",
+                                                                         "image/gif",
+                                                                         "image/webp",
+                                                                         "image/avif",
+                                                                         "audio/*",
+                                                                         "video/*",
+                                                                         "font/woff",
+                                                                         "font/woff2",
+                                                                         "application/zip",
+                                                                         "application/gzip",
+                                                                         "application/x-gzip",
+                                                                         "application/zstd",
+                                                                         "application/x-bzip2",
+                                                                         "application/x-xz",
+                                                                         "application/x-7z-compressed",
+                                                                         "application/x-rar-compressed" };
+
+  /**
+   * By default deflaters are pooled.
+   *
+   * @since 11.4.3
+   */
+  public static final boolean DEFAULT_DEFLATER_POOLING_ENABLED = true;
+
   private static final Logger LOGGER = LoggerFactory.getLogger (CompressFilterSettings.class);
   private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
   @GuardedBy ("RW_LOCK")
@@ -46,6 +102,18 @@ public final class CompressFilterSettings
   private static boolean s_bResponseDeflateEnabled = true;
   @GuardedBy ("RW_LOCK")
   private static boolean s_bDebugModeEnabled = false;
+  @GuardedBy ("RW_LOCK")
+  private static boolean s_bDeflaterPoolingEnabled = DEFAULT_DEFLATER_POOLING_ENABLED;
+  @GuardedBy ("RW_LOCK")
+  private static final ICommonsSet <String> DISABLED_ENCODINGS = new CommonsHashSet <> ();
+  @GuardedBy ("RW_LOCK")
+  private static long s_nMinCompressSize = DEFAULT_MIN_COMPRESS_SIZE;
+  @GuardedBy ("RW_LOCK")
+  private static final ICommonsMap <String, Integer> COMPRESSION_LEVELS = new CommonsHashMap <> ();
+  @GuardedBy ("RW_LOCK")
+  private static final ICommonsSet <String> COMPRESSIBLE_MIME_TYPES = new CommonsHashSet <> ();
+  @GuardedBy ("RW_LOCK")
+  private static final ICommonsSet <String> NON_COMPRESSIBLE_MIME_TYPES = new CommonsHashSet <> (DEFAULT_NON_COMPRESSIBLE_MIME_TYPES);
 
   @PresentForCodeCoverage
   private static final CompressFilterSettings INSTANCE = new CompressFilterSettings ();
@@ -212,4 +280,317 @@ public final class CompressFilterSettings
       LOGGER.info ("CompressFilter debugMode=" + bDebugModeEnabled);
     return ret;
   }
+
+  @NonNull
+  private static String _unifyToken (@NonNull final String s)
+  {
+    return s.trim ().toLowerCase (Locale.US);
+  }
+
+  /**
+   * Check if a pluggable content encoding (see {@link IContentEncoderSPI}) may be used. By default
+   * all of them are enabled.
+   *
+   * @param sContentEncoding
+   *        The content coding token, e.g. <code>br</code>. May not be <code>null</code>.
+   * @return <code>true</code> if it is enabled, <code>false</code> if not
+   * @since 11.4.3
+   */
+  public static boolean isResponseEncodingEnabled (@NonNull @Nonempty final String sContentEncoding)
+  {
+    ValueEnforcer.notEmpty (sContentEncoding, "ContentEncoding");
+    final String sKey = _unifyToken (sContentEncoding);
+    return RW_LOCK.readLockedBoolean ( () -> !DISABLED_ENCODINGS.contains (sKey));
+  }
+
+  /**
+   * Enable or disable a pluggable content encoding. This only has an effect if
+   * {@link #isResponseCompressionEnabled()} is <code>true</code>
+   *
+   * @param sContentEncoding
+   *        The content coding token, e.g. <code>br</code>. May not be <code>null</code>.
+   * @param bEnabled
+   *        <code>true</code> to enable it, <code>false</code> to disable it
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange setResponseEncodingEnabled (@NonNull @Nonempty final String sContentEncoding,
+                                                    final boolean bEnabled)
+  {
+    ValueEnforcer.notEmpty (sContentEncoding, "ContentEncoding");
+    final String sKey = _unifyToken (sContentEncoding);
+    final EChange ret = RW_LOCK.writeLockedGet ( () -> bEnabled ? DISABLED_ENCODINGS.removeObject (sKey)
+                                                                : EChange.valueOf (DISABLED_ENCODINGS.add (sKey)));
+    if (ret.isChanged ())
+      LOGGER.info ("CompressFilter responseEncodingEnabled[" + sKey + "]=" + bEnabled);
+    return ret;
+  }
+
+  /**
+   * @return The minimum response size in bytes, below which no compression happens.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public static long getMinCompressSize ()
+  {
+    return RW_LOCK.readLockedLong ( () -> s_nMinCompressSize);
+  }
+
+  /**
+   * Set the minimum response size in bytes, below which no compression happens. Tiny responses
+   * often get bigger when compressed.
+   *
+   * @param nMinCompressSize
+   *        The minimum size in bytes. Must be &ge; 0.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange setMinCompressSize (@Nonnegative final long nMinCompressSize)
+  {
+    ValueEnforcer.isGE0 (nMinCompressSize, "MinCompressSize");
+    final EChange ret = RW_LOCK.writeLockedGet ( () -> {
+      if (s_nMinCompressSize == nMinCompressSize)
+        return EChange.UNCHANGED;
+      s_nMinCompressSize = nMinCompressSize;
+      return EChange.CHANGED;
+    });
+    if (ret.isChanged ())
+      LOGGER.info ("CompressFilter minCompressSize=" + nMinCompressSize);
+    return ret;
+  }
+
+  @NonNull
+  private static String _getLevelKey (@NonNull final String sContentEncoding, @Nullable final String sMimeType)
+  {
+    final String sKey = _unifyToken (sContentEncoding);
+    return sMimeType == null ? sKey : sKey + ' ' + _unifyToken (sMimeType);
+  }
+
+  /**
+   * Get the compression level to be used.
+   *
+   * @param sContentEncoding
+   *        The content coding token, e.g. <code>gzip</code>. May not be <code>null</code>.
+   * @param sMimeType
+   *        The MIME type of the response without parameters. May be <code>null</code>.
+   * @return The level configured for the combination of content encoding and MIME type, falling
+   *         back to the level of the content encoding and finally to
+   *         {@link #COMPRESSION_LEVEL_DEFAULT}.
+   * @since 11.4.3
+   */
+  public static int getCompressionLevel (@NonNull @Nonempty final String sContentEncoding,
+                                         @Nullable final String sMimeType)
+  {
+    ValueEnforcer.notEmpty (sContentEncoding, "ContentEncoding");
+    return RW_LOCK.readLockedInt ( () -> {
+      Integer aLevel = null;
+      if (sMimeType != null)
+        aLevel = COMPRESSION_LEVELS.get (_getLevelKey (sContentEncoding, sMimeType));
+      if (aLevel == null)
+        aLevel = COMPRESSION_LEVELS.get (_getLevelKey (sContentEncoding, null));
+      return aLevel != null ? aLevel.intValue () : COMPRESSION_LEVEL_DEFAULT;
+    });
+  }
+
+  /**
+   * Set the compression level to be used. The valid range depends on the content encoding, e.g.
+   * 0-9 for <code>gzip</code> and <code>deflate</code>.
+   *
+   * @param sContentEncoding
+   *        The content coding token, e.g. <code>gzip</code>. May not be <code>null</code>.
+   * @param sMimeType
+   *        The MIME type without parameters the level applies to. May be <code>null</code> to set
+   *        the level for all MIME types without a specific level.
+   * @param nLevel
+   *        The level to use or {@link #COMPRESSION_LEVEL_DEFAULT} to remove the setting.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange setCompressionLevel (@NonNull @Nonempty final String sContentEncoding,
+                                             @Nullable final String sMimeType,
+                                             final int nLevel)
+  {
+    ValueEnforcer.notEmpty (sContentEncoding, "ContentEncoding");
+    ValueEnforcer.isTrue (nLevel >= COMPRESSION_LEVEL_DEFAULT, "Level is invalid");
+    final String sKey = _getLevelKey (sContentEncoding, sMimeType);
+    final EChange ret = RW_LOCK.writeLockedGet ( () -> {
+      if (nLevel == COMPRESSION_LEVEL_DEFAULT)
+        return COMPRESSION_LEVELS.removeObject (sKey);
+      final Integer aOld = COMPRESSION_LEVELS.put (sKey, Integer.valueOf (nLevel));
+      return EChange.valueOf (aOld == null || aOld.intValue () != nLevel);
+    });
+    if (ret.isChanged ())
+      LOGGER.info ("CompressFilter compressionLevel[" + sKey + "]=" + nLevel);
+    return ret;
+  }
+
+  /**
+   * @return A copy of all MIME types that are explicitly allowed to be compressed. If this set is
+   *         empty, all MIME types that are not explicitly excluded are compressed.
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllCompressibleMimeTypes ()
+  {
+    return RW_LOCK.readLockedGet (COMPRESSIBLE_MIME_TYPES::getClone);
+  }
+
+  /**
+   * Add a MIME type to the allow-list. As soon as the allow-list is not empty, only responses with
+   * a matching MIME type are compressed.
+   *
+   * @param sMimeType
+   *        MIME type without parameters. A trailing <code>/*</code> matches all sub types. May not
+   *        be <code>null</code>.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange addCompressibleMimeType (@NonNull @Nonempty final String sMimeType)
+  {
+    ValueEnforcer.notEmpty (sMimeType, "MimeType");
+    final String sKey = _unifyToken (sMimeType);
+    return RW_LOCK.writeLockedGet ( () -> EChange.valueOf (COMPRESSIBLE_MIME_TYPES.add (sKey)));
+  }
+
+  /**
+   * @param sMimeType
+   *        MIME type to remove from the allow-list. May be <code>null</code>.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange removeCompressibleMimeType (@Nullable final String sMimeType)
+  {
+    if (StringHelper.isEmpty (sMimeType))
+      return EChange.UNCHANGED;
+    final String sKey = _unifyToken (sMimeType);
+    return RW_LOCK.writeLockedGet ( () -> COMPRESSIBLE_MIME_TYPES.removeObject (sKey));
+  }
+
+  /**
+   * @return A copy of the MIME types that are by default never compressed, because they are already
+   *         compressed. A trailing <code>/*</code> matches all sub types. Never <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <String> getAllDefaultNonCompressibleMimeTypes ()
+  {
+    return new CommonsArrayList <> (DEFAULT_NON_COMPRESSIBLE_MIME_TYPES);
+  }
+
+  /**
+   * @return A copy of all MIME types that are never compressed, because they are already
+   *         compressed.
+   * @see #getAllDefaultNonCompressibleMimeTypes()
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllNonCompressibleMimeTypes ()
+  {
+    return RW_LOCK.readLockedGet (NON_COMPRESSIBLE_MIME_TYPES::getClone);
+  }
+
+  /**
+   * Add a MIME type that should never be compressed.
+   *
+   * @param sMimeType
+   *        MIME type without parameters. A trailing <code>/*</code> matches all sub types. May not
+   *        be <code>null</code>.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange addNonCompressibleMimeType (@NonNull @Nonempty final String sMimeType)
+  {
+    ValueEnforcer.notEmpty (sMimeType, "MimeType");
+    final String sKey = _unifyToken (sMimeType);
+    return RW_LOCK.writeLockedGet ( () -> EChange.valueOf (NON_COMPRESSIBLE_MIME_TYPES.add (sKey)));
+  }
+
+  /**
+   * @param sMimeType
+   *        MIME type to remove from the list of never compressed MIME types. May be
+   *        <code>null</code>.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange removeNonCompressibleMimeType (@Nullable final String sMimeType)
+  {
+    if (StringHelper.isEmpty (sMimeType))
+      return EChange.UNCHANGED;
+    final String sKey = _unifyToken (sMimeType);
+    return RW_LOCK.writeLockedGet ( () -> NON_COMPRESSIBLE_MIME_TYPES.removeObject (sKey));
+  }
+
+  private static boolean _matches (@NonNull final ICommonsSet <String> aSet, @NonNull final String sMimeType)
+  {
+    if (aSet.contains (sMimeType))
+      return true;
+    final int nSlash = sMimeType.indexOf ('/');
+    return nSlash > 0 && aSet.contains (sMimeType.substring (0, nSlash) + "/*");
+  }
+
+  /**
+   * Check if a response with the provided content type should be compressed.
+   *
+   * @param sContentType
+   *        The content type, optionally with parameters. May be <code>null</code>.
+   * @return <code>true</code> if it may be compressed, <code>false</code> if not.
+   * @since 11.4.3
+   */
+  public static boolean isCompressibleMimeType (@Nullable final String sContentType)
+  {
+    if (StringHelper.isEmpty (sContentType))
+      return true;
+
+    // Cut all parameters
+    final int nSemicolon = sContentType.indexOf (';');
+    final String sMimeType = _unifyToken (nSemicolon >= 0 ? sContentType.substring (0, nSemicolon) : sContentType);
+    return RW_LOCK.readLockedBoolean ( () -> {
+      if (_matches (NON_COMPRESSIBLE_MIME_TYPES, sMimeType))
+        return false;
+      return COMPRESSIBLE_MIME_TYPES.isEmpty () || _matches (COMPRESSIBLE_MIME_TYPES, sMimeType);
+    });
+  }
+
+  /**
+   * @return <code>true</code> if GZip and Deflate compression borrow their deflaters from
+   *         {@link DeflaterPool#getDefaultInstance()}, <code>false</code> if a new deflater is
+   *         created for each response.
+   * @since 11.4.3
+   */
+  public static boolean isDeflaterPoolingEnabled ()
+  {
+    return RW_LOCK.readLockedBoolean ( () -> s_bDeflaterPoolingEnabled);
+  }
+
+  /**
+   * Enable or disable the pooling of deflaters.
+   *
+   * @param bDeflaterPoolingEnabled
+   *        <code>true</code> to enable it, <code>false</code> to disable it
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange setDeflaterPoolingEnabled (final boolean bDeflaterPoolingEnabled)
+  {
+    final EChange ret = RW_LOCK.writeLockedGet ( () -> {
+      if (s_bDeflaterPoolingEnabled == bDeflaterPoolingEnabled)
+        return EChange.UNCHANGED;
+      s_bDeflaterPoolingEnabled = bDeflaterPoolingEnabled;
+      return EChange.CHANGED;
+    });
+    if (ret.isChanged ())
+      LOGGER.info ("CompressFilter deflaterPoolingEnabled=" + bDeflaterPoolingEnabled);
+    return ret;
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.spi.ServiceLoaderHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * This class manages the implementations of {@link IContentEncoderSPI}.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@Immutable
+public final class ContentEncoderProvider
+{
+  private static final List <IContentEncoderSPI> ENCODERS;
+
+  static
+  {
+    ENCODERS = ServiceLoaderHelper.getAllSPIImplementations (IContentEncoderSPI.class);
+  }
+
+  @PresentForCodeCoverage
+  private static final ContentEncoderProvider INSTANCE = new ContentEncoderProvider ();
+
+  private ContentEncoderProvider ()
+  {}
+
+  @Nonnegative
+  public static int getEncoderCount ()
+  {
+    return ENCODERS.size ();
+  }
+
+  /**
+   * @return All registered encoders in the order they were found. Earlier encoders are preferred
+   *         over later ones if the client rates them equally. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <IContentEncoderSPI> getAllEncoders ()
+  {
+    return new CommonsArrayList <> (ENCODERS);
+  }
+
+  /**
+   * Find the encoder for the provided content coding.
+   *
+   * @param sContentEncoding
+   *        The content coding token, e.g. <code>br</code>. May be <code>null</code>.
+   * @return <code>null</code> if no such encoder is registered.
+   */
+  @Nullable
+  public static IContentEncoderSPI getEncoderOfContentEncoding (@Nullable final String sContentEncoding)
+  {
+    if (sContentEncoding != null)
+      for (final IContentEncoderSPI aEncoder : ENCODERS)
+        if (aEncoder.getContentEncoding ().equalsIgnoreCase (sContentEncoding))
+          return aEncoder;
+    return null;
+  }
+}
@@ -18,12 +18,14 @@ package com.helger.servlet.response.gzip;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
 import org.jspecify.annotations.NonNull;
 
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
+import com.helger.http.header.specific.AcceptEncodingHandler;
 import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
 import com.helger.statistics.impl.StatisticsManager;
 
@@ -45,9 +47,41 @@ public final class DeflateResponse extends AbstractCompressedResponseWrapper
 
     @Override
     @NonNull
-    protected DeflaterOutputStream createDeflaterOutputStream (@NonNull final OutputStream aOS)
+    protected DeflaterOutputStream createEncodingOutputStream (@NonNull final OutputStream aOS)
     {
-      return new DeflaterOutputStream (aOS);
+      // Levels above 9 may be configured for other encodings
+      final int nLevel = Math.min (getCompressionLevel (AcceptEncodingHandler.DEFLATE_ENCODING),
+                                   Deflater.BEST_COMPRESSION);
+      if (CompressFilterSettings.isDeflaterPoolingEnabled ())
+        return new PooledDeflaterOutputStream (aOS, DeflaterPool.getDefaultInstance (), nLevel);
+      if (nLevel == CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT)
+        return new DeflaterOutputStream (aOS);
+      return new LeveledDeflaterOutputStream (aOS, nLevel);
+    }
+  }
+
+  /**
+   * A {@link DeflaterOutputStream} with a custom compression level. As the {@link Deflater} is not
+   * the default one, it must be ended explicitly to release the native memory.
+   */
+  private static final class LeveledDeflaterOutputStream extends DeflaterOutputStream
+  {
+    LeveledDeflaterOutputStream (@NonNull final OutputStream aOS, final int nLevel)
+    {
+      super (aOS, new Deflater (nLevel));
+    }
+
+    @Override
+    public void close () throws IOException
+    {
+      try
+      {
+        super.close ();
+      }
+      finally
+      {
+        def.end ();
+      }
     }
   }
 
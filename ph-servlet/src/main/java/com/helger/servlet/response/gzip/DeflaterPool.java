@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A bounded, thread-safe pool of {@link Deflater} instances and output buffers. Each
+ * {@link Deflater} holds a considerable amount of native memory that is only released on
+ * {@link Deflater#end()}, so creating one per response churns native memory. Deflaters are
+ * {@link Deflater#reset() reset} when returned and ended if the pool is full.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public final class DeflaterPool
+{
+  /** The default maximum number of idle deflaters per level and format */
+  public static final int DEFAULT_MAX_IDLE_PER_KEY = 64;
+  /** The default size of the pooled output buffers */
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private static final int LEVEL_COUNT = Deflater.BEST_COMPRESSION - Deflater.DEFAULT_COMPRESSION + 1;
+
+  private static final DeflaterPool DEFAULT_INSTANCE = new DeflaterPool (DEFAULT_MAX_IDLE_PER_KEY, DEFAULT_BUFFER_SIZE);
+
+  private final int m_nMaxIdlePerKey;
+  private final int m_nBufferSize;
+  // Index is (level + 1) * 2 + (nowrap ? 1 : 0)
+  private final ICommonsList <ArrayBlockingQueue <Deflater>> m_aDeflaters;
+  private final ArrayBlockingQueue <byte []> m_aBuffers;
+  private final AtomicLong m_aCreated = new AtomicLong ();
+  private final AtomicLong m_aReused = new AtomicLong ();
+  private final AtomicLong m_aDiscarded = new AtomicLong ();
+
+  /**
+   * Constructor
+   *
+   * @param nMaxIdlePerKey
+   *        Maximum number of idle deflaters kept per combination of level and format. Must be &gt;
+   *        0.
+   * @param nBufferSize
+   *        The size of the output buffers. Must be &gt; 0.
+   */
+  public DeflaterPool (@Nonnegative final int nMaxIdlePerKey, @Nonnegative final int nBufferSize)
+  {
+    ValueEnforcer.isGT0 (nMaxIdlePerKey, "MaxIdlePerKey");
+    ValueEnforcer.isGT0 (nBufferSize, "BufferSize");
+    m_nMaxIdlePerKey = nMaxIdlePerKey;
+    m_nBufferSize = nBufferSize;
+    m_aDeflaters = new CommonsArrayList <> (LEVEL_COUNT * 2);
+    for (int i = 0; i < LEVEL_COUNT * 2; ++i)
+      m_aDeflaters.add (new ArrayBlockingQueue <> (nMaxIdlePerKey));
+    // Each deflater stream needs one buffer
+    m_aBuffers = new ArrayBlockingQueue <> (nMaxIdlePerKey * 2);
+  }
+
+  /**
+   * @return The default pool instance used by the compress filter. Never <code>null</code>.
+   */
+  @NonNull
+  public static DeflaterPool getDefaultInstance ()
+  {
+    return DEFAULT_INSTANCE;
+  }
+
+  @Nonnegative
+  public int getMaxIdlePerKey ()
+  {
+    return m_nMaxIdlePerKey;
+  }
+
+  @Nonnegative
+  public int getBufferSize ()
+  {
+    return m_nBufferSize;
+  }
+
+  @NonNull
+  private ArrayBlockingQueue <Deflater> _getQueue (final int nLevel, final boolean bNoWrap)
+  {
+    ValueEnforcer.isBetweenInclusive (nLevel, "Level", Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION);
+    return m_aDeflaters.get ((nLevel - Deflater.DEFAULT_COMPRESSION) * 2 + (bNoWrap ? 1 : 0));
+  }
+
+  /**
+   * Borrow a deflater. It must be returned via {@link #returnDeflater(Deflater, int, boolean)} with
+   * the same parameters.
+   *
+   * @param nLevel
+   *        Compression level from -1 to 9.
+   * @param bNoWrap
+   *        <code>true</code> for raw deflate data as needed for GZIP, <code>false</code> for the
+   *        ZLIB format.
+   * @return A deflater ready to be used. Never <code>null</code>.
+   */
+  @NonNull
+  public Deflater borrowDeflater (final int nLevel, final boolean bNoWrap)
+  {
+    final Deflater ret = _getQueue (nLevel, bNoWrap).poll ();
+    if (ret != null)
+    {
+      m_aReused.incrementAndGet ();
+      return ret;
+    }
+    m_aCreated.incrementAndGet ();
+    return new Deflater (nLevel, bNoWrap);
+  }
+
+  /**
+   * Return a deflater previously borrowed. It is reset and either kept or ended.
+   *
+   * @param aDeflater
+   *        The deflater to return. May not be <code>null</code>.
+   * @param nLevel
+   *        The level it was borrowed with.
+   * @param bNoWrap
+   *        The format it was borrowed with.
+   */
+  public void returnDeflater (@NonNull final Deflater aDeflater, final int nLevel, final boolean bNoWrap)
+  {
+    ValueEnforcer.notNull (aDeflater, "Deflater");
+    aDeflater.reset ();
+    if (!_getQueue (nLevel, bNoWrap).offer (aDeflater))
+    {
+      // Pool is full
+      m_aDiscarded.incrementAndGet ();
+      aDeflater.end ();
+    }
+  }
+
+  /**
+   * @return An output buffer of {@link #getBufferSize()} bytes. Never <code>null</code>.
+   */
+  @NonNull
+  public byte [] borrowBuffer ()
+  {
+    final byte [] ret = m_aBuffers.poll ();
+    return ret != null ? ret : new byte [m_nBufferSize];
+  }
+
+  /**
+   * @param aBuffer
+   *        The buffer to return. Buffers of a different size are ignored.
+   */
+  public void returnBuffer (@NonNull final byte [] aBuffer)
+  {
+    if (aBuffer.length == m_nBufferSize)
+      m_aBuffers.offer (aBuffer);
+  }
+
+  /**
+   * @return The number of deflaters created because the pool was empty.
+   */
+  @Nonnegative
+  public long getCreatedCount ()
+  {
+    return m_aCreated.get ();
+  }
+
+  /**
+   * @return The number of deflaters taken from the pool.
+   */
+  @Nonnegative
+  public long getReusedCount ()
+  {
+    return m_aReused.get ();
+  }
+
+  /**
+   * @return The number of deflaters ended because the pool was full.
+   */
+  @Nonnegative
+  public long getDiscardedCount ()
+  {
+    return m_aDiscarded.get ();
+  }
+
+  /**
+   * @return The number of idle deflaters currently in the pool.
+   */
+  @Nonnegative
+  public int getIdleCount ()
+  {
+    int ret = 0;
+    for (final ArrayBlockingQueue <Deflater> aQueue : m_aDeflaters)
+      ret += aQueue.size ();
+    return ret;
+  }
+
+  /**
+   * End all idle deflaters and drop all idle buffers.
+   */
+  public void clear ()
+  {
+    for (final ArrayBlockingQueue <Deflater> aQueue : m_aDeflaters)
+    {
+      Deflater aDeflater;
+      while ((aDeflater = aQueue.poll ()) != null)
+        aDeflater.end ();
+    }
+    m_aBuffers.clear ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("MaxIdlePerKey", m_nMaxIdlePerKey)
+                                       .append ("BufferSize", m_nBufferSize)
+                                       .append ("Created", m_aCreated.get ())
+                                       .append ("Reused", m_aReused.get ())
+                                       .append ("Discarded", m_aDiscarded.get ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.statistics.api.IMutableStatisticsHandlerKeyedCounter;
+import com.helger.statistics.impl.StatisticsManager;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Response wrapper using a pluggable {@link IContentEncoderSPI}.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+public final class EncodedResponse extends AbstractCompressedResponseWrapper
+{
+  public static class EncodedServletOutputStream extends AbstractCompressedServletOutputStream
+  {
+    private final IContentEncoderSPI m_aEncoder;
+
+    public EncodedServletOutputStream (@NonNull final HttpServletRequest aHttpRequest,
+                                       @NonNull final HttpServletResponse aHttpResponse,
+                                       @NonNull final String sContentEncoding,
+                                       final long nContentLength,
+                                       @Nonnegative final long nMinCompressSize,
+                                       @NonNull final IContentEncoderSPI aEncoder) throws IOException
+    {
+      super (aHttpRequest, aHttpResponse, sContentEncoding, nContentLength, nMinCompressSize);
+      m_aEncoder = ValueEnforcer.notNull (aEncoder, "Encoder");
+    }
+
+    @Override
+    @NonNull
+    protected OutputStream createEncodingOutputStream (@NonNull final OutputStream aOS) throws IOException
+    {
+      final String sContentEncoding = m_aEncoder.getContentEncoding ();
+      return m_aEncoder.createEncodingOutputStream (aOS, getCompressionLevel (sContentEncoding));
+    }
+  }
+
+  private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_ENCODED = StatisticsManager.getKeyedCounterHandler (EncodedResponse.class.getName ());
+
+  private final IContentEncoderSPI m_aEncoder;
+
+  public EncodedResponse (@NonNull final HttpServletRequest aHttpRequest,
+                          @NonNull final HttpServletResponse aHttpResponse,
+                          @NonNull final IContentEncoderSPI aEncoder)
+  {
+    super (aHttpRequest, aHttpResponse, aEncoder.getContentEncoding ());
+    m_aEncoder = aEncoder;
+    STATS_COUNTER_ENCODED.increment (aEncoder.getContentEncoding ());
+  }
+
+  @NonNull
+  public IContentEncoderSPI getEncoder ()
+  {
+    return m_aEncoder;
+  }
+
+  @Override
+  @NonNull
+  protected EncodedServletOutputStream createCompressedOutputStream (@NonNull final HttpServletRequest aHttpRequest,
+                                                                     @NonNull final HttpServletResponse aHttpResponse,
+                                                                     @NonNull @Nonempty final String sContentEncoding,
+                                                                     final long nContentLength,
+                                                                     @Nonnegative final long nMinCompressSize) throws IOException
+  {
+    return new EncodedServletOutputStream (aHttpRequest,
+                                           aHttpResponse,
+                                           sContentEncoding,
+                                           nContentLength,
+                                           nMinCompressSize,
+                                           m_aEncoder);
+  }
+}
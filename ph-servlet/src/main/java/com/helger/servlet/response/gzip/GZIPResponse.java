@@ -18,6 +18,7 @@ package com.helger.servlet.response.gzip;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -25,6 +26,7 @@ import org.jspecify.annotations.NonNull;
 
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
+import com.helger.http.header.specific.AcceptEncodingHandler;
 import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
 import com.helger.statistics.impl.StatisticsManager;
 
@@ -46,9 +48,28 @@ public final class GZIPResponse extends AbstractCompressedResponseWrapper
 
     @Override
     @NonNull
-    protected DeflaterOutputStream createDeflaterOutputStream (@NonNull final OutputStream aOS) throws IOException
+    protected DeflaterOutputStream createEncodingOutputStream (@NonNull final OutputStream aOS) throws IOException
     {
-      return new GZIPOutputStream (aOS);
+      // Levels above 9 may be configured for other encodings
+      final int nLevel = Math.min (getCompressionLevel (AcceptEncodingHandler.GZIP_ENCODING), Deflater.BEST_COMPRESSION);
+      if (CompressFilterSettings.isDeflaterPoolingEnabled ())
+        return new PooledGZIPOutputStream (aOS, DeflaterPool.getDefaultInstance (), nLevel);
+      if (nLevel == CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT)
+        return new GZIPOutputStream (aOS);
+      return new LeveledGZIPOutputStream (aOS, nLevel);
+    }
+  }
+
+  /**
+   * A {@link GZIPOutputStream} with a custom compression level. The header written by the
+   * constructor is not affected by the level.
+   */
+  private static final class LeveledGZIPOutputStream extends GZIPOutputStream
+  {
+    LeveledGZIPOutputStream (@NonNull final OutputStream aOS, final int nLevel) throws IOException
+    {
+      super (aOS);
+      def.setLevel (nLevel);
     }
   }
 
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.style.IsSPIInterface;
+
+/**
+ * SPI interface for additional HTTP content encodings (like <code>br</code> or <code>zstd</code>)
+ * to be used by the compress filter next to the built-in <code>gzip</code> and
+ * <code>deflate</code>. Implementations usually live in separate modules that bring the required
+ * encoder library.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@IsSPIInterface
+public interface IContentEncoderSPI
+{
+  /**
+   * @return The content coding token as used in the <code>Accept-Encoding</code> and
+   *         <code>Content-Encoding</code> HTTP headers, e.g. <code>br</code>. May neither be
+   *         <code>null</code> nor empty.
+   */
+  @NonNull
+  @Nonempty
+  String getContentEncoding ();
+
+  /**
+   * Create a new encoding output stream. Closing the returned stream must finish the encoding and
+   * close the passed stream.
+   *
+   * @param aOS
+   *        The output stream to write the encoded bytes to. May not be <code>null</code>.
+   * @param nLevel
+   *        The compression level to use, or
+   *        {@link CompressFilterSettings#COMPRESSION_LEVEL_DEFAULT} to use the encoder default.
+   * @return The encoding output stream. May not be <code>null</code>.
+   * @throws IOException
+   *         In case of error
+   */
+  @NonNull
+  OutputStream createEncodingOutputStream (@NonNull OutputStream aOS, int nLevel) throws IOException;
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * A {@link DeflaterOutputStream} in ZLIB format that borrows its deflater and output buffer from a
+ * {@link DeflaterPool} and returns them on {@link #close()}. After that the stream can no longer be
+ * used, as the deflater and the buffer may already be used by another stream.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+public class PooledDeflaterOutputStream extends DeflaterOutputStream
+{
+  private final DeflaterPool m_aPool;
+  private final int m_nLevel;
+  private final boolean m_bNoWrap;
+  private boolean m_bReleased = false;
+
+  public PooledDeflaterOutputStream (@NonNull final OutputStream aOS,
+                                     @NonNull final DeflaterPool aPool,
+                                     final int nLevel)
+  {
+    this (aOS, aPool, nLevel, false);
+  }
+
+  protected PooledDeflaterOutputStream (@NonNull final OutputStream aOS,
+                                        @NonNull final DeflaterPool aPool,
+                                        final int nLevel,
+                                        final boolean bNoWrap)
+  {
+    // The buffer allocated by the super class is replaced with a pooled one
+    super (aOS, ValueEnforcer.notNull (aPool, "Pool").borrowDeflater (nLevel, bNoWrap), 1);
+    buf = aPool.borrowBuffer ();
+    m_aPool = aPool;
+    m_nLevel = nLevel;
+    m_bNoWrap = bNoWrap;
+  }
+
+  /**
+   * @return <code>true</code> if the deflater and the buffer were already returned to the pool.
+   */
+  public final boolean isReleased ()
+  {
+    return m_bReleased;
+  }
+
+  /**
+   * Ensure the deflater and buffer were not yet returned to the pool.
+   *
+   * @throws IOException
+   *         if the stream was already closed
+   */
+  protected final void checkNotReleased () throws IOException
+  {
+    if (m_bReleased)
+      throw new IOException ("Stream is already closed");
+  }
+
+  @Override
+  public void write (@NonNull final byte [] aBuf, @Nonnegative final int nOfs, @Nonnegative final int nLen) throws IOException
+  {
+    checkNotReleased ();
+    super.write (aBuf, nOfs, nLen);
+  }
+
+  @Override
+  public void flush () throws IOException
+  {
+    checkNotReleased ();
+    super.flush ();
+  }
+
+  @Override
+  public void finish () throws IOException
+  {
+    checkNotReleased ();
+    super.finish ();
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (!m_bReleased)
+      try
+      {
+        super.close ();
+      }
+      finally
+      {
+        m_bReleased = true;
+        m_aPool.returnDeflater (def, m_nLevel, m_bNoWrap);
+        m_aPool.returnBuffer (buf);
+        // Make sure they are not accidentally used afterwards
+        def = null;
+        buf = null;
+      }
+  }
+}
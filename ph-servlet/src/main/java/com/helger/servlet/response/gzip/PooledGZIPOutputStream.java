@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A GZIP output stream that borrows its deflater and output buffer from a {@link DeflaterPool}.
+ * The output is equivalent to {@link GZIPOutputStream}, which does not allow to pass in a
+ * deflater.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+public class PooledGZIPOutputStream extends PooledDeflaterOutputStream
+{
+  private static final int GZIP_MAGIC = 0x8b1f;
+  private static final byte [] HEADER = { (byte) GZIP_MAGIC,
+                                          (byte) (GZIP_MAGIC >> 8),
+                                          Deflater.DEFLATED,
+                                          0,
+                                          0,
+                                          0,
+                                          0,
+                                          0,
+                                          0,
+                                          (byte) 0xff };
+
+  private final CRC32 m_aCRC = new CRC32 ();
+
+  public PooledGZIPOutputStream (@NonNull final OutputStream aOS,
+                                 @NonNull final DeflaterPool aPool,
+                                 final int nLevel) throws IOException
+  {
+    super (aOS, aPool, nLevel, true);
+    out.write (HEADER);
+  }
+
+  @Override
+  public void write (@NonNull final byte [] aBuf, @Nonnegative final int nOfs, @Nonnegative final int nLen) throws IOException
+  {
+    super.write (aBuf, nOfs, nLen);
+    m_aCRC.update (aBuf, nOfs, nLen);
+  }
+
+  private void _writeInt (final long nValue) throws IOException
+  {
+    // Little endian
+    out.write ((int) (nValue & 0xff));
+    out.write ((int) ((nValue >> 8) & 0xff));
+    out.write ((int) ((nValue >> 16) & 0xff));
+    out.write ((int) ((nValue >> 24) & 0xff));
+  }
+
+  @Override
+  public void finish () throws IOException
+  {
+    checkNotReleased ();
+    if (!def.finished ())
+    {
+      super.finish ();
+
+      // Trailer with checksum and the uncompressed size modulo 2^32
+      _writeInt (m_aCRC.getValue ());
+      _writeInt (def.getBytesRead ());
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.http.EHttpMethod;
+import com.helger.http.EHttpVersion;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Test class for class {@link AsyncServletRunnerVirtualThread}.
+ *
+ * @author Philip Helger
+ */
+public final class AsyncServletRunnerVirtualThreadTest
+{
+  private static final class MockAsyncContext implements AsyncContext
+  {
+    private final MockHttpServletRequest m_aRequest = new MockHttpServletRequest ();
+    private final MockHttpServletResponse m_aResponse = new MockHttpServletResponse ();
+    private final AtomicInteger m_aCompleteCount = new AtomicInteger (0);
+    private final CountDownLatch m_aCompleted = new CountDownLatch (1);
+
+    public ServletRequest getRequest ()
+    {
+      return m_aRequest;
+    }
+
+    public ServletResponse getResponse ()
+    {
+      return m_aResponse;
+    }
+
+    public boolean hasOriginalRequestAndResponse ()
+    {
+      return true;
+    }
+
+    public void dispatch ()
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public void dispatch (final String sPath)
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public void dispatch (final ServletContext aContext, final String sPath)
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public void complete ()
+    {
+      m_aCompleteCount.incrementAndGet ();
+      m_aCompleted.countDown ();
+    }
+
+    public void start (final Runnable aRunnable)
+    {
+      new Thread (aRunnable).start ();
+    }
+
+    public void addListener (final AsyncListener aListener)
+    {}
+
+    public void addListener (final AsyncListener aListener,
+                             final ServletRequest aServletRequest,
+                             final ServletResponse aServletResponse)
+    {}
+
+    public <T extends AsyncListener> T createListener (final Class <T> aClass)
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public void setTimeout (final long nTimeout)
+    {}
+
+    public long getTimeout ()
+    {
+      return 0;
+    }
+  }
+
+  private static ExtAsyncContext _createExtAsyncContext (final MockAsyncContext aAsyncContext)
+  {
+    return new ExtAsyncContext (aAsyncContext, EHttpVersion.HTTP_11, EHttpMethod.GET, null, null, null, null, null);
+  }
+
+  /**
+   * Busy write to the response for the provided time, ignoring all interrupts.
+   */
+  private static void _writeIgnoringInterrupts (final ExtAsyncContext aCtx, final long nMillis)
+  {
+    final long nEnd = System.currentTimeMillis () + nMillis;
+    try
+    {
+      while (System.currentTimeMillis () < nEnd)
+      {
+        aCtx.getResponse ().getOutputStream ().write ('x');
+        try
+        {
+          Thread.sleep (1);
+        }
+        catch (final InterruptedException ex)
+        {
+          // ignore
+        }
+      }
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  @Test
+  public void testMaxConcurrency () throws Exception
+  {
+    final int nTasks = 20;
+    final AtomicInteger aRunning = new AtomicInteger (0);
+    final AtomicInteger aMaxRunning = new AtomicInteger (0);
+    final CountDownLatch aDone = new CountDownLatch (nTasks);
+    try (final AsyncServletRunnerVirtualThread aRunner = new AsyncServletRunnerVirtualThread (3, 0))
+    {
+      for (int i = 0; i < nTasks; ++i)
+        aRunner.execute ( () -> {
+          final int nNow = aRunning.incrementAndGet ();
+          aMaxRunning.accumulateAndGet (nNow, Math::max);
+          try
+          {
+            Thread.sleep (5);
+          }
+          catch (final InterruptedException ex)
+          {
+            Thread.currentThread ().interrupt ();
+          }
+          aRunning.decrementAndGet ();
+          aDone.countDown ();
+        }, () -> {}, () -> {});
+      assertTrue (aDone.await (10, TimeUnit.SECONDS));
+    }
+    assertTrue (aMaxRunning.get () <= 3);
+  }
+
+  @Test
+  public void testHandlerTimeout () throws Exception
+  {
+    final AtomicBoolean aInterrupted = new AtomicBoolean (false);
+    final CountDownLatch aTimedOut = new CountDownLatch (1);
+    final CountDownLatch aDone = new CountDownLatch (1);
+    try (final AsyncServletRunnerVirtualThread aRunner = new AsyncServletRunnerVirtualThread (0, 50))
+    {
+      aRunner.execute ( () -> {
+        try
+        {
+          Thread.sleep (10_000);
+        }
+        catch (final InterruptedException ex)
+        {
+          aInterrupted.set (true);
+        }
+        aDone.countDown ();
+      }, () -> {}, aTimedOut::countDown);
+      assertTrue (aDone.await (10, TimeUnit.SECONDS));
+      assertTrue (aInterrupted.get ());
+      assertTrue (aTimedOut.await (10, TimeUnit.SECONDS));
+      assertEquals (1, aRunner.getTimedOutCount ());
+    }
+  }
+
+  @Test
+  public void testContextClassLoaderAndClosed () throws Exception
+  {
+    final ClassLoader aCL = Thread.currentThread ().getContextClassLoader ();
+    final AtomicBoolean aSameCL = new AtomicBoolean (false);
+    final AtomicInteger aUnavailable = new AtomicInteger (0);
+    final AsyncServletRunnerVirtualThread aRunner = new AsyncServletRunnerVirtualThread ();
+    final CountDownLatch aDone = new CountDownLatch (1);
+    aRunner.execute ( () -> {
+      aSameCL.set (Thread.currentThread ().getContextClassLoader () == aCL);
+      aDone.countDown ();
+    }, aUnavailable::incrementAndGet, () -> {});
+    assertTrue (aDone.await (10, TimeUnit.SECONDS));
+    aRunner.close ();
+    assertTrue (aSameCL.get ());
+
+    // Closed runner rejects
+    aRunner.execute ( () -> {}, aUnavailable::incrementAndGet, () -> {});
+    assertEquals (1, aUnavailable.get ());
+    assertEquals (1, aRunner.getRejectedCount ());
+    assertEquals (1, aRunner.getExecutedCount ());
+  }
+
+  @Test
+  public void testTimeoutHandlerIgnoresInterruptAndCompletes () throws Exception
+  {
+    final MockAsyncContext aAsyncCtx = new MockAsyncContext ();
+    final ExtAsyncContext aCtx = _createExtAsyncContext (aAsyncCtx);
+    try (final AsyncServletRunnerVirtualThread aRunner = new AsyncServletRunnerVirtualThread (0, 50))
+    {
+      aRunner.runAsync (aAsyncCtx.m_aRequest, aAsyncCtx.m_aResponse, aCtx, () -> {
+        try
+        {
+          _writeIgnoringInterrupts (aCtx, 300);
+        }
+        finally
+        {
+          // Like XServletAsyncHandler
+          aCtx.complete ();
+        }
+      });
+      assertTrue (aAsyncCtx.m_aCompleted.await (10, TimeUnit.SECONDS));
+    }
+    // The handler responded itself - no 503 and no second complete
+    assertEquals (1, aAsyncCtx.m_aCompleteCount.get ());
+    assertEquals (HttpServletResponse.SC_OK, aAsyncCtx.m_aResponse.getStatus ());
+    assertTrue (aCtx.isCompleted ());
+  }
+
+  @Test
+  public void testTimeoutHandlerIgnoresInterruptWithoutCompleting () throws Exception
+  {
+    final MockAsyncContext aAsyncCtx = new MockAsyncContext ();
+    final ExtAsyncContext aCtx = _createExtAsyncContext (aAsyncCtx);
+    final AtomicBoolean aHandlerDone = new AtomicBoolean (false);
+    final AtomicBoolean aCompletedWhileRunning = new AtomicBoolean (false);
+    try (final AsyncServletRunnerVirtualThread aRunner = new AsyncServletRunnerVirtualThread (0, 50))
+    {
+      aRunner.runAsync (aAsyncCtx.m_aRequest, aAsyncCtx.m_aResponse, aCtx, () -> {
+        _writeIgnoringInterrupts (aCtx, 300);
+        aCompletedWhileRunning.set (aCtx.isCompleted ());
+        aHandlerDone.set (true);
+      });
+      assertTrue (aAsyncCtx.m_aCompleted.await (10, TimeUnit.SECONDS));
+      assertEquals (1, aRunner.getTimedOutCount ());
+    }
+    // Completed with 503 only after the handler returned
+    assertTrue (aHandlerDone.get ());
+    assertFalse (aCompletedWhileRunning.get ());
+    assertEquals (1, aAsyncCtx.m_aCompleteCount.get ());
+    assertEquals (HttpServletResponse.SC_SERVICE_UNAVAILABLE, aAsyncCtx.m_aResponse.getStatus ());
+
+    // Further completes have no effect
+    aCtx.complete ();
+    assertEquals (1, aAsyncCtx.m_aCompleteCount.get ());
+  }
+}
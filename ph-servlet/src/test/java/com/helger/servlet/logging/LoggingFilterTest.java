@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.logging;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.servlet.mock.MockHttpServletResponse;
+
+/**
+ * Test class for class {@link LoggingFilter}.
+ *
+ * @author Philip Helger
+ */
+public final class LoggingFilterTest
+{
+  @Test
+  public void testResponseDescriptionTruncated () throws Exception
+  {
+    final MockHttpServletResponse aResponse = new MockHttpServletResponse ();
+    aResponse.setCharacterEncoding (StandardCharsets.UTF_8.name ());
+    final LoggingHttpServletResponseWrapper aWrapper = new LoggingHttpServletResponseWrapper (aResponse, 5);
+    // 2 bytes per character, so the capture ends in the middle of a character
+    aWrapper.getOutputStream ().write ("\u00e4\u00e4\u00e4\u00e4\u00e4".getBytes (StandardCharsets.UTF_8));
+    aWrapper.finishResponse ();
+
+    final String sDesc = new LoggingFilter ().getResponseDescription (aWrapper);
+    assertTrue (sDesc, sDesc.contains ("\"bodyLength\":10"));
+    assertTrue (sDesc, sDesc.contains ("\"bodyTruncated\":true"));
+    assertFalse (sDesc, sDesc.contains ("\uFFFD"));
+    assertFalse (sDesc, sDesc.toLowerCase (Locale.ROOT).contains ("\\ufffd"));
+  }
+
+  @Test
+  public void testResponseDescriptionComplete () throws Exception
+  {
+    final MockHttpServletResponse aResponse = new MockHttpServletResponse ();
+    final LoggingHttpServletResponseWrapper aWrapper = new LoggingHttpServletResponseWrapper (aResponse, 100);
+    aWrapper.getOutputStream ().write ("abc".getBytes (StandardCharsets.ISO_8859_1));
+    aWrapper.finishResponse ();
+
+    final String sDesc = new LoggingFilter ().getResponseDescription (aWrapper);
+    assertTrue (sDesc, sDesc.contains ("\"bodyLength\":3"));
+    assertFalse (sDesc, sDesc.contains ("bodyTruncated"));
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.logging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.servlet.mock.MockHttpServletResponse;
+
+/**
+ * Test class for class {@link LoggingHttpServletResponseWrapper}.
+ *
+ * @author Philip Helger
+ */
+public final class LoggingHttpServletResponseWrapperTest
+{
+  private static final byte [] CONTENT = "0123456789abcdefghij".getBytes (StandardCharsets.ISO_8859_1);
+
+  @Test
+  public void testTee () throws Exception
+  {
+    final MockHttpServletResponse aResponse = new MockHttpServletResponse ();
+    final LoggingHttpServletResponseWrapper aWrapper = new LoggingHttpServletResponseWrapper (aResponse, 5);
+    assertTrue (aWrapper.isTeeMode ());
+    aWrapper.getOutputStream ().write (CONTENT, 0, 3);
+    aWrapper.getOutputStream ().write (CONTENT[3]);
+    aWrapper.getOutputStream ().write (CONTENT, 4, CONTENT.length - 4);
+
+    // Directly passed through to the client
+    assertArrayEquals (CONTENT, aResponse.getContentAsByteArray ());
+
+    // Only the beginning is captured
+    assertEquals ("01234", aWrapper.getContentAsString ());
+    assertEquals (CONTENT.length, aWrapper.getTotalContentLength ());
+    assertTrue (aWrapper.isContentTruncated ());
+
+    // Must not write anything else
+    aWrapper.finishResponse ();
+    assertArrayEquals (CONTENT, aResponse.getContentAsByteArray ());
+  }
+
+  @Test
+  public void testTeeUnlimitedWriter () throws Exception
+  {
+    final MockHttpServletResponse aResponse = new MockHttpServletResponse ();
+    final LoggingHttpServletResponseWrapper aWrapper = new LoggingHttpServletResponseWrapper (aResponse,
+                                                                                              LoggingHttpServletResponseWrapper.CAPTURE_UNLIMITED);
+    final PrintWriter aPW = aWrapper.getWriter ();
+    aPW.print ("0123456789");
+    aPW.print ("abcdefghij");
+    aWrapper.finishResponse ();
+
+    assertArrayEquals (CONTENT, aResponse.getContentAsByteArray ());
+    assertArrayEquals (CONTENT, aWrapper.getContentAsBytes ());
+    assertFalse (aWrapper.isContentTruncated ());
+  }
+
+  @Test
+  public void testBuffered () throws Exception
+  {
+    final MockHttpServletResponse aResponse = new MockHttpServletResponse ();
+    final LoggingHttpServletResponseWrapper aWrapper = new LoggingHttpServletResponseWrapper (aResponse);
+    assertFalse (aWrapper.isTeeMode ());
+    aWrapper.getOutputStream ().write (CONTENT);
+
+    // Nothing written yet
+    assertEquals (0, aResponse.getContentAsByteArray ().length);
+    assertArrayEquals (CONTENT, aWrapper.getContentAsBytes ());
+
+    aWrapper.finishResponse ();
+    assertArrayEquals (CONTENT, aResponse.getContentAsByteArray ());
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Test class for class {@link ByteRange}.
+ *
+ * @author Philip Helger
+ */
+public final class ByteRangeTest
+{
+  @Test
+  public void testParse ()
+  {
+    ICommonsList <ByteRange> aRanges = ByteRange.parseRangeHeader ("bytes=0-499", 1000);
+    assertEquals (1, aRanges.size ());
+    assertEquals (new ByteRange (0, 499), aRanges.get (0));
+    assertEquals (500, aRanges.get (0).getLength ());
+    assertEquals ("bytes 0-499/1000", aRanges.get (0).getContentRangeValue (1000));
+
+    aRanges = ByteRange.parseRangeHeader (" Bytes = 500-, -100 ,900-2000, ", 1000);
+    assertEquals (3, aRanges.size ());
+    assertEquals (new ByteRange (500, 999), aRanges.get (0));
+    assertEquals (new ByteRange (900, 999), aRanges.get (1));
+    assertEquals (new ByteRange (900, 999), aRanges.get (2));
+
+    // Suffix longer than the content
+    aRanges = ByteRange.parseRangeHeader ("bytes=-5000", 1000);
+    assertEquals (new ByteRange (0, 999), aRanges.get (0));
+
+    // Huge numbers
+    aRanges = ByteRange.parseRangeHeader ("bytes=10-99999999999999999999999", 1000);
+    assertEquals (new ByteRange (10, 999), aRanges.get (0));
+  }
+
+  @Test
+  public void testUnsatisfiable ()
+  {
+    assertTrue (ByteRange.parseRangeHeader ("bytes=1000-", 1000).isEmpty ());
+    assertTrue (ByteRange.parseRangeHeader ("bytes=-0", 1000).isEmpty ());
+    assertTrue (ByteRange.parseRangeHeader ("bytes=0-10", 0).isEmpty ());
+    assertEquals ("bytes */1000", ByteRange.getUnsatisfiedContentRangeValue (1000));
+  }
+
+  @Test
+  public void testIgnored ()
+  {
+    assertNull (ByteRange.parseRangeHeader (null, 1000));
+    assertNull (ByteRange.parseRangeHeader ("", 1000));
+    assertNull (ByteRange.parseRangeHeader ("items=0-5", 1000));
+    assertNull (ByteRange.parseRangeHeader ("bytes=", 1000));
+    assertNull (ByteRange.parseRangeHeader ("bytes=5", 1000));
+    assertNull (ByteRange.parseRangeHeader ("bytes=5-1", 1000));
+    assertNull (ByteRange.parseRangeHeader ("bytes=a-5", 1000));
+    assertNull (ByteRange.parseRangeHeader ("bytes=-", 1000));
+
+    final StringBuilder aSB = new StringBuilder ("bytes=0-0");
+    for (int i = 1; i <= ByteRange.MAX_RANGES; ++i)
+      aSB.append (',').append (i).append ('-').append (i);
+    assertNull (ByteRange.parseRangeHeader (aSB.toString (), 1000));
+  }
+}
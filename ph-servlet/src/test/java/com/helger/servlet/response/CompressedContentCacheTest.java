@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link CompressedContentCache}.
+ *
+ * @author Philip Helger
+ */
+public final class CompressedContentCacheTest
+{
+  @Test
+  public void testCompress () throws IOException
+  {
+    final byte [] aContent = "Hello compressed world".getBytes ();
+    final byte [] aCompressed = CompressedContentCache.compress (EResponseStreamType.GZIP, aContent, 0, aContent.length);
+    try (final InputStream aIS = new GZIPInputStream (new ByteArrayInputStream (aCompressed)))
+    {
+      assertArrayEquals (aContent, aIS.readAllBytes ());
+    }
+  }
+
+  @Test
+  public void testContentHash ()
+  {
+    final byte [] aContent = "abcabc".getBytes ();
+    assertEquals (64, CompressedContentCache.getContentHash (aContent, 0, 6).length ());
+    assertEquals (CompressedContentCache.getContentHash (aContent, 0, 3),
+                  CompressedContentCache.getContentHash (aContent, 3, 3));
+    assertNotEquals (CompressedContentCache.getContentHash (aContent, 0, 3),
+                     CompressedContentCache.getContentHash (aContent, 0, 6));
+  }
+
+  @Test
+  public void testCacheAndEviction () throws IOException
+  {
+    final byte [] aContent = new byte [2000];
+    final int nCompressedLen = CompressedContentCache.compress (EResponseStreamType.GZIP, aContent, 0, 2000).length;
+
+    // Room for exactly two entries
+    final CompressedContentCache aCache = new CompressedContentCache (nCompressedLen * 2L, 100, 10_000);
+    assertFalse (aCache.isCacheable (99));
+    assertTrue (aCache.isCacheable (100));
+    assertFalse (aCache.isCacheable (10_001));
+
+    final byte [] a1 = aCache.getOrCompress ("k1", EResponseStreamType.GZIP, aContent, 0, 2000);
+    assertSame (a1, aCache.getOrCompress ("k1", EResponseStreamType.GZIP, aContent, 0, 2000));
+    aCache.getOrCompress ("k2", EResponseStreamType.GZIP, aContent, 0, 2000);
+    assertEquals (2, aCache.size ());
+    assertEquals (nCompressedLen * 2L, aCache.getTotalBytes ());
+
+    // Touch k1, so that k2 is the eldest one
+    aCache.getOrCompress ("k1", EResponseStreamType.GZIP, aContent, 0, 2000);
+    aCache.getOrCompress ("k3", EResponseStreamType.GZIP, aContent, 0, 2000);
+    assertEquals (2, aCache.size ());
+    assertSame (a1, aCache.getOrCompress ("k1", EResponseStreamType.GZIP, aContent, 0, 2000));
+    assertEquals (3, aCache.getMissCount ());
+    assertEquals (3, aCache.getHitCount ());
+
+    // Different stream type is a different entry
+    aCache.getOrCompress ("k1", EResponseStreamType.DEFLATE, aContent, 0, 2000);
+    assertEquals (4, aCache.getMissCount ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.size ());
+    assertEquals (0, aCache.getTotalBytes ());
+    assertEquals (0, aCache.getHitCount ());
+  }
+}
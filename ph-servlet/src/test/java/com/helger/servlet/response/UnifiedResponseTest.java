@@ -16,15 +16,27 @@
  */
 package com.helger.servlet.response;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 import org.junit.Test;
 
 import com.helger.collection.commons.ICommonsList;
 import com.helger.http.CHttpHeader;
+import com.helger.mime.CMimeType;
 import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Test class for class {@link UnifiedResponse}.
@@ -89,4 +101,179 @@ public final class UnifiedResponseTest
       assertFalse (aResponse.responseHeaderMap ().containsHeaders (sName));
     }
   }
+
+  private static MockHttpServletResponse _getFile (final Path aPath, final String sRange, final String sIfRange)
+                                                                                                                throws IOException
+  {
+    final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+    if (sRange != null)
+      aRequest.addHeader (CHttpHeader.RANGE, sRange);
+    if (sIfRange != null)
+      aRequest.addHeader (CHttpHeader.IF_RANGE, sIfRange);
+    final UnifiedResponse aResponse = UnifiedResponse.createSimple (aRequest);
+    aResponse.setMimeType (CMimeType.APPLICATION_OCTET_STREAM).disableCaching ().setContent (aPath);
+    aResponse.setETag ("\"v1\"");
+    final MockHttpServletResponse aHttpResponse = new MockHttpServletResponse ();
+    aResponse.applyToResponse (aHttpResponse);
+    return aHttpResponse;
+  }
+
+  @Test
+  public void testFileContentWithRanges () throws IOException
+  {
+    final byte [] aContent = new byte [1000];
+    for (int i = 0; i < aContent.length; ++i)
+      aContent[i] = (byte) i;
+    final Path aPath = Files.createTempFile ("unifiedresponse", ".bin");
+    try
+    {
+      Files.write (aPath, aContent);
+
+      // Complete file
+      MockHttpServletResponse aHttpResponse = _getFile (aPath, null, null);
+      assertEquals (HttpServletResponse.SC_OK, aHttpResponse.getStatus ());
+      assertEquals ("bytes", aHttpResponse.getHeader (CHttpHeader.ACCEPT_RANGES));
+      assertEquals (1000, aHttpResponse.getContentLength ());
+      assertArrayEquals (aContent, aHttpResponse.getContentAsByteArray ());
+
+      // Single range
+      aHttpResponse = _getFile (aPath, "bytes=100-199", null);
+      assertEquals (HttpServletResponse.SC_PARTIAL_CONTENT, aHttpResponse.getStatus ());
+      assertEquals ("bytes 100-199/1000", aHttpResponse.getHeader (CHttpHeader.CONTENT_RANGE));
+      assertEquals (100, aHttpResponse.getContentLength ());
+      assertArrayEquals (Arrays.copyOfRange (aContent, 100, 200), aHttpResponse.getContentAsByteArray ());
+
+      // Suffix range with matching If-Range
+      aHttpResponse = _getFile (aPath, "bytes=-10", "\"v1\"");
+      assertEquals (HttpServletResponse.SC_PARTIAL_CONTENT, aHttpResponse.getStatus ());
+      assertArrayEquals (Arrays.copyOfRange (aContent, 990, 1000), aHttpResponse.getContentAsByteArray ());
+
+      // Non matching If-Range -> complete file
+      aHttpResponse = _getFile (aPath, "bytes=-10", "\"v0\"");
+      assertEquals (HttpServletResponse.SC_OK, aHttpResponse.getStatus ());
+      assertNull (aHttpResponse.getHeader (CHttpHeader.CONTENT_RANGE));
+      assertArrayEquals (aContent, aHttpResponse.getContentAsByteArray ());
+
+      // Multiple ranges
+      aHttpResponse = _getFile (aPath, "bytes=0-1, 998-", null);
+      assertEquals (HttpServletResponse.SC_PARTIAL_CONTENT, aHttpResponse.getStatus ());
+      assertTrue (aHttpResponse.getContentType ().startsWith ("multipart/byteranges; boundary="));
+      final byte [] aMultipart = aHttpResponse.getContentAsByteArray ();
+      assertEquals (aMultipart.length, aHttpResponse.getContentLength ());
+      final String sMultipart = new String (aMultipart, StandardCharsets.ISO_8859_1);
+      assertTrue (sMultipart.contains ("Content-Range: bytes 0-1/1000\r\n\r\n\u0000\u0001\r\n"));
+      assertTrue (sMultipart.contains ("Content-Range: bytes 998-999/1000\r\n\r\n\u00e6\u00e7\r\n"));
+
+      // Not satisfiable
+      aHttpResponse = _getFile (aPath, "bytes=1000-", null);
+      assertEquals (HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, aHttpResponse.getStatus ());
+      assertEquals ("bytes */1000", aHttpResponse.getHeader (CHttpHeader.CONTENT_RANGE));
+      assertEquals (0, aHttpResponse.getContentAsByteArray ().length);
+    }
+    finally
+    {
+      Files.delete (aPath);
+    }
+  }
+
+  @Test
+  public void testPrecompressedFiles () throws IOException
+  {
+    final Path aDir = Files.createTempDirectory ("unifiedresponse");
+    final Path aPath = aDir.resolve ("app.js");
+    final Path aGZPath = aDir.resolve ("app.js.gz");
+    try
+    {
+      final byte [] aContent = "var x = 1;".getBytes (StandardCharsets.ISO_8859_1);
+      final byte [] aGZContent = CompressedContentCache.compress (EResponseStreamType.GZIP,
+                                                                  aContent,
+                                                                  0,
+                                                                  aContent.length);
+      Files.write (aPath, aContent);
+      Files.write (aGZPath, aGZContent);
+
+      final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+      aRequest.addHeader (CHttpHeader.ACCEPT_ENCODING, "gzip, br");
+      final UnifiedResponse aResponse = UnifiedResponse.createSimple (aRequest);
+      aResponse.setUsePrecompressedFiles (true).setContent (aPath);
+      aResponse.setETag ("\"v1\"");
+      MockHttpServletResponse aHttpResponse = new MockHttpServletResponse ();
+      aResponse.applyToResponse (aHttpResponse);
+      assertEquals (HttpServletResponse.SC_OK, aHttpResponse.getStatus ());
+      assertEquals ("gzip", aHttpResponse.getHeader (CHttpHeader.CONTENT_ENCODING));
+      assertEquals ("\"v1-gzip\"", aHttpResponse.getHeader (CHttpHeader.ETAG));
+      assertEquals (aGZContent.length, aHttpResponse.getContentLength ());
+      assertArrayEquals (aGZContent, aHttpResponse.getContentAsByteArray ());
+
+      // Disabled -> original file
+      aHttpResponse = new MockHttpServletResponse ();
+      UnifiedResponse.createSimple (aRequest).setUsePrecompressedFiles (false).setContent (aPath).applyToResponse (aHttpResponse);
+      assertNull (aHttpResponse.getHeader (CHttpHeader.CONTENT_ENCODING));
+      assertArrayEquals (aContent, aHttpResponse.getContentAsByteArray ());
+    }
+    finally
+    {
+      Files.deleteIfExists (aGZPath);
+      Files.deleteIfExists (aPath);
+      Files.delete (aDir);
+    }
+  }
+
+  @Test
+  public void testContentEncodedETag ()
+  {
+    assertEquals ("\"abc-gzip\"", UnifiedResponse.getContentEncodedETag ("\"abc\"", "gzip"));
+    assertEquals ("W/\"abc-br\"", UnifiedResponse.getContentEncodedETag ("W/\"abc\"", "br"));
+    assertNull (UnifiedResponse.getContentEncodedETag (null, "br"));
+    assertNull (UnifiedResponse.getContentEncodedETag ("abc", "br"));
+  }
+
+  @Test
+  public void testCompressedContentCache () throws IOException
+  {
+    final CompressedContentCache aCache = new CompressedContentCache (1024 * 1024, 0, 1024 * 1024);
+    final byte [] aContent = new byte [4096];
+    Arrays.fill (aContent, (byte) 'a');
+    final byte [] aExpected = CompressedContentCache.compress (EResponseStreamType.GZIP, aContent, 0, aContent.length);
+
+    for (int i = 0; i < 3; ++i)
+    {
+      final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+      aRequest.addHeader (CHttpHeader.ACCEPT_ENCODING, "gzip");
+      final UnifiedResponse aResponse = UnifiedResponse.createSimple (aRequest);
+      aResponse.setCompressedContentCache (aCache).setContent (aContent);
+      final MockHttpServletResponse aHttpResponse = new MockHttpServletResponse ();
+      aResponse.applyToResponse (aHttpResponse);
+      assertEquals ("gzip", aHttpResponse.getHeader (CHttpHeader.CONTENT_ENCODING));
+      assertEquals (aExpected.length, aHttpResponse.getContentLength ());
+      assertArrayEquals (aExpected, aHttpResponse.getContentAsByteArray ());
+    }
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals (2, aCache.getHitCount ());
+    assertEquals (1, aCache.size ());
+  }
+
+  @Test
+  public void testCompressedContentCacheETagWithQueryString () throws IOException
+  {
+    final CompressedContentCache aCache = new CompressedContentCache (1024 * 1024, 0, 1024 * 1024);
+    for (final String sQueryString : new String [] { "a=1", "a=2", "a=1" })
+    {
+      // Same strong ETag, but different content per query string
+      final byte [] aContent = new byte [4096];
+      Arrays.fill (aContent, (byte) sQueryString.charAt (2));
+      final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+      aRequest.setRequestURI ("/res").setQueryString (sQueryString);
+      aRequest.addHeader (CHttpHeader.ACCEPT_ENCODING, "gzip");
+      final UnifiedResponse aResponse = UnifiedResponse.createSimple (aRequest);
+      aResponse.setCompressedContentCache (aCache).setETag ("\"v1\"").setContent (aContent);
+      final MockHttpServletResponse aHttpResponse = new MockHttpServletResponse ();
+      aResponse.applyToResponse (aHttpResponse);
+      assertArrayEquals (CompressedContentCache.compress (EResponseStreamType.GZIP, aContent, 0, aContent.length),
+                         aHttpResponse.getContentAsByteArray ());
+    }
+    assertEquals (2, aCache.getMissCount ());
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (2, aCache.size ());
+  }
 }
@@ -16,6 +16,7 @@
  */
 package com.helger.servlet.response.gzip;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -152,4 +153,71 @@ public final class CompressFilterSettingsTest
     assertTrue (CompressFilterSettings.isResponseGzipEnabled ());
     assertTrue (CompressFilterSettings.isResponseDeflateEnabled ());
   }
+
+  @Test
+  public void testEncodingEnabled ()
+  {
+    assertTrue (CompressFilterSettings.isResponseEncodingEnabled ("br"));
+    assertTrue (CompressFilterSettings.setResponseEncodingEnabled ("BR", false).isChanged ());
+    assertFalse (CompressFilterSettings.isResponseEncodingEnabled ("br"));
+    assertFalse (CompressFilterSettings.setResponseEncodingEnabled ("br", false).isChanged ());
+    assertTrue (CompressFilterSettings.setResponseEncodingEnabled ("br", true).isChanged ());
+    assertTrue (CompressFilterSettings.isResponseEncodingEnabled ("br"));
+  }
+
+  @Test
+  public void testCompressionLevel ()
+  {
+    assertEquals (CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT,
+                  CompressFilterSettings.getCompressionLevel ("gzip", "text/html"));
+    try
+    {
+      assertTrue (CompressFilterSettings.setCompressionLevel ("gzip", null, 6).isChanged ());
+      assertFalse (CompressFilterSettings.setCompressionLevel ("gzip", null, 6).isChanged ());
+      assertTrue (CompressFilterSettings.setCompressionLevel ("gzip", "application/json", 1).isChanged ());
+      assertEquals (6, CompressFilterSettings.getCompressionLevel ("gzip", "text/html"));
+      assertEquals (6, CompressFilterSettings.getCompressionLevel ("gzip", null));
+      assertEquals (1, CompressFilterSettings.getCompressionLevel ("gzip", "Application/JSON"));
+      assertEquals (CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT,
+                    CompressFilterSettings.getCompressionLevel ("deflate", "application/json"));
+    }
+    finally
+    {
+      CompressFilterSettings.setCompressionLevel ("gzip", null, CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT);
+      CompressFilterSettings.setCompressionLevel ("gzip",
+                                                  "application/json",
+                                                  CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT);
+    }
+    assertEquals (CompressFilterSettings.COMPRESSION_LEVEL_DEFAULT,
+                  CompressFilterSettings.getCompressionLevel ("gzip", "application/json"));
+  }
+
+  @Test
+  public void testCompressibleMimeType ()
+  {
+    assertTrue (CompressFilterSettings.isCompressibleMimeType (null));
+    assertTrue (CompressFilterSettings.isCompressibleMimeType ("text/html; charset=UTF-8"));
+    assertFalse (CompressFilterSettings.isCompressibleMimeType ("image/png"));
+    assertFalse (CompressFilterSettings.isCompressibleMimeType ("video/mp4"));
+    assertFalse (CompressFilterSettings.isCompressibleMimeType ("Application/Zip"));
+
+    try
+    {
+      // Allow-list
+      assertTrue (CompressFilterSettings.addCompressibleMimeType ("text/*").isChanged ());
+      assertTrue (CompressFilterSettings.isCompressibleMimeType ("text/css"));
+      assertFalse (CompressFilterSettings.isCompressibleMimeType ("application/json"));
+
+      // Deny-list wins
+      assertTrue (CompressFilterSettings.addNonCompressibleMimeType ("text/event-stream").isChanged ());
+      assertFalse (CompressFilterSettings.isCompressibleMimeType ("text/event-stream"));
+    }
+    finally
+    {
+      CompressFilterSettings.removeCompressibleMimeType ("text/*");
+      CompressFilterSettings.removeNonCompressibleMimeType ("text/event-stream");
+    }
+    assertTrue (CompressFilterSettings.getAllCompressibleMimeTypes ().isEmpty ());
+    assertTrue (CompressFilterSettings.isCompressibleMimeType ("application/json"));
+  }
 }
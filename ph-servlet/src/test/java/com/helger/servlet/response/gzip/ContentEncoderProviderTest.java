@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ContentEncoderProvider}.
+ *
+ * @author Philip Helger
+ */
+public final class ContentEncoderProviderTest
+{
+  @Test
+  public void testBasic ()
+  {
+    assertEquals (1, ContentEncoderProvider.getEncoderCount ());
+    assertTrue (ContentEncoderProvider.getAllEncoders ().getFirstOrNull () instanceof MockContentEncoderSPI);
+    assertNotNull (ContentEncoderProvider.getEncoderOfContentEncoding (MockContentEncoderSPI.CONTENT_ENCODING));
+    assertNotNull (ContentEncoderProvider.getEncoderOfContentEncoding ("X-Mock"));
+    assertNull (ContentEncoderProvider.getEncoderOfContentEncoding ("br"));
+    assertNull (ContentEncoderProvider.getEncoderOfContentEncoding (null));
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link DeflaterPool} and the pooled output streams.
+ *
+ * @author Philip Helger
+ */
+public final class DeflaterPoolTest
+{
+  private static final byte [] CONTENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat (200)
+                                                                                                  .getBytes (StandardCharsets.US_ASCII);
+
+  @Test
+  public void testBorrowAndReturn ()
+  {
+    final DeflaterPool aPool = new DeflaterPool (1, 1024);
+    final Deflater d1 = aPool.borrowDeflater (6, true);
+    final Deflater d2 = aPool.borrowDeflater (6, true);
+    assertNotSame (d1, d2);
+    assertEquals (2, aPool.getCreatedCount ());
+
+    aPool.returnDeflater (d1, 6, true);
+    // Pool is full
+    aPool.returnDeflater (d2, 6, true);
+    assertEquals (1, aPool.getDiscardedCount ());
+    assertEquals (1, aPool.getIdleCount ());
+
+    // Different key
+    final Deflater d3 = aPool.borrowDeflater (6, false);
+    assertNotSame (d1, d3);
+    assertSame (d1, aPool.borrowDeflater (6, true));
+    assertEquals (1, aPool.getReusedCount ());
+    aPool.returnDeflater (d3, 6, false);
+    aPool.clear ();
+    assertEquals (0, aPool.getIdleCount ());
+
+    final byte [] aBuf = aPool.borrowBuffer ();
+    assertEquals (1024, aBuf.length);
+    aPool.returnBuffer (aBuf);
+    assertSame (aBuf, aPool.borrowBuffer ());
+  }
+
+  @Test
+  public void testGZIPRoundTrip () throws IOException
+  {
+    final DeflaterPool aPool = new DeflaterPool (4, 512);
+    for (final int nLevel : new int [] { Deflater.DEFAULT_COMPRESSION, 1, 9 })
+      for (int i = 0; i < 3; ++i)
+      {
+        final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+        try (final PooledGZIPOutputStream aOS = new PooledGZIPOutputStream (aBAOS, aPool, nLevel))
+        {
+          aOS.write (CONTENT, 0, 100);
+          aOS.write (CONTENT[100]);
+          aOS.write (CONTENT, 101, CONTENT.length - 101);
+        }
+        try (final InputStream aIS = new GZIPInputStream (new ByteArrayInputStream (aBAOS.toByteArray ())))
+        {
+          assertArrayEquals (CONTENT, aIS.readAllBytes ());
+        }
+      }
+    // One deflater per level, reused afterwards
+    assertEquals (3, aPool.getCreatedCount ());
+    assertEquals (6, aPool.getReusedCount ());
+  }
+
+  @Test
+  public void testDeflateRoundTrip () throws IOException
+  {
+    final DeflaterPool aPool = new DeflaterPool (4, 512);
+    for (int i = 0; i < 3; ++i)
+    {
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+      try (final PooledDeflaterOutputStream aOS = new PooledDeflaterOutputStream (aBAOS, aPool, 5))
+      {
+        aOS.write (CONTENT);
+      }
+      try (final InputStream aIS = new InflaterInputStream (new ByteArrayInputStream (aBAOS.toByteArray ())))
+      {
+        assertArrayEquals (CONTENT, aIS.readAllBytes ());
+      }
+    }
+    assertEquals (1, aPool.getCreatedCount ());
+    assertEquals (2, aPool.getReusedCount ());
+  }
+
+  @Test
+  public void testUseAfterClose () throws IOException
+  {
+    final DeflaterPool aPool = new DeflaterPool (4, 512);
+    final PooledGZIPOutputStream aOS = new PooledGZIPOutputStream (new ByteArrayOutputStream (), aPool, 6);
+    aOS.write (CONTENT);
+    aOS.close ();
+    assertTrue (aOS.isReleased ());
+    // Closing again is fine
+    aOS.close ();
+
+    // The deflater is already used by another stream
+    final PooledGZIPOutputStream aOS2 = new PooledGZIPOutputStream (new ByteArrayOutputStream (), aPool, 6);
+    assertEquals (1, aPool.getReusedCount ());
+    try
+    {
+      aOS.write (CONTENT);
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+    try
+    {
+      aOS.flush ();
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+    try
+    {
+      aOS.finish ();
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+    aOS2.close ();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.response.gzip;
+
+import java.io.FilterOutputStream;
+import java.io.OutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.style.IsSPIImplementation;
+
+/**
+ * Test implementation of {@link IContentEncoderSPI} that does not change the content.
+ *
+ * @author Philip Helger
+ */
+@IsSPIImplementation
+public final class MockContentEncoderSPI implements IContentEncoderSPI
+{
+  public static final String CONTENT_ENCODING = "x-mock";
+
+  @NonNull
+  @Nonempty
+  public String getContentEncoding ()
+  {
+    return CONTENT_ENCODING;
+  }
+
+  @NonNull
+  public OutputStream createEncodingOutputStream (@NonNull final OutputStream aOS, final int nLevel)
+  {
+    return new FilterOutputStream (aOS);
+  }
+}
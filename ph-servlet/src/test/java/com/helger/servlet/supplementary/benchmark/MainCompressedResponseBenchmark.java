@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.servlet.supplementary.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.timing.StopWatch;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.servlet.response.gzip.CompressFilterSettings;
+import com.helger.servlet.response.gzip.DeflaterPool;
+import com.helger.servlet.response.gzip.GZIPResponse;
+
+/**
+ * Small tool to measure the number of GZip compressed responses per second and the heap
+ * allocations per response, with and without {@link DeflaterPool}. Native memory of the deflaters
+ * is not part of the allocated bytes.
+ *
+ * @author Philip Helger
+ */
+public final class MainCompressedResponseBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainCompressedResponseBenchmark.class);
+  private static final byte [] CONTENT = "<div class=\"row\"><span>Lorem ipsum dolor sit amet</span></div>\n".repeat (64)
+                                                                                                         .getBytes (StandardCharsets.UTF_8);
+
+  private static long _getAllocatedBytes ()
+  {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean ()).getCurrentThreadAllocatedBytes ();
+  }
+
+  private static void _run (final int nRuns) throws IOException
+  {
+    final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+    final long nStartBytes = _getAllocatedBytes ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < nRuns; ++i)
+    {
+      final GZIPResponse aResponse = new GZIPResponse (aRequest, new MockHttpServletResponse (), "gzip");
+      aResponse.getOutputStream ().write (CONTENT);
+      aResponse.finish ();
+    }
+    aSW.stop ();
+    final long nBytes = _getAllocatedBytes () - nStartBytes;
+    LOGGER.info ("Pooling=" +
+                 CompressFilterSettings.isDeflaterPoolingEnabled () +
+                 ": " +
+                 nRuns +
+                 " responses in " +
+                 aSW.getMillis () +
+                 " ms (" +
+                 (nRuns * 1000L / Math.max (1, aSW.getMillis ())) +
+                 " responses/s); " +
+                 (nBytes / nRuns) +
+                 " bytes allocated per response");
+  }
+
+  public static void main (final String [] args) throws IOException
+  {
+    for (final boolean bPooling : new boolean [] { false, true })
+    {
+      CompressFilterSettings.setDeflaterPoolingEnabled (bPooling);
+      // Warm up
+      _run (5_000);
+      for (int i = 0; i < 3; ++i)
+        _run (50_000);
+    }
+    LOGGER.info ("Pool: " + DeflaterPool.getDefaultInstance ());
+    CompressFilterSettings.setDeflaterPoolingEnabled (CompressFilterSettings.DEFAULT_DEFLATER_POOLING_ENABLED);
+  }
+}
@@ -32,12 +32,14 @@ import com.helger.base.CGlobal;
 import com.helger.base.concurrent.SimpleReadWriteLock;
 import com.helger.base.debug.GlobalDebug;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.equals.EqualsHelper;
 import com.helger.base.state.EChange;
 import com.helger.base.system.CSystemProperty;
 import com.helger.base.system.SystemProperties;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.smtp.listener.IEmailDataTransportListener;
+import com.helger.smtp.settings.SMTPConnectionPoolSettings;
 
 import jakarta.mail.event.ConnectionListener;
 
@@ -51,6 +53,12 @@ public final class EmailGlobalSettings
 {
   public static final int DEFAULT_MAX_QUEUE_LENGTH = 500;
   public static final int DEFAULT_MAX_SEND_COUNT = 100;
+  /**
+   * By default one sender worker per SMTP server is used
+   *
+   * @since 11.4.3
+   */
+  public static final int DEFAULT_MAX_SENDER_WORKERS_PER_SMTP = 1;
   /** Don't use SSL by default */
   public static final boolean DEFAULT_USE_SSL = false;
   /** Don't use STARTTLS by default */
@@ -66,6 +74,8 @@ public final class EmailGlobalSettings
   private static int s_nMaxMailQueueLen = DEFAULT_MAX_QUEUE_LENGTH;
   @GuardedBy ("RW_LOCK")
   private static int s_nMaxMailSendCount = DEFAULT_MAX_SEND_COUNT;
+  @GuardedBy ("RW_LOCK")
+  private static int s_nMaxSenderWorkersPerSMTP = DEFAULT_MAX_SENDER_WORKERS_PER_SMTP;
 
   // SMTP connection settings
   @GuardedBy ("RW_LOCK")
@@ -78,6 +88,8 @@ public final class EmailGlobalSettings
   private static long s_nTimeoutMilliSecs = DEFAULT_TIMEOUT_MILLISECS;
   @GuardedBy ("RW_LOCK")
   private static boolean s_bDebugSMTP = GlobalDebug.isDebugMode ();
+  @GuardedBy ("RW_LOCK")
+  private static SMTPConnectionPoolSettings s_aConnectionPoolSettings;
 
   // Transport settings
   @GuardedBy ("RW_LOCK")
@@ -139,6 +151,40 @@ public final class EmailGlobalSettings
     });
   }
 
+  /**
+   * @return The maximum number of mail batches that are sent concurrently to a single SMTP server.
+   *         Always &gt; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public static int getMaxSenderWorkersPerSMTP ()
+  {
+    return RW_LOCK.readLockedInt ( () -> s_nMaxSenderWorkersPerSMTP);
+  }
+
+  /**
+   * Set the maximum number of mail batches that are sent concurrently to a single SMTP server. This
+   * should not exceed the number of parallel connections the SMTP server accepts from a single
+   * client. Changing this setting has no effect on existing mail queues!
+   *
+   * @param nMaxSenderWorkersPerSMTP
+   *        The maximum number of concurrent senders. Must be &gt; 0.
+   * @return {@link EChange}.
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange setMaxSenderWorkersPerSMTP (@Nonnegative final int nMaxSenderWorkersPerSMTP)
+  {
+    ValueEnforcer.isGT0 (nMaxSenderWorkersPerSMTP, "MaxSenderWorkersPerSMTP");
+
+    return RW_LOCK.writeLockedGet ( () -> {
+      if (nMaxSenderWorkersPerSMTP == s_nMaxSenderWorkersPerSMTP)
+        return EChange.UNCHANGED;
+      s_nMaxSenderWorkersPerSMTP = nMaxSenderWorkersPerSMTP;
+      return EChange.CHANGED;
+    });
+  }
+
   /**
    * @return <code>true</code> to use SSL by default
    */
@@ -281,6 +327,38 @@ public final class EmailGlobalSettings
     });
   }
 
+  /**
+   * @return The settings for reusing SMTP connections. May be <code>null</code> if each send
+   *         operation uses a new connection (which is the default).
+   * @since 11.4.3
+   */
+  @Nullable
+  public static SMTPConnectionPoolSettings getConnectionPoolSettings ()
+  {
+    return RW_LOCK.readLockedGet ( () -> s_aConnectionPoolSettings);
+  }
+
+  /**
+   * Set the settings for reusing SMTP connections. Changing these settings has no effect on
+   * existing mail queues!
+   *
+   * @param aConnectionPoolSettings
+   *        The pool settings to use. May be <code>null</code> to use a new connection for each
+   *        send operation.
+   * @return {@link EChange}
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange setConnectionPoolSettings (@Nullable final SMTPConnectionPoolSettings aConnectionPoolSettings)
+  {
+    return RW_LOCK.writeLockedGet ( () -> {
+      if (EqualsHelper.equals (s_aConnectionPoolSettings, aConnectionPoolSettings))
+        return EChange.UNCHANGED;
+      s_aConnectionPoolSettings = aConnectionPoolSettings;
+      return EChange.CHANGED;
+    });
+  }
+
   /**
    * Add a new mail connection listener.
    *
@@ -442,11 +520,13 @@ public final class EmailGlobalSettings
     RW_LOCK.writeLocked ( () -> {
       s_nMaxMailQueueLen = DEFAULT_MAX_QUEUE_LENGTH;
       s_nMaxMailSendCount = DEFAULT_MAX_SEND_COUNT;
+      s_nMaxSenderWorkersPerSMTP = DEFAULT_MAX_SENDER_WORKERS_PER_SMTP;
       s_bUseSSL = DEFAULT_USE_SSL;
       s_bUseSTARTTLS = DEFAULT_USE_STARTTLS;
       s_nConnectionTimeoutMilliSecs = DEFAULT_CONNECT_TIMEOUT_MILLISECS;
       s_nTimeoutMilliSecs = DEFAULT_TIMEOUT_MILLISECS;
       s_bDebugSMTP = GlobalDebug.isDebugMode ();
+      s_aConnectionPoolSettings = null;
       s_aConnectionListeners.clear ();
       s_aEmailDataTransportListeners.clear ();
     });
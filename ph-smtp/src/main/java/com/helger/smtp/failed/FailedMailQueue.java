@@ -16,6 +16,9 @@
  */
 package com.helger.smtp.failed;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
@@ -26,6 +29,7 @@ import com.helger.annotation.concurrent.MustBeLocked;
 import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.concurrent.ThreadHelper;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.string.StringHelper;
 import com.helger.base.tostring.ToStringGenerator;
@@ -33,6 +37,9 @@ import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.smtp.data.IMutableEmailData;
+import com.helger.smtp.settings.ISMTPSettings;
+import com.helger.smtp.transport.MailAPI;
 import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
 import com.helger.statistics.impl.StatisticsManager;
 
@@ -176,6 +183,75 @@ public class FailedMailQueue
     return m_aRWLock.writeLockedGet (this::internalRemoveAll);
   }
 
+  /**
+   * Re-queue all failed mails that contain email data via {@link MailAPI#queueMails(ISMTPSettings,
+   * java.util.Collection)}. The mails are processed in batches, and the lock is only held while a
+   * batch is removed from this queue, so producers are not blocked while the mails are re-queued.
+   * Only the failed mails present when this method is invoked are considered. Mails that fail
+   * again are added as new entries.
+   *
+   * @param nBatchSize
+   *        The maximum number of mails removed from this queue at once. Must be &gt; 0.
+   * @param nMaxMailsPerSecond
+   *        The maximum number of mails to re-queue per second. Use 0 for no limit.
+   * @return The number of mails that were successfully re-queued. Always &ge; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int requeueAll (@Nonnegative final int nBatchSize, @Nonnegative final int nMaxMailsPerSecond)
+  {
+    ValueEnforcer.isGT0 (nBatchSize, "BatchSize");
+    ValueEnforcer.isGE0 (nMaxMailsPerSecond, "MaxMailsPerSecond");
+
+    // Take a snapshot of the IDs to avoid endless loops
+    final ICommonsList <String> aIDs = m_aRWLock.readLockedGet ( () -> new CommonsArrayList <> (m_aMap.keySet ()));
+
+    final long nStartNanos = System.nanoTime ();
+    int nProcessed = 0;
+    int nQueued = 0;
+    for (int nStart = 0; nStart < aIDs.size (); nStart += nBatchSize)
+    {
+      final ICommonsList <String> aBatchIDs = aIDs.subList (nStart, Math.min (nStart + nBatchSize, aIDs.size ()));
+
+      // Remove the batch while locked
+      final ICommonsList <FailedMailData> aBatch = m_aRWLock.writeLockedGet ( () -> {
+        final ICommonsList <FailedMailData> ret = new CommonsArrayList <> (aBatchIDs.size ());
+        for (final String sID : aBatchIDs)
+        {
+          final FailedMailData aFailedMail = internalGetFailedMailOfID (sID);
+          // Failed mails without data cannot be resent and stay in the queue
+          if (aFailedMail != null && aFailedMail.getEmailData () != null)
+          {
+            internalRemove (sID);
+            ret.add (aFailedMail);
+          }
+        }
+        return ret;
+      });
+      if (aBatch.isEmpty ())
+        continue;
+
+      // Re-queue outside of the lock, grouped by SMTP settings
+      final ICommonsOrderedMap <ISMTPSettings, ICommonsList <IMutableEmailData>> aPerSettings = new CommonsLinkedHashMap <> ();
+      for (final FailedMailData aFailedMail : aBatch)
+        aPerSettings.computeIfAbsent (aFailedMail.getSMTPSettings (), k -> new CommonsArrayList <> ())
+                    .add (aFailedMail.getEmailData ());
+      for (final Map.Entry <ISMTPSettings, ICommonsList <IMutableEmailData>> aEntry : aPerSettings.entrySet ())
+        nQueued += MailAPI.queueMails (aEntry.getKey (), aEntry.getValue ());
+      nProcessed += aBatch.size ();
+
+      if (nMaxMailsPerSecond > 0)
+      {
+        // Rate limit
+        final long nExpectedMillis = nProcessed * 1_000L / nMaxMailsPerSecond;
+        final long nWaitMillis = nExpectedMillis - TimeUnit.NANOSECONDS.toMillis (System.nanoTime () - nStartNanos);
+        if (nWaitMillis > 0)
+          ThreadHelper.sleep (nWaitMillis);
+      }
+    }
+    return nQueued;
+  }
+
   @Override
   public String toString ()
   {
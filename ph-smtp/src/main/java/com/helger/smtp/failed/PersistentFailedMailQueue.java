@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.failed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ELockType;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.MustBeLocked;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
+import com.helger.xml.microdom.serialize.MicroReader;
+import com.helger.xml.microdom.serialize.MicroWriter;
+
+/**
+ * A {@link FailedMailQueue} that persists all modifications in an append-only journal file, so that
+ * failed mails survive a restart. Each record consists of a type byte, the payload length and the
+ * UTF-8 encoded payload. Added mails are stored in their XML representation created by
+ * {@link FailedMailDataMicroTypeConverter}, removals only store the ID. A partially written record
+ * at the end of the journal (e.g. after a crash) is discarded when loading. If the number of
+ * obsolete records exceeds the compaction threshold and the number of live records, the journal is
+ * rewritten to only contain the live records.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public class PersistentFailedMailQueue extends FailedMailQueue implements AutoCloseable
+{
+  /** The default number of obsolete records that triggers a compaction */
+  public static final int DEFAULT_COMPACTION_THRESHOLD = 1_000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (PersistentFailedMailQueue.class);
+
+  private static final byte RECORD_ADD = 'A';
+  private static final byte RECORD_REMOVE = 'R';
+  private static final byte RECORD_CLEAR = 'C';
+  private static final String ELEMENT_FAILED_MAIL = "failedmail";
+
+  private final File m_aFile;
+  @GuardedBy ("m_aRWLock")
+  private FileOutputStream m_aFOS;
+  @GuardedBy ("m_aRWLock")
+  private DataOutputStream m_aDOS;
+  @GuardedBy ("m_aRWLock")
+  private int m_nObsoleteRecords;
+  @GuardedBy ("m_aRWLock")
+  private int m_nCompactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+  @GuardedBy ("m_aRWLock")
+  private boolean m_bSyncOnWrite = false;
+  @GuardedBy ("m_aRWLock")
+  private boolean m_bReplaying = false;
+
+  /**
+   * Constructor. Reads an existing journal and opens it for appending.
+   *
+   * @param aFile
+   *        The journal file to use. May not be <code>null</code>. The file is created if it does
+   *        not exist.
+   * @throws IOException
+   *         If the journal cannot be read or opened
+   */
+  public PersistentFailedMailQueue (@NonNull final File aFile) throws IOException
+  {
+    ValueEnforcer.notNull (aFile, "File");
+    m_aFile = aFile;
+    final File aParent = aFile.getAbsoluteFile ().getParentFile ();
+    if (aParent != null)
+      Files.createDirectories (aParent.toPath ());
+
+    m_aRWLock.writeLockedThrowing ( () -> {
+      _load ();
+      _openForAppend ();
+      if (_isCompactionNeeded ())
+        _compact ();
+    });
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _load () throws IOException
+  {
+    if (!m_aFile.exists ())
+      return;
+
+    final Map <String, FailedMailData> aLive = new LinkedHashMap <> ();
+    int nRecords = 0;
+    long nValidLength = 0;
+    try (final DataInputStream aDIS = new DataInputStream (new BufferedInputStream (new FileInputStream (m_aFile))))
+    {
+      while (true)
+      {
+        final int nType = aDIS.read ();
+        if (nType < 0)
+          break;
+        final byte [] aPayload;
+        try
+        {
+          final int nLength = aDIS.readInt ();
+          if (nLength < 0)
+            break;
+          aPayload = new byte [nLength];
+          aDIS.readFully (aPayload);
+        }
+        catch (final EOFException ex)
+        {
+          // Incomplete record at the end
+          break;
+        }
+
+        final String sPayload = new String (aPayload, StandardCharsets.UTF_8);
+        if (nType == RECORD_ADD)
+        {
+          final FailedMailData aFailedMail = _deserialize (sPayload);
+          if (aFailedMail == null)
+            break;
+          aLive.put (aFailedMail.getID (), aFailedMail);
+        }
+        else
+          if (nType == RECORD_REMOVE)
+            aLive.remove (sPayload);
+          else
+            if (nType == RECORD_CLEAR)
+              aLive.clear ();
+            else
+              break;
+        nRecords++;
+        nValidLength += 1 + 4 + aPayload.length;
+      }
+    }
+
+    if (nValidLength < m_aFile.length ())
+    {
+      LOGGER.warn ("Discarding " +
+                   (m_aFile.length () - nValidLength) +
+                   " bytes of incomplete or corrupt data at the end of failed mail journal '" +
+                   m_aFile.getAbsolutePath () +
+                   "'");
+      try (final RandomAccessFile aRAF = new RandomAccessFile (m_aFile, "rw"))
+      {
+        aRAF.setLength (nValidLength);
+      }
+    }
+
+    // Fill the in-memory map without writing to the journal
+    m_bReplaying = true;
+    try
+    {
+      for (final FailedMailData aFailedMail : aLive.values ())
+        super.internalAdd (aFailedMail);
+    }
+    finally
+    {
+      m_bReplaying = false;
+    }
+    m_nObsoleteRecords = nRecords - aLive.size ();
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Loaded " + aLive.size () + " failed mails from journal '" + m_aFile.getAbsolutePath () + "'");
+  }
+
+  @Nullable
+  private static FailedMailData _deserialize (@NonNull final String sPayload)
+  {
+    final IMicroDocument aDoc = MicroReader.readMicroXML (sPayload);
+    if (aDoc == null || aDoc.getDocumentElement () == null)
+      return null;
+    return MicroTypeConverter.convertToNative (aDoc.getDocumentElement (), FailedMailData.class);
+  }
+
+  @NonNull
+  private static byte [] _serialize (@NonNull final FailedMailData aFailedMail)
+  {
+    final IMicroElement eFailedMail = MicroTypeConverter.convertToMicroElement (aFailedMail, ELEMENT_FAILED_MAIL);
+    return MicroWriter.getNodeAsString (eFailedMail).getBytes (StandardCharsets.UTF_8);
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _openForAppend () throws IOException
+  {
+    m_aFOS = new FileOutputStream (m_aFile, true);
+    m_aDOS = new DataOutputStream (new BufferedOutputStream (m_aFOS));
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _closeStream ()
+  {
+    if (m_aDOS != null)
+    {
+      try
+      {
+        m_aDOS.close ();
+      }
+      catch (final IOException ex)
+      {
+        LOGGER.warn ("Failed to close failed mail journal '" + m_aFile.getAbsolutePath () + "'", ex);
+      }
+      m_aDOS = null;
+      m_aFOS = null;
+    }
+  }
+
+  private static void _writeRecord (@NonNull final DataOutputStream aDOS, final byte nType, @NonNull final byte [] aPayload)
+                                                                                                                          throws IOException
+  {
+    aDOS.writeByte (nType);
+    aDOS.writeInt (aPayload.length);
+    aDOS.write (aPayload);
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _append (final byte nType, @NonNull final byte [] aPayload)
+  {
+    if (m_bReplaying)
+      return;
+    if (m_aDOS == null)
+    {
+      LOGGER.warn ("Failed mail journal '" + m_aFile.getAbsolutePath () + "' is closed - change is not persisted");
+      return;
+    }
+
+    try
+    {
+      _writeRecord (m_aDOS, nType, aPayload);
+      m_aDOS.flush ();
+      if (m_bSyncOnWrite)
+        m_aFOS.getChannel ().force (false);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to write to failed mail journal '" + m_aFile.getAbsolutePath () + "'", ex);
+    }
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private boolean _isCompactionNeeded ()
+  {
+    return m_nObsoleteRecords >= m_nCompactionThreshold && m_nObsoleteRecords > internalSize ();
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _compactIfNeeded ()
+  {
+    if (!m_bReplaying && _isCompactionNeeded ())
+      try
+      {
+        _compact ();
+      }
+      catch (final IOException ex)
+      {
+        LOGGER.error ("Failed to compact failed mail journal '" + m_aFile.getAbsolutePath () + "'", ex);
+      }
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _compact () throws IOException
+  {
+    final File aTempFile = new File (m_aFile.getAbsoluteFile ().getParentFile (), m_aFile.getName () + ".tmp");
+    try (final FileOutputStream aFOS = new FileOutputStream (aTempFile);
+         final DataOutputStream aDOS = new DataOutputStream (new BufferedOutputStream (aFOS)))
+    {
+      for (final FailedMailData aFailedMail : internalGetAllFailedMails ())
+        _writeRecord (aDOS, RECORD_ADD, _serialize (aFailedMail));
+      aDOS.flush ();
+      aFOS.getChannel ().force (true);
+    }
+
+    final boolean bWasOpen = m_aDOS != null;
+    _closeStream ();
+    try
+    {
+      Files.move (aTempFile.toPath (), m_aFile.toPath (), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (final AtomicMoveNotSupportedException ex)
+    {
+      Files.move (aTempFile.toPath (), m_aFile.toPath (), StandardCopyOption.REPLACE_EXISTING);
+    }
+    finally
+    {
+      if (bWasOpen)
+        _openForAppend ();
+    }
+    m_nObsoleteRecords = 0;
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Compacted failed mail journal '" + m_aFile.getAbsolutePath () + "' to " + internalSize () + " records");
+  }
+
+  /**
+   * @return The journal file as provided in the constructor. Never <code>null</code>.
+   */
+  @NonNull
+  public final File getFile ()
+  {
+    return m_aFile;
+  }
+
+  /**
+   * @return The number of obsolete records that triggers an automatic compaction. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getCompactionThreshold ()
+  {
+    return m_aRWLock.readLockedInt ( () -> m_nCompactionThreshold);
+  }
+
+  /**
+   * Set the number of obsolete records that triggers an automatic compaction. Compaction only
+   * happens if there are also more obsolete records than live records.
+   *
+   * @param nCompactionThreshold
+   *        The new threshold. Must be &gt; 0.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PersistentFailedMailQueue setCompactionThreshold (@Nonnegative final int nCompactionThreshold)
+  {
+    ValueEnforcer.isGT0 (nCompactionThreshold, "CompactionThreshold");
+    m_aRWLock.writeLocked ( () -> m_nCompactionThreshold = nCompactionThreshold);
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if every journal write is synced to the storage device,
+   *         <code>false</code> if it is only flushed to the operating system. Default is
+   *         <code>false</code>.
+   */
+  public final boolean isSyncOnWrite ()
+  {
+    return m_aRWLock.readLockedBoolean ( () -> m_bSyncOnWrite);
+  }
+
+  /**
+   * @param bSyncOnWrite
+   *        <code>true</code> to sync every journal write to the storage device. This is more
+   *        durable but considerably slower.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PersistentFailedMailQueue setSyncOnWrite (final boolean bSyncOnWrite)
+  {
+    m_aRWLock.writeLocked ( () -> m_bSyncOnWrite = bSyncOnWrite);
+    return this;
+  }
+
+  /**
+   * @return The number of records in the journal that no longer represent a failed mail in this
+   *         queue. Always &ge; 0.
+   */
+  @Nonnegative
+  public final int getObsoleteRecordCount ()
+  {
+    return m_aRWLock.readLockedInt ( () -> m_nObsoleteRecords);
+  }
+
+  /**
+   * Rewrite the journal so that it only contains the failed mails currently in this queue.
+   *
+   * @throws IOException
+   *         If the journal could not be rewritten
+   */
+  public void compact () throws IOException
+  {
+    m_aRWLock.writeLockedThrowing (this::_compact);
+  }
+
+  @Override
+  @MustBeLocked (ELockType.WRITE)
+  protected void internalAdd (@NonNull final FailedMailData aFailedMailData)
+  {
+    final boolean bReplaced = internalGetFailedMailOfID (aFailedMailData.getID ()) != null;
+    super.internalAdd (aFailedMailData);
+    if (bReplaced)
+      m_nObsoleteRecords++;
+    _append (RECORD_ADD, _serialize (aFailedMailData));
+  }
+
+  @Override
+  @MustBeLocked (ELockType.WRITE)
+  @Nullable
+  protected FailedMailData internalRemove (@Nullable final String sID)
+  {
+    final FailedMailData ret = super.internalRemove (sID);
+    if (ret != null)
+    {
+      _append (RECORD_REMOVE, sID.getBytes (StandardCharsets.UTF_8));
+      // The add and the remove record are obsolete
+      m_nObsoleteRecords += 2;
+      _compactIfNeeded ();
+    }
+    return ret;
+  }
+
+  @Override
+  @MustBeLocked (ELockType.WRITE)
+  @NonNull
+  @ReturnsMutableCopy
+  protected ICommonsList <FailedMailData> internalRemoveAll ()
+  {
+    final ICommonsList <FailedMailData> ret = super.internalRemoveAll ();
+    if (ret.isNotEmpty ())
+    {
+      _append (RECORD_CLEAR, new byte [0]);
+      m_nObsoleteRecords += ret.size () + 1;
+      _compactIfNeeded ();
+    }
+    return ret;
+  }
+
+  /**
+   * Close the journal. Changes made afterwards are only kept in memory.
+   */
+  public void close ()
+  {
+    m_aRWLock.writeLocked (this::_closeStream);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("File", m_aFile)
+                            .append ("CompactionThreshold", m_nCompactionThreshold)
+                            .append ("SyncOnWrite", m_bSyncOnWrite)
+                            .getToString ();
+  }
+}
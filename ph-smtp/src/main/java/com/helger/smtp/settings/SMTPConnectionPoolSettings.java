@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.settings;
+
+import java.time.Duration;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Settings for reusing authenticated SMTP connections across multiple send operations.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@Immutable
+public final class SMTPConnectionPoolSettings
+{
+  /** By default at most 2 idle connections are kept per SMTP server */
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 2;
+  /** By default idle connections are closed after 30 seconds */
+  public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds (30);
+  /** By default a connection is closed after 500 messages */
+  public static final int DEFAULT_MAX_MESSAGES_PER_CONNECTION = 500;
+  /** By default a NOOP is sent before an idle connection is reused */
+  public static final boolean DEFAULT_VALIDATE_ON_BORROW = true;
+
+  /** The default settings */
+  public static final SMTPConnectionPoolSettings DEFAULT = new SMTPConnectionPoolSettings (DEFAULT_MAX_IDLE_CONNECTIONS,
+                                                                                          DEFAULT_IDLE_TIMEOUT,
+                                                                                          DEFAULT_MAX_MESSAGES_PER_CONNECTION,
+                                                                                          DEFAULT_VALIDATE_ON_BORROW);
+
+  private final int m_nMaxIdleConnections;
+  private final Duration m_aIdleTimeout;
+  private final int m_nMaxMessagesPerConnection;
+  private final boolean m_bValidateOnBorrow;
+
+  /**
+   * Constructor
+   *
+   * @param nMaxIdleConnections
+   *        The maximum number of idle connections to keep per SMTP server. Must be &gt; 0.
+   * @param aIdleTimeout
+   *        The duration after which an unused connection is closed. May not be <code>null</code>
+   *        and must be positive.
+   * @param nMaxMessagesPerConnection
+   *        The maximum number of messages to send over a single connection before it is closed.
+   *        Use 0 for no limit.
+   * @param bValidateOnBorrow
+   *        <code>true</code> to send a NOOP command to check an idle connection before it is
+   *        reused.
+   */
+  public SMTPConnectionPoolSettings (@Nonnegative final int nMaxIdleConnections,
+                                     @NonNull final Duration aIdleTimeout,
+                                     @Nonnegative final int nMaxMessagesPerConnection,
+                                     final boolean bValidateOnBorrow)
+  {
+    ValueEnforcer.isGT0 (nMaxIdleConnections, "MaxIdleConnections");
+    ValueEnforcer.notNull (aIdleTimeout, "IdleTimeout");
+    ValueEnforcer.isFalse (aIdleTimeout.isNegative () || aIdleTimeout.isZero (), "IdleTimeout must be positive");
+    ValueEnforcer.isGE0 (nMaxMessagesPerConnection, "MaxMessagesPerConnection");
+    m_nMaxIdleConnections = nMaxIdleConnections;
+    m_aIdleTimeout = aIdleTimeout;
+    m_nMaxMessagesPerConnection = nMaxMessagesPerConnection;
+    m_bValidateOnBorrow = bValidateOnBorrow;
+  }
+
+  /**
+   * @return The maximum number of idle connections to keep per SMTP server. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxIdleConnections ()
+  {
+    return m_nMaxIdleConnections;
+  }
+
+  /**
+   * @return The duration after which an unused connection is closed. Never <code>null</code>.
+   */
+  @NonNull
+  public Duration getIdleTimeout ()
+  {
+    return m_aIdleTimeout;
+  }
+
+  /**
+   * @return The maximum number of messages to send over a single connection. 0 means no limit.
+   */
+  @Nonnegative
+  public int getMaxMessagesPerConnection ()
+  {
+    return m_nMaxMessagesPerConnection;
+  }
+
+  /**
+   * @return <code>true</code> if a NOOP command is sent to check an idle connection before it is
+   *         reused.
+   */
+  public boolean isValidateOnBorrow ()
+  {
+    return m_bValidateOnBorrow;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final SMTPConnectionPoolSettings rhs = (SMTPConnectionPoolSettings) o;
+    return m_nMaxIdleConnections == rhs.m_nMaxIdleConnections &&
+           m_aIdleTimeout.equals (rhs.m_aIdleTimeout) &&
+           m_nMaxMessagesPerConnection == rhs.m_nMaxMessagesPerConnection &&
+           m_bValidateOnBorrow == rhs.m_bValidateOnBorrow;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_nMaxIdleConnections)
+                                       .append (m_aIdleTimeout)
+                                       .append (m_nMaxMessagesPerConnection)
+                                       .append (m_bValidateOnBorrow)
+                                       .getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxIdleConnections", m_nMaxIdleConnections)
+                                       .append ("IdleTimeout", m_aIdleTimeout)
+                                       .append ("MaxMessagesPerConnection", m_nMaxMessagesPerConnection)
+                                       .append ("ValidateOnBorrow", m_bValidateOnBorrow)
+                                       .getToString ();
+  }
+}
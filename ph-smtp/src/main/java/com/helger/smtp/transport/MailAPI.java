@@ -142,13 +142,19 @@ public final class MailAPI
       aSMTPQueue = new MailQueuePerSMTP (EmailGlobalSettings.getMaxMailQueueLength (),
                                          EmailGlobalSettings.getMaxMailSendCount (),
                                          aSMTPSettings,
-                                         getFailedMailQueue ());
+                                         getFailedMailQueue (),
+                                         EmailGlobalSettings.getMaxSenderWorkersPerSMTP ());
 
       // put queue in cache
       QUEUE_CACHE.put (aSMTPSettings, aSMTPQueue);
 
       // and start running the queue
-      SENDER_THREAD_POOL.submit (aSMTPQueue::collect);
+      final MailQueuePerSMTP aFinalSMTPQueue = aSMTPQueue;
+      SENDER_THREAD_POOL.submit ( () -> {
+        aFinalSMTPQueue.collect ();
+        // Wait for the concurrent senders before the thread pool is considered terminated
+        aFinalSMTPQueue.awaitWorkers ();
+      });
     }
     return aSMTPQueue;
   }
@@ -18,12 +18,17 @@ package com.helger.smtp.transport;
 
 import java.nio.charset.Charset;
 import java.util.Date;
+import java.util.Locale;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.mail.address.InternetAddressHelper;
+import com.helger.mail.cte.EContentTransferEncoding;
+import com.helger.mail.cte.IContentTransferEncoding;
+import com.helger.mail.datahandler.DataSourceStreamingDataHandler;
+import com.helger.mail.datasource.IEncodingAwareDataSource;
 import com.helger.mime.CMimeType;
 import com.helger.mime.MimeType;
 import com.helger.smtp.data.IEmailAttachmentDataSource;
@@ -31,6 +36,8 @@ import com.helger.smtp.data.IMutableEmailAttachmentList;
 import com.helger.smtp.data.IMutableEmailData;
 import com.helger.typeconvert.impl.TypeConverter;
 
+import jakarta.activation.DataSource;
+import jakarta.mail.EncodingAware;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeBodyPart;
@@ -76,6 +83,54 @@ public final class MailConverter
     }
   }
 
+  /**
+   * Get the content transfer encoding to be used for the provided attachment. Binary attachments
+   * are always base64 encoded, so that the attachment content does not need to be read in advance
+   * to determine the encoding. For textual attachments <code>null</code> is returned, so that the
+   * most compact encoding is determined by JavaMail.
+   *
+   * @param aDS
+   *        The attachment data source. May not be <code>null</code>.
+   * @return <code>null</code> if the encoding should be determined by JavaMail.
+   * @since 11.4.3
+   */
+  @Nullable
+  public static IContentTransferEncoding getAttachmentContentTransferEncoding (@NonNull final IEmailAttachmentDataSource aDS)
+  {
+    final String sContentType = aDS.getContentType ();
+    if (sContentType != null && sContentType.toLowerCase (Locale.ROOT).startsWith ("text/"))
+      return null;
+    return EContentTransferEncoding.BASE64;
+  }
+
+  /**
+   * Create the data source of an attachment body part so that the content is streamed directly
+   * into the output when the message is written (e.g. into the SMTP DATA command) and never
+   * buffered as a whole.
+   *
+   * @param aDS
+   *        The attachment data source. May not be <code>null</code>.
+   * @return The streaming data handler to be used. Never <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  public static DataSourceStreamingDataHandler getAttachmentDataHandler (@NonNull final IEmailAttachmentDataSource aDS)
+  {
+    final DataSource aRealDS;
+    if (aDS instanceof EncodingAware)
+    {
+      // Encoding explicitly defined
+      aRealDS = aDS;
+    }
+    else
+    {
+      // Avoid that JavaMail reads the whole content just to determine the encoding
+      final IContentTransferEncoding aCTE = getAttachmentContentTransferEncoding (aDS);
+      aRealDS = aCTE == null ? aDS : IEncodingAwareDataSource.getEncodingAware (aDS, aCTE);
+    }
+    return new DataSourceStreamingDataHandler (aRealDS);
+  }
+
   public static void fillMimeMessageUnsafe (@NonNull final MimeMessage aMIMEMessage,
                                             @NonNull final IMutableEmailData aMailData,
                                             @Nullable final Charset aCharset) throws MessagingException
@@ -133,7 +188,7 @@ public final class MailConverter
         final MimeBodyPart aAttachmentPart = new MimeBodyPart ();
         aAttachmentPart.setDisposition (aDS.getDisposition ().getID ());
         aAttachmentPart.setFileName (aDS.getName ());
-        aAttachmentPart.setDataHandler (aDS.getAsDataHandler ());
+        aAttachmentPart.setDataHandler (getAttachmentDataHandler (aDS));
         aMixedMultipart.addBodyPart (aAttachmentPart);
       }
 
@@ -18,6 +18,13 @@ package com.helger.smtp.transport;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -25,8 +32,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonnegative;
+import com.helger.base.concurrent.BasicThreadFactory;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.state.ESuccess;
+import com.helger.base.timing.StopWatch;
 import com.helger.collection.CollectionHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
@@ -37,10 +46,16 @@ import com.helger.smtp.data.IMutableEmailData;
 import com.helger.smtp.failed.FailedMailData;
 import com.helger.smtp.failed.FailedMailQueue;
 import com.helger.smtp.settings.ISMTPSettings;
+import com.helger.statistics.api.IMutableStatisticsHandlerKeyedCounter;
+import com.helger.statistics.api.IMutableStatisticsHandlerKeyedSize;
+import com.helger.statistics.api.IMutableStatisticsHandlerKeyedTimer;
+import com.helger.statistics.impl.StatisticsManager;
 
 /**
  * This class collects instances of {@link IMutableEmailData} and tries to transmit them using the
- * specified SMTP settings.
+ * specified SMTP settings. If more than one sender worker is configured, the collected batches are
+ * sent concurrently by up to that many worker threads, so that a slow SMTP server does not
+ * serialize all mails.
  *
  * @author Philip Helger
  */
@@ -48,8 +63,21 @@ final class MailQueuePerSMTP extends ConcurrentCollectorMultiple <IMutableEmailD
                              IConcurrentPerformer <List <IMutableEmailData>>
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (MailQueuePerSMTP.class);
+  private static final IMutableStatisticsHandlerKeyedSize STATS_QUEUE_LENGTH = StatisticsManager.getKeyedSizeHandler (MailQueuePerSMTP.class.getName () +
+                                                                                                                      "$queue.length");
+  private static final IMutableStatisticsHandlerKeyedTimer STATS_SEND_TIMER = StatisticsManager.getKeyedTimerHandler (MailQueuePerSMTP.class.getName () +
+                                                                                                                     "$send.time");
+  private static final IMutableStatisticsHandlerKeyedCounter STATS_MAILS_SENT = StatisticsManager.getKeyedCounterHandler (MailQueuePerSMTP.class.getName () +
+                                                                                                                         "$mails.sent");
+  private static final IMutableStatisticsHandlerKeyedCounter STATS_MAILS_FAILED = StatisticsManager.getKeyedCounterHandler (MailQueuePerSMTP.class.getName () +
+                                                                                                                           "$mails.failed");
 
   private final MailTransport m_aTransport;
+  private final String m_sStatsKey;
+  private final int m_nMaxWorkers;
+  private final ExecutorService m_aWorkerPool;
+  private final Semaphore m_aWorkerPermits;
+  private final AtomicInteger m_aActiveWorkers = new AtomicInteger (0);
   private volatile FailedMailQueue m_aFailedMailQueue;
 
   /**
@@ -68,12 +96,63 @@ final class MailQueuePerSMTP extends ConcurrentCollectorMultiple <IMutableEmailD
                            @Nonnegative final int nMaxPerformCount,
                            @NonNull final ISMTPSettings aSMTPSettings,
                            @NonNull final FailedMailQueue aFailedMailQueue)
+  {
+    this (nMaxQueueSize, nMaxPerformCount, aSMTPSettings, aFailedMailQueue, 1);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxQueueSize
+   *        Maximum objects to queue
+   * @param nMaxPerformCount
+   *        Maximum number of emails to send at once
+   * @param aSMTPSettings
+   *        SMTP settings to use. May not be <code>null</code>.
+   * @param aFailedMailQueue
+   *        The queue for unsent mails. May not be <code>null</code>.
+   * @param nMaxWorkers
+   *        The maximum number of batches to send concurrently. Must be &gt; 0. If it is 1, the
+   *        batches are sent in the collector thread.
+   * @since 11.4.3
+   */
+  public MailQueuePerSMTP (@Nonnegative final int nMaxQueueSize,
+                           @Nonnegative final int nMaxPerformCount,
+                           @NonNull final ISMTPSettings aSMTPSettings,
+                           @NonNull final FailedMailQueue aFailedMailQueue,
+                           @Nonnegative final int nMaxWorkers)
   {
     super (nMaxQueueSize, nMaxPerformCount);
     ValueEnforcer.notNull (aSMTPSettings, "SMTPSettings");
+    ValueEnforcer.isGT0 (nMaxWorkers, "MaxWorkers");
 
     // Mail mail transport object
     m_aTransport = new MailTransport (aSMTPSettings);
+    m_sStatsKey = aSMTPSettings.getHostName () + ":" + aSMTPSettings.getPort ();
+    m_nMaxWorkers = nMaxWorkers;
+    if (nMaxWorkers > 1)
+    {
+      final ThreadPoolExecutor aPool = new ThreadPoolExecutor (nMaxWorkers,
+                                                               nMaxWorkers,
+                                                               60L,
+                                                               TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue <> (),
+                                                               BasicThreadFactory.builder ()
+                                                                                 .namingPattern ("MailAPI-" +
+                                                                                                 m_sStatsKey +
+                                                                                                 "-%d")
+                                                                                 .daemon (true)
+                                                                                 .priority (Thread.NORM_PRIORITY)
+                                                                                 .build ());
+      aPool.allowCoreThreadTimeOut (true);
+      m_aWorkerPool = aPool;
+      m_aWorkerPermits = new Semaphore (nMaxWorkers);
+    }
+    else
+    {
+      m_aWorkerPool = null;
+      m_aWorkerPermits = null;
+    }
     setFailedMailQueue (aFailedMailQueue);
 
     // Set the callback of the concurrent collector
@@ -89,6 +168,26 @@ final class MailQueuePerSMTP extends ConcurrentCollectorMultiple <IMutableEmailD
     return m_aTransport.getSMTPSettings ();
   }
 
+  /**
+   * @return The maximum number of batches that are sent concurrently. Always &gt; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int getMaxWorkers ()
+  {
+    return m_nMaxWorkers;
+  }
+
+  /**
+   * @return The number of batches currently being sent. Always &ge; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int getActiveWorkerCount ()
+  {
+    return m_aActiveWorkers.get ();
+  }
+
   /**
    * @return The Failed mail queue to be used for this queue.
    */
@@ -116,31 +215,116 @@ final class MailQueuePerSMTP extends ConcurrentCollectorMultiple <IMutableEmailD
     // Expect the worst
     if (CollectionHelper.isNotEmpty (aMessages))
     {
-      final ISMTPSettings aSettings = m_aTransport.getSMTPSettings ();
-      try
+      STATS_QUEUE_LENGTH.addSize (m_sStatsKey, getQueueLength ());
+
+      if (m_aWorkerPool == null)
       {
-        final int nMessages = aMessages.size ();
-        LOGGER.info ("Sending " + nMessages + " mail message" + (nMessages == 1 ? "" : "s") + "!");
+        // Send in the collector thread
+        _send (aMessages);
+      }
+      else
+      {
+        // The collector re-uses the passed list
+        final ICommonsList <IMutableEmailData> aCopy = new CommonsArrayList <> (aMessages);
+        try
+        {
+          // Block the collector if all workers are busy
+          m_aWorkerPermits.acquire ();
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+          _send (aCopy);
+          return;
+        }
 
-        // send messages
-        final ICommonsOrderedMap <IMutableEmailData, MailTransportError> aFailedMessages = m_aTransport.send (aMessages);
+        try
+        {
+          m_aWorkerPool.execute ( () -> {
+            try
+            {
+              _send (aCopy);
+            }
+            finally
+            {
+              m_aWorkerPermits.release ();
+            }
+          });
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          m_aWorkerPermits.release ();
+          _send (aCopy);
+        }
+      }
+    }
+  }
+
+  private void _send (@NonNull final List <IMutableEmailData> aMessages)
+  {
+    final ISMTPSettings aSettings = m_aTransport.getSMTPSettings ();
+    final int nMessages = aMessages.size ();
+    m_aActiveWorkers.incrementAndGet ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+    try
+    {
+      LOGGER.info ("Sending " + nMessages + " mail message" + (nMessages == 1 ? "" : "s") + "!");
 
-        // handle failed messages
-        for (final Map.Entry <IMutableEmailData, MailTransportError> aEntry : aFailedMessages.entrySet ())
-          m_aFailedMailQueue.add (new FailedMailData (aSettings, aEntry.getKey (), aEntry.getValue ()));
+      // send messages
+      final ICommonsOrderedMap <IMutableEmailData, MailTransportError> aFailedMessages = m_aTransport.send (aMessages);
+
+      // handle failed messages
+      for (final Map.Entry <IMutableEmailData, MailTransportError> aEntry : aFailedMessages.entrySet ())
+        m_aFailedMailQueue.add (new FailedMailData (aSettings, aEntry.getKey (), aEntry.getValue ()));
+
+      STATS_MAILS_SENT.increment (m_sStatsKey, nMessages - aFailedMessages.size ());
+      STATS_MAILS_FAILED.increment (m_sStatsKey, aFailedMessages.size ());
+    }
+    catch (final Exception ex)
+    {
+      // No message specific error, but a settings specific error
+      LOGGER.error ("Generic error sending mail: " + ex.getMessage (), ex.getCause ());
+
+      // mark all mails as failed even though some may have been re-send
+      // already
+      final MailTransportError aError = new MailTransportError (ex);
+      for (final IMutableEmailData aMessage : aMessages)
+        m_aFailedMailQueue.add (new FailedMailData (aSettings, aMessage, aError));
+      STATS_MAILS_FAILED.increment (m_sStatsKey, nMessages);
+    }
+    finally
+    {
+      STATS_SEND_TIMER.addTime (m_sStatsKey, aSW.stopAndGetMillis ());
+      m_aActiveWorkers.decrementAndGet ();
+    }
+  }
+
+  /**
+   * Wait until all batches handed over to the sender workers are sent. This must be called after
+   * the collector stopped.
+   *
+   * @since 11.4.3
+   */
+  void awaitWorkers ()
+  {
+    if (m_aWorkerPool != null)
+    {
+      m_aWorkerPool.shutdown ();
+      try
+      {
+        while (!m_aWorkerPool.awaitTermination (1, TimeUnit.SECONDS))
+        {
+          // wait until we're done
+        }
       }
-      catch (final Exception ex)
+      catch (final InterruptedException ex)
       {
-        // No message specific error, but a settings specific error
-        LOGGER.error ("Generic error sending mail: " + ex.getMessage (), ex.getCause ());
-
-        // mark all mails as failed even though some may have been re-send
-        // already
-        final MailTransportError aError = new MailTransportError (ex);
-        for (final IMutableEmailData aMessage : aMessages)
-          m_aFailedMailQueue.add (new FailedMailData (aSettings, aMessage, aError));
+        LOGGER.error ("Error waiting for mail sender workers", ex);
+        Thread.currentThread ().interrupt ();
       }
     }
+    // All sending is done
+    m_aTransport.closeConnections ();
   }
 
   /**
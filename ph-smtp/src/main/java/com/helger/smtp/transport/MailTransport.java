@@ -26,6 +26,8 @@ import java.util.function.Consumer;
 
 import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
 import org.eclipse.angus.mail.smtp.SMTPAddressSucceededException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
 import org.eclipse.angus.mail.util.MailSSLSocketFactory;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -57,6 +59,7 @@ import com.helger.smtp.data.IMutableEmailData;
 import com.helger.smtp.listener.EmailDataTransportEvent;
 import com.helger.smtp.listener.IEmailDataTransportListener;
 import com.helger.smtp.settings.ISMTPSettings;
+import com.helger.smtp.settings.SMTPConnectionPoolSettings;
 import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
 import com.helger.statistics.impl.StatisticsManager;
 
@@ -99,6 +102,7 @@ public final class MailTransport
   private final boolean m_bSMTPS;
   private final ICommonsMap <String, String> m_aMailProperties;
   private final Session m_aSession;
+  private final SMTPConnectionPool m_aConnectionPool;
 
   /**
    * Set default mail properties that are added all the time. This can e.g. be used to change the
@@ -193,6 +197,22 @@ public final class MailTransport
   }
 
   public MailTransport (@NonNull final ISMTPSettings aSettings)
+  {
+    this (aSettings, EmailGlobalSettings.getConnectionPoolSettings ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aSettings
+   *        The SMTP settings to use. May not be <code>null</code>.
+   * @param aConnectionPoolSettings
+   *        The connection pool settings to use. May be <code>null</code> to use a new connection
+   *        for each call to {@link #send(Collection)}.
+   * @since 11.4.3
+   */
+  public MailTransport (@NonNull final ISMTPSettings aSettings,
+                        @Nullable final SMTPConnectionPoolSettings aConnectionPoolSettings)
   {
     ValueEnforcer.notNull (aSettings, "Settings");
 
@@ -209,6 +229,9 @@ public final class MailTransport
     aProps.putAll (RW_LOCK.readLockedGet (DEFAULT_MAIL_PROPERTIES::getClone));
     aProps.putAll (m_aMailProperties);
     m_aSession = Session.getInstance (aProps);
+    m_aConnectionPool = aConnectionPoolSettings == null ? null
+                                                        : new SMTPConnectionPool (aConnectionPoolSettings,
+                                                                                  this::_createConnectedTransport);
 
     INSTANCE_COUNT.incrementAndGet ();
   }
@@ -226,6 +249,101 @@ public final class MailTransport
     return m_aMailProperties.getClone ();
   }
 
+  /**
+   * @return The connection pool used. May be <code>null</code> if connections are not reused.
+   * @since 11.4.3
+   */
+  @Nullable
+  public SMTPConnectionPool getConnectionPool ()
+  {
+    return m_aConnectionPool;
+  }
+
+  /**
+   * Close all idle pooled connections. Does nothing if connections are not reused.
+   *
+   * @since 11.4.3
+   */
+  public void closeConnections ()
+  {
+    if (m_aConnectionPool != null)
+      m_aConnectionPool.close ();
+  }
+
+  @NonNull
+  private Transport _createConnectedTransport () throws MessagingException
+  {
+    final Transport aTransport = m_aSession.getTransport (m_bSMTPS ? SMTPS_PROTOCOL : SMTP_PROTOCOL);
+
+    // Add global listeners (if present)
+    for (final ConnectionListener aConnectionListener : EmailGlobalSettings.getAllConnectionListeners ())
+      aTransport.addConnectionListener (aConnectionListener);
+
+    // Connect
+    try
+    {
+      aTransport.connect (m_aSMTPSettings.getHostName (),
+                          m_aSMTPSettings.getPort (),
+                          m_aSMTPSettings.getUserName (),
+                          m_aSMTPSettings.getPassword ());
+    }
+    catch (final MessagingException | RuntimeException ex)
+    {
+      new SMTPConnection (aTransport).close ();
+      throw ex;
+    }
+    return aTransport;
+  }
+
+  @NonNull
+  private SMTPConnection _openConnection () throws MessagingException
+  {
+    if (m_aConnectionPool != null)
+      return m_aConnectionPool.borrow ();
+    return new SMTPConnection (_createConnectedTransport ());
+  }
+
+  @NonNull
+  private SMTPConnection _reconnect (@NonNull final SMTPConnection aConnection) throws MessagingException
+  {
+    if (m_aConnectionPool != null)
+      return m_aConnectionPool.reconnect (aConnection);
+    aConnection.close ();
+    return new SMTPConnection (_createConnectedTransport ());
+  }
+
+  private void _releaseConnection (@NonNull final SMTPConnection aConnection, final boolean bReusable)
+  {
+    if (m_aConnectionPool != null)
+      m_aConnectionPool.release (aConnection, bReusable);
+    else
+      aConnection.close ();
+  }
+
+  /**
+   * Check if the server responded with "421 Service not available, closing transmission channel".
+   *
+   * @param ex
+   *        The exception to check. May not be <code>null</code>.
+   * @return <code>true</code> if a 421 response code is contained in the exception chain.
+   */
+  static boolean isServiceNotAvailable (@NonNull final MessagingException ex)
+  {
+    final int nCode = ESMTPErrorCode.E421.getECode ();
+    Exception aCur = ex;
+    while (aCur != null)
+    {
+      if (aCur instanceof final SMTPSendFailedException aSendFailedEx && aSendFailedEx.getReturnCode () == nCode)
+        return true;
+      if (aCur instanceof final SMTPSenderFailedException aSenderFailedEx && aSenderFailedEx.getReturnCode () == nCode)
+        return true;
+      if (aCur instanceof final SMTPAddressFailedException aAddressFailedEx && aAddressFailedEx.getReturnCode () == nCode)
+        return true;
+      aCur = aCur instanceof final MessagingException aME ? aME.getNextException () : null;
+    }
+    return false;
+  }
+
   /**
    * Actually send the given array of MimeMessages via JavaMail.
    *
@@ -241,24 +359,25 @@ public final class MailTransport
     {
       final ICommonsList <IMutableEmailData> aRemainingMessages = new CommonsArrayList <> (aAllMessages);
       MailSendException aExceptionToBeRemembered = null;
-      try (final Transport aTransport = m_aSession.getTransport (m_bSMTPS ? SMTPS_PROTOCOL : SMTP_PROTOCOL))
+      SMTPConnection aConnection = null;
+      boolean bConnectionReusable = false;
+      try
       {
-        // Add global listeners (if present)
-        for (final ConnectionListener aConnectionListener : EmailGlobalSettings.getAllConnectionListeners ())
-          aTransport.addConnectionListener (aConnectionListener);
-
         // Check if a detailed listener is present
         final ICommonsList <IEmailDataTransportListener> aEmailDataTransportListeners = EmailGlobalSettings.getAllEmailDataTransportListeners ();
 
-        // Connect
-        aTransport.connect (m_aSMTPSettings.getHostName (),
-                            m_aSMTPSettings.getPort (),
-                            m_aSMTPSettings.getUserName (),
-                            m_aSMTPSettings.getPassword ());
+        // Connect or reuse an existing connection
+        aConnection = _openConnection ();
 
         // For all messages
         for (final IMutableEmailData aEmailData : aAllMessages)
         {
+          if (m_aConnectionPool != null && m_aConnectionPool.isExhausted (aConnection))
+          {
+            // Maximum number of messages per connection reached
+            aConnection = _reconnect (aConnection);
+          }
+
           final MimeMessage aMimeMessage = new MimeMessage (m_aSession);
           try
           {
@@ -292,7 +411,22 @@ public final class MailTransport
                          "'");
 
             // Main transmit - always throws an exception
-            aTransport.sendMessage (aMimeMessage, aMimeMessage.getAllRecipients ());
+            try
+            {
+              aConnection.incrementMessageCount ();
+              aConnection.getTransport ().sendMessage (aMimeMessage, aMimeMessage.getAllRecipients ());
+            }
+            catch (final MessagingException ex)
+            {
+              if (!isServiceNotAvailable (ex))
+                throw ex;
+
+              // The server closed the connection - the message was not accepted so retry once
+              LOGGER.warn ("SMTP server closed the connection (421) - reconnecting and retrying");
+              aConnection = _reconnect (aConnection);
+              aConnection.incrementMessageCount ();
+              aConnection.getTransport ().sendMessage (aMimeMessage, aMimeMessage.getAllRecipients ());
+            }
             throw new IllegalStateException ("Never expected to come beyong sendMessage!");
           }
           catch (final SendFailedException ex)
@@ -413,6 +547,9 @@ public final class MailTransport
             STATS_SEND_FAILURE.increment ();
           }
         } // for all messages
+
+        // No connection level error occurred
+        bConnectionReusable = true;
       }
       catch (final AuthenticationFailedException ex)
       {
@@ -434,6 +571,9 @@ public final class MailTransport
       }
       finally
       {
+        if (aConnection != null)
+          _releaseConnection (aConnection, bConnectionReusable);
+
         // Was any message not sent
         if (aRemainingMessages.isNotEmpty ())
         {
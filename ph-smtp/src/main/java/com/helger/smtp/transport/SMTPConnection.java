@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.transport;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+
+/**
+ * A single connected SMTP {@link Transport} together with the information needed to decide
+ * whether it can be reused.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+final class SMTPConnection
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMTPConnection.class);
+
+  private final Transport m_aTransport;
+  private final long m_nCreationNanos;
+  private long m_nLastUsedNanos;
+  private int m_nMessageCount;
+
+  SMTPConnection (@NonNull final Transport aTransport)
+  {
+    m_aTransport = ValueEnforcer.notNull (aTransport, "Transport");
+    m_nCreationNanos = System.nanoTime ();
+    m_nLastUsedNanos = m_nCreationNanos;
+  }
+
+  @NonNull
+  Transport getTransport ()
+  {
+    return m_aTransport;
+  }
+
+  long getLastUsedNanos ()
+  {
+    return m_nLastUsedNanos;
+  }
+
+  void markUsed ()
+  {
+    m_nLastUsedNanos = System.nanoTime ();
+  }
+
+  @Nonnegative
+  int getMessageCount ()
+  {
+    return m_nMessageCount;
+  }
+
+  void incrementMessageCount ()
+  {
+    m_nMessageCount++;
+  }
+
+  /**
+   * Check if the connection is still alive. For SMTP this sends a NOOP command.
+   *
+   * @return <code>true</code> if the connection can be used.
+   */
+  boolean isAlive ()
+  {
+    try
+    {
+      return m_aTransport.isConnected ();
+    }
+    catch (final RuntimeException ex)
+    {
+      return false;
+    }
+  }
+
+  void close ()
+  {
+    try
+    {
+      m_aTransport.close ();
+    }
+    catch (final MessagingException | RuntimeException ex)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Error closing SMTP connection: " + ex.getMessage ());
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Transport", m_aTransport)
+                                       .append ("CreationNanos", m_nCreationNanos)
+                                       .append ("LastUsedNanos", m_nLastUsedNanos)
+                                       .append ("MessageCount", m_nMessageCount)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.transport;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.functional.IThrowingSupplier;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.smtp.settings.SMTPConnectionPoolSettings;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+
+/**
+ * A pool of connected and authenticated SMTP transports for a single SMTP server, so that
+ * subsequent send operations don't need to perform the TCP/TLS handshake and authentication
+ * again. Idle connections are closed after the configured idle timeout, and connections are
+ * replaced after the configured number of messages.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public final class SMTPConnectionPool implements AutoCloseable
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMTPConnectionPool.class);
+
+  private final SMTPConnectionPoolSettings m_aSettings;
+  private final IThrowingSupplier <Transport, MessagingException> m_aTransportFactory;
+  private final long m_nIdleTimeoutNanos;
+
+  private final ReentrantLock m_aLock = new ReentrantLock ();
+  @GuardedBy ("m_aLock")
+  private final Deque <SMTPConnection> m_aIdle = new ArrayDeque <> ();
+  @GuardedBy ("m_aLock")
+  private boolean m_bClosed = false;
+
+  private final LongAdder m_aCreated = new LongAdder ();
+  private final LongAdder m_aReused = new LongAdder ();
+  private final LongAdder m_aClosed = new LongAdder ();
+
+  /**
+   * Constructor
+   *
+   * @param aSettings
+   *        The pool settings to use. May not be <code>null</code>.
+   * @param aTransportFactory
+   *        The factory for new connected transports. May not be <code>null</code>.
+   */
+  SMTPConnectionPool (@NonNull final SMTPConnectionPoolSettings aSettings,
+                      @NonNull final IThrowingSupplier <Transport, MessagingException> aTransportFactory)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aTransportFactory, "TransportFactory");
+    m_aSettings = aSettings;
+    m_aTransportFactory = aTransportFactory;
+    m_nIdleTimeoutNanos = aSettings.getIdleTimeout ().toNanos ();
+  }
+
+  /**
+   * @return The settings of this pool. Never <code>null</code>.
+   */
+  @NonNull
+  public SMTPConnectionPoolSettings getSettings ()
+  {
+    return m_aSettings;
+  }
+
+  private boolean _isExpired (@NonNull final SMTPConnection aConnection, final long nNow)
+  {
+    return nNow - aConnection.getLastUsedNanos () >= m_nIdleTimeoutNanos;
+  }
+
+  boolean isExhausted (@NonNull final SMTPConnection aConnection)
+  {
+    final int nMax = m_aSettings.getMaxMessagesPerConnection ();
+    return nMax > 0 && aConnection.getMessageCount () >= nMax;
+  }
+
+  private void _close (@NonNull final SMTPConnection aConnection)
+  {
+    aConnection.close ();
+    m_aClosed.increment ();
+  }
+
+  @NonNull
+  private SMTPConnection _create () throws MessagingException
+  {
+    final SMTPConnection ret = new SMTPConnection (m_aTransportFactory.get ());
+    m_aCreated.increment ();
+    return ret;
+  }
+
+  /**
+   * Get an idle connection or create a new one.
+   *
+   * @return The connection to use. Never <code>null</code>.
+   * @throws MessagingException
+   *         In case a new connection could not be established
+   */
+  @NonNull
+  SMTPConnection borrow () throws MessagingException
+  {
+    while (true)
+    {
+      final SMTPConnection aConnection;
+      m_aLock.lock ();
+      try
+      {
+        aConnection = m_aIdle.pollFirst ();
+      }
+      finally
+      {
+        m_aLock.unlock ();
+      }
+      if (aConnection == null)
+        break;
+
+      if (_isExpired (aConnection, System.nanoTime ()) ||
+          (m_aSettings.isValidateOnBorrow () && !aConnection.isAlive ()))
+      {
+        // The server may have dropped it in the meantime
+        _close (aConnection);
+        continue;
+      }
+
+      m_aReused.increment ();
+      return aConnection;
+    }
+    return _create ();
+  }
+
+  /**
+   * Replace a broken connection with a new one.
+   *
+   * @param aConnection
+   *        The connection to be closed. May not be <code>null</code>.
+   * @return The new connection. Never <code>null</code>.
+   * @throws MessagingException
+   *         In case a new connection could not be established
+   */
+  @NonNull
+  SMTPConnection reconnect (@NonNull final SMTPConnection aConnection) throws MessagingException
+  {
+    _close (aConnection);
+    return _create ();
+  }
+
+  /**
+   * Return a connection to the pool.
+   *
+   * @param aConnection
+   *        The connection to be returned. May not be <code>null</code>.
+   * @param bReusable
+   *        <code>false</code> if the connection is known to be in an undefined state and must be
+   *        closed.
+   */
+  void release (@NonNull final SMTPConnection aConnection, final boolean bReusable)
+  {
+    boolean bClose = !bReusable || isExhausted (aConnection);
+    if (!bClose)
+    {
+      aConnection.markUsed ();
+      m_aLock.lock ();
+      try
+      {
+        if (m_bClosed || m_aIdle.size () >= m_aSettings.getMaxIdleConnections ())
+          bClose = true;
+        else
+          m_aIdle.addFirst (aConnection);
+      }
+      finally
+      {
+        m_aLock.unlock ();
+      }
+    }
+    if (bClose)
+      _close (aConnection);
+    closeExpiredConnections ();
+  }
+
+  /**
+   * Close all idle connections that exceeded the idle timeout.
+   */
+  public void closeExpiredConnections ()
+  {
+    final ICommonsList <SMTPConnection> aExpired = new CommonsArrayList <> ();
+    final long nNow = System.nanoTime ();
+    m_aLock.lock ();
+    try
+    {
+      final Iterator <SMTPConnection> it = m_aIdle.iterator ();
+      while (it.hasNext ())
+      {
+        final SMTPConnection aConnection = it.next ();
+        if (_isExpired (aConnection, nNow))
+        {
+          it.remove ();
+          aExpired.add (aConnection);
+        }
+      }
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+    // Close outside of the lock as this may block
+    aExpired.forEach (this::_close);
+  }
+
+  /**
+   * @return The number of currently idle connections. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getIdleConnectionCount ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_aIdle.size ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The total number of connections established by this pool. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getCreatedConnectionCount ()
+  {
+    return m_aCreated.sum ();
+  }
+
+  /**
+   * @return The total number of times an idle connection was reused. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getReusedConnectionCount ()
+  {
+    return m_aReused.sum ();
+  }
+
+  /**
+   * @return The total number of connections closed by this pool. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getClosedConnectionCount ()
+  {
+    return m_aClosed.sum ();
+  }
+
+  /**
+   * Close all idle connections. Connections that are currently in use are closed when they are
+   * returned.
+   */
+  public void close ()
+  {
+    final ICommonsList <SMTPConnection> aIdle;
+    m_aLock.lock ();
+    try
+    {
+      m_bClosed = true;
+      aIdle = new CommonsArrayList <> (m_aIdle);
+      m_aIdle.clear ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+    if (aIdle.isNotEmpty ())
+      LOGGER.info ("Closing " + aIdle.size () + " idle SMTP connection(s)");
+    aIdle.forEach (this::_close);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Settings", m_aSettings)
+                                       .append ("Created", getCreatedConnectionCount ())
+                                       .append ("Reused", getReusedConnectionCount ())
+                                       .append ("Closed", getClosedConnectionCount ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.failed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.helger.base.email.EmailAddress;
+import com.helger.base.id.factory.GlobalIDFactory;
+import com.helger.base.id.factory.MemoryIntIDFactory;
+import com.helger.smtp.data.EEmailType;
+import com.helger.smtp.data.EmailData;
+import com.helger.smtp.settings.SMTPSettings;
+
+/**
+ * Test class for class {@link PersistentFailedMailQueue}.
+ *
+ * @author Philip Helger
+ */
+public final class PersistentFailedMailQueueTest
+{
+  static
+  {
+    GlobalIDFactory.setPersistentIntIDFactory (new MemoryIntIDFactory ());
+  }
+
+  private File m_aFile;
+
+  @Before
+  public void before () throws IOException
+  {
+    m_aFile = Files.createTempFile ("failed-mails", ".journal").toFile ();
+    Files.delete (m_aFile.toPath ());
+  }
+
+  @After
+  public void after () throws IOException
+  {
+    Files.deleteIfExists (m_aFile.toPath ());
+  }
+
+  @NonNull
+  private static FailedMailData _createFailedMail (final int nIndex)
+  {
+    final EmailData aData = new EmailData (EEmailType.TEXT);
+    aData.setFrom (new EmailAddress ("from@example.org"));
+    aData.to ().add (new EmailAddress ("to" + nIndex + "@example.org"));
+    aData.setSubject ("Failed mail " + nIndex);
+    aData.setBody ("Body " + nIndex);
+    return new FailedMailData (new SMTPSettings ("mail.example.com", 25, null, null, StandardCharsets.UTF_8, false),
+                               aData);
+  }
+
+  @Test
+  public void testReload () throws IOException
+  {
+    final FailedMailData aFMD1 = _createFailedMail (1);
+    final FailedMailData aFMD2 = _createFailedMail (2);
+    final FailedMailData aFMD3 = _createFailedMail (3);
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      assertEquals (0, aQueue.size ());
+      aQueue.add (aFMD1);
+      aQueue.add (aFMD2);
+      aQueue.add (aFMD3);
+      assertNotNull (aQueue.remove (aFMD2.getID ()));
+      assertEquals (2, aQueue.size ());
+    }
+
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      assertEquals (2, aQueue.size ());
+      assertEquals (aFMD1.getEmailData (), aQueue.getFailedMailOfID (aFMD1.getID ()).getEmailData ());
+      assertNull (aQueue.getFailedMailOfID (aFMD2.getID ()));
+      assertEquals (aFMD3.getEmailData (), aQueue.getFailedMailOfID (aFMD3.getID ()).getEmailData ());
+      assertEquals (2, aQueue.getObsoleteRecordCount ());
+
+      assertEquals (2, aQueue.removeAll ().size ());
+    }
+
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      assertEquals (0, aQueue.size ());
+    }
+  }
+
+  @Test
+  public void testIncompleteTail () throws IOException
+  {
+    final FailedMailData aFMD1 = _createFailedMail (1);
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      aQueue.add (aFMD1);
+    }
+    final long nLength = m_aFile.length ();
+
+    // Simulate a crash while writing a record
+    try (final FileOutputStream aFOS = new FileOutputStream (m_aFile, true))
+    {
+      aFOS.write (new byte [] { 'A', 0, 0, 1, 0, '<', 'x' });
+    }
+
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      assertEquals (1, aQueue.size ());
+      assertNotNull (aQueue.getFailedMailOfID (aFMD1.getID ()));
+      assertEquals (nLength, m_aFile.length ());
+
+      // Appending still works after the truncation
+      aQueue.add (_createFailedMail (2));
+    }
+
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      assertEquals (2, aQueue.size ());
+    }
+  }
+
+  @Test
+  public void testCompaction () throws IOException
+  {
+    final FailedMailData aKeep = _createFailedMail (0);
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      aQueue.setCompactionThreshold (10);
+      aQueue.add (aKeep);
+      for (int i = 1; i <= 20; ++i)
+      {
+        final FailedMailData aFMD = _createFailedMail (i);
+        aQueue.add (aFMD);
+        aQueue.remove (aFMD.getID ());
+        assertTrue (aQueue.getObsoleteRecordCount () < 10);
+      }
+      assertEquals (1, aQueue.size ());
+
+      aQueue.compact ();
+      assertEquals (0, aQueue.getObsoleteRecordCount ());
+    }
+
+    try (final PersistentFailedMailQueue aQueue = new PersistentFailedMailQueue (m_aFile))
+    {
+      assertEquals (1, aQueue.size ());
+      assertEquals (aKeep.getEmailData (), aQueue.getFailedMailOfID (aKeep.getID ()).getEmailData ());
+      assertEquals (0, aQueue.getObsoleteRecordCount ());
+    }
+  }
+}
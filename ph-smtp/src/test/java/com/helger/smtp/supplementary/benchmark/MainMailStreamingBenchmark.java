@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.supplementary.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.email.EmailAddress;
+import com.helger.base.io.iface.IHasInputStream;
+import com.helger.base.timing.StopWatch;
+import com.helger.smtp.data.EEmailType;
+import com.helger.smtp.data.EmailAttachment;
+import com.helger.smtp.data.EmailAttachmentList;
+import com.helger.smtp.data.EmailData;
+import com.helger.smtp.data.IMutableEmailData;
+import com.helger.smtp.transport.MailConverter;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Small tool to measure the peak heap usage while a mail with a large attachment is written, the
+ * same way as it is written into the SMTP DATA command. Attachments backed by an
+ * {@link IHasInputStream} are streamed, so the heap usage is independent of the attachment size,
+ * whereas <code>byte[]</code> attachments need the whole content in memory.
+ *
+ * @author Philip Helger
+ */
+public final class MainMailStreamingBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainMailStreamingBenchmark.class);
+  private static final int MB = 1024 * 1024;
+
+  /**
+   * An input stream provider that generates the content on the fly
+   */
+  private static final class GeneratingInputStreamProvider implements IHasInputStream
+  {
+    private final long m_nSize;
+
+    GeneratingInputStreamProvider (final long nSize)
+    {
+      m_nSize = nSize;
+    }
+
+    @NonNull
+    public InputStream getInputStream ()
+    {
+      return new InputStream ()
+      {
+        private long m_nRead = 0;
+
+        @Override
+        public int read ()
+        {
+          return m_nRead < m_nSize ? (int) (m_nRead++ & 0xff) : -1;
+        }
+
+        @Override
+        public int read (final byte [] b, final int nOfs, final int nLen)
+        {
+          if (m_nRead >= m_nSize)
+            return -1;
+          final int nCount = (int) Math.min (nLen, m_nSize - m_nRead);
+          for (int i = 0; i < nCount; ++i)
+            b[nOfs + i] = (byte) (m_nRead++ & 0xff);
+          return nCount;
+        }
+      };
+    }
+
+    public boolean isReadMultiple ()
+    {
+      return true;
+    }
+  }
+
+  /**
+   * Discards everything but remembers the peak heap usage
+   */
+  private static final class HeapSamplingOutputStream extends OutputStream
+  {
+    private final Runtime m_aRuntime = Runtime.getRuntime ();
+    private long m_nWritten = 0;
+    private long m_nPeakHeap = _getUsedHeap ();
+
+    private long _getUsedHeap ()
+    {
+      return m_aRuntime.totalMemory () - m_aRuntime.freeMemory ();
+    }
+
+    @Override
+    public void write (final int b)
+    {
+      m_nWritten++;
+    }
+
+    @Override
+    public void write (final byte [] b, final int nOfs, final int nLen)
+    {
+      // Sample about every 256 KB
+      if ((m_nWritten >>> 18) != ((m_nWritten + nLen) >>> 18))
+        m_nPeakHeap = Math.max (m_nPeakHeap, _getUsedHeap ());
+      m_nWritten += nLen;
+    }
+  }
+
+  @NonNull
+  private static IMutableEmailData _createMail (@NonNull final EmailAttachment aAttachment)
+  {
+    final IMutableEmailData aMailData = new EmailData (EEmailType.TEXT);
+    aMailData.setFrom (new EmailAddress ("sender@example.org"));
+    aMailData.to ().add (new EmailAddress ("recipient@example.org"));
+    aMailData.setSubject ("Large attachment");
+    aMailData.setBody ("See attachment");
+    final EmailAttachmentList aAttachments = new EmailAttachmentList ();
+    aAttachments.addAttachment (aAttachment);
+    aMailData.setAttachments (aAttachments);
+    return aMailData;
+  }
+
+  private static void _run (@NonNull final String sName, @NonNull final EmailAttachment aAttachment) throws IOException,
+                                                                                                       MessagingException
+  {
+    final MimeMessage aMimeMessage = new MimeMessage (Session.getInstance (new Properties ()));
+    MailConverter.fillMimeMessage (aMimeMessage, _createMail (aAttachment), null);
+    aMimeMessage.saveChanges ();
+
+    System.gc ();
+    final HeapSamplingOutputStream aOS = new HeapSamplingOutputStream ();
+    final long nStartHeap = aOS.m_nPeakHeap;
+    final StopWatch aSW = StopWatch.createdStarted ();
+    aMimeMessage.writeTo (aOS);
+    aSW.stop ();
+    LOGGER.info (sName +
+                 ": " +
+                 (aOS.m_nWritten / MB) +
+                 " MB written in " +
+                 aSW.getMillis () +
+                 " ms; peak heap increase " +
+                 (Math.max (0, aOS.m_nPeakHeap - nStartHeap) / MB) +
+                 " MB");
+  }
+
+  public static void main (final String [] args) throws IOException, MessagingException
+  {
+    for (final int nMB : new int [] { 10, 25, 50 })
+    {
+      final long nSize = (long) nMB * MB;
+
+      // The content is part of the heap already
+      final byte [] aContent = new byte [(int) nSize];
+      Arrays.fill (aContent, (byte) 'x');
+      _run ("byte[] " + nMB + " MB", new EmailAttachment ("file.bin", aContent));
+
+      _run ("Streamed " + nMB + " MB", new EmailAttachment ("file.bin", new GeneratingInputStreamProvider (nSize)));
+    }
+  }
+}
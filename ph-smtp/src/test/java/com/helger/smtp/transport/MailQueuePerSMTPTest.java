@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.base.email.EmailAddress;
+import com.helger.smtp.data.EEmailType;
+import com.helger.smtp.data.EmailData;
+import com.helger.smtp.data.IMutableEmailData;
+import com.helger.smtp.failed.FailedMailQueue;
+import com.helger.smtp.settings.SMTPSettings;
+
+/**
+ * Test class for class {@link MailQueuePerSMTP} using a local SMTP stub.
+ *
+ * @author Philip Helger
+ */
+public final class MailQueuePerSMTPTest
+{
+  private static void _sendAll (final SMTPServerStub aServer,
+                                final int nMaxWorkers,
+                                final int nMails) throws InterruptedException
+  {
+    final FailedMailQueue aFailedMailQueue = new FailedMailQueue ();
+    final MailQueuePerSMTP aQueue = new MailQueuePerSMTP (100,
+                                                          1,
+                                                          new SMTPSettings ("localhost",
+                                                                            aServer.getPort (),
+                                                                            null,
+                                                                            null,
+                                                                            StandardCharsets.UTF_8,
+                                                                            false),
+                                                          aFailedMailQueue,
+                                                          nMaxWorkers);
+    assertEquals (nMaxWorkers, aQueue.getMaxWorkers ());
+
+    final Thread aCollector = new Thread ( () -> {
+      aQueue.collect ();
+      aQueue.awaitWorkers ();
+    });
+    aCollector.start ();
+
+    for (int i = 0; i < nMails; ++i)
+    {
+      final IMutableEmailData aMailData = new EmailData (EEmailType.TEXT);
+      aMailData.setFrom (new EmailAddress ("sender@example.org"));
+      aMailData.to ().add (new EmailAddress ("recipient@example.org"));
+      aMailData.setSubject ("Test " + i);
+      aMailData.setBody ("Body " + i);
+      assertTrue (aQueue.queueObject (aMailData).isSuccess ());
+    }
+    aQueue.stopQueuingNewObjects (false);
+    aCollector.join ();
+
+    assertEquals (0, aQueue.getActiveWorkerCount ());
+    assertEquals (0, aFailedMailQueue.size ());
+    assertEquals (nMails, aServer.getMessageCount ());
+  }
+
+  @Test
+  public void testSingleWorker () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      _sendAll (aServer, 1, 4);
+    }
+  }
+
+  @Test
+  public void testMultipleWorkers () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      // Simulate a slow server so that the batches overlap
+      aServer.setDataDelayMillis (200);
+      _sendAll (aServer, 3, 9);
+      // Batches were sent concurrently
+      assertTrue (aServer.getMaxActiveConnectionCount () > 1);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.email.EmailAddress;
+import com.helger.base.io.iface.IHasInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.smtp.data.EEmailType;
+import com.helger.smtp.data.EmailAttachment;
+import com.helger.smtp.data.EmailAttachmentList;
+import com.helger.smtp.data.EmailData;
+import com.helger.smtp.data.IMutableEmailData;
+import com.helger.smtp.settings.SMTPConnectionPoolSettings;
+import com.helger.smtp.settings.SMTPSettings;
+
+/**
+ * Test class for class {@link MailTransport} using a local SMTP stub.
+ *
+ * @author Philip Helger
+ */
+public final class MailTransportTest
+{
+  @NonNull
+  private static ICommonsList <IMutableEmailData> _createMails (final int nCount)
+  {
+    final ICommonsList <IMutableEmailData> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+    {
+      final IMutableEmailData aMailData = new EmailData (EEmailType.TEXT);
+      aMailData.setFrom (new EmailAddress ("sender@example.org"));
+      aMailData.to ().add (new EmailAddress ("recipient@example.org"));
+      aMailData.setSubject ("Test " + i);
+      aMailData.setBody ("Body " + i);
+      ret.add (aMailData);
+    }
+    return ret;
+  }
+
+  private static SMTPSettings _createSettings (final SMTPServerStub aServer)
+  {
+    return new SMTPSettings ("localhost", aServer.getPort (), null, null, StandardCharsets.UTF_8, false);
+  }
+
+  @Test
+  public void testWithoutPool () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      final MailTransport aTransport = new MailTransport (_createSettings (aServer), null);
+      assertNull (aTransport.getConnectionPool ());
+
+      assertTrue (aTransport.send (_createMails (2)).isEmpty ());
+      assertTrue (aTransport.send (_createMails (1)).isEmpty ());
+      assertEquals (3, aServer.getMessageCount ());
+      // One connection per send
+      assertEquals (2, aServer.getConnectionCount ());
+    }
+  }
+
+  @Test
+  public void testPooled () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      final MailTransport aTransport = new MailTransport (_createSettings (aServer),
+                                                          new SMTPConnectionPoolSettings (2,
+                                                                                          Duration.ofMinutes (1),
+                                                                                          0,
+                                                                                          true));
+      final SMTPConnectionPool aPool = aTransport.getConnectionPool ();
+      assertNotNull (aPool);
+
+      assertTrue (aTransport.send (_createMails (2)).isEmpty ());
+      assertEquals (1, aPool.getIdleConnectionCount ());
+      assertTrue (aTransport.send (_createMails (1)).isEmpty ());
+      assertTrue (aTransport.send (_createMails (3)).isEmpty ());
+      assertEquals (6, aServer.getMessageCount ());
+
+      // The connection was reused
+      assertEquals (1, aServer.getConnectionCount ());
+      assertEquals (1, aPool.getCreatedConnectionCount ());
+      assertEquals (2, aPool.getReusedConnectionCount ());
+
+      aTransport.closeConnections ();
+      assertEquals (0, aPool.getIdleConnectionCount ());
+      assertEquals (1, aPool.getClosedConnectionCount ());
+    }
+  }
+
+  @Test
+  public void testMaxMessagesPerConnection () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      final MailTransport aTransport = new MailTransport (_createSettings (aServer),
+                                                          new SMTPConnectionPoolSettings (2,
+                                                                                          Duration.ofMinutes (1),
+                                                                                          2,
+                                                                                          true));
+      assertTrue (aTransport.send (_createMails (5)).isEmpty ());
+      assertEquals (5, aServer.getMessageCount ());
+      assertEquals (3, aServer.getConnectionCount ());
+      aTransport.closeConnections ();
+    }
+  }
+
+  @Test
+  public void testIdleTimeout () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      final MailTransport aTransport = new MailTransport (_createSettings (aServer),
+                                                          new SMTPConnectionPoolSettings (2,
+                                                                                          Duration.ofMillis (50),
+                                                                                          0,
+                                                                                          true));
+      assertTrue (aTransport.send (_createMails (1)).isEmpty ());
+      Thread.sleep (200);
+      assertTrue (aTransport.send (_createMails (1)).isEmpty ());
+      assertEquals (2, aServer.getConnectionCount ());
+      aTransport.closeConnections ();
+    }
+  }
+
+  @Test
+  public void testReconnectOn421 () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      aServer.setFail421OnMailCommand (2);
+      final MailTransport aTransport = new MailTransport (_createSettings (aServer),
+                                                          SMTPConnectionPoolSettings.DEFAULT);
+      assertTrue (aTransport.send (_createMails (3)).isEmpty ());
+      assertEquals (3, aServer.getMessageCount ());
+      assertEquals (2, aServer.getConnectionCount ());
+      aTransport.closeConnections ();
+    }
+  }
+
+  @Test
+  public void testServerNotReachable () throws Exception
+  {
+    final SMTPServerStub aServer = new SMTPServerStub ();
+    final SMTPSettings aSettings = _createSettings (aServer);
+    aServer.close ();
+
+    final MailTransport aTransport = new MailTransport (aSettings, SMTPConnectionPoolSettings.DEFAULT);
+    assertFalse (aTransport.send (_createMails (2)).isEmpty ());
+    assertEquals (0, aTransport.getConnectionPool ().getIdleConnectionCount ());
+  }
+
+  @Test
+  public void testAttachmentIsStreamedOnce () throws Exception
+  {
+    try (final SMTPServerStub aServer = new SMTPServerStub ())
+    {
+      final byte [] aContent = new byte [100_000];
+      for (int i = 0; i < aContent.length; ++i)
+        aContent[i] = (byte) i;
+      final AtomicInteger aOpenCount = new AtomicInteger (0);
+
+      final IMutableEmailData aMailData = _createMails (1).getFirstOrNull ();
+      final EmailAttachmentList aAttachments = new EmailAttachmentList ();
+      // Can only be read once
+      aAttachments.addAttachment (new EmailAttachment ("file.bin", new IHasInputStream ()
+      {
+        @NonNull
+        public InputStream getInputStream ()
+        {
+          aOpenCount.incrementAndGet ();
+          return new NonBlockingByteArrayInputStream (aContent);
+        }
+
+        public boolean isReadMultiple ()
+        {
+          return false;
+        }
+      }));
+      aMailData.setAttachments (aAttachments);
+
+      final MailTransport aTransport = new MailTransport (_createSettings (aServer), null);
+      assertTrue (aTransport.send (new CommonsArrayList <> (aMailData)).isEmpty ());
+      assertEquals (1, aServer.getMessageCount ());
+      // The content must not be read in advance to determine the transfer encoding
+      assertEquals (1, aOpenCount.get ());
+    }
+  }
+}
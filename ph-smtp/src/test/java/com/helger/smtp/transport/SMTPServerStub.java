@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.smtp.transport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A minimal in-process SMTP server for testing. It accepts all mails and counts connections and
+ * messages. Optionally the n-th MAIL command is answered with a 421 and the connection is closed.
+ *
+ * @author Philip Helger
+ */
+final class SMTPServerStub implements AutoCloseable
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMTPServerStub.class);
+
+  private final ServerSocket m_aServerSocket;
+  private final Thread m_aAcceptThread;
+  private final AtomicInteger m_aConnectionCount = new AtomicInteger (0);
+  private final AtomicInteger m_aMailCommandCount = new AtomicInteger (0);
+  private final AtomicInteger m_aMessageCount = new AtomicInteger (0);
+  private final AtomicInteger m_aActiveConnections = new AtomicInteger (0);
+  private final AtomicInteger m_aMaxActiveConnections = new AtomicInteger (0);
+  private volatile int m_nFail421OnMailCommand = -1;
+  private volatile long m_nDataDelayMillis = 0;
+
+  SMTPServerStub () throws IOException
+  {
+    m_aServerSocket = new ServerSocket (0, 50, InetAddress.getLoopbackAddress ());
+    m_aAcceptThread = new Thread (this::_acceptLoop, "smtp-stub-accept");
+    m_aAcceptThread.setDaemon (true);
+    m_aAcceptThread.start ();
+  }
+
+  int getPort ()
+  {
+    return m_aServerSocket.getLocalPort ();
+  }
+
+  int getConnectionCount ()
+  {
+    return m_aConnectionCount.get ();
+  }
+
+  int getMessageCount ()
+  {
+    return m_aMessageCount.get ();
+  }
+
+  int getMaxActiveConnectionCount ()
+  {
+    return m_aMaxActiveConnections.get ();
+  }
+
+  /**
+   * @param nDataDelayMillis
+   *        The time to wait before a received message is acknowledged, to simulate a slow server.
+   */
+  void setDataDelayMillis (final long nDataDelayMillis)
+  {
+    m_nDataDelayMillis = nDataDelayMillis;
+  }
+
+  /**
+   * @param nMailCommand
+   *        The 1-based index of the MAIL command to be answered with 421.
+   */
+  void setFail421OnMailCommand (final int nMailCommand)
+  {
+    m_nFail421OnMailCommand = nMailCommand;
+  }
+
+  private void _acceptLoop ()
+  {
+    while (!m_aServerSocket.isClosed ())
+    {
+      try
+      {
+        final Socket aSocket = m_aServerSocket.accept ();
+        m_aConnectionCount.incrementAndGet ();
+        final Thread aThread = new Thread ( () -> _handle (aSocket), "smtp-stub-connection");
+        aThread.setDaemon (true);
+        aThread.start ();
+      }
+      catch (final IOException ex)
+      {
+        // Server socket closed
+      }
+    }
+  }
+
+  private static void _write (@NonNull final OutputStream aOS, @NonNull final String sLine) throws IOException
+  {
+    aOS.write ((sLine + "\r\n").getBytes (StandardCharsets.US_ASCII));
+    aOS.flush ();
+  }
+
+  private void _handle (@NonNull final Socket aSocket)
+  {
+    m_aMaxActiveConnections.accumulateAndGet (m_aActiveConnections.incrementAndGet (), Math::max);
+    try (final Socket s = aSocket;
+         final BufferedReader aReader = new BufferedReader (new InputStreamReader (s.getInputStream (),
+                                                                                   StandardCharsets.ISO_8859_1));
+         final OutputStream aOS = s.getOutputStream ())
+    {
+      _write (aOS, "220 localhost ESMTP stub");
+      String sLine;
+      while ((sLine = aReader.readLine ()) != null)
+      {
+        final String sCmd = sLine.toUpperCase (Locale.US);
+        if (sCmd.startsWith ("EHLO"))
+        {
+          _write (aOS, "250-localhost");
+          _write (aOS, "250 8BITMIME");
+        }
+        else
+          if (sCmd.startsWith ("HELO") || sCmd.startsWith ("RCPT") || sCmd.startsWith ("NOOP") || sCmd.startsWith ("RSET"))
+            _write (aOS, "250 OK");
+          else
+            if (sCmd.startsWith ("MAIL"))
+            {
+              if (m_aMailCommandCount.incrementAndGet () == m_nFail421OnMailCommand)
+              {
+                _write (aOS, "421 localhost Service not available, closing transmission channel");
+                return;
+              }
+              _write (aOS, "250 OK");
+            }
+            else
+              if (sCmd.startsWith ("DATA"))
+              {
+                _write (aOS, "354 End data with <CR><LF>.<CR><LF>");
+                while ((sLine = aReader.readLine ()) != null && !sLine.equals ("."))
+                {
+                  // Skip content
+                }
+                if (m_nDataDelayMillis > 0)
+                  Thread.sleep (m_nDataDelayMillis);
+                m_aMessageCount.incrementAndGet ();
+                _write (aOS, "250 OK queued");
+              }
+              else
+                if (sCmd.startsWith ("QUIT"))
+                {
+                  _write (aOS, "221 Bye");
+                  return;
+                }
+                else
+                  _write (aOS, "500 Unknown command");
+      }
+    }
+    catch (final SocketException ex)
+    {
+      // Client closed the connection
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Error in SMTP stub", ex);
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+    }
+    finally
+    {
+      m_aActiveConnections.decrementAndGet ();
+    }
+  }
+
+  public void close () throws IOException
+  {
+    m_aServerSocket.close ();
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.builder.IBuilder;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.EContinue;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A precompiled multi pattern substring matcher based on the Aho-Corasick algorithm. All patterns
+ * are searched in a single pass over the text, independent of the number of patterns. The
+ * automaton itself always works case insensitive (on a per character basis), patterns that are
+ * added as case sensitive are verified against the original text upon a match.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The payload type associated to each pattern
+ * @since 11.4.3
+ */
+@Immutable
+public final class AhoCorasickMatcher <T>
+{
+  private static final int ROOT = 0;
+  private static final int [] NO_PATTERNS = {};
+
+  // Per pattern
+  private final String [] m_aPatterns;
+  private final boolean [] m_aCaseSensitive;
+  private final Object [] m_aPayloads;
+
+  // Per node
+  private final char [] [] m_aEdgeChars;
+  private final int [] [] m_aEdgeTargets;
+  private final int [] m_aFail;
+  private final int [] m_aDictLink;
+  private final int [] [] m_aNodePatterns;
+
+  private AhoCorasickMatcher (@NonNull final ICommonsList <String> aPatterns,
+                              @NonNull final ICommonsList <Boolean> aCaseSensitive,
+                              @NonNull final ICommonsList <T> aPayloads)
+  {
+    final int nPatterns = aPatterns.size ();
+    m_aPatterns = aPatterns.toArray (new String [nPatterns]);
+    m_aCaseSensitive = new boolean [nPatterns];
+    for (int i = 0; i < nPatterns; ++i)
+      m_aCaseSensitive[i] = aCaseSensitive.get (i).booleanValue ();
+    m_aPayloads = aPayloads.toArray ();
+
+    // Build the trie
+    final ICommonsList <TreeMap <Character, Integer>> aEdges = new CommonsArrayList <> ();
+    final ICommonsList <ICommonsList <Integer>> aOutputs = new CommonsArrayList <> ();
+    aEdges.add (new TreeMap <> ());
+    aOutputs.add (new CommonsArrayList <> ());
+    for (int nPattern = 0; nPattern < nPatterns; ++nPattern)
+    {
+      final String sPattern = m_aPatterns[nPattern];
+      int nNode = ROOT;
+      for (int i = 0; i < sPattern.length (); ++i)
+      {
+        final Character aChar = Character.valueOf (_unify (sPattern.charAt (i)));
+        Integer aNext = aEdges.get (nNode).get (aChar);
+        if (aNext == null)
+        {
+          aNext = Integer.valueOf (aEdges.size ());
+          aEdges.get (nNode).put (aChar, aNext);
+          aEdges.add (new TreeMap <> ());
+          aOutputs.add (new CommonsArrayList <> ());
+        }
+        nNode = aNext.intValue ();
+      }
+      aOutputs.get (nNode).add (Integer.valueOf (nPattern));
+    }
+
+    // Compile into arrays
+    final int nNodes = aEdges.size ();
+    m_aEdgeChars = new char [nNodes] [];
+    m_aEdgeTargets = new int [nNodes] [];
+    m_aNodePatterns = new int [nNodes] [];
+    for (int nNode = 0; nNode < nNodes; ++nNode)
+    {
+      final TreeMap <Character, Integer> aMap = aEdges.get (nNode);
+      final char [] aChars = new char [aMap.size ()];
+      final int [] aTargets = new int [aMap.size ()];
+      int nIndex = 0;
+      for (final Map.Entry <Character, Integer> aEntry : aMap.entrySet ())
+      {
+        aChars[nIndex] = aEntry.getKey ().charValue ();
+        aTargets[nIndex] = aEntry.getValue ().intValue ();
+        nIndex++;
+      }
+      m_aEdgeChars[nNode] = aChars;
+      m_aEdgeTargets[nNode] = aTargets;
+
+      final ICommonsList <Integer> aOutput = aOutputs.get (nNode);
+      if (aOutput.isEmpty ())
+        m_aNodePatterns[nNode] = NO_PATTERNS;
+      else
+      {
+        final int [] aIDs = new int [aOutput.size ()];
+        for (int i = 0; i < aIDs.length; ++i)
+          aIDs[i] = aOutput.get (i).intValue ();
+        m_aNodePatterns[nNode] = aIDs;
+      }
+    }
+
+    // Breadth first computation of the failure and dictionary suffix links
+    m_aFail = new int [nNodes];
+    m_aDictLink = new int [nNodes];
+    Arrays.fill (m_aDictLink, -1);
+    final Queue <Integer> aQueue = new ArrayDeque <> ();
+    for (final int nChild : m_aEdgeTargets[ROOT])
+    {
+      m_aFail[nChild] = ROOT;
+      aQueue.add (Integer.valueOf (nChild));
+    }
+    while (!aQueue.isEmpty ())
+    {
+      final int nNode = aQueue.remove ().intValue ();
+      final char [] aChars = m_aEdgeChars[nNode];
+      final int [] aTargets = m_aEdgeTargets[nNode];
+      for (int i = 0; i < aChars.length; ++i)
+      {
+        final int nChild = aTargets[i];
+        int nFail = m_aFail[nNode];
+        int nFailTarget;
+        while ((nFailTarget = _getTransition (nFail, aChars[i])) < 0 && nFail != ROOT)
+          nFail = m_aFail[nFail];
+        m_aFail[nChild] = nFailTarget < 0 ? ROOT : nFailTarget;
+
+        final int nChildFail = m_aFail[nChild];
+        m_aDictLink[nChild] = m_aNodePatterns[nChildFail].length > 0 ? nChildFail : m_aDictLink[nChildFail];
+        aQueue.add (Integer.valueOf (nChild));
+      }
+    }
+  }
+
+  private static char _unify (final char c)
+  {
+    return Character.toLowerCase (c);
+  }
+
+  private int _getTransition (final int nNode, final char c)
+  {
+    final int nIndex = Arrays.binarySearch (m_aEdgeChars[nNode], c);
+    return nIndex < 0 ? -1 : m_aEdgeTargets[nNode][nIndex];
+  }
+
+  /**
+   * @return The number of patterns contained. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getPatternCount ()
+  {
+    return m_aPatterns.length;
+  }
+
+  private boolean _isMatch (@NonNull final String sText, final int nEndIndexExcl, final int nPattern)
+  {
+    if (!m_aCaseSensitive[nPattern])
+      return true;
+    final String sPattern = m_aPatterns[nPattern];
+    return sText.regionMatches (nEndIndexExcl - sPattern.length (), sPattern, 0, sPattern.length ());
+  }
+
+  /**
+   * Scan the provided text once and invoke the callback for every pattern occurrence. Matches are
+   * reported in the order of their end position in the text and for the same end position the
+   * longer pattern comes first.
+   *
+   * @param sText
+   *        The text to scan. May be <code>null</code>.
+   * @param aCallback
+   *        The callback to be invoked with the payload of each match. If it returns
+   *        {@link EContinue#BREAK} the scan is stopped. May not be <code>null</code>.
+   * @return {@link EContinue#BREAK} if the scan was stopped by the callback,
+   *         {@link EContinue#CONTINUE} otherwise.
+   */
+  @SuppressWarnings ("unchecked")
+  @NonNull
+  public EContinue findAll (@Nullable final String sText, @NonNull final Function <? super T, EContinue> aCallback)
+  {
+    ValueEnforcer.notNull (aCallback, "Callback");
+    if (sText == null || m_aPatterns.length == 0)
+      return EContinue.CONTINUE;
+
+    int nNode = ROOT;
+    final int nLen = sText.length ();
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = _unify (sText.charAt (i));
+      int nNext;
+      while ((nNext = _getTransition (nNode, c)) < 0 && nNode != ROOT)
+        nNode = m_aFail[nNode];
+      nNode = nNext < 0 ? ROOT : nNext;
+
+      // Report this node and all suffix nodes with patterns
+      int nOut = m_aNodePatterns[nNode].length > 0 ? nNode : m_aDictLink[nNode];
+      while (nOut >= 0)
+      {
+        for (final int nPattern : m_aNodePatterns[nOut])
+          if (_isMatch (sText, i + 1, nPattern))
+            if (aCallback.apply ((T) m_aPayloads[nPattern]).isBreak ())
+              return EContinue.BREAK;
+        nOut = m_aDictLink[nOut];
+      }
+    }
+    return EContinue.CONTINUE;
+  }
+
+  /**
+   * Find the payload of the first pattern occurring in the provided text. "First" means the
+   * occurrence that ends first, and the longest pattern for the same end position.
+   *
+   * @param sText
+   *        The text to scan. May be <code>null</code>.
+   * @return <code>null</code> if no pattern is contained in the text.
+   */
+  @Nullable
+  public T findFirst (@Nullable final String sText)
+  {
+    final Object [] ret = new Object [1];
+    findAll (sText, x -> {
+      ret[0] = x;
+      return EContinue.BREAK;
+    });
+    @SuppressWarnings ("unchecked")
+    final T aResult = (T) ret[0];
+    return aResult;
+  }
+
+  /**
+   * @param sText
+   *        The text to scan. May be <code>null</code>.
+   * @return <code>true</code> if at least one pattern is contained in the text.
+   */
+  public boolean containsAny (@Nullable final String sText)
+  {
+    return findAll (sText, x -> EContinue.BREAK).isBreak ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("PatternCount", m_aPatterns.length)
+                                       .append ("NodeCount", m_aFail.length)
+                                       .getToString ();
+  }
+
+  @NonNull
+  public static <T> Builder <T> builder ()
+  {
+    return new Builder <> ();
+  }
+
+  /**
+   * Builder class for an {@link AhoCorasickMatcher}.
+   *
+   * @author Philip Helger
+   * @param <T>
+   *        The payload type associated to each pattern
+   */
+  @NotThreadSafe
+  public static class Builder <T> implements IBuilder <AhoCorasickMatcher <T>>
+  {
+    private final ICommonsList <String> m_aPatterns = new CommonsArrayList <> ();
+    private final ICommonsList <Boolean> m_aCaseSensitive = new CommonsArrayList <> ();
+    private final ICommonsList <T> m_aPayloads = new CommonsArrayList <> ();
+
+    public Builder ()
+    {}
+
+    /**
+     * Add a new pattern.
+     *
+     * @param sPattern
+     *        The pattern to search. May neither be <code>null</code> nor empty.
+     * @param bCaseSensitive
+     *        <code>true</code> if the pattern must match case sensitive, <code>false</code> if
+     *        not.
+     * @param aPayload
+     *        The payload to be reported upon a match. May not be <code>null</code>.
+     * @return this for chaining
+     */
+    @NonNull
+    public final Builder <T> addPattern (@NonNull @Nonempty final String sPattern,
+                                         final boolean bCaseSensitive,
+                                         @NonNull final T aPayload)
+    {
+      ValueEnforcer.notEmpty (sPattern, "Pattern");
+      ValueEnforcer.notNull (aPayload, "Payload");
+      m_aPatterns.add (sPattern);
+      m_aCaseSensitive.add (Boolean.valueOf (bCaseSensitive));
+      m_aPayloads.add (aPayload);
+      return this;
+    }
+
+    @NonNull
+    public AhoCorasickMatcher <T> build ()
+    {
+      return new AhoCorasickMatcher <> (m_aPatterns, m_aCaseSensitive, m_aPayloads);
+    }
+  }
+}
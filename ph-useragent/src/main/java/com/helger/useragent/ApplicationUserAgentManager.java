@@ -36,10 +36,16 @@ import com.helger.xml.microdom.util.XMLListHandler;
 public final class ApplicationUserAgentManager
 {
   private static final ICommonsSet <String> SET = new CommonsHashSet <> ();
+  private static final AhoCorasickMatcher <String> MATCHER;
 
   static
   {
     _readList ("codelists/appuseragents.xml");
+
+    final AhoCorasickMatcher.Builder <String> aBuilder = AhoCorasickMatcher.builder ();
+    for (final String sItem : SET)
+      aBuilder.addPattern (sItem, true, sItem);
+    MATCHER = aBuilder.build ();
   }
 
   @PresentForCodeCoverage
@@ -61,7 +67,18 @@ public final class ApplicationUserAgentManager
   {
     if (StringHelper.isEmpty (sFullUserAgent))
       return null;
-    return SET.findFirst (sFullUserAgent::contains);
+    return MATCHER.findFirst (sFullUserAgent);
+  }
+
+  /**
+   * @return The precompiled case sensitive matcher for all application user agent parts. Never
+   *         <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  public static AhoCorasickMatcher <String> getMatcher ()
+  {
+    return MATCHER;
   }
 
   @NonNull
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A bounded, thread-safe LRU cache from the user agent string to the parsed {@link IUserAgent}. To
+ * avoid a global lock, the cache is split into several segments, each with its own lock and its
+ * own share of the maximum size. Optionally entries expire after a configurable time to live.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public final class UserAgentCache
+{
+  /** The default maximum number of cached user agents */
+  public static final int DEFAULT_MAX_SIZE = 10_000;
+  private static final int SEGMENT_COUNT = 16;
+
+  private static final class Entry
+  {
+    private final IUserAgent m_aUserAgent;
+    private final long m_nCreationNanos;
+
+    Entry (@NonNull final IUserAgent aUserAgent, final long nCreationNanos)
+    {
+      m_aUserAgent = aUserAgent;
+      m_nCreationNanos = nCreationNanos;
+    }
+  }
+
+  private static final class Segment
+  {
+    private final ReentrantLock m_aLock = new ReentrantLock ();
+    @GuardedBy ("m_aLock")
+    private final LinkedHashMap <String, Entry> m_aMap;
+
+    Segment (@Nonnegative final int nMaxSize, @NonNull final LongAdder aEvictions)
+    {
+      // Access order for LRU
+      m_aMap = new LinkedHashMap <> (16, 0.75f, true)
+      {
+        @Override
+        protected boolean removeEldestEntry (final Map.Entry <String, Entry> aEldest)
+        {
+          if (size () > nMaxSize)
+          {
+            aEvictions.increment ();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+  }
+
+  private final int m_nMaxSize;
+  private final Duration m_aTTL;
+  private final long m_nTTLNanos;
+  private final Segment [] m_aSegments;
+  private final LongAdder m_aHits = new LongAdder ();
+  private final LongAdder m_aMisses = new LongAdder ();
+  private final LongAdder m_aEvictions = new LongAdder ();
+
+  /**
+   * Constructor
+   *
+   * @param nMaxSize
+   *        The maximum number of entries in the cache. Must be &gt; 0. The effective maximum may be
+   *        slightly higher, as the value is distributed over all segments.
+   * @param aTTL
+   *        The time to live of each entry. May be <code>null</code> to indicate that entries never
+   *        expire.
+   */
+  public UserAgentCache (@Nonnegative final int nMaxSize, @Nullable final Duration aTTL)
+  {
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    if (aTTL != null)
+      ValueEnforcer.isFalse (aTTL.isNegative () || aTTL.isZero (), "TTL must be positive");
+    m_nMaxSize = nMaxSize;
+    m_aTTL = aTTL;
+    m_nTTLNanos = aTTL == null ? Long.MAX_VALUE : aTTL.toNanos ();
+
+    // Small caches don't need many segments
+    final int nSegmentCount = Math.min (SEGMENT_COUNT, nMaxSize);
+    final int nSegmentMaxSize = (nMaxSize + nSegmentCount - 1) / nSegmentCount;
+    m_aSegments = new Segment [nSegmentCount];
+    for (int i = 0; i < nSegmentCount; ++i)
+      m_aSegments[i] = new Segment (nSegmentMaxSize, m_aEvictions);
+  }
+
+  /**
+   * @return The maximum number of entries as provided in the constructor.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * @return The time to live of each entry. May be <code>null</code> if entries never expire.
+   */
+  @Nullable
+  public Duration getTTL ()
+  {
+    return m_aTTL;
+  }
+
+  @NonNull
+  private Segment _getSegment (@NonNull final String sKey)
+  {
+    // Spread the hash bits
+    final int h = sKey.hashCode ();
+    return m_aSegments[((h ^ (h >>> 16)) & 0x7fffffff) % m_aSegments.length];
+  }
+
+  /**
+   * Get the cached user agent or parse and cache it. The parsing happens outside of any lock, so
+   * concurrent misses for the same key may parse the same string more than once.
+   *
+   * @param sUserAgent
+   *        The user agent string. May not be <code>null</code>.
+   * @param aParser
+   *        The function to parse the user agent string upon a cache miss. May not be
+   *        <code>null</code>.
+   * @return The cached or newly parsed user agent. Never <code>null</code>.
+   */
+  @NonNull
+  public IUserAgent getOrParse (@NonNull final String sUserAgent,
+                                @NonNull final Function <? super String, ? extends IUserAgent> aParser)
+  {
+    ValueEnforcer.notNull (sUserAgent, "UserAgent");
+    ValueEnforcer.notNull (aParser, "Parser");
+
+    final Segment aSegment = _getSegment (sUserAgent);
+    final long nNow = System.nanoTime ();
+    aSegment.m_aLock.lock ();
+    try
+    {
+      final Entry aEntry = aSegment.m_aMap.get (sUserAgent);
+      if (aEntry != null)
+      {
+        if (nNow - aEntry.m_nCreationNanos < m_nTTLNanos)
+        {
+          m_aHits.increment ();
+          return aEntry.m_aUserAgent;
+        }
+        // Expired
+        aSegment.m_aMap.remove (sUserAgent);
+        m_aEvictions.increment ();
+      }
+    }
+    finally
+    {
+      aSegment.m_aLock.unlock ();
+    }
+
+    m_aMisses.increment ();
+
+    // Parse outside of the lock
+    final IUserAgent aUserAgent = aParser.apply (sUserAgent);
+    ValueEnforcer.notNull (aUserAgent, "ParsedUserAgent");
+
+    aSegment.m_aLock.lock ();
+    try
+    {
+      aSegment.m_aMap.put (sUserAgent, new Entry (aUserAgent, nNow));
+    }
+    finally
+    {
+      aSegment.m_aLock.unlock ();
+    }
+    return aUserAgent;
+  }
+
+  /**
+   * @return The current number of cached entries, including expired entries that were not yet
+   *         removed.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    int ret = 0;
+    for (final Segment aSegment : m_aSegments)
+    {
+      aSegment.m_aLock.lock ();
+      try
+      {
+        ret += aSegment.m_aMap.size ();
+      }
+      finally
+      {
+        aSegment.m_aLock.unlock ();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Remove all entries from the cache. The statistics are not reset.
+   */
+  public void clear ()
+  {
+    for (final Segment aSegment : m_aSegments)
+    {
+      aSegment.m_aLock.lock ();
+      try
+      {
+        aSegment.m_aMap.clear ();
+      }
+      finally
+      {
+        aSegment.m_aLock.unlock ();
+      }
+    }
+  }
+
+  /**
+   * @return The number of lookups that were answered from the cache.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.sum ();
+  }
+
+  /**
+   * @return The number of lookups that required parsing.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.sum ();
+  }
+
+  /**
+   * @return The number of entries removed because the cache was full or because they expired.
+   */
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictions.sum ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("MaxSize", m_nMaxSize)
+                                       .append ("TTL", m_aTTL)
+                                       .append ("Hits", getHitCount ())
+                                       .append ("Misses", getMissCount ())
+                                       .append ("Evictions", getEvictionCount ())
+                                       .getToString ();
+  }
+}
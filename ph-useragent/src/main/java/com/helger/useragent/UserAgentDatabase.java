@@ -16,6 +16,9 @@
  */
 package com.helger.useragent;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.jspecify.annotations.NonNull;
@@ -23,11 +26,13 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.GuardedBy;
 import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.annotation.style.PresentForCodeCoverage;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.string.StringHelper;
 import com.helger.collection.commons.CommonsHashSet;
 import com.helger.collection.commons.ICommonsSet;
@@ -35,19 +40,32 @@ import com.helger.http.CHttpHeader;
 
 /**
  * Central cache for known user agents (see HTTP header field {@link CHttpHeader#USER_AGENT}).
+ * Parsed user agents are kept in a bounded {@link UserAgentCache} and the number of tracked unique
+ * user agent strings is limited as well, so that arbitrary client input cannot exhaust the memory.
  *
  * @author Philip Helger
  */
 @ThreadSafe
 public final class UserAgentDatabase
 {
+  /**
+   * The default maximum number of unique user agent strings to remember.
+   *
+   * @since 11.4.3
+   */
+  public static final int DEFAULT_MAX_UNIQUE_USER_AGENTS = 10_000;
+
   private static final Logger LOGGER = LoggerFactory.getLogger (UserAgentDatabase.class);
 
   private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
-  @GuardedBy ("RW_LOCK")
-  private static final ICommonsSet <String> UNIQUE_USER_AGENTS = new CommonsHashSet <> ();
+  private static final Set <String> UNIQUE_USER_AGENTS = ConcurrentHashMap.newKeySet ();
+  private static final AtomicBoolean UNIQUE_LIMIT_WARNED = new AtomicBoolean (false);
   @GuardedBy ("RW_LOCK")
   private static Consumer <? super IUserAgent> s_aNewUserAgentCallback;
+  @GuardedBy ("RW_LOCK")
+  private static UserAgentCache s_aCache = new UserAgentCache (UserAgentCache.DEFAULT_MAX_SIZE, null);
+  @GuardedBy ("RW_LOCK")
+  private static int s_nMaxUniqueUserAgents = DEFAULT_MAX_UNIQUE_USER_AGENTS;
 
   @PresentForCodeCoverage
   private static final UserAgentDatabase INSTANCE = new UserAgentDatabase ();
@@ -56,36 +74,100 @@ public final class UserAgentDatabase
   {}
 
   /**
-   * Set an external callback to get notified when a new unique UserAgent was received.
+   * Set an external callback to get notified when a new unique UserAgent was received. Once the
+   * maximum number of unique user agents is reached, the callback is no longer invoked.
    *
    * @param aCallback
    *        Callback to set. May be <code>null</code>. The parameters to this callback are always
    *        non-null.
+   * @see #setMaxUniqueUserAgents(int)
    */
   public static void setUserAgentCallback (@Nullable final Consumer <? super IUserAgent> aCallback)
   {
     RW_LOCK.writeLocked ( () -> s_aNewUserAgentCallback = aCallback);
   }
 
+  /**
+   * @return The cache for parsed user agents. May be <code>null</code> if caching is disabled.
+   * @since 11.4.3
+   */
+  @Nullable
+  public static UserAgentCache getCache ()
+  {
+    return RW_LOCK.readLockedGet ( () -> s_aCache);
+  }
+
+  /**
+   * Set the cache for parsed user agents.
+   *
+   * @param aCache
+   *        The cache to use. May be <code>null</code> to disable caching, in which case each call
+   *        to {@link #getParsedUserAgent(String)} parses the string again.
+   * @since 11.4.3
+   */
+  public static void setCache (@Nullable final UserAgentCache aCache)
+  {
+    RW_LOCK.writeLocked ( () -> s_aCache = aCache);
+  }
+
+  /**
+   * @return The maximum number of unique user agent strings to remember. Always &gt; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public static int getMaxUniqueUserAgents ()
+  {
+    return RW_LOCK.readLockedInt ( () -> s_nMaxUniqueUserAgents);
+  }
+
+  /**
+   * Set the maximum number of unique user agent strings to remember. If the limit is reached, new
+   * user agents are still parsed but no longer remembered and the callback is not invoked for
+   * them.
+   *
+   * @param nMaxUniqueUserAgents
+   *        The new maximum. Must be &gt; 0.
+   * @since 11.4.3
+   */
+  public static void setMaxUniqueUserAgents (@Nonnegative final int nMaxUniqueUserAgents)
+  {
+    ValueEnforcer.isGT0 (nMaxUniqueUserAgents, "MaxUniqueUserAgents");
+    RW_LOCK.writeLocked ( () -> s_nMaxUniqueUserAgents = nMaxUniqueUserAgents);
+    UNIQUE_LIMIT_WARNED.set (false);
+  }
+
   @Nullable
   public static IUserAgent getParsedUserAgent (@Nullable final String sUserAgent)
   {
     if (StringHelper.isEmpty (sUserAgent))
       return null;
 
-    // Decrypt outside the lock
-    final IUserAgent aUserAgent = UserAgentDecryptor.decryptUserAgentString (sUserAgent);
+    // Parse outside the lock
+    final UserAgentCache aCache = getCache ();
+    final IUserAgent aUserAgent = aCache != null ? aCache.getOrParse (sUserAgent,
+                                                                      UserAgentDecryptor::decryptUserAgentString)
+                                                 : UserAgentDecryptor.decryptUserAgentString (sUserAgent);
 
-    final boolean bAdded = RW_LOCK.writeLockedBoolean ( () -> UNIQUE_USER_AGENTS.add (sUserAgent));
-    if (bAdded)
+    if (!UNIQUE_USER_AGENTS.contains (sUserAgent))
     {
-      if (LOGGER.isDebugEnabled ())
-        LOGGER.debug ("Found new UserAgent '" + sUserAgent + "'");
+      if (UNIQUE_USER_AGENTS.size () >= getMaxUniqueUserAgents ())
+      {
+        if (UNIQUE_LIMIT_WARNED.compareAndSet (false, true))
+          LOGGER.warn ("The maximum number of " +
+                       getMaxUniqueUserAgents () +
+                       " unique UserAgents was reached - new UserAgents are no longer remembered");
+      }
+      else
+        if (UNIQUE_USER_AGENTS.add (sUserAgent))
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Found new UserAgent '" + sUserAgent + "'");
 
-      RW_LOCK.readLocked ( () -> {
-        if (s_aNewUserAgentCallback != null)
-          s_aNewUserAgentCallback.accept (aUserAgent);
-      });
+          RW_LOCK.readLocked ( () -> {
+            if (s_aNewUserAgentCallback != null)
+              s_aNewUserAgentCallback.accept (aUserAgent);
+          });
+        }
     }
     return aUserAgent;
   }
@@ -94,6 +176,20 @@ public final class UserAgentDatabase
   @ReturnsMutableCopy
   public static ICommonsSet <String> getAllUniqueUserAgents ()
   {
-    return RW_LOCK.readLockedGet (UNIQUE_USER_AGENTS::getClone);
+    return new CommonsHashSet <> (UNIQUE_USER_AGENTS);
+  }
+
+  /**
+   * Forget all remembered unique user agents and clear the parsed user agent cache.
+   *
+   * @since 11.4.3
+   */
+  public static void clear ()
+  {
+    UNIQUE_USER_AGENTS.clear ();
+    UNIQUE_LIMIT_WARNED.set (false);
+    final UserAgentCache aCache = getCache ();
+    if (aCache != null)
+      aCache.clear ();
   }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent;
+
+import java.util.Locale;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.base.state.EContinue;
+import com.helger.useragent.browser.MobileBrowserManager;
+import com.helger.useragent.spider.WebSpiderInfo;
+import com.helger.useragent.spider.WebSpiderManager;
+
+/**
+ * Classifies a user agent string as mobile browser, web spider and application in a single pass,
+ * using one {@link AhoCorasickMatcher} built from the patterns of {@link MobileBrowserManager},
+ * {@link WebSpiderManager} and {@link ApplicationUserAgentManager}. For each category the result
+ * is identical to the one of the respective manager.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@Immutable
+final class UserAgentPatternClassifier
+{
+  private enum ECategory
+  {
+    MOBILE,
+    SPIDER,
+    APPLICATION;
+  }
+
+  private static final class Hit
+  {
+    private final ECategory m_eCategory;
+    private final Object m_aValue;
+
+    Hit (@NonNull final ECategory eCategory, @NonNull final Object aValue)
+    {
+      m_eCategory = eCategory;
+      m_aValue = aValue;
+    }
+  }
+
+  /**
+   * The classification result. Each field is <code>null</code> if the respective category did not
+   * match.
+   */
+  static final class Result
+  {
+    private String m_sMobile;
+    private WebSpiderInfo m_aSpider;
+    private String m_sApplication;
+
+    @Nullable
+    String getMobile ()
+    {
+      return m_sMobile;
+    }
+
+    @Nullable
+    WebSpiderInfo getSpider ()
+    {
+      return m_aSpider;
+    }
+
+    @Nullable
+    String getApplication ()
+    {
+      return m_sApplication;
+    }
+
+    boolean isComplete ()
+    {
+      return m_sMobile != null && m_aSpider != null && m_sApplication != null;
+    }
+  }
+
+  private static final class SingletonHolder
+  {
+    static final AhoCorasickMatcher <Hit> MATCHER;
+
+    static
+    {
+      final AhoCorasickMatcher.Builder <Hit> aBuilder = AhoCorasickMatcher.builder ();
+      for (final String sItem : MobileBrowserManager.getAllItems ())
+        aBuilder.addPattern (sItem, false, new Hit (ECategory.MOBILE, sItem));
+      for (final WebSpiderInfo aSpider : WebSpiderManager.getInstance ().getAllKnownSpiders ())
+        aBuilder.addPattern (aSpider.getID ().toLowerCase (Locale.US), false, new Hit (ECategory.SPIDER, aSpider));
+      for (final String sItem : ApplicationUserAgentManager.getAllItems ())
+        aBuilder.addPattern (sItem, true, new Hit (ECategory.APPLICATION, sItem));
+      MATCHER = aBuilder.build ();
+    }
+  }
+
+  @PresentForCodeCoverage
+  private static final UserAgentPatternClassifier INSTANCE = new UserAgentPatternClassifier ();
+
+  private UserAgentPatternClassifier ()
+  {}
+
+  @NonNull
+  static Result classify (@Nullable final String sFullUserAgent)
+  {
+    final Result ret = new Result ();
+    SingletonHolder.MATCHER.findAll (sFullUserAgent, aHit -> {
+      switch (aHit.m_eCategory)
+      {
+        case MOBILE:
+          if (ret.m_sMobile == null)
+            ret.m_sMobile = (String) aHit.m_aValue;
+          break;
+        case SPIDER:
+          if (ret.m_aSpider == null)
+            ret.m_aSpider = (WebSpiderInfo) aHit.m_aValue;
+          break;
+        case APPLICATION:
+          if (ret.m_sApplication == null)
+            ret.m_sApplication = (String) aHit.m_aValue;
+          break;
+      }
+      return ret.isComplete () ? EContinue.BREAK : EContinue.CONTINUE;
+    });
+    return ret;
+  }
+}
@@ -23,22 +23,31 @@ import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.string.StringHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsCollection;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
 import com.helger.io.resource.ClassPathResource;
+import com.helger.useragent.AhoCorasickMatcher;
 import com.helger.xml.microdom.util.XMLListHandler;
 
 @Immutable
 public final class MobileBrowserManager
 {
   private static final ICommonsSet <String> SET = new CommonsHashSet <> ();
+  private static final AhoCorasickMatcher <String> MATCHER;
 
   static
   {
     _readList ("codelists/mobileuseragents.xml");
+
+    final AhoCorasickMatcher.Builder <String> aBuilder = AhoCorasickMatcher.builder ();
+    for (final String sItem : SET)
+      aBuilder.addPattern (sItem, false, sItem);
+    MATCHER = aBuilder.build ();
   }
 
   @PresentForCodeCoverage
@@ -68,7 +77,28 @@ public final class MobileBrowserManager
     if (StringHelper.isEmpty (sFullUserAgent))
       return null;
 
-    final String sUnifiedUA = _unify (sFullUserAgent);
-    return SET.findFirst (sUnifiedUA::contains);
+    return MATCHER.findFirst (sFullUserAgent);
+  }
+
+  /**
+   * @return The precompiled matcher for all mobile user agent parts. The payload is the unified
+   *         (lower case) part. Never <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  public static AhoCorasickMatcher <String> getMatcher ()
+  {
+    return MATCHER;
+  }
+
+  /**
+   * @return A copy of all unified (lower case) mobile user agent parts. Never <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsCollection <String> getAllItems ()
+  {
+    return SET.getClone ();
   }
 }
@@ -17,7 +17,6 @@
 package com.helger.useragent.spider;
 
 import java.util.Locale;
-import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -32,6 +31,7 @@ import com.helger.collection.commons.ICommonsCollection;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
 import com.helger.io.resource.ClassPathResource;
+import com.helger.useragent.AhoCorasickMatcher;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroElement;
 import com.helger.xml.microdom.serialize.MicroReader;
@@ -54,12 +54,17 @@ public final class WebSpiderManager
   private static final Logger LOGGER = LoggerFactory.getLogger (WebSpiderManager.class);
 
   private final ICommonsMap <String, WebSpiderInfo> m_aMap = new CommonsHashMap <> ();
+  private final AhoCorasickMatcher <WebSpiderInfo> m_aMatcher;
 
   private WebSpiderManager ()
   {
     _readSpiderList ("codelists/spiderlist.xml");
     _readSearchSpiders ("codelists/spiders_vbulletin.xml");
     _readSpiderList2 ("codelists/spiderlist2.xml");
+
+    final AhoCorasickMatcher.Builder <WebSpiderInfo> aBuilder = AhoCorasickMatcher.builder ();
+    m_aMap.forEach ( (k, v) -> aBuilder.addPattern (k, false, v));
+    m_aMatcher = aBuilder.build ();
   }
 
   @NonNull
@@ -127,14 +132,21 @@ public final class WebSpiderManager
     return m_aMap.copyOfValues ();
   }
 
+  /**
+   * @return The precompiled case insensitive matcher for all known spider IDs. Never
+   *         <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  public AhoCorasickMatcher <WebSpiderInfo> getMatcher ()
+  {
+    return m_aMatcher;
+  }
+
   @Nullable
   public WebSpiderInfo getWebSpiderFromUserAgent (@NonNull final String sUserAgent)
   {
-    // Search case insensitive (key set is lowercase!)
-    final String sUserAgentLC = _getUnifiedID (sUserAgent);
-    for (final Map.Entry <String, WebSpiderInfo> aEntry : m_aMap.entrySet ())
-      if (sUserAgentLC.contains (aEntry.getKey ()))
-        return aEntry.getValue ();
-    return null;
+    // Search case insensitive
+    return m_aMatcher.findFirst (sUserAgent);
   }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.base.state.EContinue;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.useragent.browser.MobileBrowserManager;
+import com.helger.useragent.spider.WebSpiderInfo;
+import com.helger.useragent.spider.WebSpiderManager;
+
+/**
+ * Test class for class {@link AhoCorasickMatcher}.
+ *
+ * @author Philip Helger
+ */
+public final class AhoCorasickMatcherTest
+{
+  private static final String [] UAS = { "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Mobile Safari/537.36",
+                                         "Mozilla/5.0 (compatible; googlebot/2.1; +http://www.google.com/bot.html)",
+                                         "Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)",
+                                         "BlackBerry9500/4.7.0.173 Profile/MIDP-2.0 Configuration/CLDC-1.1 VendorID/137",
+                                         "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36",
+                                         "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1",
+                                         "Java/1.8.0_151",
+                                         "curl/8.5.0",
+                                         "Wget/1.21.4",
+                                         "Lynx/2.8.4rel.1 libwww-FM/2.14",
+                                         "xx",
+                                         "" };
+
+  @Test
+  public void testBasic ()
+  {
+    final AhoCorasickMatcher <String> aMatcher = AhoCorasickMatcher.<String> builder ()
+                                                                   .addPattern ("he", false, "he")
+                                                                   .addPattern ("she", false, "she")
+                                                                   .addPattern ("his", false, "his")
+                                                                   .addPattern ("hers", false, "hers")
+                                                                   .addPattern ("XY", true, "XY")
+                                                                   .build ();
+    assertEquals (5, aMatcher.getPatternCount ());
+
+    // "she" ends at the same position as "he" but is longer
+    assertEquals ("she", aMatcher.findFirst ("ushers"));
+    final ICommonsList <String> aAll = new CommonsArrayList <> ();
+    assertSame (EContinue.CONTINUE, aMatcher.findAll ("ushers", x -> {
+      aAll.add (x);
+      return EContinue.CONTINUE;
+    }));
+    assertEquals (new CommonsArrayList <> ("she", "he", "hers"), aAll);
+
+    // Case insensitive
+    assertEquals ("his", aMatcher.findFirst ("tHIS"));
+
+    // Case sensitive
+    assertTrue (aMatcher.containsAny ("aXYb"));
+    assertFalse (aMatcher.containsAny ("axyb"));
+    assertFalse (aMatcher.containsAny ("aXyb"));
+
+    assertNull (aMatcher.findFirst ("abc"));
+    assertNull (aMatcher.findFirst (""));
+    assertNull (aMatcher.findFirst (null));
+
+    // Empty matcher
+    assertNull (AhoCorasickMatcher.<String> builder ().build ().findFirst ("abc"));
+  }
+
+  @Test
+  public void testConsistentWithLinearSearch ()
+  {
+    for (final String sUA : UAS)
+    {
+      final String sUALC = sUA.toLowerCase (Locale.US);
+
+      final boolean bMobile = MobileBrowserManager.getAllItems ().containsAny (sUALC::contains);
+      assertEquals (sUA, bMobile, MobileBrowserManager.getFromUserAgent (sUA) != null);
+
+      final boolean bSpider = WebSpiderManager.getInstance ()
+                                              .getAllKnownSpiders ()
+                                              .containsAny (x -> sUALC.contains (x.getID ().toLowerCase (Locale.US)));
+      final WebSpiderInfo aSpider = WebSpiderManager.getInstance ().getWebSpiderFromUserAgent (sUA);
+      assertEquals (sUA, bSpider, aSpider != null);
+
+      final boolean bApp = ApplicationUserAgentManager.getAllItems ().containsAny (sUA::contains);
+      assertEquals (sUA, bApp, ApplicationUserAgentManager.getFromUserAgent (sUA) != null);
+
+      // Single pass classification
+      final UserAgentPatternClassifier.Result aResult = UserAgentPatternClassifier.classify (sUA);
+      assertEquals (sUA, MobileBrowserManager.getFromUserAgent (sUA), aResult.getMobile ());
+      assertSame (sUA, aSpider, aResult.getSpider ());
+      assertEquals (sUA, ApplicationUserAgentManager.getFromUserAgent (sUA), aResult.getApplication ());
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link UserAgentCache}.
+ *
+ * @author Philip Helger
+ */
+public final class UserAgentCacheTest
+{
+  private static final String UA1 = "Mozilla/5.0 (X11; U; Linux i686; en-US; rv:1.6) Gecko/20040612 Firefox/0.8";
+  private static final String UA2 = "Opera/9.64 (Windows NT 6.0; U; en) Presto/2.1.1";
+
+  @Test
+  public void testHitAndMiss ()
+  {
+    final AtomicInteger aParseCount = new AtomicInteger (0);
+    final Function <String, IUserAgent> aParser = s -> {
+      aParseCount.incrementAndGet ();
+      return UserAgentDecryptor.decryptUserAgentString (s);
+    };
+
+    final UserAgentCache aCache = new UserAgentCache (100, null);
+    final IUserAgent aUA1 = aCache.getOrParse (UA1, aParser);
+    assertNotNull (aUA1);
+    assertSame (aUA1, aCache.getOrParse (UA1, aParser));
+    assertSame (aUA1, aCache.getOrParse (UA1, aParser));
+    assertEquals (1, aParseCount.get ());
+    assertEquals (2, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+
+    assertNotNull (aCache.getOrParse (UA2, aParser));
+    assertEquals (2, aParseCount.get ());
+    assertEquals (2, aCache.size ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.size ());
+    assertNotSame (aUA1, aCache.getOrParse (UA1, aParser));
+    assertEquals (3, aParseCount.get ());
+  }
+
+  @Test
+  public void testBounded ()
+  {
+    final UserAgentCache aCache = new UserAgentCache (32, null);
+    for (int i = 0; i < 1000; ++i)
+      aCache.getOrParse ("Agent/" + i, UserAgentDecryptor::decryptUserAgentString);
+    assertTrue (aCache.size () <= 32);
+    assertTrue (aCache.getEvictionCount () >= 1000 - 32);
+  }
+
+  @Test
+  public void testExpiration () throws InterruptedException
+  {
+    final UserAgentCache aCache = new UserAgentCache (10, Duration.ofMillis (10));
+    final IUserAgent aUA1 = aCache.getOrParse (UA1, UserAgentDecryptor::decryptUserAgentString);
+    Thread.sleep (50);
+    assertNotSame (aUA1, aCache.getOrParse (UA1, UserAgentDecryptor::decryptUserAgentString));
+    assertEquals (2, aCache.getMissCount ());
+    assertEquals (1, aCache.getEvictionCount ());
+  }
+}
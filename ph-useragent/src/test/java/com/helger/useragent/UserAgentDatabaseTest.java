@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link UserAgentDatabase}.
+ *
+ * @author Philip Helger
+ */
+public final class UserAgentDatabaseTest
+{
+  @Test
+  public void testMaxUniqueUserAgents ()
+  {
+    final AtomicInteger aNewCount = new AtomicInteger (0);
+    UserAgentDatabase.clear ();
+    UserAgentDatabase.setMaxUniqueUserAgents (3);
+    UserAgentDatabase.setUserAgentCallback (x -> aNewCount.incrementAndGet ());
+    try
+    {
+      for (int i = 0; i < 5; ++i)
+        assertNotNull (UserAgentDatabase.getParsedUserAgent ("Mozilla/5.0 (X11; Linux x86_64; rv:" +
+                                                             i +
+                                                             ".0) Gecko/20100101 Firefox/" +
+                                                             i +
+                                                             ".0"));
+      // Parsing still works, but only the first ones are remembered
+      assertEquals (3, UserAgentDatabase.getAllUniqueUserAgents ().size ());
+      assertEquals (3, aNewCount.get ());
+      assertTrue (UserAgentDatabase.getAllUniqueUserAgents ()
+                                   .contains ("Mozilla/5.0 (X11; Linux x86_64; rv:0.0) Gecko/20100101 Firefox/0.0"));
+
+      // Known ones are not reported again
+      UserAgentDatabase.getParsedUserAgent ("Mozilla/5.0 (X11; Linux x86_64; rv:0.0) Gecko/20100101 Firefox/0.0");
+      assertEquals (3, aNewCount.get ());
+
+      try
+      {
+        UserAgentDatabase.setMaxUniqueUserAgents (0);
+        fail ();
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+    }
+    finally
+    {
+      UserAgentDatabase.setUserAgentCallback (null);
+      UserAgentDatabase.setMaxUniqueUserAgents (UserAgentDatabase.DEFAULT_MAX_UNIQUE_USER_AGENTS);
+      UserAgentDatabase.clear ();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.useragent.supplementary.benchmark;
+
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.timing.StopWatch;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.useragent.ApplicationUserAgentManager;
+import com.helger.useragent.browser.MobileBrowserManager;
+import com.helger.useragent.spider.WebSpiderInfo;
+import com.helger.useragent.spider.WebSpiderManager;
+
+/**
+ * Small tool to compare the precompiled mobile, spider and application detection with the
+ * previous linear <code>contains</code> scans on a set of real-world user agents.
+ *
+ * @author Philip Helger
+ */
+public final class MainUserAgentDetectionBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainUserAgentDetectionBenchmark.class);
+
+  private static final String [] USER_AGENTS = { "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+                                                 "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:125.0) Gecko/20100101 Firefox/125.0",
+                                                 "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_4_1) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4.1 Safari/605.1.15",
+                                                 "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.51",
+                                                 "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4.1 Mobile/15E148 Safari/604.1",
+                                                 "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36",
+                                                 "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+                                                 "Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)",
+                                                 "Mozilla/5.0 (compatible; YandexBot/3.0; +http://yandex.com/bots)",
+                                                 "Mozilla/5.0 AppleWebKit/537.36 (KHTML, like Gecko; compatible; GPTBot/1.0; +https://openai.com/gptbot)",
+                                                 "Mozilla/4.0 (compatible; MSIE 7.0; Windows NT 6.0; SLCC1; .NET CLR 2.0.50727; Media Center PC 5.0)",
+                                                 "Mozilla/5.0 (Windows NT 6.1; WOW64; Trident/7.0; rv:11.0) like Gecko",
+                                                 "Opera/9.80 (Windows NT 5.1; U; hu) Presto/2.2.15 Version/10.10",
+                                                 "BlackBerry9500/4.7.0.173 Profile/MIDP-2.0 Configuration/CLDC-1.1 VendorID/137",
+                                                 "Lynx/2.8.4rel.1 libwww-FM/2.14 SSL-MM/1.4.1 OpenSSL/0.9.6h",
+                                                 "curl/8.5.0",
+                                                 "Wget/1.21.4",
+                                                 "Java/17.0.10",
+                                                 "Apache-HttpClient/5.3.1 (Java/17.0.10)",
+                                                 "python-requests/2.31.0" };
+
+  private static final ICommonsList <String> LEGACY_MOBILE = new CommonsArrayList <> (MobileBrowserManager.getAllItems ());
+  private static final ICommonsList <String> LEGACY_SPIDERS = new CommonsArrayList <> ();
+  private static final ICommonsList <String> LEGACY_APPS = new CommonsArrayList <> (ApplicationUserAgentManager.getAllItems ());
+  static
+  {
+    for (final WebSpiderInfo aSpider : WebSpiderManager.getInstance ().getAllKnownSpiders ())
+      LEGACY_SPIDERS.add (aSpider.getID ().toLowerCase (Locale.US));
+  }
+
+  private static int _legacy (final String sUA)
+  {
+    // The previous implementation: lower case and linear scans
+    final String sUALC = sUA.toLowerCase (Locale.US);
+    int ret = 0;
+    if (LEGACY_MOBILE.findFirst (sUALC::contains) != null)
+      ret++;
+    if (LEGACY_SPIDERS.findFirst (sUALC::contains) != null)
+      ret++;
+    if (LEGACY_APPS.findFirst (sUA::contains) != null)
+      ret++;
+    return ret;
+  }
+
+  private static int _current (final String sUA)
+  {
+    int ret = 0;
+    if (MobileBrowserManager.getFromUserAgent (sUA) != null)
+      ret++;
+    if (WebSpiderManager.getInstance ().getWebSpiderFromUserAgent (sUA) != null)
+      ret++;
+    if (ApplicationUserAgentManager.getFromUserAgent (sUA) != null)
+      ret++;
+    return ret;
+  }
+
+  private static void _run (final String sName, final ToIntFunction <String> aDetector, final int nRuns)
+  {
+    // Warm up
+    int nDummy = 0;
+    for (int i = 0; i < nRuns / 10; ++i)
+      for (final String s : USER_AGENTS)
+        nDummy += aDetector.applyAsInt (s);
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < nRuns; ++i)
+      for (final String s : USER_AGENTS)
+        nDummy += aDetector.applyAsInt (s);
+    aSW.stop ();
+    LOGGER.info (sName + ": " + (nRuns * USER_AGENTS.length) + " user agents in " + aSW.getMillis () + " ms [" + nDummy + "]");
+  }
+
+  public static void main (final String [] args)
+  {
+    LOGGER.info (LEGACY_MOBILE.size () + " mobile, " + LEGACY_SPIDERS.size () + " spider and " + LEGACY_APPS.size () + " application patterns");
+    for (int i = 0; i < 3; ++i)
+    {
+      _run ("Legacy", MainUserAgentDetectionBenchmark::_legacy, 20_000);
+      _run ("Current", MainUserAgentDetectionBenchmark::_current, 20_000);
+    }
+  }
+}
@@ -25,8 +25,11 @@ import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonnegative;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.io.iface.IHasInputStream;
 import com.helger.base.state.ISuccessIndicator;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.web.fileupload.exception.FileUploadException;
 import com.helger.web.fileupload.exception.InvalidFileNameException;
 
@@ -245,4 +248,36 @@ public interface IFileItem extends DataSource, IHasInputStream
    * @since 10.0.0
    */
   void onEndOfRequest ();
+
+  /**
+   * Get all digests and checksums that were computed while the content of
+   * this item was received.
+   *
+   * @return A map from algorithm name to digest value. Never <code>null</code>
+   *         but maybe empty if no digest was configured.
+   * @since 11.4.3
+   * @see com.helger.web.fileupload.parse.AbstractFileUploadBase#setDigestAlgorithms(String...)
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  default ICommonsOrderedMap <String, byte []> getAllDigests ()
+  {
+    return new CommonsLinkedHashMap <> ();
+  }
+
+  /**
+   * Get a single digest that was computed while the content of this item was
+   * received.
+   *
+   * @param sAlgorithm
+   *        The algorithm name as configured. May be <code>null</code>.
+   * @return <code>null</code> if no such digest was computed.
+   * @since 11.4.3
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  default byte [] getDigest (@Nullable final String sAlgorithm)
+  {
+    return getAllDigests ().get (sAlgorithm);
+  }
 }
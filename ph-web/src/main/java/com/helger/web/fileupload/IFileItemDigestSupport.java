@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload;
+
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Interface that will indicate that {@link IFileItem} implementations will
+ * accept the digests computed while the item content was received.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ * @see IFileItem#getAllDigests()
+ */
+public interface IFileItemDigestSupport
+{
+  /**
+   * Set the digests computed for this item.
+   *
+   * @param aDigests
+   *        A map from algorithm name to digest value. May be <code>null</code>.
+   */
+  void setAllDigests (@Nullable Map <String, byte []> aDigests);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.base.state.EContinue;
+
+/**
+ * Callback for streaming processing of multipart requests. Each part is handed over as soon as its
+ * headers are parsed, and the provided {@link InputStream} reads directly from the request. No file
+ * items or temporary files are created. Because the part is read on the calling thread, the client
+ * cannot send faster than the handler consumes. The configured size limits are still enforced
+ * while reading.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@FunctionalInterface
+public interface IFileItemStreamHandler
+{
+  /**
+   * Handle a single part. The stream may not be used after this method returns. Unread content is
+   * skipped automatically.
+   *
+   * @param aItem
+   *        The part meta data. Never <code>null</code>.
+   * @param aIS
+   *        The content of the part. Never <code>null</code>. Closing it is not required.
+   * @return {@link EContinue#CONTINUE} to process the next part, {@link EContinue#BREAK} to stop
+   *         processing the request.
+   * @throws IOException
+   *         In case reading or forwarding the content failed.
+   */
+  @NonNull
+  EContinue handleItem (@NonNull IFileItemStream aItem, @NonNull InputStream aIS) throws IOException;
+}
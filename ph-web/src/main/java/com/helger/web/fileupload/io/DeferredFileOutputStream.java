@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.CheckForSigned;
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.WillNotClose;
 import com.helger.annotation.style.ReturnsMutableCopy;
@@ -73,6 +74,22 @@ public class DeferredFileOutputStream extends AbstractThresholdingOutputStream
    */
   private boolean m_bClosed = false;
 
+  /**
+   * Whether a {@link FileChannelOutputStream} should be used for the disk
+   * storage instead of a {@link FileOutputStream}.
+   */
+  private final boolean m_bUseFileChannel;
+
+  /**
+   * The expected total size, used to preallocate the disk file. -1 if unknown.
+   */
+  private long m_nExpectedSize = -1;
+
+  /**
+   * The optional manager that accounts the temporary file.
+   */
+  private final TemporaryFileManager m_aTempFileMgr;
+
   /**
    * Constructs an instance of this class which will trigger an event at the
    * specified threshold, and save data to a file beyond that point.
@@ -83,14 +100,96 @@ public class DeferredFileOutputStream extends AbstractThresholdingOutputStream
    *        The file to which data is saved beyond the threshold.
    */
   public DeferredFileOutputStream (@Nonnegative final int nThreshold, @NonNull final File aOutputFile)
+  {
+    this (nThreshold, aOutputFile, false);
+  }
+
+  /**
+   * Constructs an instance of this class which will trigger an event at the
+   * specified threshold, and save data to a file beyond that point.
+   *
+   * @param nThreshold
+   *        The number of bytes at which to trigger an event.
+   * @param aOutputFile
+   *        The file to which data is saved beyond the threshold.
+   * @param bUseFileChannel
+   *        <code>true</code> to write the file via a
+   *        {@link FileChannelOutputStream}, <code>false</code> to use a plain
+   *        {@link FileOutputStream}.
+   * @since 11.4.3
+   */
+  public DeferredFileOutputStream (@Nonnegative final int nThreshold,
+                                   @NonNull final File aOutputFile,
+                                   final boolean bUseFileChannel)
+  {
+    this (nThreshold, aOutputFile, bUseFileChannel, null);
+  }
+
+  /**
+   * Constructs an instance of this class which will trigger an event at the
+   * specified threshold, and save data to a file beyond that point.
+   *
+   * @param nThreshold
+   *        The number of bytes at which to trigger an event.
+   * @param aOutputFile
+   *        The file to which data is saved beyond the threshold.
+   * @param bUseFileChannel
+   *        <code>true</code> to write the file via a
+   *        {@link FileChannelOutputStream}, <code>false</code> to use a plain
+   *        {@link FileOutputStream}.
+   * @param aTempFileMgr
+   *        The optional manager to register the output file at and to account
+   *        the written bytes against its disk quota. May be <code>null</code>.
+   * @since 11.4.3
+   */
+  public DeferredFileOutputStream (@Nonnegative final int nThreshold,
+                                   @NonNull final File aOutputFile,
+                                   final boolean bUseFileChannel,
+                                   @Nullable final TemporaryFileManager aTempFileMgr)
   {
     super (nThreshold);
     m_aOutputFile = ValueEnforcer.notNull (aOutputFile, "OutputFile");
+    m_bUseFileChannel = bUseFileChannel;
+    m_aTempFileMgr = aTempFileMgr;
 
     m_aMemoryOS = new NonBlockingByteArrayOutputStream ();
     m_aCurrentOS = m_aMemoryOS;
   }
 
+  /**
+   * @return <code>true</code> if the disk storage is written via a
+   *         {@link FileChannelOutputStream}.
+   * @since 11.4.3
+   */
+  public final boolean isUseFileChannel ()
+  {
+    return m_bUseFileChannel;
+  }
+
+  /**
+   * @return The expected total size in bytes or -1 if unknown.
+   * @since 11.4.3
+   */
+  @CheckForSigned
+  public final long getExpectedSize ()
+  {
+    return m_nExpectedSize;
+  }
+
+  /**
+   * Set the expected total size of the data. This is only a hint that is used
+   * to preallocate the disk file, if a file channel is used. It must be set
+   * before the threshold is reached.
+   *
+   * @param nExpectedSize
+   *        The expected size in bytes or -1 if unknown.
+   * @since 11.4.3
+   */
+  public final void setExpectedSize (@CheckForSigned final long nExpectedSize)
+  {
+    m_nExpectedSize = nExpectedSize;
+  }
+
   /**
    * Returns the current output stream. This may be memory based or disk based,
    * depending on the current state with respect to the threshold.
@@ -117,10 +216,23 @@ public class DeferredFileOutputStream extends AbstractThresholdingOutputStream
   @Override
   protected void onThresholdReached () throws IOException
   {
-    FileOutputStream aFOS = null;
+    if (m_aTempFileMgr != null)
+    {
+      // Reject early if the quota would be exceeded
+      m_aTempFileMgr.onBeforeSpill (m_aOutputFile, Math.max (m_nExpectedSize, getByteCount ()));
+    }
+
+    OutputStream aFOS = null;
     try
     {
-      aFOS = new FileOutputStream (m_aOutputFile);
+      if (m_bUseFileChannel)
+        aFOS = new FileChannelOutputStream (m_aOutputFile,
+                                            FileChannelOutputStream.DEFAULT_BUFFER_SIZE,
+                                            m_nExpectedSize > getThreshold () ? m_nExpectedSize : -1);
+      else
+        aFOS = new FileOutputStream (m_aOutputFile);
+      if (m_aTempFileMgr != null)
+        aFOS = m_aTempFileMgr.getAccountingOutputStream (m_aOutputFile, aFOS);
       m_aMemoryOS.writeTo (aFOS);
       m_aCurrentOS = aFOS;
 
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.CGlobal;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * An {@link OutputStream} that writes to a file using a {@link FileChannel}. Small writes are
+ * collected in a heap {@link ByteBuffer}, so that they are handed to the operating system in big
+ * blocks. Writes that are at least as big as the buffer are passed to the channel directly.
+ * <p>
+ * Optionally the file can be preallocated to an expected size. This is only a hint - on many file
+ * systems the file is extended sparse, without reserving disk blocks. The file is truncated to the
+ * number of bytes effectively written upon {@link #close()}.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+public class FileChannelOutputStream extends OutputStream
+{
+  /** The default size of the buffer in bytes */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * CGlobal.BYTES_PER_KILOBYTE;
+
+  private final RandomAccessFile m_aRAF;
+  private final FileChannel m_aChannel;
+  private final ByteBuffer m_aBuffer;
+  private long m_nWritten;
+  private boolean m_bPreallocated;
+  private boolean m_bClosed;
+
+  /**
+   * Constructor using the default buffer size and no preallocation.
+   *
+   * @param aFile
+   *        The file to write to. An existing file is truncated. May not be <code>null</code>.
+   * @throws IOException
+   *         If the file cannot be opened
+   */
+  public FileChannelOutputStream (@NonNull final File aFile) throws IOException
+  {
+    this (aFile, DEFAULT_BUFFER_SIZE, -1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param aFile
+   *        The file to write to. An existing file is truncated. May not be <code>null</code>.
+   * @param nBufferSize
+   *        The size of the buffer in bytes. Must be &gt; 0.
+   * @param nPreallocationSize
+   *        The expected total size in bytes. If &gt; 0 the file is extended to this size upfront,
+   *        allowing the file system to reserve contiguous space. Use -1 to disable. Values
+   *        provided by a client should be checked against the upload limits first.
+   * @throws IOException
+   *         If the file cannot be opened
+   */
+  public FileChannelOutputStream (@NonNull final File aFile,
+                                  @Nonnegative final int nBufferSize,
+                                  @CheckForSigned final long nPreallocationSize) throws IOException
+  {
+    ValueEnforcer.notNull (aFile, "File");
+    ValueEnforcer.isGT0 (nBufferSize, "BufferSize");
+
+    m_aRAF = new RandomAccessFile (aFile, "rw");
+    try
+    {
+      m_aRAF.setLength (nPreallocationSize > 0 ? nPreallocationSize : 0);
+    }
+    catch (final IOException ex)
+    {
+      m_aRAF.close ();
+      throw ex;
+    }
+    m_bPreallocated = nPreallocationSize > 0;
+    m_aChannel = m_aRAF.getChannel ();
+    // Heap buffer - direct buffers are expensive to allocate per stream
+    m_aBuffer = ByteBuffer.allocate (nBufferSize);
+  }
+
+  private void _ensureOpen () throws IOException
+  {
+    if (m_bClosed)
+      throw new IOException ("The stream is already closed");
+  }
+
+  private void _writeFully (@NonNull final ByteBuffer aBB) throws IOException
+  {
+    while (aBB.hasRemaining ())
+      m_nWritten += m_aChannel.write (aBB, m_nWritten);
+  }
+
+  private void _flushBuffer () throws IOException
+  {
+    if (m_aBuffer.position () > 0)
+    {
+      m_aBuffer.flip ();
+      _writeFully (m_aBuffer);
+      m_aBuffer.clear ();
+    }
+  }
+
+  @Override
+  public void write (final int b) throws IOException
+  {
+    _ensureOpen ();
+    if (!m_aBuffer.hasRemaining ())
+      _flushBuffer ();
+    m_aBuffer.put ((byte) b);
+  }
+
+  @Override
+  public void write (@NonNull final byte [] aBuf, @Nonnegative final int nOfs, @Nonnegative final int nLen) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aBuf, nOfs, nLen);
+    _ensureOpen ();
+
+    if (nLen >= m_aBuffer.capacity ())
+    {
+      // Big chunk - no need to collect it first
+      _flushBuffer ();
+      _writeFully (ByteBuffer.wrap (aBuf, nOfs, nLen));
+    }
+    else
+    {
+      if (nLen > m_aBuffer.remaining ())
+        _flushBuffer ();
+      m_aBuffer.put (aBuf, nOfs, nLen);
+    }
+  }
+
+  @Override
+  public void flush () throws IOException
+  {
+    _ensureOpen ();
+    _flushBuffer ();
+  }
+
+  /**
+   * @return The number of bytes already handed to the channel. Bytes still residing in the buffer
+   *         are not contained.
+   */
+  @Nonnegative
+  public long getWrittenBytes ()
+  {
+    return m_nWritten;
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (m_bClosed)
+      return;
+    m_bClosed = true;
+    try
+    {
+      _flushBuffer ();
+      if (m_bPreallocated)
+      {
+        // Remove the unused preallocated space
+        m_aChannel.truncate (m_nWritten);
+        m_bPreallocated = false;
+      }
+    }
+    finally
+    {
+      m_aRAF.close ();
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+
+/**
+ * An output stream that computes one or more digests or checksums of all bytes passing through,
+ * before forwarding them to the wrapped stream. Supported are all {@link MessageDigest} algorithms
+ * of the installed security providers (like <code>SHA-256</code>) as well as the checksums
+ * {@link #ALGORITHM_CRC32}, {@link #ALGORITHM_CRC32C} and {@link #ALGORITHM_ADLER32}. Checksum
+ * values are returned as 4 bytes in big endian order.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+public class MultiDigestOutputStream extends FilterOutputStream
+{
+  public static final String ALGORITHM_CRC32 = "CRC32";
+  public static final String ALGORITHM_CRC32C = "CRC32C";
+  public static final String ALGORITHM_ADLER32 = "ADLER32";
+
+  private interface IUpdater
+  {
+    void update (byte [] aBuf, int nOfs, int nLen);
+
+    @NonNull
+    byte [] getResult ();
+  }
+
+  private static final class MessageDigestUpdater implements IUpdater
+  {
+    private final MessageDigest m_aMD;
+
+    MessageDigestUpdater (@NonNull final MessageDigest aMD)
+    {
+      m_aMD = aMD;
+    }
+
+    public void update (final byte [] aBuf, final int nOfs, final int nLen)
+    {
+      m_aMD.update (aBuf, nOfs, nLen);
+    }
+
+    public byte [] getResult ()
+    {
+      return m_aMD.digest ();
+    }
+  }
+
+  private static final class ChecksumUpdater implements IUpdater
+  {
+    private final Checksum m_aChecksum;
+
+    ChecksumUpdater (@NonNull final Checksum aChecksum)
+    {
+      m_aChecksum = aChecksum;
+    }
+
+    public void update (final byte [] aBuf, final int nOfs, final int nLen)
+    {
+      m_aChecksum.update (aBuf, nOfs, nLen);
+    }
+
+    public byte [] getResult ()
+    {
+      final long nValue = m_aChecksum.getValue ();
+      return new byte [] { (byte) (nValue >>> 24), (byte) (nValue >>> 16), (byte) (nValue >>> 8), (byte) nValue };
+    }
+  }
+
+  private final ICommonsOrderedMap <String, IUpdater> m_aUpdaters = new CommonsLinkedHashMap <> ();
+  private final byte [] m_aSingleByte = new byte [1];
+  private ICommonsOrderedMap <String, byte []> m_aResults;
+
+  @Nullable
+  private static IUpdater _createUpdater (@NonNull final String sAlgorithm)
+  {
+    switch (sAlgorithm.toUpperCase (Locale.ROOT))
+    {
+      case ALGORITHM_CRC32:
+        return new ChecksumUpdater (new CRC32 ());
+      case ALGORITHM_CRC32C:
+        return new ChecksumUpdater (new CRC32C ());
+      case ALGORITHM_ADLER32:
+        return new ChecksumUpdater (new Adler32 ());
+      default:
+        try
+        {
+          return new MessageDigestUpdater (MessageDigest.getInstance (sAlgorithm));
+        }
+        catch (final NoSuchAlgorithmException ex)
+        {
+          return null;
+        }
+    }
+  }
+
+  /**
+   * Check if the provided algorithm name is supported.
+   *
+   * @param sAlgorithm
+   *        The algorithm name. May be <code>null</code>.
+   * @return <code>true</code> if it can be used in this class.
+   */
+  public static boolean isSupportedAlgorithm (@Nullable final String sAlgorithm)
+  {
+    return sAlgorithm != null && _createUpdater (sAlgorithm) != null;
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aOS
+   *        The stream to forward all bytes to. Is closed together with this stream. May not be
+   *        <code>null</code>.
+   * @param aAlgorithms
+   *        The names of the algorithms to compute. May neither be <code>null</code> nor empty.
+   * @throws IllegalArgumentException
+   *         If an algorithm is not supported
+   */
+  public MultiDigestOutputStream (@NonNull final OutputStream aOS,
+                                  @NonNull final Iterable <String> aAlgorithms)
+  {
+    super (ValueEnforcer.notNull (aOS, "OutputStream"));
+    ValueEnforcer.notNull (aAlgorithms, "Algorithms");
+    for (final String sAlgorithm : aAlgorithms)
+    {
+      final IUpdater aUpdater = sAlgorithm == null ? null : _createUpdater (sAlgorithm);
+      if (aUpdater == null)
+        throw new IllegalArgumentException ("Unsupported digest algorithm '" + sAlgorithm + "'");
+      m_aUpdaters.put (sAlgorithm, aUpdater);
+    }
+    ValueEnforcer.isFalse (m_aUpdaters.isEmpty (), "No digest algorithm provided");
+  }
+
+  private void _update (final byte [] aBuf, final int nOfs, final int nLen)
+  {
+    if (m_aResults != null)
+      throw new IllegalStateException ("The digests were already retrieved");
+    for (final IUpdater aUpdater : m_aUpdaters.values ())
+      aUpdater.update (aBuf, nOfs, nLen);
+  }
+
+  @Override
+  public void write (final int b) throws IOException
+  {
+    m_aSingleByte[0] = (byte) b;
+    _update (m_aSingleByte, 0, 1);
+    out.write (b);
+  }
+
+  @Override
+  public void write (@NonNull final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+  {
+    _update (aBuf, nOfs, nLen);
+    out.write (aBuf, nOfs, nLen);
+  }
+
+  /**
+   * Finish the computation and get all results. After this call, no more bytes may be written.
+   *
+   * @return A map from algorithm name to the digest value, in the order of the algorithms provided
+   *         in the constructor. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, byte []> getAllDigests ()
+  {
+    if (m_aResults == null)
+    {
+      final ICommonsOrderedMap <String, byte []> aResults = new CommonsLinkedHashMap <> ();
+      for (final Map.Entry <String, IUpdater> aEntry : m_aUpdaters.entrySet ())
+        aResults.put (aEntry.getKey (), aEntry.getValue ().getResult ());
+      m_aResults = aResults;
+    }
+    // Copy the arrays as well, so that the cached results cannot be modified
+    final ICommonsOrderedMap <String, byte []> ret = new CommonsLinkedHashMap <> ();
+    for (final Map.Entry <String, byte []> aEntry : m_aResults.entrySet ())
+      ret.put (aEntry.getKey (), aEntry.getValue ().clone ());
+    return ret;
+  }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload.io;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.BasicThreadFactory;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.ESuccess;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.file.FileIOError;
+import com.helger.io.file.FileOperations;
+import com.helger.web.fileupload.exception.DiskQuotaExceededException;
+import com.helger.web.fileupload.exception.FileUploadIOException;
+
+/**
+ * Keeps track of the temporary files that were created because uploaded content exceeded the in
+ * memory threshold of a {@link DeferredFileOutputStream}. Files are only registered when they are
+ * really created and are removed from the registry as soon as they are deleted or moved, so the
+ * registry does not grow over the lifetime of the application. Additionally:
+ * <ul>
+ * <li>An optional disk quota limits the total number of bytes of all registered files. Uploads
+ * exceeding the quota are rejected with a {@link DiskQuotaExceededException} - if the expected size
+ * is known, already before the file is created.</li>
+ * <li>An optional background sweeper deletes files that were completely written longer ago than a
+ * maximum age, e.g. because the owning request was never cleaned up. Files that are still being
+ * written are never swept.</li>
+ * <li>Metrics about the bytes spilled to disk are collected.</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public class TemporaryFileManager implements AutoCloseable
+{
+  /** The value for an unlimited disk quota */
+  public static final long UNLIMITED = -1;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (TemporaryFileManager.class);
+
+  private static final class TempFile
+  {
+    // Creation time or the time the writing stream was closed
+    private volatile long m_nLastWriteMillis = System.currentTimeMillis ();
+    private volatile boolean m_bWriting = false;
+    // All guarded by this
+    private long m_nBytes = 0;
+    private boolean m_bRemoved = false;
+  }
+
+  private volatile long m_nMaxDiskUsage;
+  private final ConcurrentHashMap <File, TempFile> m_aFiles = new ConcurrentHashMap <> ();
+  private final AtomicLong m_aDiskUsage = new AtomicLong (0);
+  private final LongAdder m_aSpilledBytes = new LongAdder ();
+  private final LongAdder m_aSpilledFiles = new LongAdder ();
+  private final LongAdder m_aRejected = new LongAdder ();
+  private final LongAdder m_aSwept = new LongAdder ();
+  private ScheduledExecutorService m_aSweeper;
+
+  /**
+   * Constructor without a disk quota.
+   */
+  public TemporaryFileManager ()
+  {
+    this (UNLIMITED);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxDiskUsage
+   *        The maximum number of bytes all temporary files may use together. Use
+   *        {@link #UNLIMITED} for no limit.
+   */
+  public TemporaryFileManager (@CheckForSigned final long nMaxDiskUsage)
+  {
+    setMaxDiskUsage (nMaxDiskUsage);
+  }
+
+  /**
+   * @return The maximum number of bytes all temporary files may use together or {@link #UNLIMITED}.
+   */
+  @CheckForSigned
+  public final long getMaxDiskUsage ()
+  {
+    return m_nMaxDiskUsage;
+  }
+
+  /**
+   * Set the disk quota. Files that are already written are not affected.
+   *
+   * @param nMaxDiskUsage
+   *        The maximum number of bytes all temporary files may use together. Use
+   *        {@link #UNLIMITED} for no limit.
+   */
+  public final void setMaxDiskUsage (@CheckForSigned final long nMaxDiskUsage)
+  {
+    m_nMaxDiskUsage = nMaxDiskUsage < 0 ? UNLIMITED : nMaxDiskUsage;
+  }
+
+  @NonNull
+  private FileUploadIOException _createQuotaException (final long nRequested, final long nMaxDiskUsage)
+  {
+    m_aRejected.increment ();
+    final long nActual = m_aDiskUsage.get () + nRequested;
+    return new FileUploadIOException (new DiskQuotaExceededException ("The temporary files would use " +
+                                                                      nActual +
+                                                                      " bytes, which exceeds the disk quota of " +
+                                                                      nMaxDiskUsage +
+                                                                      " bytes",
+                                                                      nActual,
+                                                                      nMaxDiskUsage));
+  }
+
+  /**
+   * Called before a temporary file is created.
+   *
+   * @param aFile
+   *        The file to be created. May not be <code>null</code>.
+   * @param nExpectedBytes
+   *        The number of bytes that are expected to be written. Used for early rejection.
+   * @throws FileUploadIOException
+   *         If the expected bytes would exceed the disk quota
+   */
+  void onBeforeSpill (@NonNull final File aFile, @CheckForSigned final long nExpectedBytes) throws FileUploadIOException
+  {
+    final long nMaxDiskUsage = m_nMaxDiskUsage;
+    if (nMaxDiskUsage != UNLIMITED && nExpectedBytes > 0 && m_aDiskUsage.get () + nExpectedBytes > nMaxDiskUsage)
+      throw _createQuotaException (nExpectedBytes, nMaxDiskUsage);
+
+    if (m_aFiles.putIfAbsent (aFile, new TempFile ()) == null)
+      m_aSpilledFiles.increment ();
+  }
+
+  private void _reserve (@NonNull final TempFile aTempFile, @Nonnegative final int nBytes) throws IOException
+  {
+    // Synchronized with _release so that no bytes are reserved for an already released file
+    synchronized (aTempFile)
+    {
+      if (aTempFile.m_bRemoved)
+        throw new IOException ("The temporary file was already deleted or unregistered");
+
+      final long nMaxDiskUsage = m_nMaxDiskUsage;
+      final long nNewUsage = m_aDiskUsage.addAndGet (nBytes);
+      if (nMaxDiskUsage != UNLIMITED && nNewUsage > nMaxDiskUsage)
+      {
+        m_aDiskUsage.addAndGet (-nBytes);
+        throw _createQuotaException (nBytes, nMaxDiskUsage);
+      }
+      aTempFile.m_nBytes += nBytes;
+    }
+    m_aSpilledBytes.add (nBytes);
+  }
+
+  /**
+   * Wrap the stream writing the provided temporary file, so that the written bytes are accounted.
+   *
+   * @param aFile
+   *        The temporary file. Must have been passed to {@link #onBeforeSpill(File, long)} before.
+   * @param aOS
+   *        The stream writing the file. May not be <code>null</code>.
+   * @return The wrapped stream. Never <code>null</code>.
+   */
+  @NonNull
+  OutputStream getAccountingOutputStream (@NonNull final File aFile, @NonNull final OutputStream aOS)
+  {
+    final TempFile aTempFile = m_aFiles.computeIfAbsent (aFile, k -> new TempFile ());
+    aTempFile.m_bWriting = true;
+    return new FilterOutputStream (aOS)
+    {
+      @Override
+      public void write (final int b) throws IOException
+      {
+        _reserve (aTempFile, 1);
+        out.write (b);
+      }
+
+      @Override
+      public void write (final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+      {
+        _reserve (aTempFile, nLen);
+        out.write (aBuf, nOfs, nLen);
+      }
+
+      @Override
+      public void close () throws IOException
+      {
+        try
+        {
+          super.close ();
+        }
+        finally
+        {
+          aTempFile.m_nLastWriteMillis = System.currentTimeMillis ();
+          aTempFile.m_bWriting = false;
+        }
+      }
+    };
+  }
+
+  private void _release (@Nullable final TempFile aTempFile)
+  {
+    if (aTempFile != null)
+      synchronized (aTempFile)
+      {
+        if (!aTempFile.m_bRemoved)
+        {
+          aTempFile.m_bRemoved = true;
+          m_aDiskUsage.addAndGet (-aTempFile.m_nBytes);
+        }
+      }
+  }
+
+  /**
+   * Remove the provided file from the registry without deleting it. This is used when the file was
+   * moved to its final destination.
+   *
+   * @param aFile
+   *        The file to unregister. May be <code>null</code>.
+   */
+  public void unregister (@Nullable final File aFile)
+  {
+    if (aFile != null)
+      _release (m_aFiles.remove (aFile));
+  }
+
+  /**
+   * Delete the provided file if it exists and remove it from the registry. If deletion fails, the
+   * file stays registered so that it can be deleted later on.
+   *
+   * @param aFile
+   *        The file to delete. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @NonNull
+  public ESuccess delete (@NonNull final File aFile)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    final FileIOError aIOError = FileOperations.deleteFileIfExisting (aFile);
+    if (aIOError.isFailure ())
+    {
+      LOGGER.error ("Failed to delete temporary file " + aFile + " with error " + aIOError.toString ());
+      return ESuccess.FAILURE;
+    }
+    unregister (aFile);
+    return ESuccess.SUCCESS;
+  }
+
+  /**
+   * Delete all registered temporary files.
+   */
+  public void deleteAll ()
+  {
+    for (final File aFile : m_aFiles.keySet ())
+      delete (aFile);
+  }
+
+  /**
+   * Delete all temporary files that were completely written longer ago than the provided maximum
+   * age, and unregister all files that no longer exist. Files that are still being written are
+   * never touched.
+   *
+   * @param aMaxAge
+   *        The maximum age of a temporary file after it was written. Should be larger than the
+   *        longest expected request duration, as the file may still be read. May not be
+   *        <code>null</code>.
+   * @return The number of deleted files.
+   */
+  @Nonnegative
+  public int sweep (@NonNull final Duration aMaxAge)
+  {
+    ValueEnforcer.notNull (aMaxAge, "MaxAge");
+
+    final long nMinLastWriteMillis = System.currentTimeMillis () - aMaxAge.toMillis ();
+    int nDeleted = 0;
+    for (final Map.Entry <File, TempFile> aEntry : m_aFiles.entrySet ())
+    {
+      final TempFile aTempFile = aEntry.getValue ();
+      if (aTempFile.m_bWriting)
+      {
+        // Still in use
+        continue;
+      }
+
+      final File aFile = aEntry.getKey ();
+      if (aTempFile.m_nLastWriteMillis < nMinLastWriteMillis)
+      {
+        if (delete (aFile).isSuccess ())
+        {
+          LOGGER.info ("Deleted orphaned temporary file " + aFile);
+          nDeleted++;
+        }
+      }
+      else
+        if (!aFile.exists ())
+        {
+          // Deleted or moved by someone else
+          if (m_aFiles.remove (aFile, aTempFile))
+            _release (aTempFile);
+        }
+    }
+    m_aSwept.add (nDeleted);
+    return nDeleted;
+  }
+
+  /**
+   * Start a background thread that regularly calls {@link #sweep(Duration)}. A previously started
+   * sweeper is stopped.
+   *
+   * @param aInterval
+   *        The interval between two runs. May not be <code>null</code>.
+   * @param aMaxAge
+   *        The maximum age of a temporary file. May not be <code>null</code>.
+   */
+  public void startSweeper (@NonNull final Duration aInterval, @NonNull final Duration aMaxAge)
+  {
+    ValueEnforcer.notNull (aInterval, "Interval");
+    ValueEnforcer.isGT0 (aInterval.toMillis (), "Interval");
+    ValueEnforcer.notNull (aMaxAge, "MaxAge");
+
+    final ScheduledExecutorService aSweeper = Executors.newSingleThreadScheduledExecutor (BasicThreadFactory.builder ()
+                                                                                                               .namingPattern ("TemporaryFileSweeper-%d")
+                                                                                                               .daemon (true)
+                                                                                                               .build ());
+    aSweeper.scheduleWithFixedDelay ( () -> {
+      try
+      {
+        sweep (aMaxAge);
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error ("Error sweeping temporary files", ex);
+      }
+    }, aInterval.toMillis (), aInterval.toMillis (), TimeUnit.MILLISECONDS);
+
+    final ScheduledExecutorService aOld;
+    synchronized (this)
+    {
+      aOld = m_aSweeper;
+      m_aSweeper = aSweeper;
+    }
+    if (aOld != null)
+      aOld.shutdownNow ();
+  }
+
+  /**
+   * Stop the background sweeper, if it was started.
+   */
+  public void stopSweeper ()
+  {
+    final ScheduledExecutorService aOld;
+    synchronized (this)
+    {
+      aOld = m_aSweeper;
+      m_aSweeper = null;
+    }
+    if (aOld != null)
+      aOld.shutdownNow ();
+  }
+
+  /**
+   * @return <code>true</code> if the background sweeper is running.
+   */
+  public synchronized boolean isSweeperRunning ()
+  {
+    return m_aSweeper != null;
+  }
+
+  /**
+   * Stops the sweeper. Registered files are not deleted.
+   */
+  public void close ()
+  {
+    stopSweeper ();
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <File> getAllTemporaryFiles ()
+  {
+    return new CommonsArrayList <> (m_aFiles.keySet ());
+  }
+
+  /**
+   * @return The number of currently registered temporary files.
+   */
+  @Nonnegative
+  public int getTemporaryFileCount ()
+  {
+    return m_aFiles.size ();
+  }
+
+  /**
+   * @return The number of bytes currently used by all registered temporary files.
+   */
+  @Nonnegative
+  public long getCurrentDiskUsage ()
+  {
+    return m_aDiskUsage.get ();
+  }
+
+  /**
+   * @return The total number of bytes ever written to temporary files.
+   */
+  @Nonnegative
+  public long getTotalSpilledBytes ()
+  {
+    return m_aSpilledBytes.sum ();
+  }
+
+  /**
+   * @return The total number of temporary files ever created.
+   */
+  @Nonnegative
+  public long getTotalSpilledFileCount ()
+  {
+    return m_aSpilledFiles.sum ();
+  }
+
+  /**
+   * @return The number of writes rejected because of the disk quota.
+   */
+  @Nonnegative
+  public long getRejectedCount ()
+  {
+    return m_aRejected.sum ();
+  }
+
+  /**
+   * @return The number of orphaned files deleted by {@link #sweep(Duration)}.
+   */
+  @Nonnegative
+  public long getSweptCount ()
+  {
+    return m_aSwept.sum ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxDiskUsage", m_nMaxDiskUsage)
+                                       .append ("TemporaryFileCount", m_aFiles.size ())
+                                       .append ("CurrentDiskUsage", m_aDiskUsage.get ())
+                                       .append ("TotalSpilledBytes", m_aSpilledBytes.sum ())
+                                       .getToString ();
+  }
+}
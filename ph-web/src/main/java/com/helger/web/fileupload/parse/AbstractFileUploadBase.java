@@ -22,6 +22,7 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -29,8 +30,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.EContinue;
 import com.helger.base.string.StringParser;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
@@ -38,10 +41,12 @@ import com.helger.collection.commons.ICommonsMap;
 import com.helger.servlet.request.RequestHelper;
 import com.helger.web.fileupload.IFileItem;
 import com.helger.web.fileupload.IFileItemFactory;
+import com.helger.web.fileupload.IFileItemDigestSupport;
 import com.helger.web.fileupload.IFileItemHeaders;
 import com.helger.web.fileupload.IFileItemHeadersSupport;
 import com.helger.web.fileupload.IFileItemIterator;
 import com.helger.web.fileupload.IFileItemStream;
+import com.helger.web.fileupload.IFileItemStreamHandler;
 import com.helger.web.fileupload.IRequestContext;
 import com.helger.web.fileupload.exception.FileUploadException;
 import com.helger.web.fileupload.exception.FileUploadIOException;
@@ -49,8 +54,13 @@ import com.helger.web.fileupload.exception.IOFileUploadException;
 import com.helger.web.fileupload.exception.InvalidContentTypeException;
 import com.helger.web.fileupload.exception.SizeLimitExceededException;
 import com.helger.web.fileupload.io.AbstractLimitedInputStream;
+import com.helger.web.fileupload.io.DeferredFileOutputStream;
+import com.helger.web.fileupload.io.MultiDigestOutputStream;
+import com.helger.web.multipart.IMultipartBoundaryFinder;
+import com.helger.web.multipart.MultipartBoundaryFinderHorspool;
 import com.helger.web.multipart.MultipartProgressNotifier;
 import com.helger.web.multipart.MultipartStream;
+import com.helger.web.multipart.MultipartStream.MultipartItemInputStream;
 import com.helger.web.progress.IProgressListener;
 
 /**
@@ -78,6 +88,14 @@ public abstract class AbstractFileUploadBase
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (AbstractFileUploadBase.class);
 
+  /**
+   * The minimum buffer size in bytes. It must hold the longest boundary permitted by RFC 2046 (70
+   * bytes), plus 4 bytes for CR/LF and the double dash, plus at least one byte of data.
+   *
+   * @since 11.4.3
+   */
+  public static final int MIN_BUFFER_SIZE = 70 + 4 + 1;
+
   /**
    * The maximum size permitted for the complete request, as opposed to {@link #m_nFileSizeMax}. A
    * value of -1 indicates no maximum.
@@ -100,6 +118,21 @@ public abstract class AbstractFileUploadBase
    */
   private IProgressListener m_aListener;
 
+  /**
+   * The size of the buffer used by the {@link MultipartStream}.
+   */
+  private int m_nBufferSize = MultipartStream.DEFAULT_BUFSIZE;
+
+  /**
+   * The factory for the boundary search algorithm used by the {@link MultipartStream}.
+   */
+  private Supplier <? extends IMultipartBoundaryFinder> m_aBoundaryFinderFactory = MultipartBoundaryFinderHorspool::new;
+
+  /**
+   * The digest algorithms to compute for each uploaded file.
+   */
+  private final ICommonsList <String> m_aDigestAlgorithms = new CommonsArrayList <> ();
+
   public AbstractFileUploadBase ()
   {}
 
@@ -212,6 +245,69 @@ public abstract class AbstractFileUploadBase
     m_aListener = aListener;
   }
 
+  /**
+   * Returns the size of the buffer used for parsing the multipart stream.
+   *
+   * @return The buffer size in bytes. Always &ge; {@link #MIN_BUFFER_SIZE}.
+   * @see #setBufferSize(int)
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int getBufferSize ()
+  {
+    return m_nBufferSize;
+  }
+
+  /**
+   * Sets the size of the buffer used for parsing the multipart stream. Bigger buffers reduce the
+   * number of reads from the underlying stream and allow bigger contiguous chunks to be handed out
+   * for large file uploads. The default is {@link MultipartStream#DEFAULT_BUFSIZE}.
+   * <p>
+   * The buffer must hold the boundary of the request plus 5 bytes. Requests with a longer boundary
+   * are rejected with a {@link FileUploadException}. The same size is used for the buffer copying
+   * the content of an item to its storage in {@link #parseRequest(IRequestContext)}, if the content
+   * cannot be transferred directly from the multipart buffer.
+   *
+   * @param nBufferSize
+   *        The buffer size in bytes. Must be &ge; {@link #MIN_BUFFER_SIZE}.
+   * @see #getBufferSize()
+   * @since 11.4.3
+   */
+  public void setBufferSize (@Nonnegative final int nBufferSize)
+  {
+    ValueEnforcer.isTrue (nBufferSize >= MIN_BUFFER_SIZE,
+                          () -> "BufferSize must be at least " + MIN_BUFFER_SIZE + " bytes but is " + nBufferSize);
+    m_nBufferSize = nBufferSize;
+  }
+
+  /**
+   * @return The factory for the boundary search algorithm used for parsing. Never
+   *         <code>null</code>.
+   * @see #setBoundaryFinderFactory(Supplier)
+   * @since 11.4.3
+   */
+  @NonNull
+  public Supplier <? extends IMultipartBoundaryFinder> getBoundaryFinderFactory ()
+  {
+    return m_aBoundaryFinderFactory;
+  }
+
+  /**
+   * Sets the factory for the boundary search algorithm used for parsing. The factory is invoked
+   * once per request and must return a new instance every time. The default creates
+   * {@link MultipartBoundaryFinderHorspool} instances.
+   *
+   * @param aBoundaryFinderFactory
+   *        The factory to use. May not be <code>null</code>.
+   * @see #getBoundaryFinderFactory()
+   * @since 11.4.3
+   */
+  public void setBoundaryFinderFactory (@NonNull final Supplier <? extends IMultipartBoundaryFinder> aBoundaryFinderFactory)
+  {
+    ValueEnforcer.notNull (aBoundaryFinderFactory, "BoundaryFinderFactory");
+    m_aBoundaryFinderFactory = aBoundaryFinderFactory;
+  }
+
   /**
    * Processes an <a href="http://www.ietf.org/rfc/rfc1867.txt">RFC 1867</a> compliant
    * <code>multipart/form-data</code> stream.
@@ -232,6 +328,45 @@ public abstract class AbstractFileUploadBase
     return new FileItemIterator (aCtx);
   }
 
+  /**
+   * @return The digest algorithms that are computed for each uploaded file while it is received.
+   *         Never <code>null</code> but maybe empty.
+   * @see #setDigestAlgorithms(String...)
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <String> getAllDigestAlgorithms ()
+  {
+    return m_aDigestAlgorithms.getClone ();
+  }
+
+  /**
+   * Define the digests and checksums to compute for each uploaded file (not for form fields) while
+   * it is received. The results are available via {@link IFileItem#getAllDigests()} without the
+   * need to read the content again. All {@link java.security.MessageDigest} algorithms (like
+   * <code>SHA-256</code>) and the checksums of {@link MultiDigestOutputStream} are supported.
+   *
+   * @param aAlgorithms
+   *        The algorithm names. May be <code>null</code> or empty to compute no digests.
+   * @throws IllegalArgumentException
+   *         If an algorithm is not supported
+   * @see #getAllDigestAlgorithms()
+   * @since 11.4.3
+   */
+  public void setDigestAlgorithms (@Nullable final String... aAlgorithms)
+  {
+    final ICommonsList <String> aNewAlgorithms = new CommonsArrayList <> ();
+    if (aAlgorithms != null)
+      for (final String sAlgorithm : aAlgorithms)
+      {
+        if (!MultiDigestOutputStream.isSupportedAlgorithm (sAlgorithm))
+          throw new IllegalArgumentException ("Unsupported digest algorithm '" + sAlgorithm + "'");
+        aNewAlgorithms.add (sAlgorithm);
+      }
+    m_aDigestAlgorithms.setAll (aNewAlgorithms);
+  }
+
   /**
    * Processes an <a href="http://www.ietf.org/rfc/rfc1867.txt">RFC 1867</a> compliant
    * <code>multipart/form-data</code> stream.
@@ -255,6 +390,7 @@ public abstract class AbstractFileUploadBase
       final IFileItemFactory aFileItemFactory = getFileItemFactory ();
       if (aFileItemFactory == null)
         throw new IllegalStateException ("No FileItemFactory has been set.");
+      final boolean bDigest = m_aDigestAlgorithms.isNotEmpty ();
       while (aItemIter.hasNext ())
       {
         final IFileItemStream aFileItemStream = aItemIter.next ();
@@ -267,13 +403,42 @@ public abstract class AbstractFileUploadBase
         try (final InputStream aIS = aFileItemStream.openStream ();
              final OutputStream aOS = aFileItem.getOutputStream ())
         {
-          final byte [] aBuffer = new byte [8192];
-          int nBytesRead;
-          // potentially blocking read
-          while ((nBytesRead = aIS.read (aBuffer, 0, aBuffer.length)) > -1)
+          final IFileItemHeaders aPartHeaders = aFileItemStream.getHeaders ();
+          if (aOS instanceof final DeferredFileOutputStream aDFOS && aPartHeaders != null)
+          {
+            // Size hint for preallocation. The value is provided by the client, so
+            // it is ignored if it exceeds the configured limits
+            final long nExpectedSize = StringParser.parseLong (aPartHeaders.getHeaderContentLength (), -1L);
+            final boolean bExceedsLimit = (m_nFileSizeMax >= 0 && nExpectedSize > m_nFileSizeMax) ||
+                                          (m_nSizeMax >= 0 && nExpectedSize > m_nSizeMax);
+            aDFOS.setExpectedSize (bExceedsLimit ? -1L : nExpectedSize);
+          }
+
+          // Compute the digests on the fly - only for files
+          MultiDigestOutputStream aDigestOS = null;
+          OutputStream aTargetOS = aOS;
+          if (bDigest && !aFileItemStream.isFormField ())
+          {
+            aDigestOS = new MultiDigestOutputStream (aOS, m_aDigestAlgorithms);
+            aTargetOS = aDigestOS;
+          }
+          if (aIS instanceof final MultipartItemInputStream aMIIS)
           {
-            aOS.write (aBuffer, 0, nBytesRead);
+            // Write directly from the multipart buffer - potentially blocking read
+            aMIIS.transferTo (aTargetOS);
           }
+          else
+          {
+            final byte [] aBuffer = new byte [m_nBufferSize];
+            int nBytesRead;
+            // potentially blocking read
+            while ((nBytesRead = aIS.read (aBuffer, 0, aBuffer.length)) > -1)
+            {
+              aTargetOS.write (aBuffer, 0, nBytesRead);
+            }
+          }
+          if (aDigestOS != null && aFileItem instanceof final IFileItemDigestSupport aFIDS)
+            aFIDS.setAllDigests (aDigestOS.getAllDigests ());
         }
         catch (final FileUploadIOException ex)
         {
@@ -325,6 +490,60 @@ public abstract class AbstractFileUploadBase
     }
   }
 
+  /**
+   * Processes an <a href="http://www.ietf.org/rfc/rfc1867.txt">RFC 1867</a> compliant
+   * <code>multipart/form-data</code> stream by handing each part directly to the provided handler.
+   * In contrast to {@link #parseRequest(IRequestContext)} no file items are created and the file
+   * item factory is not used. The size limits are enforced while the handler reads.
+   *
+   * @param aCtx
+   *        The context for the request to be parsed. May not be <code>null</code>.
+   * @param aHandler
+   *        The handler that is invoked for each part in the order they were transmitted. May not be
+   *        <code>null</code>.
+   * @return The number of parts handed to the handler.
+   * @throws FileUploadException
+   *         if there are problems reading/parsing the request or if the handler failed.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int processRequest (@NonNull final IRequestContext aCtx, @NonNull final IFileItemStreamHandler aHandler) throws FileUploadException
+  {
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    int nItems = 0;
+    try
+    {
+      final IFileItemIterator aItemIter = getItemIterator (aCtx);
+      while (aItemIter.hasNext ())
+      {
+        final IFileItemStream aFileItemStream = aItemIter.next ();
+        nItems++;
+        final EContinue eContinue;
+        try (final InputStream aIS = aFileItemStream.openStream ())
+        {
+          // potentially blocking read in the handler
+          eContinue = aHandler.handleItem (aFileItemStream, aIS);
+        }
+        if (eContinue.isBreak ())
+          break;
+      }
+      return nItems;
+    }
+    catch (final FileUploadIOException ex)
+    {
+      throw (FileUploadException) ex.getCause ();
+    }
+    catch (final IOException ex)
+    {
+      throw new IOFileUploadException ("Processing of " +
+                                       RequestHelper.MULTIPART_FORM_DATA +
+                                       " request failed. " +
+                                       ex.getMessage (),
+                                       ex);
+    }
+  }
+
   /**
    * Retrieves the boundary from the <code>Content-type</code> header.
    *
@@ -647,10 +866,20 @@ public abstract class AbstractFileUploadBase
       m_aBoundary = getBoundary (sContentType);
       if (m_aBoundary == null)
         throw new FileUploadException ("the request was rejected because no multipart boundary was found");
+      if (m_aBoundary.length + 5 > m_nBufferSize)
+        throw new FileUploadException ("the request was rejected because the multipart boundary of " +
+                                       m_aBoundary.length +
+                                       " bytes does not fit into the buffer of " +
+                                       m_nBufferSize +
+                                       " bytes");
 
       // Content length may be -1 if not specified by sender
       m_aNotifier = new MultipartProgressNotifier (m_aListener, nContentLength);
-      m_aMulti = new MultipartStream (aIS, m_aBoundary, m_aNotifier);
+      m_aMulti = new MultipartStream (aIS,
+                                      m_aBoundary,
+                                      m_nBufferSize,
+                                      m_aNotifier,
+                                      m_aBoundaryFinderFactory.get ());
       m_aMulti.setHeaderEncoding (sHeaderEncoding);
 
       m_bSkipPreamble = true;
@@ -719,6 +948,7 @@ public abstract class AbstractFileUploadBase
                                                  _getContentLength (aFileItemHeaders),
                                                  m_aMulti,
                                                  m_nFileSizeMax);
+            m_aCurrentItem.setHeaders (aFileItemHeaders);
             m_aNotifier.onNextFileItem ();
             m_bItemValid = true;
             return true;
@@ -736,6 +966,7 @@ public abstract class AbstractFileUploadBase
                                                  _getContentLength (aFileItemHeaders),
                                                  m_aMulti,
                                                  m_nFileSizeMax);
+            m_aCurrentItem.setHeaders (aFileItemHeaders);
             m_aNotifier.onNextFileItem ();
             m_bItemValid = true;
             return true;
@@ -23,8 +23,13 @@ import java.io.ObjectInputFilter;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -49,18 +54,22 @@ import com.helger.base.string.StringHelper;
 import com.helger.base.string.StringReplace;
 import com.helger.base.system.SystemProperties;
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.io.file.FileHelper;
 import com.helger.io.file.FileIOError;
 import com.helger.io.file.FileOperations;
 import com.helger.io.file.FilenameHelper;
 import com.helger.io.file.SimpleFileIO;
 import com.helger.web.fileupload.IFileItem;
+import com.helger.web.fileupload.IFileItemDigestSupport;
 import com.helger.web.fileupload.IFileItemHeaders;
 import com.helger.web.fileupload.IFileItemHeadersSupport;
 import com.helger.web.fileupload.exception.FileUploadException;
 import com.helger.web.fileupload.io.DeferredFileOutputStream;
 import com.helger.web.fileupload.io.FileUploadHelper;
+import com.helger.web.fileupload.io.TemporaryFileManager;
 
 /**
  * <p>
@@ -81,7 +90,7 @@ import com.helger.web.fileupload.io.FileUploadHelper;
  * @version $Id: DiskFileItem.java 963609 2010-07-13 06:56:47Z jochen $
  */
 @NotThreadSafe
-public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
+public class DiskFileItem implements IFileItem, IFileItemHeadersSupport, IFileItemDigestSupport
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (DiskFileItem.class);
 
@@ -172,6 +181,21 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
    */
   private IFileItemHeaders m_aHeaders;
 
+  /**
+   * The digests computed while receiving the content. Not serialized.
+   */
+  private transient ICommonsOrderedMap <String, byte []> m_aDigests;
+
+  /**
+   * Whether the disk storage should be written via a file channel.
+   */
+  private final boolean m_bUseFileChannel;
+
+  /**
+   * The optional manager of the temporary file.
+   */
+  private final transient TemporaryFileManager m_aTempFileMgr;
+
   /**
    * Constructs a new <code>DiskFileItem</code> instance.
    *
@@ -196,6 +220,75 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
                        @Nullable final String sFilename,
                        @Nonnegative final int nSizeThreshold,
                        @Nullable final File aRepository)
+  {
+    this (sFieldName, sContentType, bIsFormField, sFilename, nSizeThreshold, aRepository, false);
+  }
+
+  /**
+   * Constructs a new <code>DiskFileItem</code> instance.
+   *
+   * @param sFieldName
+   *        The name of the form field.
+   * @param sContentType
+   *        The content type passed by the browser or <code>null</code> if not specified.
+   * @param bIsFormField
+   *        Whether or not this item is a plain form field, as opposed to a file upload.
+   * @param sFilename
+   *        The original filename in the user's file system, or <code>null</code> if not specified.
+   * @param nSizeThreshold
+   *        The threshold, in bytes, below which items will be retained in memory and above which
+   *        they will be stored as a file.
+   * @param aRepository
+   *        The data repository, which is the directory in which files will be created, should the
+   *        item size exceed the threshold. <code>null</code> means default temp directory.
+   * @param bUseFileChannel
+   *        <code>true</code> to write the data exceeding the threshold via a {@link FileChannel},
+   *        <code>false</code> to use a regular file output stream.
+   * @since 11.4.3
+   */
+  public DiskFileItem (@Nullable final String sFieldName,
+                       @Nullable final String sContentType,
+                       final boolean bIsFormField,
+                       @Nullable final String sFilename,
+                       @Nonnegative final int nSizeThreshold,
+                       @Nullable final File aRepository,
+                       final boolean bUseFileChannel)
+  {
+    this (sFieldName, sContentType, bIsFormField, sFilename, nSizeThreshold, aRepository, bUseFileChannel, null);
+  }
+
+  /**
+   * Constructs a new <code>DiskFileItem</code> instance.
+   *
+   * @param sFieldName
+   *        The name of the form field.
+   * @param sContentType
+   *        The content type passed by the browser or <code>null</code> if not specified.
+   * @param bIsFormField
+   *        Whether or not this item is a plain form field, as opposed to a file upload.
+   * @param sFilename
+   *        The original filename in the user's file system, or <code>null</code> if not specified.
+   * @param nSizeThreshold
+   *        The threshold, in bytes, below which items will be retained in memory and above which
+   *        they will be stored as a file.
+   * @param aRepository
+   *        The data repository, which is the directory in which files will be created, should the
+   *        item size exceed the threshold. <code>null</code> means default temp directory.
+   * @param bUseFileChannel
+   *        <code>true</code> to write the data exceeding the threshold via a {@link FileChannel},
+   *        <code>false</code> to use a regular file output stream.
+   * @param aTempFileMgr
+   *        The optional manager that keeps track of the temporary file. May be <code>null</code>.
+   * @since 11.4.3
+   */
+  public DiskFileItem (@Nullable final String sFieldName,
+                       @Nullable final String sContentType,
+                       final boolean bIsFormField,
+                       @Nullable final String sFilename,
+                       @Nonnegative final int nSizeThreshold,
+                       @Nullable final File aRepository,
+                       final boolean bUseFileChannel,
+                       @Nullable final TemporaryFileManager aTempFileMgr)
   {
     m_sFieldName = sFieldName;
     m_sContentType = sContentType;
@@ -212,6 +305,8 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
     if (!m_aTempDir.canWrite ())
       throw new IllegalArgumentException ("The temporary directory for file uploads cannot be written: " +
                                           m_aTempDir.getAbsolutePath ());
+    m_bUseFileChannel = bUseFileChannel;
+    m_aTempFileMgr = aTempFileMgr;
   }
 
   /**
@@ -281,6 +376,15 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
     m_aCachedContent = null;
   }
 
+  /**
+   * @return <code>true</code> if the data exceeding the threshold is written via a file channel.
+   * @since 11.4.3
+   */
+  public final boolean isUseFileChannel ()
+  {
+    return m_bUseFileChannel;
+  }
+
   /**
    * @return The base directory for all temporary files.
    */
@@ -459,14 +563,46 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
     return getString (aCharset);
   }
 
+  /**
+   * Copy the source file to the destination file using {@link FileChannel#transferTo(long, long,
+   * java.nio.channels.WritableByteChannel)}, so that the operating system can copy the data without
+   * passing it through the Java heap.
+   *
+   * @param aSrcFile
+   *        Source file. May not be <code>null</code>.
+   * @param aDstFile
+   *        Destination file, that may not exist. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @NonNull
+  private static ESuccess _transferFile (@NonNull final File aSrcFile, @NonNull final File aDstFile)
+  {
+    try (final FileChannel aSrc = FileChannel.open (aSrcFile.toPath (), StandardOpenOption.READ);
+         final FileChannel aDst = FileChannel.open (aDstFile.toPath (),
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.CREATE_NEW))
+    {
+      final long nSize = aSrc.size ();
+      long nPos = 0;
+      while (nPos < nSize)
+        nPos += aSrc.transferTo (nPos, nSize - nPos, aDst);
+      return ESuccess.SUCCESS;
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to copy uploaded file " + aSrcFile + " to " + aDstFile, ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
   /**
    * A convenience method to write an uploaded item to disk. The client code is not concerned with
    * whether or not the item is stored in memory, or on disk in a temporary location. They just want
    * to write the uploaded item to a file.
    * <p>
-   * This implementation first attempts to rename the uploaded item to the specified destination
-   * file, if the item was originally written to disk. Otherwise, the data will be copied to the
-   * specified file.
+   * This implementation first attempts to move the uploaded item to the specified destination file,
+   * if the item was originally written to disk. If that fails, the data will be copied to the
+   * specified file using a file channel transfer.
    * <p>
    * This method is only guaranteed to work <em>once</em>, the first time it is invoked for a
    * particular item. This is because, in the event that the method renames a temporary file, that
@@ -495,16 +631,45 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
        * The uploaded file is being stored on disk in a temporary location so move it to the desired
        * file.
        */
-      if (FileOperations.renameFile (aOutputFile, aDstFile).isSuccess ())
+      try
+      {
+        Files.move (aOutputFile.toPath (), aDstFile.toPath ());
+        if (m_aTempFileMgr != null)
+          m_aTempFileMgr.unregister (aOutputFile);
         return ESuccess.SUCCESS;
+      }
+      catch (final FileAlreadyExistsException ex)
+      {
+        LOGGER.error ("Cannot write uploaded file to existing file " + aDstFile.getAbsolutePath ());
+        return ESuccess.FAILURE;
+      }
+      catch (final IOException ex)
+      {
+        LOGGER.warn ("Failed to move uploaded file " + aOutputFile + " to " + aDstFile + " - copying it instead");
+      }
 
       // Copying needed
-      return FileOperations.copyFile (aOutputFile, aDstFile);
+      return _transferFile (aOutputFile, aDstFile);
     }
     // For whatever reason we cannot write the file to disk.
     throw new FileUploadException ("Cannot write uploaded file to: " + aDstFile.getAbsolutePath ());
   }
 
+  private void _deleteTempFile (@NonNull final File aTempFile)
+  {
+    if (m_aTempFileMgr != null)
+    {
+      // Logs in case of error
+      m_aTempFileMgr.delete (aTempFile);
+    }
+    else
+    {
+      final FileIOError aIOError = FileOperations.deleteFileIfExisting (aTempFile);
+      if (aIOError.isFailure ())
+        LOGGER.error ("Failed to delete temporary file " + aTempFile + " with error " + aIOError.toString ());
+    }
+  }
+
   /**
    * Deletes the underlying storage for a file item, including deleting any associated temporary
    * disk file. Although this storage will be deleted automatically when the <code>FileItem</code>
@@ -516,11 +681,7 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
     m_aCachedContent = null;
     final File aTempFile = getStoreLocation ();
     if (aTempFile != null)
-    {
-      final FileIOError aIOError = FileOperations.deleteFileIfExisting (aTempFile);
-      if (aIOError.isFailure ())
-        LOGGER.error ("Failed to delete temporary file " + aTempFile + " with error " + aIOError.toString ());
-    }
+      _deleteTempFile (aTempFile);
   }
 
   /**
@@ -583,13 +744,42 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
     m_aHeaders = aHeaders;
   }
 
+  @NonNull
+  @ReturnsMutableCopy
+  private static ICommonsOrderedMap <String, byte []> _getDeepCopy (@NonNull final Map <String, byte []> aDigests)
+  {
+    final ICommonsOrderedMap <String, byte []> ret = new CommonsLinkedHashMap <> ();
+    for (final Map.Entry <String, byte []> aEntry : aDigests.entrySet ())
+      ret.put (aEntry.getKey (), ArrayHelper.getCopy (aEntry.getValue ()));
+    return ret;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, byte []> getAllDigests ()
+  {
+    return m_aDigests == null ? new CommonsLinkedHashMap <> () : _getDeepCopy (m_aDigests);
+  }
+
+  @Nullable
+  @ReturnsMutableCopy
+  public byte [] getDigest (@Nullable final String sAlgorithm)
+  {
+    return m_aDigests == null ? null : ArrayHelper.getCopy (m_aDigests.get (sAlgorithm));
+  }
+
+  public void setAllDigests (@Nullable final Map <String, byte []> aDigests)
+  {
+    m_aDigests = aDigests == null ? null : _getDeepCopy (aDigests);
+  }
+
   @NonNull
   public DeferredFileOutputStream getOutputStream ()
   {
     if (m_aDFOS == null)
     {
       final File aTempFile = getTempFile ();
-      m_aDFOS = new DeferredFileOutputStream (m_nSizeThreshold, aTempFile);
+      m_aDFOS = new DeferredFileOutputStream (m_nSizeThreshold, aTempFile, m_bUseFileChannel, m_aTempFileMgr);
     }
     return m_aDFOS;
   }
@@ -620,7 +810,7 @@ public class DiskFileItem implements IFileItem, IFileItemHeadersSupport
     if (m_aDFOS != null)
     {
       LOGGER.info ("Deleting temporary DiskFileItem " + m_aDFOS.getFile ());
-      FileOperations.deleteFileIfExisting (m_aDFOS.getFile ());
+      _deleteTempFile (m_aDFOS.getFile ());
     }
   }
 
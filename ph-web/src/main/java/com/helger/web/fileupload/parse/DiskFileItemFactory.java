@@ -20,8 +20,6 @@ import java.io.File;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.ThreadSafe;
@@ -29,11 +27,9 @@ import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.annotation.style.VisibleForTesting;
 import com.helger.base.concurrent.SimpleReadWriteLock;
 import com.helger.base.enforce.ValueEnforcer;
-import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
-import com.helger.io.file.FileIOError;
-import com.helger.io.file.FileOperations;
 import com.helger.web.fileupload.IFileItemFactory;
+import com.helger.web.fileupload.io.TemporaryFileManager;
 
 /**
  * <p>
@@ -61,8 +57,6 @@ import com.helger.web.fileupload.IFileItemFactory;
 @ThreadSafe
 public class DiskFileItemFactory implements IFileItemFactory
 {
-  private static final Logger LOGGER = LoggerFactory.getLogger (DiskFileItemFactory.class);
-
   protected final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
 
   /**
@@ -75,7 +69,15 @@ public class DiskFileItemFactory implements IFileItemFactory
    */
   private final int m_nSizeThreshold;
 
-  private final ICommonsList <File> m_aTempFiles = new CommonsArrayList <> ();
+  /**
+   * Whether the data above the threshold should be written via a file channel.
+   */
+  private boolean m_bUseFileChannel = false;
+
+  /**
+   * Keeps track of all temporary files that were really created.
+   */
+  private final TemporaryFileManager m_aTempFileMgr;
 
   @VisibleForTesting
   public DiskFileItemFactory (@Nonnegative final int nSizeThreshold)
@@ -94,10 +96,33 @@ public class DiskFileItemFactory implements IFileItemFactory
    *        item size exceed the threshold.
    */
   public DiskFileItemFactory (@Nonnegative final int nSizeThreshold, @Nullable final File aRepository)
+  {
+    this (nSizeThreshold, aRepository, new TemporaryFileManager ());
+  }
+
+  /**
+   * Constructs a preconfigured instance of this class.
+   *
+   * @param nSizeThreshold
+   *        The threshold, in bytes, below which items will be retained in memory and above which
+   *        they will be stored as a file.
+   * @param aRepository
+   *        The data repository, which is the directory in which files will be created, should the
+   *        item size exceed the threshold.
+   * @param aTempFileMgr
+   *        The manager that keeps track of the created temporary files, e.g. to apply a disk quota.
+   *        May not be <code>null</code>.
+   * @since 11.4.3
+   */
+  public DiskFileItemFactory (@Nonnegative final int nSizeThreshold,
+                              @Nullable final File aRepository,
+                              @NonNull final TemporaryFileManager aTempFileMgr)
   {
     ValueEnforcer.isGT0 (nSizeThreshold, "SizeThreshold");
+    ValueEnforcer.notNull (aTempFileMgr, "TempFileMgr");
 
     m_nSizeThreshold = nSizeThreshold;
+    m_aTempFileMgr = aTempFileMgr;
     setRepository (aRepository);
   }
 
@@ -106,9 +131,40 @@ public class DiskFileItemFactory implements IFileItemFactory
     m_aRepository = aRepository;
   }
 
-  private void _addTempFile (@NonNull final File aFile)
+  /**
+   * @return <code>true</code> if the created items write the data exceeding the threshold via a
+   *         {@link java.nio.channels.FileChannel}, <code>false</code> if a regular file output
+   *         stream is used. Default is <code>false</code>.
+   * @since 11.4.3
+   */
+  public boolean isUseFileChannel ()
+  {
+    return m_bUseFileChannel;
+  }
+
+  /**
+   * Define whether the created items should write the data exceeding the threshold via a
+   * {@link java.nio.channels.FileChannel}. Large writes are passed to the channel directly and the
+   * file can be preallocated based on the size hint of the part.
+   *
+   * @param bUseFileChannel
+   *        <code>true</code> to use a file channel, <code>false</code> to use a regular file output
+   *        stream.
+   * @since 11.4.3
+   */
+  public void setUseFileChannel (final boolean bUseFileChannel)
+  {
+    m_bUseFileChannel = bUseFileChannel;
+  }
+
+  /**
+   * @return The manager of the temporary files created by this factory. Never <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  public final TemporaryFileManager getTemporaryFileManager ()
   {
-    m_aRWLock.writeLockedBoolean ( () -> m_aTempFiles.add (aFile));
+    return m_aTempFileMgr;
   }
 
   /**
@@ -136,36 +192,30 @@ public class DiskFileItemFactory implements IFileItemFactory
                                                      bIsFormField,
                                                      sFileName,
                                                      m_nSizeThreshold,
-                                                     m_aRepository);
-    // Add the temp file - may be non-existing if the size is below the
-    // threshold
-    _addTempFile (aFileItem.getTempFile ());
+                                                     m_aRepository,
+                                                     m_bUseFileChannel,
+                                                     m_aTempFileMgr);
+    // The temp file is registered at the manager as soon as the threshold is
+    // exceeded, and unregistered when the item is deleted
     return aFileItem;
   }
 
+  /**
+   * @return All temporary files that were created and not yet deleted or moved. Never
+   *         <code>null</code>.
+   */
   @NonNull
   @ReturnsMutableCopy
   public ICommonsList <File> getAllTemporaryFiles ()
   {
-    return m_aRWLock.readLockedGet (m_aTempFiles::getClone);
+    return m_aTempFileMgr.getAllTemporaryFiles ();
   }
 
+  /**
+   * Delete all temporary files that were created and not yet deleted or moved.
+   */
   public void deleteAllTemporaryFiles ()
   {
-    final ICommonsList <File> aTempFiles = m_aRWLock.writeLockedGet ( () -> {
-      final ICommonsList <File> ret = m_aTempFiles.getClone ();
-      m_aTempFiles.clear ();
-      return ret;
-    });
-
-    for (final File aTempFile : aTempFiles)
-    {
-      final FileIOError aIOError = FileOperations.deleteFileIfExisting (aTempFile);
-      if (aIOError.isFailure ())
-      {
-        LOGGER.error ("Failed to delete temporary file " + aTempFile + " with error " + aIOError.toString ());
-        _addTempFile (aTempFile);
-      }
-    }
+    m_aTempFileMgr.deleteAll ();
   }
 }
@@ -20,11 +20,13 @@ import java.io.IOException;
 
 import org.jspecify.annotations.NonNull;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.web.fileupload.IFileItem;
 import com.helger.web.fileupload.IFileItemFactory;
 import com.helger.web.fileupload.IFileItemIterator;
+import com.helger.web.fileupload.IFileItemStreamHandler;
 import com.helger.web.fileupload.exception.FileUploadException;
 import com.helger.web.fileupload.parse.FileUpload;
 
@@ -87,6 +89,28 @@ public class ServletFileUpload extends FileUpload
     return super.parseRequest (new ServletRequestContext (aHttpRequest));
   }
 
+  /**
+   * Processes an <a href="http://www.ietf.org/rfc/rfc1867.txt">RFC 1867</a>
+   * compliant <code>multipart/form-data</code> stream by passing each part
+   * directly to the provided handler, without creating file items.
+   *
+   * @param aHttpRequest
+   *        The servlet request to be parsed.
+   * @param aHandler
+   *        The handler for each part.
+   * @return The number of parts handed to the handler.
+   * @throws FileUploadException
+   *         if there are problems reading/parsing the request or if the
+   *         handler failed.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int processRequest (@NonNull final HttpServletRequest aHttpRequest,
+                             @NonNull final IFileItemStreamHandler aHandler) throws FileUploadException
+  {
+    return super.processRequest (new ServletRequestContext (aHttpRequest), aHandler);
+  }
+
   /**
    * Processes an <a href="http://www.ietf.org/rfc/rfc1867.txt">RFC 1867</a>
    * compliant <code>multipart/form-data</code> stream.
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.multipart;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+
+/**
+ * Strategy interface for locating the boundary inside the buffer of a
+ * {@link MultipartStream}. Implementations may hold state derived from the
+ * boundary (e.g. skip tables) and are therefore not thread-safe - each
+ * {@link MultipartStream} uses its own instance.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+public interface IMultipartBoundaryFinder
+{
+  /**
+   * Called every time the boundary of the owning {@link MultipartStream}
+   * changes. This happens upon construction, when skipping the preamble and
+   * when switching between nested multipart streams.
+   *
+   * @param aBoundary
+   *        The boundary bytes. The array may be bigger than the effective
+   *        boundary. Never <code>null</code>.
+   * @param nBoundaryLength
+   *        The number of bytes from the start of the array that make up the
+   *        effective boundary. Always &gt; 0.
+   */
+  void setBoundary (@NonNull byte [] aBoundary, @Nonnegative int nBoundaryLength);
+
+  /**
+   * Search the boundary last set via {@link #setBoundary(byte[], int)} in the
+   * provided buffer region.
+   *
+   * @param aBuffer
+   *        The buffer to search. Never <code>null</code>.
+   * @param nHead
+   *        The index of the first valid byte in the buffer (inclusive).
+   * @param nTail
+   *        The index of the last valid byte in the buffer (exclusive).
+   * @return The index of the first byte of the boundary in the buffer or -1 if
+   *         the boundary is not fully contained in the provided region.
+   */
+  @CheckForSigned
+  int findBoundary (@NonNull byte [] aBuffer, @Nonnegative int nHead, @Nonnegative int nTail);
+}
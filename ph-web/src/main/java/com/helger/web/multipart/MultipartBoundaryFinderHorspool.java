@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.multipart;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * {@link IMultipartBoundaryFinder} based on the Boyer-Moore-Horspool algorithm.
+ * Because multipart boundaries are long (usually 30-70 bytes plus the
+ * <code>CRLF--</code> prefix) and rarely share bytes with the payload, most
+ * buffer positions are skipped by the full boundary length, so only a fraction
+ * of the payload bytes needs to be inspected at all.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+public class MultipartBoundaryFinderHorspool implements IMultipartBoundaryFinder
+{
+  private static final int ALPHABET_SIZE = 256;
+
+  private final int [] m_aSkipTable = new int [ALPHABET_SIZE];
+  private byte [] m_aBoundary;
+  private int m_nBoundaryLength;
+
+  public MultipartBoundaryFinderHorspool ()
+  {}
+
+  public void setBoundary (@NonNull final byte [] aBoundary, @Nonnegative final int nBoundaryLength)
+  {
+    m_aBoundary = aBoundary;
+    m_nBoundaryLength = nBoundaryLength;
+
+    // Distance from the last occurrence of each byte to the end of the
+    // boundary - the last byte itself is not considered
+    Arrays.fill (m_aSkipTable, nBoundaryLength);
+    final int nLast = nBoundaryLength - 1;
+    for (int i = 0; i < nLast; ++i)
+      m_aSkipTable[aBoundary[i] & 0xff] = nLast - i;
+  }
+
+  @CheckForSigned
+  public int findBoundary (@NonNull final byte [] aBuffer, @Nonnegative final int nHead, @Nonnegative final int nTail)
+  {
+    final byte [] aBoundary = m_aBoundary;
+    final int [] aSkipTable = m_aSkipTable;
+    final int nLast = m_nBoundaryLength - 1;
+    final byte nLastByte = aBoundary[nLast];
+    final int nMaxPos = nTail - m_nBoundaryLength;
+
+    int nPos = nHead;
+    while (nPos <= nMaxPos)
+    {
+      final byte b = aBuffer[nPos + nLast];
+      if (b == nLastByte)
+      {
+        // Compare the rest from right to left
+        int i = nLast - 1;
+        while (i >= 0 && aBuffer[nPos + i] == aBoundary[i])
+          --i;
+        if (i < 0)
+          return nPos;
+      }
+      nPos += aSkipTable[b & 0xff];
+    }
+    return -1;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("BoundaryLength", m_nBoundaryLength).getToString ();
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.multipart;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Plain {@link IMultipartBoundaryFinder} that looks for the first boundary byte
+ * and compares the remaining bytes afterwards. This was the only algorithm
+ * available in older versions and is kept as a fallback.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@NotThreadSafe
+public class MultipartBoundaryFinderSimple implements IMultipartBoundaryFinder
+{
+  private byte [] m_aBoundary;
+  private int m_nBoundaryLength;
+
+  public MultipartBoundaryFinderSimple ()
+  {}
+
+  public void setBoundary (@NonNull final byte [] aBoundary, @Nonnegative final int nBoundaryLength)
+  {
+    m_aBoundary = aBoundary;
+    m_nBoundaryLength = nBoundaryLength;
+  }
+
+  @CheckForSigned
+  public int findBoundary (@NonNull final byte [] aBuffer, @Nonnegative final int nHead, @Nonnegative final int nTail)
+  {
+    final byte [] aBoundary = m_aBoundary;
+    final int nBoundaryLength = m_nBoundaryLength;
+    final byte nFirstByte = aBoundary[0];
+    final int nMaxPos = nTail - nBoundaryLength;
+    outer: for (int nFirst = nHead; nFirst <= nMaxPos; nFirst++)
+    {
+      if (aBuffer[nFirst] != nFirstByte)
+        continue;
+      for (int nMatch = 1; nMatch < nBoundaryLength; nMatch++)
+        if (aBuffer[nFirst + nMatch] != aBoundary[nMatch])
+          continue outer;
+      return nFirst;
+    }
+    return -1;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("BoundaryLength", m_nBoundaryLength).getToString ();
+  }
+}
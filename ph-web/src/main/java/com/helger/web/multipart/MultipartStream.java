@@ -18,12 +18,14 @@ package com.helger.web.multipart;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.WillNotClose;
 import com.helger.base.CGlobal;
 import com.helger.base.array.ArrayHelper;
 import com.helger.base.charset.CharsetHelper;
@@ -118,7 +120,7 @@ public class MultipartStream
   /**
    * The default length of the buffer used for processing a request.
    */
-  private static final int DEFAULT_BUFSIZE = 4 * CGlobal.BYTES_PER_KILOBYTE;
+  public static final int DEFAULT_BUFSIZE = 4 * CGlobal.BYTES_PER_KILOBYTE;
 
   /**
    * A byte sequence that marks the end of <code>header-part</code> ( <code>CRLFCRLF</code>).
@@ -195,6 +197,11 @@ public class MultipartStream
    */
   private final MultipartProgressNotifier m_aNotifier;
 
+  /**
+   * The algorithm used to locate the boundary in the buffer.
+   */
+  private final IMultipartBoundaryFinder m_aBoundaryFinder;
+
   /**
    * <p>
    * Constructs a <code>MultipartStream</code> with a custom size buffer.
@@ -218,10 +225,43 @@ public class MultipartStream
                           final int nBufSize,
                           final MultipartProgressNotifier aNotifier)
   {
+    this (aIS, aBoundary, nBufSize, aNotifier, new MultipartBoundaryFinderHorspool ());
+  }
+
+  /**
+   * <p>
+   * Constructs a <code>MultipartStream</code> with a custom size buffer and a custom boundary
+   * search algorithm.
+   * <p>
+   * Note that the buffer must be at least big enough to contain the boundary string, plus 4
+   * characters for CR/LF and double dash, plus at least one byte of data. Too small a buffer size
+   * setting will degrade performance.
+   *
+   * @param aIS
+   *        The <code>InputStream</code> to serve as a data source.
+   * @param aBoundary
+   *        The token used for dividing the stream into <code>encapsulations</code>.
+   * @param nBufSize
+   *        The size of the buffer to be used, in bytes.
+   * @param aNotifier
+   *        The notifier, which is used for calling the progress listener, if any.
+   * @param aBoundaryFinder
+   *        The boundary search algorithm to be used. May not be <code>null</code>. The instance
+   *        must not be shared with other streams.
+   * @since 11.4.3
+   */
+  public MultipartStream (final InputStream aIS,
+                          final byte [] aBoundary,
+                          final int nBufSize,
+                          final MultipartProgressNotifier aNotifier,
+                          @NonNull final IMultipartBoundaryFinder aBoundaryFinder)
+  {
+    ValueEnforcer.notNull (aBoundaryFinder, "BoundaryFinder");
     m_aIS = aIS;
     m_nBufSize = nBufSize;
     m_aBuffer = new byte [nBufSize];
     m_aNotifier = aNotifier;
+    m_aBoundaryFinder = aBoundaryFinder;
 
     // We prepend CR/LF to the boundary to chop trailing CR/LF from
     // body-data tokens.
@@ -230,6 +270,7 @@ public class MultipartStream
     m_nKeepRegion = m_aBoundary.length;
     System.arraycopy (BOUNDARY_PREFIX, 0, m_aBoundary, 0, BOUNDARY_PREFIX.length);
     System.arraycopy (aBoundary, 0, m_aBoundary, BOUNDARY_PREFIX.length, aBoundary.length);
+    _onBoundaryChanged ();
 
     m_nHead = 0;
     m_nTail = 0;
@@ -252,6 +293,25 @@ public class MultipartStream
     this (aIS, aBoundary, DEFAULT_BUFSIZE, aNotifier);
   }
 
+  /**
+   * Must be called every time the content or the length of the boundary changed, so that the
+   * boundary finder can update its internal state.
+   */
+  private void _onBoundaryChanged ()
+  {
+    m_aBoundaryFinder.setBoundary (m_aBoundary, m_nBoundaryLength);
+  }
+
+  /**
+   * @return The size of the internal buffer in bytes. This is also the maximum number of bytes a
+   *         single read of a {@link MultipartItemInputStream} can deliver.
+   * @since 11.4.3
+   */
+  public int getBufferSize ()
+  {
+    return m_nBufSize;
+  }
+
   /**
    * Retrieves the character encoding used when reading the headers of an individual part. When not
    * specified, or <code>null</code>, the platform default encoding is used.
@@ -373,6 +433,7 @@ public class MultipartStream
     if (aBoundary.length != m_nBoundaryLength - BOUNDARY_PREFIX.length)
       throw new MultipartIllegalBoundaryException ("The length of a boundary token can not be changed");
     System.arraycopy (aBoundary, 0, m_aBoundary, BOUNDARY_PREFIX.length, aBoundary.length);
+    _onBoundaryChanged ();
   }
 
   /**
@@ -494,6 +555,7 @@ public class MultipartStream
     // First delimiter may be not preceeded with a CRLF.
     System.arraycopy (m_aBoundary, 2, m_aBoundary, 0, m_aBoundary.length - 2);
     m_nBoundaryLength = m_aBoundary.length - 2;
+    _onBoundaryChanged ();
     try
     {
       // Discard all data up to the delimiter.
@@ -514,6 +576,7 @@ public class MultipartStream
       m_nBoundaryLength = m_aBoundary.length;
       m_aBoundary[0] = CR;
       m_aBoundary[1] = LF;
+      _onBoundaryChanged ();
     }
   }
 
@@ -539,29 +602,16 @@ public class MultipartStream
 
   /**
    * Searches for the <code>boundary</code> in the <code>buffer</code> region delimited by
-   * <code>head</code> and <code>tail</code>.
+   * <code>head</code> and <code>tail</code>. The search itself is delegated to the
+   * {@link IMultipartBoundaryFinder} provided in the constructor.
    *
    * @return The position of the boundary found, counting from the beginning of the
    *         <code>buffer</code>, or <code>-1</code> if not found.
    */
+  @CheckForSigned
   protected int findSeparator ()
   {
-    int nFirst;
-    int nMatch = 0;
-    final int nMaxPos = m_nTail - m_nBoundaryLength;
-    for (nFirst = m_nHead; nFirst <= nMaxPos && nMatch != m_nBoundaryLength; nFirst++)
-    {
-      nFirst = findByte (m_aBoundary[0], nFirst);
-      if (nFirst == -1 || nFirst > nMaxPos)
-        return -1;
-
-      for (nMatch = 1; nMatch < m_nBoundaryLength; nMatch++)
-        if (m_aBuffer[nFirst + nMatch] != m_aBoundary[nMatch])
-          break;
-    }
-    if (nMatch == m_nBoundaryLength)
-      return nFirst - 1;
-    return -1;
+    return m_aBoundaryFinder.findBoundary (m_aBuffer, m_nHead, m_nTail);
   }
 
   /**
@@ -700,6 +750,43 @@ public class MultipartStream
       return res;
     }
 
+    /**
+     * Writes all remaining bytes of this item to the provided output stream. In contrast to the
+     * default implementation, the bytes are handed to the output stream directly from the buffer of
+     * the {@link MultipartStream} without any intermediate copy.
+     *
+     * @param aOS
+     *        The output stream to write to. May not be <code>null</code>. Is not closed.
+     * @return The number of bytes transferred.
+     * @throws IOException
+     *         An I/O error occurred.
+     * @since 11.4.3
+     */
+    @Override
+    public long transferTo (@NonNull @WillNotClose final OutputStream aOS) throws IOException
+    {
+      ValueEnforcer.notNull (aOS, "OutputStream");
+      if (m_bClosed)
+        throw new MultipartItemSkippedException ();
+
+      long nTransferred = 0;
+      while (true)
+      {
+        int nAvail = available ();
+        if (nAvail == 0)
+        {
+          nAvail = _makeAvailable ();
+          if (nAvail == 0)
+            break;
+        }
+        aOS.write (m_aBuffer, m_nHead, nAvail);
+        m_nHead += nAvail;
+        m_nTotal += nAvail;
+        nTransferred += nAvail;
+      }
+      return nTransferred;
+    }
+
     /**
      * Closes the input stream but NOT the underlying InputStream.
      *
@@ -19,6 +19,7 @@ package com.helger.web.scope.impl;
 import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.util.Enumeration;
+import java.util.function.Predicate;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -107,6 +108,8 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
   private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
   @GuardedBy ("RW_LOCK")
   private static IParamValueCleanser s_aParamValueCleanser = (n, i, v) -> getWithoutForbiddenCharsAndNormalized (v);
+  @GuardedBy ("RW_LOCK")
+  private static Predicate <String> s_aLazyParamsServletPathFilter;
 
   private final LocalDateTime m_aCreationDT;
   protected final HttpServletRequest m_aHttpRequest;
@@ -114,6 +117,9 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
   private HttpHeaderMap m_aHeaders;
   private final ParamContainer m_aParams = new ParamContainer ();
   private IRequestParamMap m_aRequestParamMap;
+  // Status vars for lazy parameter initialization
+  private volatile boolean m_bParamsPending = false;
+  private boolean m_bAddedSpecialRequestParams = false;
 
   /**
    * @return The current value cleanser function. May be <code>null</code>. By default
@@ -142,6 +148,40 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
     RW_LOCK.writeLocked ( () -> s_aParamValueCleanser = aParamValueCleanser);
   }
 
+  /**
+   * @return The filter that decides, based on the servlet path, whether the servlet request
+   *         parameters are copied lazily into {@link #params()}. May be <code>null</code>, which is
+   *         the default, meaning that parameters are always copied eagerly.
+   * @since 11.4.3
+   * @see #setLazyParamsServletPathFilter(Predicate)
+   */
+  @Nullable
+  public static Predicate <String> getLazyParamsServletPathFilter ()
+  {
+    return RW_LOCK.readLockedGet ( () -> s_aLazyParamsServletPathFilter);
+  }
+
+  /**
+   * Set the filter that decides whether the servlet request parameters are copied lazily into
+   * {@link #params()}. The filter receives the servlet path of the request. If it matches, the
+   * parameter names are not enumerated and the {@link IParamValueCleanser} is not invoked in
+   * {@link #initScope()} but only upon the first access to {@link #params()} or
+   * {@link #getRequestParamMap()}. Requests that never access the parameters (e.g. for static
+   * resources) therefore don't pay the price for it.<br>
+   * Note: the parameters must be accessed while the underlying {@link HttpServletRequest} is still
+   * valid. Special parameters (like uploaded files) are always handled eagerly.
+   *
+   * @param aLazyParamsServletPathFilter
+   *        The filter to be used. May be <code>null</code> to disable lazy initialization for all
+   *        requests.
+   * @since 11.4.3
+   * @see #getLazyParamsServletPathFilter()
+   */
+  public static void setLazyParamsServletPathFilter (@Nullable final Predicate <String> aLazyParamsServletPathFilter)
+  {
+    RW_LOCK.writeLocked ( () -> s_aLazyParamsServletPathFilter = aLazyParamsServletPathFilter);
+  }
+
   @NonNull
   @Nonempty
   private static String _createScopeID (@NonNull final HttpServletRequest aHttpRequest)
@@ -200,6 +240,10 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
    */
   public static boolean isForbiddenParamValueChar (final char c)
   {
+    // Fast path for printable ASCII chars
+    if (c >= 0x20 && c < 0x7f)
+      return false;
+
     // INVALID_VALUE_CHAR_XML10 + 0x7f
     return (c >= 0x0 && c <= 0x8) ||
            (c >= 0xb && c <= 0xc) ||
@@ -225,11 +269,29 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
     if (s == null)
       return null;
 
-    final StringBuilder aCleanValue = new StringBuilder (s.length ());
+    // Scan first - in the regular case there is nothing to remove and nothing
+    // needs to be allocated
+    final int nLen = s.length ();
+    for (int i = 0; i < nLen; ++i)
+      if (isForbiddenParamValueChar (s.charAt (i)))
+        return _getWithoutForbiddenChars (s, i);
+
+    // Return "as-is"
+    return s;
+  }
+
+  @NonNull
+  private static String _getWithoutForbiddenChars (@NonNull final String s, @Nonnegative final int nFirstForbidden)
+  {
+    final int nLen = s.length ();
+    final StringBuilder aCleanValue = new StringBuilder (nLen - 1);
+    aCleanValue.append (s, 0, nFirstForbidden);
     int nForbidden = 0;
 
     final ICommonsOrderedSet <Character> aInvalidChars = new CommonsLinkedHashSet <> ();
-    for (final char c : s.toCharArray ())
+    for (int i = nFirstForbidden; i < nLen; ++i)
+    {
+      final char c = s.charAt (i);
       if (isForbiddenParamValueChar (c))
       {
         nForbidden++;
@@ -237,10 +299,6 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
       }
       else
         aCleanValue.append (c);
-    if (nForbidden == 0)
-    {
-      // Return "as-is"
-      return s;
     }
     LOGGER.warn ("Removed " +
                  nForbidden +
@@ -253,9 +311,29 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
     return aCleanValue.toString ();
   }
 
+  /**
+   * Check if the provided string consists of US-ASCII characters only. Such strings are always in
+   * Unicode normalization form NFKC.
+   *
+   * @param s
+   *        The string to check. May not be <code>null</code>.
+   * @return <code>true</code> if all chars are &lt; 0x80.
+   */
+  private static boolean _isAscii (@NonNull final String s)
+  {
+    final int nLen = s.length ();
+    for (int i = 0; i < nLen; ++i)
+      if (s.charAt (i) >= 0x80)
+        return false;
+    return true;
+  }
+
   /**
    * First normalize the input according to Unicode rules, so that "O 0xcc 0x88" (O with COMBINING
    * DIAERESIS) becomes "Ö" (Capital O with umlaut).
+   * <p>
+   * If no forbidden chars are contained and the input is already normalized, the input string is
+   * returned unchanged without allocating new objects.
    *
    * @param s
    *        Source string. May be <code>null</code>.
@@ -275,7 +353,9 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
     if (sValue == null)
       return null;
 
-    // than normalize
+    // than normalize - quick checks first, as most values are already normalized
+    if (_isAscii (sValue) || Normalizer.isNormalized (sValue, Normalizer.Form.NFKC))
+      return sValue;
     return Normalizer.normalize (sValue, Normalizer.Form.NFKC);
   }
 
@@ -291,10 +371,33 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
       LOGGER.warn ("Scope was already inited: " + toString ());
       return;
     }
-    final IRequestParamContainer aParams = params ();
 
     // where some extra items (like file items) handled?
-    final boolean bAddedSpecialRequestParams = addSpecialRequestParams ().isChanged ();
+    m_bAddedSpecialRequestParams = addSpecialRequestParams ().isChanged ();
+
+    final Predicate <String> aLazyParamsFilter = getLazyParamsServletPathFilter ();
+    if (aLazyParamsFilter != null && aLazyParamsFilter.test (getServletPath ()))
+    {
+      // Copy the parameters upon first access
+      m_bParamsPending = true;
+    }
+    else
+      _copyRequestParams ();
+
+    // done initialization
+    if (ScopeHelper.isDebugRequestScopeLifeCycle ())
+      LOGGER.info ("Initialized request web scope '" + getID () + "' of class " + ClassHelper.getClassLocalName (this),
+                   ScopeHelper.getDebugException ());
+  }
+
+  /**
+   * Copy all servlet request parameters into the parameter container applying the
+   * {@link IParamValueCleanser}.
+   */
+  private void _copyRequestParams ()
+  {
+    final IRequestParamContainer aParams = m_aParams;
+    final boolean bAddedSpecialRequestParams = m_bAddedSpecialRequestParams;
 
     // Retrieve once (because locked)
     final IParamValueCleanser aParamValueCleanser = getParamValueCleanser ();
@@ -352,19 +455,46 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
         aParams.putIn (sParamName, aPreProcessedValues);
       }
     }
-    // done initialization
-    if (ScopeHelper.isDebugRequestScopeLifeCycle ())
-      LOGGER.info ("Initialized request web scope '" + getID () + "' of class " + ClassHelper.getClassLocalName (this),
-                   ScopeHelper.getDebugException ());
+  }
+
+  /**
+   * @return <code>true</code> if the servlet request parameters were not yet copied into
+   *         {@link #params()} because lazy initialization is active for this request and the
+   *         parameters were not yet accessed.
+   * @since 11.4.3
+   * @see #setLazyParamsServletPathFilter(Predicate)
+   */
+  public final boolean isParamsPending ()
+  {
+    return m_bParamsPending;
+  }
+
+  /**
+   * @return <code>true</code> if special request parameters (e.g. uploaded files of a multipart
+   *         request) were added to {@link #params()} while initializing this scope. These
+   *         parameters were read from the request body and cannot be read again.
+   * @since 11.4.3
+   */
+  public final boolean isAddedSpecialRequestParams ()
+  {
+    return m_bAddedSpecialRequestParams;
   }
 
   @Override
   protected void postDestroy ()
   {
     // Delete all temporary files (if any)
-    for (final Object o : params ().values ())
+    // Don't use params() here, to avoid copying pending parameters
+    for (final Object o : m_aParams.values ())
       if (o instanceof IFileItem)
         ((IFileItem) o).onEndOfRequest ();
+      else
+        if (o instanceof IFileItem [])
+        {
+          // Multiple files with the same field name
+          for (final IFileItem aFileItem : (IFileItem []) o)
+            aFileItem.onEndOfRequest ();
+        }
 
     if (ScopeHelper.isDebugRequestScopeLifeCycle ())
       LOGGER.info ("Destroyed request web scope '" + getID () + "' of class " + ClassHelper.getClassLocalName (this),
@@ -384,6 +514,18 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
   @ReturnsMutableObject
   public final IRequestParamContainer params ()
   {
+    if (m_bParamsPending)
+    {
+      synchronized (m_aParams)
+      {
+        if (m_bParamsPending)
+        {
+          _copyRequestParams ();
+          // Only clear after copying, so that other threads don't see a partially filled container
+          m_bParamsPending = false;
+        }
+      }
+    }
     return m_aParams;
   }
 
@@ -510,6 +652,7 @@ public class RequestWebScope extends AbstractScope implements IRequestWebScope
                             .append ("HttpResponse", m_aHttpResponse)
                             .append ("Headers", m_aHeaders)
                             .append ("Params", m_aParams)
+                            .append ("ParamsPending", m_bParamsPending)
                             .append ("RequestParamMap", m_aRequestParamMap)
                             .getToString ();
   }
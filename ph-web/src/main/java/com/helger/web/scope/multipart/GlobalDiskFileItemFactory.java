@@ -28,6 +28,7 @@ import com.helger.base.tostring.ToStringGenerator;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.scope.IScope;
 import com.helger.web.fileupload.IFileItemFactory;
+import com.helger.web.fileupload.io.TemporaryFileManager;
 import com.helger.web.fileupload.parse.DiskFileItem;
 import com.helger.web.fileupload.parse.DiskFileItemFactory;
 import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
@@ -56,14 +57,49 @@ public final class GlobalDiskFileItemFactory extends AbstractGlobalWebSingleton
   @Override
   protected void onDestroy (@NonNull final IScope aScopeInDestruction)
   {
+    m_aFactory.getTemporaryFileManager ().close ();
     m_aFactory.deleteAllTemporaryFiles ();
   }
 
+  /**
+   * @return The manager of all temporary files created by this factory. Use it to configure a disk
+   *         quota, to start the background sweeper for orphaned files or to read the metrics. Never
+   *         <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  public TemporaryFileManager getTemporaryFileManager ()
+  {
+    return m_aFactory.getTemporaryFileManager ();
+  }
+
   public void setRepository (@Nullable final File aRepository)
   {
     m_aFactory.setRepository (aRepository);
   }
 
+  /**
+   * @return <code>true</code> if uploaded files exceeding the threshold are written via a file
+   *         channel.
+   * @since 11.4.3
+   * @see DiskFileItemFactory#isUseFileChannel()
+   */
+  public boolean isUseFileChannel ()
+  {
+    return m_aFactory.isUseFileChannel ();
+  }
+
+  /**
+   * @param bUseFileChannel
+   *        <code>true</code> to write uploaded files exceeding the threshold via a file channel.
+   * @since 11.4.3
+   * @see DiskFileItemFactory#setUseFileChannel(boolean)
+   */
+  public void setUseFileChannel (final boolean bUseFileChannel)
+  {
+    m_aFactory.setUseFileChannel (bUseFileChannel);
+  }
+
   @NonNull
   public DiskFileItem createItem (final String sFieldName,
                                   @Nullable final String sContentType,
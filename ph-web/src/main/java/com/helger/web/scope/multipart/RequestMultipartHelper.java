@@ -16,18 +16,27 @@
  */
 package com.helger.web.scope.multipart;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.function.BiConsumer;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.CGlobal;
 import com.helger.base.array.ArrayHelper;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.spi.ServiceLoaderHelper;
 import com.helger.base.state.EChange;
+import com.helger.base.state.EContinue;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.collection.commons.ICommonsList;
@@ -38,7 +47,12 @@ import com.helger.servlet.request.RequestHelper;
 import com.helger.web.CWeb;
 import com.helger.web.fileupload.IFileItem;
 import com.helger.web.fileupload.IFileItemFactoryProviderSPI;
+import com.helger.web.fileupload.IFileItemStream;
+import com.helger.web.fileupload.IFileItemStreamHandler;
+import com.helger.web.fileupload.exception.FileSizeLimitExceededException;
 import com.helger.web.fileupload.exception.FileUploadException;
+import com.helger.web.fileupload.exception.FileUploadIOException;
+import com.helger.web.fileupload.io.MultiDigestOutputStream;
 import com.helger.web.fileupload.servlet.ServletFileUpload;
 import com.helger.web.progress.IProgressListener;
 import com.helger.web.progress.ProgressListenerProvider;
@@ -54,8 +68,21 @@ public final class RequestMultipartHelper
    */
   public static final long MAX_REQUEST_SIZE = 100 * CGlobal.BYTES_PER_MEGABYTE;
 
+  /**
+   * The default maximum size of a single form field (in bytes) in streaming
+   * mode.
+   *
+   * @since 11.4.3
+   */
+  public static final int DEFAULT_MAX_STREAMING_FORM_FIELD_SIZE = CGlobal.BYTES_PER_MEGABYTE;
+
   private static final Logger LOGGER = LoggerFactory.getLogger (RequestMultipartHelper.class);
   private static final IFileItemFactoryProviderSPI PROVIDER;
+  private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
+  @GuardedBy ("RW_LOCK")
+  private static String [] s_aDigestAlgorithms;
+  @GuardedBy ("RW_LOCK")
+  private static int s_nMaxStreamingFormFieldSize = DEFAULT_MAX_STREAMING_FORM_FIELD_SIZE;
 
   static
   {
@@ -72,6 +99,139 @@ public final class RequestMultipartHelper
   private RequestMultipartHelper ()
   {}
 
+  /**
+   * @return The digest algorithms computed for each uploaded file. Never
+   *         <code>null</code> but maybe empty.
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <String> getAllDigestAlgorithms ()
+  {
+    final String [] aAlgorithms = RW_LOCK.readLockedGet ( () -> s_aDigestAlgorithms);
+    return aAlgorithms == null ? new CommonsArrayList <> () : new CommonsArrayList <> (aAlgorithms);
+  }
+
+  /**
+   * Define the digests and checksums (like <code>SHA-256</code> or
+   * <code>CRC32</code>) to compute for each uploaded file while it is
+   * received. The results are available via
+   * {@link IFileItem#getAllDigests()}.
+   *
+   * @param aAlgorithms
+   *        The algorithm names. May be <code>null</code> or empty to compute
+   *        no digests.
+   * @throws IllegalArgumentException
+   *         If an algorithm is not supported
+   * @since 11.4.3
+   * @see com.helger.web.fileupload.parse.AbstractFileUploadBase#setDigestAlgorithms(String...)
+   */
+  public static void setDigestAlgorithms (@Nullable final String... aAlgorithms)
+  {
+    if (aAlgorithms != null)
+      for (final String sAlgorithm : aAlgorithms)
+        if (!MultiDigestOutputStream.isSupportedAlgorithm (sAlgorithm))
+          throw new IllegalArgumentException ("Unsupported digest algorithm '" + sAlgorithm + "'");
+    final String [] aCopy = ArrayHelper.getCopy (aAlgorithms);
+    RW_LOCK.writeLocked ( () -> s_aDigestAlgorithms = aCopy);
+  }
+
+  /**
+   * @return The maximum size of a single form field in bytes, that is read
+   *         into memory in streaming mode. Always &gt; 0.
+   * @see #handleMultipartFormDataStreaming(HttpServletRequest,
+   *      IFileItemStreamHandler, BiConsumer)
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public static int getMaxStreamingFormFieldSize ()
+  {
+    return RW_LOCK.readLockedInt ( () -> s_nMaxStreamingFormFieldSize);
+  }
+
+  /**
+   * Set the maximum size of a single form field, that is read into memory in
+   * streaming mode. Requests with bigger form fields are rejected. The default
+   * is {@link #DEFAULT_MAX_STREAMING_FORM_FIELD_SIZE}.
+   *
+   * @param nMaxFormFieldSize
+   *        The maximum size in bytes. Must be &gt; 0.
+   * @since 11.4.3
+   */
+  public static void setMaxStreamingFormFieldSize (@Nonnegative final int nMaxFormFieldSize)
+  {
+    ValueEnforcer.isGT0 (nMaxFormFieldSize, "MaxFormFieldSize");
+    RW_LOCK.writeLocked ( () -> s_nMaxStreamingFormFieldSize = nMaxFormFieldSize);
+  }
+
+  @NonNull
+  private static String _readFormField (@NonNull final IFileItemStream aItem,
+                                        @NonNull final InputStream aIS,
+                                        @Nonnegative final int nMaxSize) throws IOException
+  {
+    // Read directly, so that exceeded size limits are propagated
+    final byte [] aBytes = aIS.readNBytes (nMaxSize);
+    if (aIS.read () >= 0)
+    {
+      final FileSizeLimitExceededException ex = new FileSizeLimitExceededException ("The field " +
+                                                                                    aItem.getFieldName () +
+                                                                                    " exceeds its maximum permitted size of " +
+                                                                                    nMaxSize +
+                                                                                    " bytes.",
+                                                                                    nMaxSize + 1L,
+                                                                                    nMaxSize,
+                                                                                    aItem.getFieldName (),
+                                                                                    null);
+      throw new FileUploadIOException (ex);
+    }
+    // We need to explicitly use the charset, as by default only the
+    // charset from the content type is used!
+    return new String (aBytes, CWeb.CHARSET_REQUEST_OBJ);
+  }
+
+  @NonNull
+  private static ServletFileUpload _createUpload (@NonNull final HttpServletRequest aHttpRequest)
+  {
+    // Setup the ServletFileUpload....
+    final ServletFileUpload aUpload = new ServletFileUpload (PROVIDER.getFileItemFactory ());
+    aUpload.setSizeMax (MAX_REQUEST_SIZE);
+    aUpload.setHeaderEncoding (CWeb.CHARSET_REQUEST_OBJ.name ());
+    final IProgressListener aProgressListener = ProgressListenerProvider.getProgressListener ();
+    if (aProgressListener != null)
+      aUpload.setProgressListener (aProgressListener);
+    final String [] aDigestAlgorithms = RW_LOCK.readLockedGet ( () -> s_aDigestAlgorithms);
+    if (aDigestAlgorithms != null)
+      aUpload.setDigestAlgorithms (aDigestAlgorithms);
+
+    ServletHelper.setRequestCharacterEncoding (aHttpRequest, CWeb.CHARSET_REQUEST_OBJ);
+    return aUpload;
+  }
+
+  private static boolean _isMultipart (@NonNull final HttpServletRequest aHttpRequest)
+  {
+    if (aHttpRequest instanceof MockHttpServletRequest)
+    {
+      // First check, because some of the contained methods throw
+      // UnsupportedOperationExceptions
+      return false;
+    }
+    // Note: this handles only POST parameters!
+    return RequestHelper.isMultipartFormDataContent (aHttpRequest);
+  }
+
+  private static void _addFormFields (@NonNull final ICommonsMap <String, ICommonsList <String>> aFormFields,
+                                      @NonNull final BiConsumer <String, Object> aConsumer)
+  {
+    for (final Map.Entry <String, ICommonsList <String>> aEntry : aFormFields.entrySet ())
+    {
+      // Convert list of String to value (String or String[])
+      final ICommonsList <String> aValues = aEntry.getValue ();
+      final Object aValue = aValues.size () == 1 ? aValues.getFirstOrNull ()
+                                                 : ArrayHelper.createArray (aValues, String.class);
+      aConsumer.accept (aEntry.getKey (), aValue);
+    }
+  }
+
   /**
    * Parse the provided servlet request as multipart, if the Content-Type starts
    * with <code>multipart/form-data</code>.
@@ -88,31 +248,16 @@ public final class RequestMultipartHelper
   public static EChange handleMultipartFormData (@NonNull final HttpServletRequest aHttpRequest,
                                                  @NonNull final BiConsumer <String, Object> aConsumer)
   {
-    if (aHttpRequest instanceof MockHttpServletRequest)
-    {
-      // First check, because some of the contained methods throw
-      // UnsupportedOperationExceptions
-      return EChange.UNCHANGED;
-    }
-    if (!RequestHelper.isMultipartFormDataContent (aHttpRequest))
+    if (!_isMultipart (aHttpRequest))
     {
       // It's not a multipart request
       return EChange.UNCHANGED;
     }
     // It is a multipart request!
-    // Note: this handles only POST parameters!
     boolean bAddedFileUploadItems = false;
     try
     {
-      // Setup the ServletFileUpload....
-      final ServletFileUpload aUpload = new ServletFileUpload (PROVIDER.getFileItemFactory ());
-      aUpload.setSizeMax (MAX_REQUEST_SIZE);
-      aUpload.setHeaderEncoding (CWeb.CHARSET_REQUEST_OBJ.name ());
-      final IProgressListener aProgressListener = ProgressListenerProvider.getProgressListener ();
-      if (aProgressListener != null)
-        aUpload.setProgressListener (aProgressListener);
-
-      ServletHelper.setRequestCharacterEncoding (aHttpRequest, CWeb.CHARSET_REQUEST_OBJ);
+      final ServletFileUpload aUpload = _createUpload (aHttpRequest);
 
       // Group all items with the same name together
       final ICommonsMap <String, ICommonsList <String>> aFormFields = new CommonsHashMap <> ();
@@ -131,14 +276,7 @@ public final class RequestMultipartHelper
           aFormFiles.computeIfAbsent (aFileItem.getFieldName (), k -> new CommonsArrayList <> ()).add (aFileItem);
       }
       // set all form fields
-      for (final Map.Entry <String, ICommonsList <String>> aEntry : aFormFields.entrySet ())
-      {
-        // Convert list of String to value (String or String[])
-        final ICommonsList <String> aValues = aEntry.getValue ();
-        final Object aValue = aValues.size () == 1 ? aValues.getFirstOrNull ()
-                                                   : ArrayHelper.createArray (aValues, String.class);
-        aConsumer.accept (aEntry.getKey (), aValue);
-      }
+      _addFormFields (aFormFields, aConsumer);
       // set all form files (potentially overwriting form fields with the same
       // name)
       for (final Map.Entry <String, ICommonsList <IFileItem>> aEntry : aFormFiles.entrySet ())
@@ -164,4 +302,71 @@ public final class RequestMultipartHelper
     }
     return EChange.valueOf (bAddedFileUploadItems);
   }
+
+  /**
+   * Parse the provided servlet request as multipart in streaming mode, if the
+   * Content-Type starts with <code>multipart/form-data</code>. Form fields are
+   * read into memory and passed to the consumer like in
+   * {@link #handleMultipartFormData(HttpServletRequest, BiConsumer)}, whereas
+   * file parts are passed one by one to the provided handler, reading directly
+   * from the request. No {@link IFileItem} objects and no temporary files are
+   * created. The request size limit of {@link #MAX_REQUEST_SIZE} and the form
+   * field size limit of {@link #getMaxStreamingFormFieldSize()} are enforced.
+   *
+   * @param aHttpRequest
+   *        Source HTTP request from which multipart/form-data (aka file
+   *        uploads) should be extracted.
+   * @param aFileHandler
+   *        The handler for all non-form field parts. May not be
+   *        <code>null</code>.
+   * @param aFormFieldConsumer
+   *        A consumer that takes either {@link String} or {@link String}[].
+   * @return {@link EChange#CHANGED} if the request was processed completely
+   * @since 11.4.3
+   */
+  @NonNull
+  public static EChange handleMultipartFormDataStreaming (@NonNull final HttpServletRequest aHttpRequest,
+                                                          @NonNull final IFileItemStreamHandler aFileHandler,
+                                                          @NonNull final BiConsumer <String, Object> aFormFieldConsumer)
+  {
+    ValueEnforcer.notNull (aFileHandler, "FileHandler");
+    ValueEnforcer.notNull (aFormFieldConsumer, "FormFieldConsumer");
+
+    if (!_isMultipart (aHttpRequest))
+    {
+      // It's not a multipart request
+      return EChange.UNCHANGED;
+    }
+    // It is a multipart request!
+    boolean bProcessed = false;
+    try
+    {
+      final ServletFileUpload aUpload = _createUpload (aHttpRequest);
+      final int nMaxFormFieldSize = getMaxStreamingFormFieldSize ();
+
+      // Group all form fields with the same name together
+      final ICommonsMap <String, ICommonsList <String>> aFormFields = new CommonsHashMap <> ();
+      aUpload.processRequest (aHttpRequest, (aItem, aIS) -> {
+        if (aItem.isFormField ())
+        {
+          aFormFields.computeIfAbsent (aItem.getFieldName (), k -> new CommonsArrayList <> ())
+                     .add (_readFormField (aItem, aIS, nMaxFormFieldSize));
+          return EContinue.CONTINUE;
+        }
+        return aFileHandler.handleItem (aItem, aIS);
+      });
+      _addFormFields (aFormFields, aFormFieldConsumer);
+      bProcessed = true;
+    }
+    catch (final FileUploadException ex)
+    {
+      if (!StreamHelper.isKnownEOFException (ex.getCause ()))
+        LOGGER.error ("Error streaming multipart request content", ex);
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Error streaming multipart request content", ex);
+    }
+    return EChange.valueOf (bProcessed);
+  }
 }
@@ -17,10 +17,12 @@
 package com.helger.web.scope.multipart;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.style.OverrideOnDemand;
 import com.helger.base.state.EChange;
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.web.fileupload.IFileItemStreamHandler;
 import com.helger.web.scope.impl.RequestWebScope;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -42,14 +44,40 @@ public class RequestWebScopeMultipart extends RequestWebScope
     super (aHttpRequest, aHttpResponse);
   }
 
+  /**
+   * Get the handler for streaming processing of multipart requests. If a
+   * handler is returned, all file parts are passed to it while the request
+   * scope is initialized instead of being stored as file items, and only the
+   * form fields end up in {@link #params()}.
+   *
+   * @return <code>null</code> to use the default non-streaming processing.
+   * @since 11.4.3
+   */
+  @Nullable
+  @OverrideOnDemand
+  protected IFileItemStreamHandler getMultipartStreamHandler ()
+  {
+    return null;
+  }
+
   @Override
   @OverrideOnDemand
   protected EChange addSpecialRequestParams ()
   {
-    // Parse as multipart if the Content-Type matches, and add each item into
-    // params()
-    // This may create temporary files via DiskFileItem
-    final EChange ret = RequestMultipartHelper.handleMultipartFormData (m_aHttpRequest, params ()::putIn);
+    final IFileItemStreamHandler aStreamHandler = getMultipartStreamHandler ();
+    final EChange ret;
+    if (aStreamHandler != null)
+    {
+      // Stream the file parts to the handler - no temporary files
+      ret = RequestMultipartHelper.handleMultipartFormDataStreaming (m_aHttpRequest, aStreamHandler, params ()::putIn);
+    }
+    else
+    {
+      // Parse as multipart if the Content-Type matches, and add each item into
+      // params()
+      // This may create temporary files via DiskFileItem
+      ret = RequestMultipartHelper.handleMultipartFormData (m_aHttpRequest, params ()::putIn);
+    }
     m_bParsedMultipart = ret.isChanged ();
     return ret;
   }
@@ -19,6 +19,7 @@ package com.helger.web.servlets.filter;
 import java.io.IOException;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.OverridingMethodsMustInvokeSuper;
 import com.helger.http.CHttpHeader;
@@ -30,8 +31,11 @@ import com.helger.servlet.request.RequestHelper;
 import com.helger.servlet.response.ResponseHelperSettings;
 import com.helger.servlet.response.gzip.AbstractCompressedResponseWrapper;
 import com.helger.servlet.response.gzip.CompressFilterSettings;
+import com.helger.servlet.response.gzip.ContentEncoderProvider;
 import com.helger.servlet.response.gzip.DeflateResponse;
+import com.helger.servlet.response.gzip.EncodedResponse;
 import com.helger.servlet.response.gzip.GZIPResponse;
+import com.helger.servlet.response.gzip.IContentEncoderSPI;
 import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
 import com.helger.statistics.impl.StatisticsManager;
 
@@ -41,9 +45,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
- * This is a generic filter that first tries to find whether "GZip" is
- * supported, and if this fails, whether "Deflate" is supported. If none is
- * supported, no compression will happen in this filter.
+ * This is a generic filter that picks the content encoding with the highest
+ * quality from the <code>Accept-Encoding</code> request header. Candidates are
+ * all encodings registered via {@link IContentEncoderSPI} (e.g. Brotli or zstd)
+ * followed by "GZip" and "Deflate". On equal quality the earlier candidate
+ * wins. If none is supported, no compression will happen in this filter.
  *
  * @author Philip Helger
  */
@@ -96,6 +102,64 @@ public class CompressFilter extends AbstractHttpServletFilter
     }
   }
 
+  /**
+   * Negotiate the content encoding to be used for the provided request.
+   *
+   * @param aHttpRequest
+   *        The current HTTP request. Never <code>null</code>.
+   * @param aHttpResponse
+   *        The current HTTP response. Never <code>null</code>.
+   * @return <code>null</code> if no compression should happen.
+   * @since 11.4.3
+   */
+  @Nullable
+  protected AbstractCompressedResponseWrapper createCompressedResponse (@NonNull final HttpServletRequest aHttpRequest,
+                                                                        @NonNull final HttpServletResponse aHttpResponse)
+  {
+    final AcceptEncodingList aAEL = RequestHelper.getAcceptEncodings (aHttpRequest);
+
+    // Find the best pluggable encoder
+    IContentEncoderSPI aBestEncoder = null;
+    double dBestQuality = 0;
+    for (final IContentEncoderSPI aEncoder : ContentEncoderProvider.getAllEncoders ())
+    {
+      final String sEncoding = aEncoder.getContentEncoding ();
+      if (CompressFilterSettings.isResponseEncodingEnabled (sEncoding))
+      {
+        final double dQuality = aAEL.getQValueOfEncoding (sEncoding).getQuality ();
+        if (dQuality > dBestQuality)
+        {
+          aBestEncoder = aEncoder;
+          dBestQuality = dQuality;
+        }
+      }
+    }
+
+    // Built-in encodings only win with a higher quality
+    final String sGZIPEncoding = CompressFilterSettings.isResponseGzipEnabled () ? aAEL.getUsedGZIPEncoding () : null;
+    final double dGZIPQuality = sGZIPEncoding == null ? 0 : aAEL.getQValueOfEncoding (sGZIPEncoding).getQuality ();
+    final String sDeflateEncoding = CompressFilterSettings.isResponseDeflateEnabled () ? aAEL.getUsedDeflateEncoding ()
+                                                                                       : null;
+    final double dDeflateQuality = sDeflateEncoding == null ? 0 : aAEL.getQValueOfEncoding (sDeflateEncoding)
+                                                                      .getQuality ();
+
+    if (aBestEncoder != null && dBestQuality >= dGZIPQuality && dBestQuality >= dDeflateQuality)
+      return new EncodedResponse (aHttpRequest, aHttpResponse, aBestEncoder);
+
+    if (sGZIPEncoding != null && dGZIPQuality >= dDeflateQuality)
+    {
+      // Use gzip
+      return new GZIPResponse (aHttpRequest, aHttpResponse, sGZIPEncoding);
+    }
+
+    if (sDeflateEncoding != null)
+    {
+      // Use deflate
+      return new DeflateResponse (aHttpRequest, aHttpResponse, sDeflateEncoding);
+    }
+    return null;
+  }
+
   @Override
   public void doHttpFilter (@NonNull final HttpServletRequest aHttpRequest,
                             @NonNull final HttpServletResponse aHttpResponse,
@@ -110,28 +174,11 @@ public class CompressFilter extends AbstractHttpServletFilter
       // Accept-Encoding
       aHttpResponse.setHeader (CHttpHeader.VARY, CHttpHeader.ACCEPT_ENCODING);
 
-      final AcceptEncodingList aAEL = RequestHelper.getAcceptEncodings (aHttpRequest);
-
-      AbstractCompressedResponseWrapper aCompressedResponse = null;
-
-      final String sGZIPEncoding = aAEL.getUsedGZIPEncoding ();
-      if (sGZIPEncoding != null && CompressFilterSettings.isResponseGzipEnabled ())
-      {
-        // Use gzip
-        aCompressedResponse = new GZIPResponse (aHttpRequest, aHttpResponse, sGZIPEncoding);
-      }
-      else
-      {
-        final String sDeflateEncoding = aAEL.getUsedDeflateEncoding ();
-        if (sDeflateEncoding != null && CompressFilterSettings.isResponseDeflateEnabled ())
-        {
-          // Use deflate
-          aCompressedResponse = new DeflateResponse (aHttpRequest, aHttpResponse, sDeflateEncoding);
-        }
-      }
-
+      final AbstractCompressedResponseWrapper aCompressedResponse = createCompressedResponse (aHttpRequest,
+                                                                                            aHttpResponse);
       if (aCompressedResponse != null)
       {
+        aCompressedResponse.setMinCompressSize (CompressFilterSettings.getMinCompressSize ());
         _performCompressed (aHttpRequest, aChain, aHttpResponse, aCompressedResponse);
         return;
       }
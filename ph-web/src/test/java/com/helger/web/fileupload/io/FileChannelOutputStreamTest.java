@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FileChannelOutputStream}.
+ *
+ * @author Philip Helger
+ */
+public final class FileChannelOutputStreamTest
+{
+  private static byte [] _createData (final int nSize)
+  {
+    final byte [] ret = new byte [nSize];
+    new Random (nSize).nextBytes (ret);
+    return ret;
+  }
+
+  private static void _writeMixed (final FileChannelOutputStream aOS, final byte [] aData) throws IOException
+  {
+    int nOfs = 0;
+    int nChunk = 1;
+    while (nOfs < aData.length)
+    {
+      final int nLen = Math.min (nChunk, aData.length - nOfs);
+      if (nLen == 1)
+        aOS.write (aData[nOfs]);
+      else
+        aOS.write (aData, nOfs, nLen);
+      nOfs += nLen;
+      // Mix small and big writes
+      nChunk = nChunk > 100_000 ? 1 : nChunk * 7;
+    }
+  }
+
+  @Test
+  public void testWrite () throws IOException
+  {
+    final File aFile = File.createTempFile ("ph-web", ".tmp");
+    try
+    {
+      for (final int nSize : new int [] { 0, 1, 17, 1000, 100_000, 1_000_000 })
+      {
+        final byte [] aData = _createData (nSize);
+        try (final FileChannelOutputStream aOS = new FileChannelOutputStream (aFile, 1024, -1))
+        {
+          _writeMixed (aOS, aData);
+        }
+        assertArrayEquals (aData, Files.readAllBytes (aFile.toPath ()));
+      }
+    }
+    finally
+    {
+      aFile.delete ();
+    }
+  }
+
+  @Test
+  public void testPreallocation () throws IOException
+  {
+    final File aFile = File.createTempFile ("ph-web", ".tmp");
+    try
+    {
+      final byte [] aData = _createData (50_000);
+
+      // Preallocated too big
+      try (final FileChannelOutputStream aOS = new FileChannelOutputStream (aFile,
+                                                                           FileChannelOutputStream.DEFAULT_BUFFER_SIZE,
+                                                                           200_000))
+      {
+        assertEquals (200_000, aFile.length ());
+        _writeMixed (aOS, aData);
+      }
+      assertEquals (aData.length, aFile.length ());
+      assertArrayEquals (aData, Files.readAllBytes (aFile.toPath ()));
+
+      // Preallocated too small
+      try (final FileChannelOutputStream aOS = new FileChannelOutputStream (aFile,
+                                                                           FileChannelOutputStream.DEFAULT_BUFFER_SIZE,
+                                                                           10))
+      {
+        _writeMixed (aOS, aData);
+      }
+      assertArrayEquals (aData, Files.readAllBytes (aFile.toPath ()));
+    }
+    finally
+    {
+      aFile.delete ();
+    }
+  }
+}
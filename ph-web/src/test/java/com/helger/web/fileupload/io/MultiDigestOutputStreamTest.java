@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.ICommonsOrderedMap;
+
+/**
+ * Test class for class {@link MultiDigestOutputStream}.
+ *
+ * @author Philip Helger
+ */
+public final class MultiDigestOutputStreamTest
+{
+  @Test
+  public void testDigests () throws Exception
+  {
+    final byte [] aData = "123456789".getBytes (StandardCharsets.US_ASCII);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    try (final MultiDigestOutputStream aOS = new MultiDigestOutputStream (aBAOS,
+                                                                          Arrays.asList ("SHA-256",
+                                                                                         MultiDigestOutputStream.ALGORITHM_CRC32,
+                                                                                         MultiDigestOutputStream.ALGORITHM_CRC32C)))
+    {
+      // Mix single byte and bulk writes
+      aOS.write (aData[0]);
+      aOS.write (aData, 1, aData.length - 1);
+
+      final ICommonsOrderedMap <String, byte []> aDigests = aOS.getAllDigests ();
+      assertEquals (3, aDigests.size ());
+      assertArrayEquals (MessageDigest.getInstance ("SHA-256").digest (aData), aDigests.get ("SHA-256"));
+      // Standard check values
+      assertEquals ("cbf43926", HexFormat.of ().formatHex (aDigests.get (MultiDigestOutputStream.ALGORITHM_CRC32)));
+      assertEquals ("e3069283", HexFormat.of ().formatHex (aDigests.get (MultiDigestOutputStream.ALGORITHM_CRC32C)));
+
+      // Results are stable
+      assertArrayEquals (aDigests.get ("SHA-256"), aOS.getAllDigests ().get ("SHA-256"));
+      aDigests.get ("SHA-256")[0]++;
+      assertArrayEquals (MessageDigest.getInstance ("SHA-256").digest (aData), aOS.getAllDigests ().get ("SHA-256"));
+      try
+      {
+        aOS.write (1);
+        fail ();
+      }
+      catch (final IllegalStateException ex)
+      {
+        // expected
+      }
+    }
+    assertArrayEquals (aData, aBAOS.toByteArray ());
+  }
+
+  @Test
+  public void testSupportedAlgorithms () throws IOException
+  {
+    assertTrue (MultiDigestOutputStream.isSupportedAlgorithm ("SHA-256"));
+    assertTrue (MultiDigestOutputStream.isSupportedAlgorithm ("MD5"));
+    assertTrue (MultiDigestOutputStream.isSupportedAlgorithm ("crc32"));
+    assertTrue (MultiDigestOutputStream.isSupportedAlgorithm ("Adler32"));
+    assertFalse (MultiDigestOutputStream.isSupportedAlgorithm ("NoSuchAlgorithm"));
+    assertFalse (MultiDigestOutputStream.isSupportedAlgorithm (null));
+
+    try (final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ())
+    {
+      new MultiDigestOutputStream (aBAOS, Arrays.asList ("NoSuchAlgorithm"));
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+  }
+}
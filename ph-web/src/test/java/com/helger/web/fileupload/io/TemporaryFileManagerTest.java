@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.fileupload.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.Test;
+
+import com.helger.web.fileupload.exception.DiskQuotaExceededException;
+import com.helger.web.fileupload.exception.FileUploadIOException;
+
+/**
+ * Test class for class {@link TemporaryFileManager}.
+ *
+ * @author Philip Helger
+ */
+public final class TemporaryFileManagerTest
+{
+  @Test
+  public void testSpillAndDelete () throws IOException
+  {
+    final TemporaryFileManager aMgr = new TemporaryFileManager ();
+    final File aFile = File.createTempFile ("ph-web", ".tmp");
+    try
+    {
+      // Below the threshold - nothing registered
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (10, aFile, false, aMgr))
+      {
+        aDFOS.write (new byte [5]);
+      }
+      assertEquals (0, aMgr.getTemporaryFileCount ());
+      assertEquals (0, aMgr.getCurrentDiskUsage ());
+
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (10, aFile, false, aMgr))
+      {
+        aDFOS.write (new byte [5]);
+        aDFOS.write (new byte [95]);
+        assertFalse (aDFOS.isInMemory ());
+      }
+      assertEquals (1, aMgr.getTemporaryFileCount ());
+      assertEquals (100, aMgr.getCurrentDiskUsage ());
+      assertEquals (100, aMgr.getTotalSpilledBytes ());
+      assertEquals (1, aMgr.getTotalSpilledFileCount ());
+      assertEquals (100, aFile.length ());
+
+      assertTrue (aMgr.delete (aFile).isSuccess ());
+      assertFalse (aFile.exists ());
+      assertEquals (0, aMgr.getTemporaryFileCount ());
+      assertEquals (0, aMgr.getCurrentDiskUsage ());
+      assertEquals (100, aMgr.getTotalSpilledBytes ());
+    }
+    finally
+    {
+      aFile.delete ();
+    }
+  }
+
+  @Test
+  public void testQuota () throws IOException
+  {
+    final TemporaryFileManager aMgr = new TemporaryFileManager (50);
+    final File aFile = File.createTempFile ("ph-web", ".tmp");
+    try
+    {
+      // Exceeded while writing
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (10, aFile, false, aMgr))
+      {
+        aDFOS.write (new byte [40]);
+        aDFOS.write (new byte [20]);
+        fail ();
+      }
+      catch (final FileUploadIOException ex)
+      {
+        assertTrue (ex.getCause () instanceof DiskQuotaExceededException);
+        assertEquals (50, ((DiskQuotaExceededException) ex.getCause ()).getPermittedSize ());
+      }
+      assertEquals (1, aMgr.getRejectedCount ());
+      assertEquals (40, aMgr.getCurrentDiskUsage ());
+      aMgr.deleteAll ();
+      assertEquals (0, aMgr.getCurrentDiskUsage ());
+      assertFalse (aFile.exists ());
+
+      // Rejected before the file is created
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (10, aFile, false, aMgr))
+      {
+        aDFOS.setExpectedSize (1000);
+        aDFOS.write (new byte [20]);
+        fail ();
+      }
+      catch (final FileUploadIOException ex)
+      {
+        assertTrue (ex.getCause () instanceof DiskQuotaExceededException);
+      }
+      assertEquals (2, aMgr.getRejectedCount ());
+      assertFalse (aFile.exists ());
+      assertEquals (0, aMgr.getTemporaryFileCount ());
+    }
+    finally
+    {
+      aFile.delete ();
+    }
+  }
+
+  @Test
+  public void testSweep () throws Exception
+  {
+    final TemporaryFileManager aMgr = new TemporaryFileManager ();
+    final File aFile = File.createTempFile ("ph-web", ".tmp");
+    final File aMovedFile = File.createTempFile ("ph-web", ".tmp");
+    try
+    {
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (1, aFile, false, aMgr))
+      {
+        aDFOS.write (new byte [10]);
+      }
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (1, aMovedFile, false, aMgr))
+      {
+        aDFOS.write (new byte [10]);
+      }
+      assertEquals (2, aMgr.getTemporaryFileCount ());
+
+      // Not old enough, but the moved file gets unregistered
+      aMovedFile.delete ();
+      assertEquals (0, aMgr.sweep (Duration.ofHours (1)));
+      assertEquals (1, aMgr.getTemporaryFileCount ());
+      assertEquals (10, aMgr.getCurrentDiskUsage ());
+
+      Thread.sleep (20);
+      assertEquals (1, aMgr.sweep (Duration.ofMillis (10)));
+      assertFalse (aFile.exists ());
+      assertEquals (0, aMgr.getTemporaryFileCount ());
+      assertEquals (0, aMgr.getCurrentDiskUsage ());
+      assertEquals (1, aMgr.getSweptCount ());
+
+      aMgr.startSweeper (Duration.ofMinutes (1), Duration.ofHours (1));
+      assertTrue (aMgr.isSweeperRunning ());
+      aMgr.close ();
+      assertFalse (aMgr.isSweeperRunning ());
+    }
+    finally
+    {
+      aFile.delete ();
+      aMovedFile.delete ();
+    }
+  }
+
+  @Test
+  public void testSweepSkipsFilesInProgress () throws Exception
+  {
+    final TemporaryFileManager aMgr = new TemporaryFileManager ();
+    final File aFile = File.createTempFile ("ph-web", ".tmp");
+    try
+    {
+      try (final DeferredFileOutputStream aDFOS = new DeferredFileOutputStream (1, aFile, false, aMgr))
+      {
+        aDFOS.write (new byte [10]);
+        Thread.sleep (20);
+
+        // Still being written
+        assertEquals (0, aMgr.sweep (Duration.ofMillis (10)));
+        assertTrue (aFile.exists ());
+        assertEquals (10, aMgr.getCurrentDiskUsage ());
+
+        // Writing to an already deleted file must not be accounted
+        assertTrue (aMgr.delete (aFile).isSuccess ());
+        assertEquals (0, aMgr.getCurrentDiskUsage ());
+        try
+        {
+          aDFOS.write (new byte [10]);
+          fail ();
+        }
+        catch (final IOException ex)
+        {
+          // expected
+        }
+        assertEquals (0, aMgr.getCurrentDiskUsage ());
+      }
+      assertEquals (0, aMgr.getTemporaryFileCount ());
+    }
+    finally
+    {
+      aFile.delete ();
+    }
+  }
+}
@@ -22,11 +22,13 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.jspecify.annotations.NonNull;
 import org.junit.Test;
@@ -157,6 +159,38 @@ public final class DiskFileItemTest
       }
   }
 
+  @Test
+  public void testAboveThresholdFileChannel () throws Exception
+  {
+    final DiskFileItemFactory aFactory = new DiskFileItemFactory (THRESHOLD);
+    aFactory.setUseFileChannel (true);
+
+    final byte [] aTestFieldValueBytes = _createContentBytes (THRESHOLD * 1000);
+    final DiskFileItem aItem = aFactory.createItem ("field", CT_TEXT, false, "file.txt");
+    try (final OutputStream aOS = aItem.getOutputStream ())
+    {
+      aOS.write (aTestFieldValueBytes, 0, 10);
+      aOS.write (aTestFieldValueBytes, 10, aTestFieldValueBytes.length - 10);
+    }
+    assertFalse (aItem.isInMemory ());
+    assertEquals (aTestFieldValueBytes.length, aItem.getSize ());
+    _compareBytes ("FileChannel", aTestFieldValueBytes, aItem.directGet ());
+
+    // Move to the final destination
+    final File aDstFile = new File (aItem.getTempDirectory (), "ph-web-" + System.nanoTime () + ".dst");
+    try
+    {
+      assertTrue (aItem.write (aDstFile).isSuccess ());
+      assertFalse (aItem.getStoreLocation ().exists ());
+      _compareBytes ("Moved", aTestFieldValueBytes, Files.readAllBytes (aDstFile.toPath ()));
+      assertEquals (aTestFieldValueBytes.length, aItem.getSize ());
+    }
+    finally
+    {
+      aDstFile.delete ();
+    }
+  }
+
   @Test
   public void testGetNameSecureStripsPathTraversal ()
   {
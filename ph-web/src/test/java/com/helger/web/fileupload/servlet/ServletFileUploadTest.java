@@ -16,19 +16,34 @@
  */
 package com.helger.web.fileupload.servlet;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
+import java.util.zip.CRC32;
 
 import org.junit.Test;
 
+import com.helger.base.state.EContinue;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.servlet.mock.MockHttpServletRequest;
 import com.helger.web.fileupload.IFileItem;
+import com.helger.web.fileupload.exception.FileSizeLimitExceededException;
 import com.helger.web.fileupload.exception.FileUploadException;
+import com.helger.web.fileupload.io.MultiDigestOutputStream;
+import com.helger.web.fileupload.parse.AbstractFileUploadBase;
 import com.helger.web.fileupload.parse.AbstractFileUploadTestCase;
+import com.helger.web.fileupload.parse.DiskFileItemFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * Unit tests
@@ -280,4 +295,164 @@ public final class ServletFileUploadTest extends AbstractFileUploadTestCase
     assertTrue (multi1.isFormField ());
     assertEquals ("value2", multi1.getString ());
   }
+
+  @Test
+  public void testProcessRequestStreaming () throws FileUploadException
+  {
+    final String sRequest = "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"file\"; filename=\"foo.tab\"\r\n" +
+                            "Content-Type: text/whatever\r\n" +
+                            "\r\n" +
+                            "This is the content of the file\n" +
+                            "\r\n" +
+                            "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"field\"\r\n" +
+                            "\r\n" +
+                            "fieldValue\r\n" +
+                            "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"skipped\"\r\n" +
+                            "\r\n" +
+                            "unread\r\n" +
+                            "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"last\"\r\n" +
+                            "\r\n" +
+                            "lastValue\r\n" +
+                            "-----1234--\r\n";
+    final ServletFileUpload aUpload = new ServletFileUpload (new DiskFileItemFactory (10240));
+    final HttpServletRequest aRequest = new MockHttpServletRequest ().setContent (sRequest.getBytes (StandardCharsets.US_ASCII))
+                                                                     .setContentType (CONTENT_TYPE);
+    final ICommonsList <String> aValues = new CommonsArrayList <> ();
+    final int nItems = aUpload.processRequest (aRequest, (aItem, aIS) -> {
+      if (aItem.getFieldName ().equals ("skipped"))
+      {
+        // Unread content must be skipped
+        return EContinue.CONTINUE;
+      }
+      aValues.add (aItem.getFieldName () +
+                   "=" +
+                   new String (aIS.readAllBytes (), StandardCharsets.US_ASCII) +
+                   "/" +
+                   aItem.isFormField ());
+      return aItem.getFieldName ().equals ("last") ? EContinue.BREAK : EContinue.CONTINUE;
+    });
+    assertEquals (4, nItems);
+    assertEquals (new CommonsArrayList <> ("file=This is the content of the file\n/false",
+                                           "field=fieldValue/true",
+                                           "last=lastValue/true"),
+                  aValues);
+
+    // Break after the first item
+    final HttpServletRequest aRequest2 = new MockHttpServletRequest ().setContent (sRequest.getBytes (StandardCharsets.US_ASCII))
+                                                                      .setContentType (CONTENT_TYPE);
+    assertEquals (1, aUpload.processRequest (aRequest2, (aItem, aIS) -> EContinue.BREAK));
+
+    // Size limits are still enforced
+    aUpload.setFileSizeMax (10);
+    final HttpServletRequest aRequest3 = new MockHttpServletRequest ().setContent (sRequest.getBytes (StandardCharsets.US_ASCII))
+                                                                      .setContentType (CONTENT_TYPE);
+    try
+    {
+      aUpload.processRequest (aRequest3, (aItem, aIS) -> {
+        aIS.readAllBytes ();
+        return EContinue.CONTINUE;
+      });
+      fail ();
+    }
+    catch (final FileSizeLimitExceededException ex)
+    {
+      assertEquals (10, ex.getPermittedSize ());
+    }
+  }
+
+  @Test
+  public void testDigests () throws Exception
+  {
+    final String sRequest = "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"file\"; filename=\"foo.tab\"\r\n" +
+                            "Content-Type: text/whatever\r\n" +
+                            "\r\n" +
+                            "This is the content of the file\n" +
+                            "\r\n" +
+                            "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"field\"\r\n" +
+                            "\r\n" +
+                            "fieldValue\r\n" +
+                            "-----1234--\r\n";
+    final ServletFileUpload aUpload = new ServletFileUpload (new DiskFileItemFactory (10240));
+    aUpload.setDigestAlgorithms ("SHA-256", MultiDigestOutputStream.ALGORITHM_CRC32);
+    final HttpServletRequest aRequest = new MockHttpServletRequest ().setContent (sRequest.getBytes (StandardCharsets.US_ASCII))
+                                                                     .setContentType (CONTENT_TYPE);
+    final List <IFileItem> aFileItems = aUpload.parseRequest (aRequest);
+    assertEquals (2, aFileItems.size ());
+
+    final IFileItem aFile = aFileItems.get (0);
+    final byte [] aContent = "This is the content of the file\n".getBytes (StandardCharsets.US_ASCII);
+    assertEquals (2, aFile.getAllDigests ().size ());
+    assertArrayEquals (MessageDigest.getInstance ("SHA-256").digest (aContent), aFile.getDigest ("SHA-256"));
+    final CRC32 aCRC = new CRC32 ();
+    aCRC.update (aContent);
+    assertEquals (aCRC.getValue (), new BigInteger (1, aFile.getDigest (MultiDigestOutputStream.ALGORITHM_CRC32)).longValue ());
+
+    // Returned digests are copies
+    aFile.getDigest ("SHA-256")[0]++;
+    aFile.getAllDigests ().get ("SHA-256")[0]++;
+    assertArrayEquals (MessageDigest.getInstance ("SHA-256").digest (aContent), aFile.getDigest ("SHA-256"));
+
+    // No digests for form fields
+    assertTrue (aFileItems.get (1).getAllDigests ().isEmpty ());
+
+    try
+    {
+      aUpload.setDigestAlgorithms ("NoSuchAlgorithm");
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+  }
+  @Test
+  public void testBufferSize () throws Exception
+  {
+    final String sRequest = "-----1234\r\n" +
+                            "Content-Disposition: form-data; name=\"file\"; filename=\"foo.tab\"\r\n" +
+                            "Content-Type: text/whatever\r\n" +
+                            "\r\n" +
+                            "This is the content of the file\n" +
+                            "\r\n" +
+                            "-----1234--\r\n";
+    final ServletFileUpload aUpload = new ServletFileUpload (new DiskFileItemFactory (10240));
+    try
+    {
+      aUpload.setBufferSize (AbstractFileUploadBase.MIN_BUFFER_SIZE - 1);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+
+    // Smallest buffer size works
+    aUpload.setBufferSize (AbstractFileUploadBase.MIN_BUFFER_SIZE);
+    final HttpServletRequest aRequest = new MockHttpServletRequest ().setContent (sRequest.getBytes (StandardCharsets.US_ASCII))
+                                                                     .setContentType (CONTENT_TYPE);
+    final List <IFileItem> aFileItems = aUpload.parseRequest (aRequest);
+    assertEquals (1, aFileItems.size ());
+    assertEquals ("This is the content of the file\n", aFileItems.get (0).getString ());
+
+    // Boundary does not fit into the buffer
+    final String sBoundary = "-".repeat (AbstractFileUploadBase.MIN_BUFFER_SIZE);
+    final HttpServletRequest aRequest2 = new MockHttpServletRequest ().setContent (sRequest.getBytes (StandardCharsets.US_ASCII))
+                                                                      .setContentType ("multipart/form-data; boundary=" +
+                                                                                       sBoundary);
+    try
+    {
+      aUpload.parseRequest (aRequest2);
+      fail ();
+    }
+    catch (final FileUploadException ex)
+    {
+      // expected
+    }
+  }
 }
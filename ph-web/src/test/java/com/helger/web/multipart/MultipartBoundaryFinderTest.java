@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.multipart;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link MultipartBoundaryFinderSimple} and
+ * {@link MultipartBoundaryFinderHorspool}.
+ *
+ * @author Philip Helger
+ */
+public final class MultipartBoundaryFinderTest
+{
+  private static void _check (final byte [] aBoundary, final byte [] aBuffer, final int nHead, final int nTail)
+  {
+    final IMultipartBoundaryFinder aSimple = new MultipartBoundaryFinderSimple ();
+    final IMultipartBoundaryFinder aHorspool = new MultipartBoundaryFinderHorspool ();
+    aSimple.setBoundary (aBoundary, aBoundary.length);
+    aHorspool.setBoundary (aBoundary, aBoundary.length);
+    assertEquals (aSimple.findBoundary (aBuffer, nHead, nTail), aHorspool.findBoundary (aBuffer, nHead, nTail));
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final byte [] aBoundary = "\r\n--boundary".getBytes (StandardCharsets.ISO_8859_1);
+    for (final IMultipartBoundaryFinder aFinder : new IMultipartBoundaryFinder [] { new MultipartBoundaryFinderSimple (),
+                                                                                     new MultipartBoundaryFinderHorspool () })
+    {
+      aFinder.setBoundary (aBoundary, aBoundary.length);
+
+      byte [] aBuffer = "abc\r\n--boundary\r\n".getBytes (StandardCharsets.ISO_8859_1);
+      assertEquals (3, aFinder.findBoundary (aBuffer, 0, aBuffer.length));
+      assertEquals (3, aFinder.findBoundary (aBuffer, 3, aBuffer.length));
+      assertEquals (-1, aFinder.findBoundary (aBuffer, 4, aBuffer.length));
+      // Boundary not fully contained
+      assertEquals (-1, aFinder.findBoundary (aBuffer, 0, 14));
+      assertEquals (3, aFinder.findBoundary (aBuffer, 0, 15));
+
+      // Partial matches before the real one
+      aBuffer = "\r\n--boundar\r\n--bound\r\n--boundary".getBytes (StandardCharsets.ISO_8859_1);
+      assertEquals (20, aFinder.findBoundary (aBuffer, 0, aBuffer.length));
+
+      // Empty region
+      assertEquals (-1, aFinder.findBoundary (aBuffer, 5, 5));
+
+      // Only a shorter prefix of the array is the effective boundary
+      aFinder.setBoundary ("--boundaryXX".getBytes (StandardCharsets.ISO_8859_1), 10);
+      aBuffer = "xx--boundary--".getBytes (StandardCharsets.ISO_8859_1);
+      assertEquals (2, aFinder.findBoundary (aBuffer, 0, aBuffer.length));
+    }
+  }
+
+  @Test
+  public void testRandom ()
+  {
+    final Random aRandom = new Random (4711);
+    for (int nRun = 0; nRun < 500; ++nRun)
+    {
+      // Use a tiny alphabet to get many partial matches
+      final byte [] aBoundary = new byte [1 + aRandom.nextInt (12)];
+      for (int i = 0; i < aBoundary.length; ++i)
+        aBoundary[i] = (byte) ('a' + aRandom.nextInt (3));
+
+      final byte [] aBuffer = new byte [aRandom.nextInt (300)];
+      for (int i = 0; i < aBuffer.length; ++i)
+        aBuffer[i] = (byte) ('a' + aRandom.nextInt (3));
+      if (aBuffer.length > aBoundary.length && aRandom.nextBoolean ())
+        System.arraycopy (aBoundary,
+                          0,
+                          aBuffer,
+                          aRandom.nextInt (aBuffer.length - aBoundary.length),
+                          aBoundary.length);
+
+      final int nHead = aBuffer.length == 0 ? 0 : aRandom.nextInt (aBuffer.length);
+      _check (aBoundary, aBuffer, nHead, aBuffer.length);
+      _check (aBoundary, aBuffer, 0, aBuffer.length);
+    }
+  }
+
+  @Test
+  public void testHighBytes ()
+  {
+    final byte [] aBoundary = { (byte) 0xff, (byte) 0x80, 0x00, (byte) 0xfe };
+    final byte [] aBuffer = { 1, (byte) 0xff, (byte) 0xff, (byte) 0x80, 0x00, (byte) 0xfe, 5 };
+    _check (aBoundary, aBuffer, 0, aBuffer.length);
+
+    final IMultipartBoundaryFinder aFinder = new MultipartBoundaryFinderHorspool ();
+    aFinder.setBoundary (aBoundary, aBoundary.length);
+    assertEquals (2, aFinder.findBoundary (aBuffer, 0, aBuffer.length));
+  }
+}
@@ -17,14 +17,21 @@
 package com.helger.web.scope.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.StandardCharsets;
 
+import org.junit.Rule;
 import org.junit.Test;
 
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
 import com.helger.web.scope.impl.RequestWebScope.IParamValueCleanser;
+import com.helger.web.scope.mock.WebScopeTestRule;
 
 /**
  * Test class for class {@link RequestWebScope}
@@ -33,6 +40,9 @@ import com.helger.web.scope.impl.RequestWebScope.IParamValueCleanser;
  */
 public final class RequestWebScopeTest
 {
+  @Rule
+  public final WebScopeTestRule m_aRule = new WebScopeTestRule ();
+
   @Test
   public void testGetWithoutForbiddenChars ()
   {
@@ -77,4 +87,56 @@ public final class RequestWebScopeTest
     assertEquals (1, sCleaned.length ());
     assertEquals ("Ö", sCleaned);
   }
+
+  @Test
+  public void testNoAllocationIfUnchanged ()
+  {
+    // Same instance must be returned if nothing changes
+    for (final String s : new String [] { "", "abc", " a b c ", "äöü", "\u00d6", "\t\r\n", "\ud83d\ude00" })
+    {
+      assertSame (s, RequestWebScope.getWithoutForbiddenChars (s));
+      assertSame (s, RequestWebScope.getWithoutForbiddenCharsAndNormalized (s));
+    }
+
+    // Normalization is still applied
+    assertEquals ("\u00d6", RequestWebScope.getWithoutForbiddenCharsAndNormalized ("O\u0308"));
+    assertEquals ("fi", RequestWebScope.getWithoutForbiddenCharsAndNormalized ("\ufb01"));
+    assertEquals ("\u00d6", RequestWebScope.getWithoutForbiddenCharsAndNormalized ("\u0000O\u0308\u007f"));
+
+    // Forbidden char at the start and at the end
+    assertEquals ("abc", RequestWebScope.getWithoutForbiddenChars ("\u0001abc"));
+    assertEquals ("abc", RequestWebScope.getWithoutForbiddenChars ("abc\uffff"));
+  }
+
+  @Test
+  public void testLazyParams ()
+  {
+    final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+    aRequest.addParameter ("a", "x\u0000y");
+    aRequest.addParameter ("b", "...");
+
+    RequestWebScope.setLazyParamsServletPathFilter (x -> true);
+    try
+    {
+      final RequestWebScope aRequestScope = new RequestWebScope (aRequest, new MockHttpServletResponse ());
+      aRequestScope.initScope ();
+      assertTrue (aRequestScope.isParamsPending ());
+
+      // First access copies the parameters
+      assertEquals (2, aRequestScope.params ().size ());
+      assertFalse (aRequestScope.isParamsPending ());
+      assertEquals ("xy", aRequestScope.params ().getAsString ("a"));
+      assertEquals ("...", aRequestScope.params ().getAsString ("b"));
+    }
+    finally
+    {
+      RequestWebScope.setLazyParamsServletPathFilter (null);
+    }
+
+    // Eager again
+    final RequestWebScope aRequestScope = new RequestWebScope (aRequest, new MockHttpServletResponse ());
+    aRequestScope.initScope ();
+    assertFalse (aRequestScope.isParamsPending ());
+    assertEquals (2, aRequestScope.params ().size ());
+  }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.web.supplementary.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.CGlobal;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.base.timing.StopWatch;
+import com.helger.web.multipart.IMultipartBoundaryFinder;
+import com.helger.web.multipart.MultipartBoundaryFinderHorspool;
+import com.helger.web.multipart.MultipartBoundaryFinderSimple;
+import com.helger.web.multipart.MultipartProgressNotifier;
+import com.helger.web.multipart.MultipartStream;
+
+/**
+ * Small tool to compare the different {@link IMultipartBoundaryFinder}
+ * implementations and buffer sizes on a payload with many small form fields
+ * and on a payload with a single large file.
+ *
+ * @author Philip Helger
+ */
+public final class MainMultipartBoundaryFinderBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainMultipartBoundaryFinderBenchmark.class);
+  private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+  private static byte [] _createPayload (final int nParts, final int nPartSize) throws IOException
+  {
+    final Random aRandom = new Random (12345);
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      final byte [] aData = new byte [nPartSize];
+      for (int i = 0; i < nParts; ++i)
+      {
+        aBAOS.write (("--" +
+                      BOUNDARY +
+                      "\r\nContent-Disposition: form-data; name=\"field" +
+                      i +
+                      "\"\r\n\r\n").getBytes (StandardCharsets.ISO_8859_1));
+        aRandom.nextBytes (aData);
+        aBAOS.write (aData);
+        aBAOS.write ("\r\n".getBytes (StandardCharsets.ISO_8859_1));
+      }
+      aBAOS.write (("--" + BOUNDARY + "--\r\n").getBytes (StandardCharsets.ISO_8859_1));
+      return aBAOS.toByteArray ();
+    }
+  }
+
+  private static long _parse (final byte [] aPayload,
+                              final int nBufSize,
+                              final Supplier <? extends IMultipartBoundaryFinder> aFinderFactory) throws IOException
+  {
+    final MultipartStream aMS = new MultipartStream (new NonBlockingByteArrayInputStream (aPayload),
+                                                     BOUNDARY.getBytes (StandardCharsets.ISO_8859_1),
+                                                     nBufSize,
+                                                     new MultipartProgressNotifier (null, aPayload.length),
+                                                     aFinderFactory.get ());
+    long nTotal = 0;
+    boolean bNextPart = aMS.skipPreamble ();
+    while (bNextPart)
+    {
+      aMS.readHeaders ();
+      nTotal += aMS.readBodyData ();
+      bNextPart = aMS.readBoundary ();
+    }
+    return nTotal;
+  }
+
+  private static void _run (final String sName,
+                            final byte [] aPayload,
+                            final int nRuns,
+                            final int nBufSize,
+                            final Supplier <? extends IMultipartBoundaryFinder> aFinderFactory) throws IOException
+  {
+    // Warm up
+    for (int i = 0; i < nRuns / 10 + 1; ++i)
+      _parse (aPayload, nBufSize, aFinderFactory);
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    long nBytes = 0;
+    for (int i = 0; i < nRuns; ++i)
+      nBytes += _parse (aPayload, nBufSize, aFinderFactory);
+    aSW.stop ();
+
+    final long nMillis = Math.max (1, aSW.getMillis ());
+    LOGGER.info (sName +
+                 " [buffer " +
+                 nBufSize +
+                 "]: " +
+                 nRuns +
+                 " runs in " +
+                 nMillis +
+                 " ms = " +
+                 (nBytes / CGlobal.BYTES_PER_MEGABYTE * CGlobal.MILLISECONDS_PER_SECOND / nMillis) +
+                 " MB/s");
+  }
+
+  public static void main (final String [] args) throws IOException
+  {
+    final byte [] aSmallFields = _createPayload (500, 20);
+    final byte [] aLargeFile = _createPayload (1, 200 * CGlobal.BYTES_PER_MEGABYTE);
+
+    for (final int nBufSize : new int [] { MultipartStream.DEFAULT_BUFSIZE, 64 * CGlobal.BYTES_PER_KILOBYTE })
+    {
+      _run ("Small fields, simple", aSmallFields, 5_000, nBufSize, MultipartBoundaryFinderSimple::new);
+      _run ("Small fields, Horspool", aSmallFields, 5_000, nBufSize, MultipartBoundaryFinderHorspool::new);
+      _run ("Large file, simple", aLargeFile, 5, nBufSize, MultipartBoundaryFinderSimple::new);
+      _run ("Large file, Horspool", aLargeFile, 5, nBufSize, MultipartBoundaryFinderHorspool::new);
+    }
+  }
+}
@@ -18,6 +18,7 @@ package com.helger.xservlet;
 
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 
@@ -26,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.OverridingMethodsMustInvokeSuper;
+import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.concurrent.NotThreadSafe;
 import com.helger.annotation.style.OverrideOnDemand;
 import com.helger.annotation.style.ReturnsMutableObject;
@@ -37,6 +39,7 @@ import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
 import com.helger.http.CHttp;
 import com.helger.http.CHttpHeader;
+import com.helger.http.EHttpReferrerPolicy;
 import com.helger.http.EHttpMethod;
 import com.helger.http.EHttpVersion;
 import com.helger.scope.mgr.ScopeManager;
@@ -46,10 +49,12 @@ import com.helger.servlet.ServletSettings;
 import com.helger.servlet.StaticServerInfo;
 import com.helger.servlet.http.CountingOnlyHttpServletResponse;
 import com.helger.servlet.request.RequestLogger;
+import com.helger.servlet.response.EXFrameOptionType;
 import com.helger.servlet.response.StatusAwareHttpResponseWrapper;
 import com.helger.statistics.api.IMutableStatisticsHandlerCounter;
 import com.helger.statistics.api.IMutableStatisticsHandlerKeyedCounter;
 import com.helger.statistics.impl.StatisticsManager;
+import com.helger.url.ISimpleURL;
 import com.helger.web.scope.IRequestWebScope;
 import com.helger.web.scope.impl.RequestWebScope;
 import com.helger.web.scope.multipart.RequestWebScopeMultipart;
@@ -117,6 +122,70 @@ public abstract class AbstractXServlet extends HttpServlet
 
   private static final Logger LOGGER = LoggerFactory.getLogger (AbstractXServlet.class);
 
+  /**
+   * The effective filters of a servlet, compiled from the settings and the custom filter lists.
+   * The source values are remembered, so that changes can be detected without building any list.
+   */
+  @Immutable
+  private static final class CompiledFilterChain
+  {
+    private final EHttpReferrerPolicy m_eHttpReferrerPolicy;
+    private final EXFrameOptionType m_eXFrameOptionsType;
+    private final ISimpleURL m_aXFrameOptionsDomain;
+    private final IXServletLowLevelFilter [] m_aCustomLowLevelFilters;
+    // The custom high-level filters are the effective ones
+    private final IXServletHighLevelFilter [] m_aHighLevelFilters;
+    private final IXServletLowLevelFilter [] m_aLowLevelFilters;
+
+    CompiledFilterChain (@NonNull final XServletSettings aSettings,
+                         @NonNull final List <IXServletLowLevelFilter> aCustomLowLevelFilters,
+                         @NonNull final List <IXServletHighLevelFilter> aCustomHighLevelFilters)
+    {
+      m_eHttpReferrerPolicy = aSettings.getHttpReferrerPolicy ();
+      m_eXFrameOptionsType = aSettings.getXFrameOptionsType ();
+      m_aXFrameOptionsDomain = aSettings.getXFrameOptionsDomain ();
+      m_aCustomLowLevelFilters = aCustomLowLevelFilters.toArray (new IXServletLowLevelFilter [0]);
+      m_aHighLevelFilters = aCustomHighLevelFilters.toArray (new IXServletHighLevelFilter [0]);
+
+      final ICommonsList <IXServletLowLevelFilter> aEffectiveFilterList = new CommonsArrayList <> (4 +
+                                                                                                   m_aCustomLowLevelFilters.length);
+      // Add internal filters - always first
+      aEffectiveFilterList.add (XServletFilterSecurityPoxy.INSTANCE);
+      aEffectiveFilterList.add (XServletFilterConsistency.INSTANCE);
+      if (m_eHttpReferrerPolicy != null)
+        aEffectiveFilterList.add (new XServletFilterSecurityHttpReferrerPolicy (m_eHttpReferrerPolicy));
+      if (m_eXFrameOptionsType != null)
+        aEffectiveFilterList.add (new XServletFilterSecurityXFrameOptions (m_eXFrameOptionsType, m_aXFrameOptionsDomain));
+      // Add custom filters
+      aEffectiveFilterList.addAll (aCustomLowLevelFilters);
+      m_aLowLevelFilters = aEffectiveFilterList.toArray (new IXServletLowLevelFilter [0]);
+    }
+
+    private static <T> boolean _isSame (@NonNull final T [] aArray, @NonNull final List <T> aList)
+    {
+      final int nSize = aArray.length;
+      if (nSize != aList.size ())
+        return false;
+      for (int i = 0; i < nSize; ++i)
+        if (aArray[i] != aList.get (i))
+          return false;
+      return true;
+    }
+
+    boolean isUpToDate (@NonNull final XServletSettings aSettings,
+                        @NonNull final List <IXServletLowLevelFilter> aCustomLowLevelFilters,
+                        @NonNull final List <IXServletHighLevelFilter> aCustomHighLevelFilters)
+    {
+      // Identity comparison is sufficient, as the settings don't modify the
+      // objects
+      return m_eHttpReferrerPolicy == aSettings.getHttpReferrerPolicy () &&
+             m_eXFrameOptionsType == aSettings.getXFrameOptionsType () &&
+             m_aXFrameOptionsDomain == aSettings.getXFrameOptionsDomain () &&
+             _isSame (m_aCustomLowLevelFilters, aCustomLowLevelFilters) &&
+             _isSame (m_aHighLevelFilters, aCustomHighLevelFilters);
+    }
+  }
+
   private final IMutableStatisticsHandlerCounter m_aCounterRequestsTotal = StatisticsManager.getCounterHandler (getClass ().getName () +
                                                                                                                 "$requests.total");
   private final IMutableStatisticsHandlerCounter m_aCounterRequestsAccepted = StatisticsManager.getCounterHandler (getClass ().getName () +
@@ -147,6 +216,8 @@ public abstract class AbstractXServlet extends HttpServlet
   private final ICommonsList <IXServletHighLevelFilter> m_aFilterHighLevelList = new CommonsArrayList <> ();
   private final CallbackList <IXServletExceptionHandler> m_aExceptionHandler = new CallbackList <> ();
   private final XServletSettings m_aSettings = new XServletSettings ();
+  // Lazily compiled from the settings and the filter lists
+  private volatile CompiledFilterChain m_aFilterChain;
 
   // Status variables
   // Remember to avoid crash on shutdown, when no GlobalScope is present
@@ -302,6 +373,36 @@ public abstract class AbstractXServlet extends HttpServlet
     super.destroy ();
   }
 
+  /**
+   * @return The effective filter chain. It is only recompiled, if the settings or the filter lists
+   *         changed since the last request.
+   */
+  @NonNull
+  private CompiledFilterChain _getFilterChain ()
+  {
+    CompiledFilterChain ret = m_aFilterChain;
+    if (ret == null || !ret.isUpToDate (m_aSettings, m_aFilterLowLevelList, m_aFilterHighLevelList))
+    {
+      // Concurrent compilation is harmless, as the result is the same
+      ret = new CompiledFilterChain (m_aSettings, m_aFilterLowLevelList, m_aFilterHighLevelList);
+      m_aFilterChain = ret;
+    }
+    return ret;
+  }
+
+  private static void _afterRequest (@NonNull final IXServletHighLevelFilter aFilter,
+                                     @NonNull final IRequestWebScope aRequestScope)
+  {
+    try
+    {
+      aFilter.afterRequest (aRequestScope);
+    }
+    catch (final Exception ex)
+    {
+      LOGGER.error ("Exception in high-level filter afterRequest of " + aFilter + " - caught and ignored", ex);
+    }
+  }
+
   private void _invokeHandler (@NonNull final HttpServletRequest aHttpRequest,
                                @NonNull final HttpServletResponse aHttpResponse,
                                @NonNull final EHttpVersion eHttpVersion,
@@ -328,18 +429,17 @@ public abstract class AbstractXServlet extends HttpServlet
       return;
     }
     // HTTP method is supported by this servlet implementation
-    final ICommonsList <IXServletHighLevelFilter> aEffectiveFilters = new CommonsArrayList <> (2 +
-                                                                                               m_aFilterHighLevelList.size ());
-    // Add new instance all the time!
-    aEffectiveFilters.add (new XServletFilterTimer (this));
-    // Add new instance all the time!
-    aEffectiveFilters.add (new XServletFilterTrackRequest ());
-    aEffectiveFilters.addAll (m_aFilterHighLevelList);
+    final IXServletHighLevelFilter [] aCustomFilters = _getFilterChain ().m_aHighLevelFilters;
+    // These filters are stateful - new instance all the time!
+    final IXServletHighLevelFilter aTimerFilter = new XServletFilterTimer (this);
+    final IXServletHighLevelFilter aTrackRequestFilter = new XServletFilterTrackRequest ();
 
     try
     {
       // High level filters before
-      for (final IXServletHighLevelFilter aFilter : aEffectiveFilters)
+      aTimerFilter.beforeRequest (aRequestScope);
+      aTrackRequestFilter.beforeRequest (aRequestScope);
+      for (final IXServletHighLevelFilter aFilter : aCustomFilters)
         aFilter.beforeRequest (aRequestScope);
 
       // This may indirectly call "_internalService" again (e.g. for HEAD
@@ -395,15 +495,10 @@ public abstract class AbstractXServlet extends HttpServlet
     finally
     {
       // High level filters after
-      for (final IXServletHighLevelFilter aFilter : aEffectiveFilters)
-        try
-        {
-          aFilter.afterRequest (aRequestScope);
-        }
-        catch (final Exception ex)
-        {
-          LOGGER.error ("Exception in high-level filter afterRequest of " + aFilter + " - caught and ignored", ex);
-        }
+      _afterRequest (aTimerFilter, aRequestScope);
+      _afterRequest (aTrackRequestFilter, aRequestScope);
+      for (final IXServletHighLevelFilter aFilter : aCustomFilters)
+        _afterRequest (aFilter, aRequestScope);
     }
   }
 
@@ -486,19 +581,8 @@ public abstract class AbstractXServlet extends HttpServlet
     // Create a wrapper around the Servlet Response that saves the status code
     final StatusAwareHttpResponseWrapper aHttpResponseWrapper = StatusAwareHttpResponseWrapper.wrap (aHttpResponse);
 
-    // Create effective filter list with all internal filters as well
-    final ICommonsList <IXServletLowLevelFilter> aEffectiveFilterList = new CommonsArrayList <> (4 +
-                                                                                                 m_aFilterLowLevelList.size ());
-    // Add internal filters - always first
-    aEffectiveFilterList.add (XServletFilterSecurityPoxy.INSTANCE);
-    aEffectiveFilterList.add (XServletFilterConsistency.INSTANCE);
-    if (m_aSettings.hasHttpReferrerPolicy ())
-      aEffectiveFilterList.add (new XServletFilterSecurityHttpReferrerPolicy (m_aSettings.getHttpReferrerPolicy ()));
-    if (m_aSettings.hasXFrameOptions ())
-      aEffectiveFilterList.add (new XServletFilterSecurityXFrameOptions (m_aSettings.getXFrameOptionsType (),
-                                                                         m_aSettings.getXFrameOptionsDomain ()));
-    // Add custom filters
-    aEffectiveFilterList.addAll (m_aFilterLowLevelList);
+    // Effective filter list with all internal filters as well
+    final IXServletLowLevelFilter [] aEffectiveFilterList = _getFilterChain ().m_aLowLevelFilters;
 
     // Filter before request scope is created!
     boolean bInvokeHandler = true;
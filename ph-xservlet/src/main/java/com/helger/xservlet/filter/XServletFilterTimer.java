@@ -16,35 +16,42 @@
  */
 package com.helger.xservlet.filter;
 
+import java.util.concurrent.TimeUnit;
+
 import org.jspecify.annotations.NonNull;
 
-import com.helger.base.timing.StopWatch;
 import com.helger.http.EHttpMethod;
 import com.helger.statistics.api.IMutableStatisticsHandlerKeyedTimer;
 import com.helger.statistics.impl.StatisticsManager;
 import com.helger.web.scope.IRequestWebScope;
 import com.helger.xservlet.AbstractXServlet;
+import com.helger.xservlet.latency.XServletLatencyManager;
 
 /**
  * A special filter that performs timing of servlet execution. Each servlet
- * request requires it's own instance of this class!
+ * request requires it's own instance of this class!<br>
+ * Since v11.4.3 the duration is additionally recorded with nanosecond
+ * precision per HTTP method and response status class in the
+ * {@link XServletLatencyManager}.
  *
  * @author Philip Helger
  * @since 9.0.0
  */
 public final class XServletFilterTimer implements IXServletHighLevelFilter
 {
+  private final String m_sServletName;
   private final IMutableStatisticsHandlerKeyedTimer m_aTimer;
-  private StopWatch m_aSW;
+  private long m_nStartNanos;
 
   public XServletFilterTimer (@NonNull final AbstractXServlet aServlet)
   {
-    m_aTimer = StatisticsManager.getKeyedTimerHandler (aServlet.getClass ().getName ());
+    m_sServletName = aServlet.getClass ().getName ();
+    m_aTimer = StatisticsManager.getKeyedTimerHandler (m_sServletName);
   }
 
   public void beforeRequest (@NonNull final IRequestWebScope aRequestScope)
   {
-    m_aSW = StopWatch.createdStarted ();
+    m_nStartNanos = System.nanoTime ();
   }
 
   public void afterRequest (@NonNull final IRequestWebScope aRequestScope)
@@ -52,6 +59,13 @@ public final class XServletFilterTimer implements IXServletHighLevelFilter
     // Timer per HTTP method
     final EHttpMethod eMethod = aRequestScope.getHttpMethod ();
     if (eMethod != null)
-      m_aTimer.addTime (eMethod.getName (), m_aSW.stopAndGetMillis ());
+    {
+      final long nDurationNanos = System.nanoTime () - m_nStartNanos;
+      m_aTimer.addTime (eMethod.getName (), TimeUnit.NANOSECONDS.toMillis (nDurationNanos));
+      XServletLatencyManager.recordLatency (m_sServletName,
+                                            eMethod,
+                                            aRequestScope.getResponse ().getStatus (),
+                                            nDurationNanos);
+    }
   }
 }
@@ -33,6 +33,7 @@ import com.helger.servlet.async.IAsyncServletRunner;
 import com.helger.servlet.async.ServletAsyncSpec;
 import com.helger.typeconvert.collection.IAttributeContainerAny;
 import com.helger.web.scope.IRequestWebScope;
+import com.helger.web.scope.impl.RequestWebScope;
 import com.helger.web.scope.mgr.WebScoped;
 import com.helger.xservlet.AbstractXServlet;
 
@@ -95,6 +96,29 @@ public final class XServletAsyncHandler implements IXServletHandler
     m_aNestedHandler.onServletDestroy ();
   }
 
+  /**
+   * Check if the request parameters of the original request scope need to be
+   * copied to the request scope of the asynchronous execution. This is not the
+   * case if the parameters are still pending, because then they were neither
+   * read nor modified and the new scope reads them from the HTTP request
+   * itself. Special parameters (e.g. uploaded files) were read from the request
+   * body and always need to be copied.
+   *
+   * @param aRequestScope
+   *        The original request scope. May not be <code>null</code>.
+   * @return <code>true</code> if the parameters need to be copied.
+   * @since 11.4.3
+   */
+  static boolean isParamsHandOverNeeded (@NonNull final IRequestWebScope aRequestScope)
+  {
+    if (!(aRequestScope instanceof RequestWebScope))
+      return true;
+
+    final RequestWebScope aScope = (RequestWebScope) aRequestScope;
+    // The request body cannot be read a second time
+    return !aScope.isParamsPending () || aScope.isAddedSpecialRequestParams ();
+  }
+
   private void _handleAsync (@NonNull final HttpServletRequest aHttpRequest,
                              @NonNull final HttpServletResponse aHttpResponse,
                              @NonNull final EHttpVersion eHttpVersion,
@@ -109,7 +133,11 @@ public final class XServletAsyncHandler implements IXServletHandler
 
     // Remember outside before it is too late :)
     final IAttributeContainerAny <String> aAttrs = aRequestScope.attrs ().getClone ();
-    final IAttributeContainerAny <String> aParams = aRequestScope.params ().getClone ();
+    // Parameters that were never accessed are read again from the HTTP request
+    // by the new scope, so there is nothing to hand over
+    final IAttributeContainerAny <String> aParams = isParamsHandOverNeeded (aRequestScope) ? aRequestScope.params ()
+                                                                                                           .getClone ()
+                                                                                                         : null;
 
     // Put into async processing queue
     s_aAsyncServletRunner.runAsync (aHttpRequest, aHttpResponse, aExtAsyncCtx, () -> {
@@ -117,7 +145,8 @@ public final class XServletAsyncHandler implements IXServletHandler
       {
         // Restore all attributes (display locale etc.) that are missing
         aWebScoped.getRequestScope ().attrs ().putAllIn (aAttrs);
-        aWebScoped.getRequestScope ().params ().putAllIn (aParams);
+        if (aParams != null && aParams.isNotEmpty ())
+          aWebScoped.getRequestScope ().params ().putAllIn (aParams);
 
         m_aNestedHandler.onRequest (aExtAsyncCtx.getRequest (),
                                     aExtAsyncCtx.getResponse (),
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A lock-free latency histogram with nanosecond resolution. Values below 64 are recorded exactly,
+ * larger values are recorded in log-linear buckets with 32 sub-buckets per power of two, so the
+ * relative error of a reported value is at most approx. 3%. Values larger than
+ * {@link #MAX_TRACKABLE_NANOS} are recorded as that value.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public final class LatencyHistogram
+{
+  /** The largest value that can be tracked (approx. 18 minutes) */
+  public static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_COUNT = SUB_BUCKET_COUNT * 2;
+  static final int BUCKET_COUNT = getBucketIndex (MAX_TRACKABLE_NANOS) + 1;
+
+  private final AtomicLongArray m_aCounts = new AtomicLongArray (BUCKET_COUNT);
+  private final LongAdder m_aSum = new LongAdder ();
+  private final AtomicLong m_aMax = new AtomicLong (0);
+
+  public LatencyHistogram ()
+  {}
+
+  static int getBucketIndex (@Nonnegative final long nValue)
+  {
+    if (nValue < LINEAR_COUNT)
+      return (int) nValue;
+    final int nExponent = 63 - Long.numberOfLeadingZeros (nValue);
+    final int nShift = nExponent - SUB_BUCKET_BITS;
+    final int nSubBucket = (int) (nValue >>> nShift) - SUB_BUCKET_COUNT;
+    return LINEAR_COUNT + (nShift - 1) * SUB_BUCKET_COUNT + nSubBucket;
+  }
+
+  /**
+   * @param nIndex
+   *        Bucket index
+   * @return The highest value that is recorded in the provided bucket.
+   */
+  static long getHighestEquivalentValue (@Nonnegative final int nIndex)
+  {
+    if (nIndex < LINEAR_COUNT)
+      return nIndex;
+    final int nShift = (nIndex - LINEAR_COUNT) / SUB_BUCKET_COUNT + 1;
+    final int nSubBucket = (nIndex - LINEAR_COUNT) % SUB_BUCKET_COUNT;
+    return ((long) (SUB_BUCKET_COUNT + nSubBucket) << nShift) + (1L << nShift) - 1;
+  }
+
+  /**
+   * Record a single duration.
+   *
+   * @param nNanos
+   *        The duration in nanoseconds. Negative values are recorded as 0.
+   */
+  public void record (final long nNanos)
+  {
+    final long nValue = Math.min (Math.max (nNanos, 0), MAX_TRACKABLE_NANOS);
+    m_aCounts.incrementAndGet (getBucketIndex (nValue));
+    m_aSum.add (nValue);
+
+    long nMax = m_aMax.get ();
+    while (nValue > nMax && !m_aMax.compareAndSet (nMax, nValue))
+      nMax = m_aMax.get ();
+  }
+
+  /**
+   * Add the recorded values of this histogram to the provided bucket array.
+   *
+   * @param aCounts
+   *        Target array with {@link #BUCKET_COUNT} elements.
+   */
+  void addCountsTo (@NonNull final long [] aCounts)
+  {
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+      aCounts[i] += m_aCounts.get (i);
+  }
+
+  @Nonnegative
+  long getSumNanos ()
+  {
+    return m_aSum.sum ();
+  }
+
+  @Nonnegative
+  long getMaxNanos ()
+  {
+    return m_aMax.get ();
+  }
+
+  /**
+   * @return A consistent snapshot of the values recorded so far. Never <code>null</code>.
+   */
+  @NonNull
+  public LatencySnapshot getSnapshot ()
+  {
+    final long [] aCounts = new long [BUCKET_COUNT];
+    addCountsTo (aCounts);
+    return new LatencySnapshot (aCounts, getSumNanos (), getMaxNanos ());
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Sum", m_aSum).append ("Max", m_aMax).getToString ();
+  }
+}
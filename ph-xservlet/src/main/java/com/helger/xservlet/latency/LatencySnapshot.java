@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * An immutable snapshot of one or more {@link LatencyHistogram} objects. All values are in
+ * nanoseconds.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@Immutable
+public final class LatencySnapshot
+{
+  /** An empty snapshot */
+  public static final LatencySnapshot EMPTY = new LatencySnapshot (new long [LatencyHistogram.BUCKET_COUNT], 0, 0);
+
+  private final long [] m_aCounts;
+  private final long m_nCount;
+  private final long m_nSumNanos;
+  private final long m_nMaxNanos;
+
+  LatencySnapshot (@NonNull final long [] aCounts, final long nSumNanos, final long nMaxNanos)
+  {
+    // No copy - the array is created by the caller
+    m_aCounts = aCounts;
+    long nCount = 0;
+    for (final long n : aCounts)
+      nCount += n;
+    m_nCount = nCount;
+    m_nSumNanos = nSumNanos;
+    m_nMaxNanos = nMaxNanos;
+  }
+
+  /**
+   * @return The number of recorded values. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getCount ()
+  {
+    return m_nCount;
+  }
+
+  /**
+   * @return The largest recorded value or 0 if no value was recorded.
+   */
+  @Nonnegative
+  public long getMaxNanos ()
+  {
+    return m_nMaxNanos;
+  }
+
+  /**
+   * @return The average of all recorded values or 0 if no value was recorded.
+   */
+  public double getMeanNanos ()
+  {
+    return m_nCount == 0 ? 0 : (double) m_nSumNanos / m_nCount;
+  }
+
+  /**
+   * Get the value at the provided percentile. The returned value is the highest value that is
+   * equivalent to the recorded values at that percentile, but never larger than the maximum.
+   *
+   * @param dPercentile
+   *        The percentile to query. Must be between 0 and 100 (e.g. 99.9).
+   * @return The value at the percentile or 0 if no value was recorded.
+   */
+  @Nonnegative
+  public long getValueAtPercentile (final double dPercentile)
+  {
+    ValueEnforcer.isBetweenInclusive (dPercentile, "Percentile", 0, 100);
+    if (m_nCount == 0)
+      return 0;
+
+    final long nCountAtPercentile = Math.max (1, (long) Math.ceil (dPercentile / 100 * m_nCount));
+    long nCumulated = 0;
+    for (int i = 0; i < m_aCounts.length; ++i)
+    {
+      nCumulated += m_aCounts[i];
+      if (nCumulated >= nCountAtPercentile)
+        return Math.min (LatencyHistogram.getHighestEquivalentValue (i), m_nMaxNanos);
+    }
+    return m_nMaxNanos;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Count", m_nCount)
+                                       .append ("MeanNanos", getMeanNanos ())
+                                       .append ("P50Nanos", getValueAtPercentile (50))
+                                       .append ("P99Nanos", getValueAtPercentile (99))
+                                       .append ("P999Nanos", getValueAtPercentile (99.9))
+                                       .append ("MaxNanos", m_nMaxNanos)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A lock-free latency recorder that only reports the values of a rolling time window. The time
+ * window is split into a number of slots, each having its own {@link LatencyHistogram}. A slot is
+ * replaced by a new histogram as soon as its time has passed. Values recorded concurrently with
+ * the replacement of a slot may be lost, which is acceptable for monitoring purposes.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public final class RollingLatencyRecorder
+{
+  private static final class Slot
+  {
+    private final long m_nEpoch;
+    private final LatencyHistogram m_aHistogram = new LatencyHistogram ();
+
+    Slot (final long nEpoch)
+    {
+      m_nEpoch = nEpoch;
+    }
+  }
+
+  private final long m_nSlotNanos;
+  private final int m_nSlotCount;
+  private final LongSupplier m_aNanoClock;
+  private final AtomicReferenceArray <Slot> m_aSlots;
+
+  /**
+   * Constructor
+   *
+   * @param aSlotDuration
+   *        The duration of a single slot. May not be <code>null</code> and must be positive.
+   * @param nSlotCount
+   *        The number of slots. Must be &gt; 0. The rolling window covers
+   *        <code>aSlotDuration * nSlotCount</code>.
+   */
+  public RollingLatencyRecorder (@NonNull final Duration aSlotDuration, @Nonnegative final int nSlotCount)
+  {
+    this (aSlotDuration, nSlotCount, System::nanoTime);
+  }
+
+  RollingLatencyRecorder (@NonNull final Duration aSlotDuration,
+                          @Nonnegative final int nSlotCount,
+                          @NonNull final LongSupplier aNanoClock)
+  {
+    ValueEnforcer.notNull (aSlotDuration, "SlotDuration");
+    ValueEnforcer.isTrue (!aSlotDuration.isNegative () && !aSlotDuration.isZero (), "SlotDuration must be positive");
+    ValueEnforcer.isGT0 (nSlotCount, "SlotCount");
+    ValueEnforcer.notNull (aNanoClock, "NanoClock");
+    m_nSlotNanos = aSlotDuration.toNanos ();
+    m_nSlotCount = nSlotCount;
+    m_aNanoClock = aNanoClock;
+    m_aSlots = new AtomicReferenceArray <> (nSlotCount);
+  }
+
+  /**
+   * @return The duration of the whole rolling window. Never <code>null</code>.
+   */
+  @NonNull
+  public Duration getWindowDuration ()
+  {
+    return Duration.ofNanos (m_nSlotNanos * m_nSlotCount);
+  }
+
+  private long _getCurrentEpoch ()
+  {
+    return Math.floorDiv (m_aNanoClock.getAsLong (), m_nSlotNanos);
+  }
+
+  /**
+   * Record a single duration.
+   *
+   * @param nNanos
+   *        The duration in nanoseconds.
+   */
+  public void record (final long nNanos)
+  {
+    final long nEpoch = _getCurrentEpoch ();
+    final int nIndex = (int) Math.floorMod (nEpoch, (long) m_nSlotCount);
+    Slot aSlot = m_aSlots.get (nIndex);
+    if (aSlot == null || aSlot.m_nEpoch < nEpoch)
+    {
+      final Slot aNewSlot = new Slot (nEpoch);
+      if (m_aSlots.compareAndSet (nIndex, aSlot, aNewSlot))
+        aSlot = aNewSlot;
+      else
+      {
+        // Another thread was faster
+        aSlot = m_aSlots.get (nIndex);
+      }
+    }
+    aSlot.m_aHistogram.record (nNanos);
+  }
+
+  /**
+   * @return A snapshot of all values recorded within the rolling window. Never <code>null</code>.
+   */
+  @NonNull
+  public LatencySnapshot getSnapshot ()
+  {
+    final long nEpoch = _getCurrentEpoch ();
+    final long [] aCounts = new long [LatencyHistogram.BUCKET_COUNT];
+    long nSum = 0;
+    long nMax = 0;
+    for (int i = 0; i < m_nSlotCount; ++i)
+    {
+      final Slot aSlot = m_aSlots.get (i);
+      if (aSlot != null && nEpoch - aSlot.m_nEpoch < m_nSlotCount)
+      {
+        aSlot.m_aHistogram.addCountsTo (aCounts);
+        nSum += aSlot.m_aHistogram.getSumNanos ();
+        nMax = Math.max (nMax, aSlot.m_aHistogram.getMaxNanos ());
+      }
+    }
+    return new LatencySnapshot (aCounts, nSum, nMax);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("SlotNanos", m_nSlotNanos).append ("SlotCount", m_nSlotCount).getToString ();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.http.EHttpMethod;
+
+/**
+ * The key of a latency recorder in {@link XServletLatencyManager}: servlet, HTTP method and HTTP
+ * status class.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@Immutable
+public final class XServletLatencyKey
+{
+  private final String m_sServletName;
+  private final EHttpMethod m_eHttpMethod;
+  private final int m_nStatusClass;
+
+  public XServletLatencyKey (@NonNull @Nonempty final String sServletName,
+                             @NonNull final EHttpMethod eHttpMethod,
+                             @Nonnegative final int nStatusClass)
+  {
+    ValueEnforcer.notEmpty (sServletName, "ServletName");
+    ValueEnforcer.notNull (eHttpMethod, "HttpMethod");
+    ValueEnforcer.isBetweenInclusive (nStatusClass, "StatusClass", 0, 5);
+    m_sServletName = sServletName;
+    m_eHttpMethod = eHttpMethod;
+    m_nStatusClass = nStatusClass;
+  }
+
+  /**
+   * @return The servlet name. Usually the fully qualified class name.
+   */
+  @NonNull
+  @Nonempty
+  public String getServletName ()
+  {
+    return m_sServletName;
+  }
+
+  @NonNull
+  public EHttpMethod getHttpMethod ()
+  {
+    return m_eHttpMethod;
+  }
+
+  /**
+   * @return The HTTP status class (1-5) or 0 if the status code was unknown.
+   */
+  @Nonnegative
+  public int getStatusClass ()
+  {
+    return m_nStatusClass;
+  }
+
+  /**
+   * @return The status class as in "2xx" or "unknown". Never <code>null</code>.
+   */
+  @NonNull
+  @Nonempty
+  public String getStatusClassName ()
+  {
+    return m_nStatusClass == 0 ? "unknown" : m_nStatusClass + "xx";
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final XServletLatencyKey rhs = (XServletLatencyKey) o;
+    return m_sServletName.equals (rhs.m_sServletName) &&
+           m_eHttpMethod.equals (rhs.m_eHttpMethod) &&
+           m_nStatusClass == rhs.m_nStatusClass;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_sServletName)
+                                       .append (m_eHttpMethod)
+                                       .append (m_nStatusClass)
+                                       .getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("ServletName", m_sServletName)
+                                       .append ("HttpMethod", m_eHttpMethod)
+                                       .append ("StatusClass", m_nStatusClass)
+                                       .getToString ();
+  }
+}
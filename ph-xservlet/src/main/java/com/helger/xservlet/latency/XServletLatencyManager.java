@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.http.EHttpMethod;
+
+/**
+ * Global registry for the request latencies of all XServlets, per servlet, HTTP method and HTTP
+ * status class. The latencies are recorded by
+ * {@link com.helger.xservlet.filter.XServletFilterTimer} and can be queried via
+ * {@link #getAllSnapshots()} e.g. by a monitoring endpoint.
+ *
+ * @author Philip Helger
+ * @since 11.4.3
+ */
+@ThreadSafe
+public final class XServletLatencyManager
+{
+  /** The default duration of a single rolling window slot */
+  public static final Duration DEFAULT_SLOT_DURATION = Duration.ofSeconds (10);
+  /** The default number of rolling window slots */
+  public static final int DEFAULT_SLOT_COUNT = 6;
+
+  private static final EHttpMethod [] HTTP_METHODS = EHttpMethod.values ();
+  private static final int STATUS_CLASS_COUNT = 6;
+
+  /**
+   * The rolling window settings, published as one object, so that readers never see a mix of old
+   * and new values.
+   */
+  @Immutable
+  private static final class RollingWindow
+  {
+    private final Duration m_aSlotDuration;
+    private final int m_nSlotCount;
+
+    RollingWindow (@NonNull final Duration aSlotDuration, @Nonnegative final int nSlotCount)
+    {
+      m_aSlotDuration = aSlotDuration;
+      m_nSlotCount = nSlotCount;
+    }
+  }
+
+  // Per servlet an array indexed by HTTP method and status class
+  private static final Map <String, AtomicReferenceArray <RollingLatencyRecorder>> RECORDERS = new ConcurrentHashMap <> ();
+  private static volatile RollingWindow s_aRollingWindow = new RollingWindow (DEFAULT_SLOT_DURATION, DEFAULT_SLOT_COUNT);
+
+  @PresentForCodeCoverage
+  private static final XServletLatencyManager INSTANCE = new XServletLatencyManager ();
+
+  private XServletLatencyManager ()
+  {}
+
+  /**
+   * @return The duration of a single rolling window slot. Never <code>null</code>.
+   */
+  @NonNull
+  public static Duration getSlotDuration ()
+  {
+    return s_aRollingWindow.m_aSlotDuration;
+  }
+
+  /**
+   * @return The number of rolling window slots. Always &gt; 0.
+   */
+  @Nonnegative
+  public static int getSlotCount ()
+  {
+    return s_aRollingWindow.m_nSlotCount;
+  }
+
+  /**
+   * Change the rolling window. This only affects recorders created afterwards, so usually
+   * {@link #reset()} should be called afterwards.
+   *
+   * @param aSlotDuration
+   *        The duration of a single slot. May not be <code>null</code> and must be positive.
+   * @param nSlotCount
+   *        The number of slots. Must be &gt; 0.
+   */
+  public static void setRollingWindow (@NonNull final Duration aSlotDuration, @Nonnegative final int nSlotCount)
+  {
+    ValueEnforcer.notNull (aSlotDuration, "SlotDuration");
+    ValueEnforcer.isTrue (!aSlotDuration.isNegative () && !aSlotDuration.isZero (), "SlotDuration must be positive");
+    ValueEnforcer.isGT0 (nSlotCount, "SlotCount");
+    s_aRollingWindow = new RollingWindow (aSlotDuration, nSlotCount);
+  }
+
+  /**
+   * @param nStatusCode
+   *        HTTP status code
+   * @return The status class 1-5 or 0 if the status code is not a valid HTTP status code.
+   */
+  @Nonnegative
+  public static int getStatusClass (final int nStatusCode)
+  {
+    return nStatusCode >= 100 && nStatusCode < 600 ? nStatusCode / 100 : 0;
+  }
+
+  /**
+   * Record the latency of a single request.
+   *
+   * @param sServletName
+   *        The servlet name. May neither be <code>null</code> nor empty.
+   * @param eHttpMethod
+   *        The HTTP method used. May not be <code>null</code>.
+   * @param nStatusCode
+   *        The HTTP response status code.
+   * @param nDurationNanos
+   *        The request duration in nanoseconds.
+   */
+  public static void recordLatency (@NonNull @Nonempty final String sServletName,
+                                    @NonNull final EHttpMethod eHttpMethod,
+                                    final int nStatusCode,
+                                    final long nDurationNanos)
+  {
+    final AtomicReferenceArray <RollingLatencyRecorder> aRecorders = RECORDERS.computeIfAbsent (sServletName,
+                                                                                               k -> new AtomicReferenceArray <> (HTTP_METHODS.length *
+                                                                                                                                STATUS_CLASS_COUNT));
+    final int nIndex = eHttpMethod.ordinal () * STATUS_CLASS_COUNT + getStatusClass (nStatusCode);
+    RollingLatencyRecorder aRecorder = aRecorders.get (nIndex);
+    if (aRecorder == null)
+    {
+      final RollingWindow aRollingWindow = s_aRollingWindow;
+      aRecorders.compareAndSet (nIndex,
+                                null,
+                                new RollingLatencyRecorder (aRollingWindow.m_aSlotDuration, aRollingWindow.m_nSlotCount));
+      aRecorder = aRecorders.get (nIndex);
+    }
+    aRecorder.record (nDurationNanos);
+  }
+
+  /**
+   * Get the latency snapshot of a single combination.
+   *
+   * @param aKey
+   *        The key to query. May not be <code>null</code>.
+   * @return <code>null</code> if nothing was recorded for the provided key.
+   */
+  @Nullable
+  public static LatencySnapshot getSnapshot (@NonNull final XServletLatencyKey aKey)
+  {
+    ValueEnforcer.notNull (aKey, "Key");
+    final AtomicReferenceArray <RollingLatencyRecorder> aRecorders = RECORDERS.get (aKey.getServletName ());
+    if (aRecorders == null)
+      return null;
+    final RollingLatencyRecorder aRecorder = aRecorders.get (aKey.getHttpMethod ().ordinal () * STATUS_CLASS_COUNT +
+                                                             aKey.getStatusClass ());
+    return aRecorder == null ? null : aRecorder.getSnapshot ();
+  }
+
+  /**
+   * @return The latency snapshots of all combinations for which values were recorded. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsOrderedMap <XServletLatencyKey, LatencySnapshot> getAllSnapshots ()
+  {
+    final ICommonsOrderedMap <XServletLatencyKey, LatencySnapshot> ret = new CommonsLinkedHashMap <> ();
+    for (final Map.Entry <String, AtomicReferenceArray <RollingLatencyRecorder>> aEntry : RECORDERS.entrySet ())
+    {
+      final AtomicReferenceArray <RollingLatencyRecorder> aRecorders = aEntry.getValue ();
+      for (int i = 0; i < aRecorders.length (); ++i)
+      {
+        final RollingLatencyRecorder aRecorder = aRecorders.get (i);
+        if (aRecorder != null)
+          ret.put (new XServletLatencyKey (aEntry.getKey (), HTTP_METHODS[i / STATUS_CLASS_COUNT], i % STATUS_CLASS_COUNT),
+                   aRecorder.getSnapshot ());
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Remove all recorded latencies.
+   */
+  public static void reset ()
+  {
+    RECORDERS.clear ();
+  }
+}
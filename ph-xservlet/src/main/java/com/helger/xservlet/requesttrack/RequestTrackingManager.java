@@ -16,25 +16,30 @@
  */
 package com.helger.xservlet.requesttrack;
 
-import java.util.Map.Entry;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
-import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.callback.CallbackList;
 import com.helger.base.callback.ICallbackList;
-import com.helger.base.concurrent.SimpleReadWriteLock;
-import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
-import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.web.scope.IRequestWebScope;
 
 /**
- * The request time manager manages all currently running requests.
+ * The request time manager manages all currently running requests.<br>
+ * Since v11.4.3 the open requests are kept in a {@link ConcurrentHashMap} so that adding and
+ * removing requests does not require a global lock. Ordering by start time is only established
+ * when a callback needs to be invoked.
  *
  * @author Philip Helger
  * @since 9.0.0
@@ -43,135 +48,118 @@ import com.helger.web.scope.IRequestWebScope;
 public final class RequestTrackingManager
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (RequestTrackingManager.class);
+  private static final Comparator <TrackedRequest> COMPARATOR_OLDEST_FIRST = Comparator.comparingLong (TrackedRequest::getStartTimeMilliseconds);
 
-  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
-  @GuardedBy ("m_aRWLock")
-  private boolean m_bParallelRunningRequestsAboveLimit = false;
-  // Must be ordered!
-  @GuardedBy ("m_aRWLock")
-  private final ICommonsOrderedMap <String, TrackedRequest> m_aOpenRequests = new CommonsLinkedHashMap <> ();
+  private final AtomicBoolean m_aParallelRunningRequestsAboveLimit = new AtomicBoolean (false);
+  private final Map <String, TrackedRequest> m_aOpenRequests = new ConcurrentHashMap <> ();
 
   public RequestTrackingManager ()
   {}
 
+  /**
+   * @return The number of currently open requests. Always &ge; 0.
+   * @since 11.4.3
+   */
+  @Nonnegative
+  public int getOpenRequestCount ()
+  {
+    return m_aOpenRequests.size ();
+  }
+
+  /**
+   * @return All currently open requests, with the oldest request first. Never <code>null</code>.
+   * @since 11.4.3
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <TrackedRequest> getAllOpenRequests ()
+  {
+    final ICommonsList <TrackedRequest> ret = new CommonsArrayList <> (m_aOpenRequests.values ());
+    ret.sort (COMPARATOR_OLDEST_FIRST);
+    return ret;
+  }
+
   public void addRequest (@NonNull @Nonempty final String sRequestID,
                           @NonNull final IRequestWebScope aRequestScope,
                           @NonNull final CallbackList <IParallelRunningRequestCallback> aCallbacks)
   {
-    boolean bNotifyOnParallelRequests = false;
-    ICommonsList <TrackedRequest> aOpenRequests = null;
-    m_aRWLock.writeLock ().lock ();
-    try
-    {
-      final TrackedRequest aTR = new TrackedRequest (sRequestID, aRequestScope);
-      final TrackedRequest aOldTR = m_aOpenRequests.put (sRequestID, aTR);
+    final TrackedRequest aTR = new TrackedRequest (sRequestID, aRequestScope);
+    final TrackedRequest aOldTR = m_aOpenRequests.put (sRequestID, aTR);
 
-      // An old TR may be present, if the request is dispatched internally, but
-      // in that case the request scope must have the same identity!
-      if (aOldTR != null && aOldTR.getRequestScope () != aRequestScope)
-      {
-        // Should never happen
-        LOGGER.error ("Request ID '" + sRequestID + "' is already registered! Old TR: " + aOldTR + "; New TR: " + aTR);
-      }
-      if (RequestTrackerSettings.isParallelRunningRequestsCheckEnabled () &&
-          m_aOpenRequests.size () >= RequestTrackerSettings.getParallelRunningRequestBarrier ())
-      {
-        // Grab directly here to avoid another locked section
-        bNotifyOnParallelRequests = true;
-        aOpenRequests = m_aOpenRequests.copyOfValues ();
-        // Remember that we're above limit
-        m_bParallelRunningRequestsAboveLimit = true;
-      }
-    }
-    finally
+    // An old TR may be present, if the request is dispatched internally, but
+    // in that case the request scope must have the same identity!
+    if (aOldTR != null && aOldTR.getRequestScope () != aRequestScope)
     {
-      m_aRWLock.writeLock ().unlock ();
+      // Should never happen
+      LOGGER.error ("Request ID '" + sRequestID + "' is already registered! Old TR: " + aOldTR + "; New TR: " + aTR);
     }
-    if (bNotifyOnParallelRequests)
+
+    if (RequestTrackerSettings.isParallelRunningRequestsCheckEnabled () &&
+        m_aOpenRequests.size () >= RequestTrackerSettings.getParallelRunningRequestBarrier ())
     {
+      // Remember that we're above limit
+      m_aParallelRunningRequestsAboveLimit.set (true);
+
       // Invoke callbacks "above limit"
-      final ICommonsList <TrackedRequest> aFinalOpenRequests = aOpenRequests;
-      aCallbacks.forEach (aCB -> aCB.onParallelRunningRequests (aFinalOpenRequests.size (), aFinalOpenRequests));
+      final ICommonsList <TrackedRequest> aOpenRequests = getAllOpenRequests ();
+      aCallbacks.forEach (aCB -> aCB.onParallelRunningRequests (aOpenRequests.size (), aOpenRequests));
     }
   }
 
   public void removeRequest (@NonNull @Nonempty final String sRequestID,
                              @NonNull final CallbackList <IParallelRunningRequestCallback> aCallbacks)
   {
-    boolean bNowBelowLimit = false;
-    m_aRWLock.writeLock ().lock ();
-    try
+    if (m_aOpenRequests.remove (sRequestID) == null)
     {
-      if (m_aOpenRequests.remove (sRequestID) == null)
-      {
-        // Should never happen
-        LOGGER.error ("Failed to remove internal request with ID '" + sRequestID + "'");
-      }
-      else
-      {
-        if (LOGGER.isDebugEnabled ())
-          LOGGER.debug ("Removed request with ID '" + sRequestID + "'");
-      }
-      if (RequestTrackerSettings.isParallelRunningRequestsCheckEnabled () &&
-          m_bParallelRunningRequestsAboveLimit &&
-          m_aOpenRequests.size () < RequestTrackerSettings.getParallelRunningRequestBarrier ())
-      {
-        // Back to normal!
-        m_bParallelRunningRequestsAboveLimit = false;
-        bNowBelowLimit = true;
-      }
+      // Should never happen
+      LOGGER.error ("Failed to remove internal request with ID '" + sRequestID + "'");
     }
-    finally
+    else
     {
-      m_aRWLock.writeLock ().unlock ();
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Removed request with ID '" + sRequestID + "'");
     }
-    if (bNowBelowLimit)
+
+    if (RequestTrackerSettings.isParallelRunningRequestsCheckEnabled () &&
+        m_aParallelRunningRequestsAboveLimit.get () &&
+        m_aOpenRequests.size () < RequestTrackerSettings.getParallelRunningRequestBarrier () &&
+        m_aParallelRunningRequestsAboveLimit.compareAndSet (true, false))
     {
-      // Invoke callbacks "below limit again"
+      // Back to normal! Invoke callbacks "below limit again"
       aCallbacks.forEach (IParallelRunningRequestCallback::onParallelRunningRequestsBelowLimit);
     }
   }
 
   public void checkForLongRunningRequests (@NonNull final ICallbackList <ILongRunningRequestCallback> aCallbacks)
   {
-    if (aCallbacks.isNotEmpty ())
+    // Check only if they are enabled!
+    if (aCallbacks.isNotEmpty () && RequestTrackerSettings.isLongRunningRequestsCheckEnabled ())
     {
-      m_aRWLock.readLock ().lock ();
-      try
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Checking for long running requests");
+
+      final long nNotificationMS = RequestTrackerSettings.getLongRunningRequestWarnDurationMillis ();
+      final long nNow = System.currentTimeMillis ();
+
+      // The iteration is weakly consistent and does not block concurrent
+      // modifications
+      final ICommonsList <TrackedRequest> aLongRunning = new CommonsArrayList <> ();
+      for (final TrackedRequest aTR : m_aOpenRequests.values ())
+        if (nNow - aTR.getStartTimeMilliseconds () > nNotificationMS)
+          aLongRunning.add (aTR);
+
+      if (aLongRunning.isNotEmpty ())
       {
-        // Check only if they are enabled!
-        if (RequestTrackerSettings.isLongRunningRequestsCheckEnabled ())
+        aLongRunning.sort (COMPARATOR_OLDEST_FIRST);
+        for (final TrackedRequest aTR : aLongRunning)
         {
-          if (LOGGER.isDebugEnabled ())
-            LOGGER.debug ("Checking for long running requests");
-
-          // Grab in read lock!
-          final long nNotificationMS = RequestTrackerSettings.getLongRunningRequestWarnDurationMillis ();
-
-          for (final Entry <String, TrackedRequest> aItem : m_aOpenRequests.entrySet ())
-          {
-            final long nRunningMilliseconds = aItem.getValue ().getRunningMilliseconds ();
-            if (nRunningMilliseconds > nNotificationMS)
-            {
-              // Invoke callbacks
-              aCallbacks.forEach (aCB -> aCB.onLongRunningRequest (aItem.getKey (),
-                                                                   aItem.getValue ().getRequestScope (),
-                                                                   nRunningMilliseconds));
-            }
-            else
-            {
-              // Don't check any further, since all other requests should be
-              // younger than the current one because we're using a
-              // CommonsLinkedHashMap!
-              break;
-            }
-          }
+          final long nRunningMilliseconds = nNow - aTR.getStartTimeMilliseconds ();
+          // Invoke callbacks
+          aCallbacks.forEach (aCB -> aCB.onLongRunningRequest (aTR.getRequestID (),
+                                                               aTR.getRequestScope (),
+                                                               nRunningMilliseconds));
         }
       }
-      finally
-      {
-        m_aRWLock.readLock ().unlock ();
-      }
     }
   }
 }
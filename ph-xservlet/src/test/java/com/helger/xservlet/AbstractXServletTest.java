@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.base.state.EContinue;
+import com.helger.http.CHttpHeader;
+import com.helger.http.EHttpMethod;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.servlet.mock.MockServletContext;
+import com.helger.web.scope.mock.WebScopeTestRule;
+import com.helger.xservlet.filter.IXServletLowLevelFilter;
+
+/**
+ * Test class for class {@link AbstractXServlet}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractXServletTest
+{
+  @Rule
+  public final WebScopeTestRule m_aRule = new WebScopeTestRule ()
+  {
+    @Override
+    protected MockHttpServletRequest createMockRequest (final MockServletContext aServletContext)
+    {
+      // Requests are created per test
+      return null;
+    }
+  };
+
+  private static final class MockXServlet extends AbstractXServlet
+  {
+    public MockXServlet ()
+    {
+      handlerRegistry ().registerHandler (EHttpMethod.GET,
+                                          (aHttpRequest, aHttpResponse, eHttpVersion, eHttpMethod, aRequestScope) -> {},
+                                          false);
+    }
+  }
+
+  private MockHttpServletResponse _get (final MockXServlet aServlet) throws Exception
+  {
+    final MockHttpServletRequest aRequest = new MockHttpServletRequest (m_aRule.getServletContext (), EHttpMethod.GET);
+    final MockHttpServletResponse aResponse = new MockHttpServletResponse ();
+    aServlet.service (aRequest, aResponse);
+    aRequest.invalidate ();
+    return aResponse;
+  }
+
+  @Test
+  public void testFilterChainChanges () throws Exception
+  {
+    final MockXServlet aServlet = new MockXServlet ();
+    aServlet.init (m_aRule.getServletContext ().createServletConfig ("test"));
+
+    final AtomicInteger aCount = new AtomicInteger ();
+    final IXServletLowLevelFilter aFilter = (aHttpRequest, aHttpResponse, eHttpVersion, eHttpMethod) -> {
+      aCount.incrementAndGet ();
+      return EContinue.CONTINUE;
+    };
+
+    _get (aServlet);
+    assertEquals (0, aCount.get ());
+
+    // Filter added after the first request
+    aServlet.filterLowLevelList ().add (aFilter);
+    _get (aServlet);
+    _get (aServlet);
+    assertEquals (2, aCount.get ());
+
+    aServlet.filterLowLevelList ().remove (aFilter);
+    _get (aServlet);
+    assertEquals (2, aCount.get ());
+
+    // Settings changed after the first request
+    aServlet.settings ().setXFrameOptions (null, null);
+    assertNull (_get (aServlet).getHeader (CHttpHeader.X_FRAME_OPTIONS));
+
+    aServlet.destroy ();
+  }
+}
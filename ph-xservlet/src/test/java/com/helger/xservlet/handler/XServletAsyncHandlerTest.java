@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.handler;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.base.state.EChange;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.web.scope.impl.RequestWebScope;
+import com.helger.web.scope.mock.WebScopeTestRule;
+
+/**
+ * Test class for class {@link XServletAsyncHandler}.
+ *
+ * @author Philip Helger
+ */
+public final class XServletAsyncHandlerTest
+{
+  @Rule
+  public final WebScopeTestRule m_aRule = new WebScopeTestRule ();
+
+  @Test
+  public void testParamsHandOver ()
+  {
+    final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+    aRequest.addParameter ("a", "b");
+
+    // Eager parameters must be handed over
+    RequestWebScope aRequestScope = new RequestWebScope (aRequest, new MockHttpServletResponse ());
+    aRequestScope.initScope ();
+    assertTrue (XServletAsyncHandler.isParamsHandOverNeeded (aRequestScope));
+
+    RequestWebScope.setLazyParamsServletPathFilter (x -> true);
+    try
+    {
+      aRequestScope = new RequestWebScope (aRequest, new MockHttpServletResponse ());
+      aRequestScope.initScope ();
+      // Nothing accessed yet
+      assertFalse (XServletAsyncHandler.isParamsHandOverNeeded (aRequestScope));
+
+      aRequestScope.params ().putIn ("c", "d");
+      assertTrue (XServletAsyncHandler.isParamsHandOverNeeded (aRequestScope));
+    }
+    finally
+    {
+      RequestWebScope.setLazyParamsServletPathFilter (null);
+    }
+  }
+
+  @Test
+  public void testParamsHandOverSpecialParams ()
+  {
+    final MockHttpServletRequest aRequest = new MockHttpServletRequest ();
+    aRequest.addParameter ("a", "b");
+
+    RequestWebScope.setLazyParamsServletPathFilter (x -> true);
+    try
+    {
+      // Simulate a multipart request, where the file items are read from the
+      // request body upon initialization
+      final RequestWebScope aRequestScope = new RequestWebScope (aRequest, new MockHttpServletResponse ())
+      {
+        @Override
+        protected EChange addSpecialRequestParams ()
+        {
+          params ().putIn ("file", "content");
+          return EChange.CHANGED;
+        }
+      };
+      aRequestScope.initScope ();
+      assertTrue (aRequestScope.isParamsPending ());
+      assertTrue (aRequestScope.isAddedSpecialRequestParams ());
+      assertTrue (XServletAsyncHandler.isParamsHandOverNeeded (aRequestScope));
+    }
+    finally
+    {
+      RequestWebScope.setLazyParamsServletPathFilter (null);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link LatencyHistogram}.
+ *
+ * @author Philip Helger
+ */
+public final class LatencyHistogramTest
+{
+  @Test
+  public void testBucketIndex ()
+  {
+    int nLastIndex = -1;
+    for (long n = 0; n < 100_000; ++n)
+    {
+      final int nIndex = LatencyHistogram.getBucketIndex (n);
+      assertTrue (nIndex == nLastIndex || nIndex == nLastIndex + 1);
+      assertTrue (LatencyHistogram.getHighestEquivalentValue (nIndex) >= n);
+      nLastIndex = nIndex;
+    }
+    assertEquals (LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucketIndex (LatencyHistogram.MAX_TRACKABLE_NANOS));
+    assertEquals (LatencyHistogram.MAX_TRACKABLE_NANOS,
+                  LatencyHistogram.getHighestEquivalentValue (LatencyHistogram.BUCKET_COUNT - 1));
+  }
+
+  @Test
+  public void testPercentiles ()
+  {
+    final LatencyHistogram aHisto = new LatencyHistogram ();
+    assertEquals (0, aHisto.getSnapshot ().getCount ());
+    assertEquals (0, aHisto.getSnapshot ().getValueAtPercentile (99));
+
+    // 1 to 10000 microseconds
+    for (int i = 1; i <= 10_000; ++i)
+      aHisto.record (i * 1_000L);
+
+    final LatencySnapshot aSnapshot = aHisto.getSnapshot ();
+    assertEquals (10_000, aSnapshot.getCount ());
+    assertEquals (10_000_000L, aSnapshot.getMaxNanos ());
+    assertEquals (5_000_500d, aSnapshot.getMeanNanos (), 0.1);
+    for (final double dPercentile : new double [] { 1, 50, 90, 99, 99.9 })
+    {
+      final double dExpected = dPercentile * 100_000;
+      final long nValue = aSnapshot.getValueAtPercentile (dPercentile);
+      assertTrue (dPercentile + ": " + nValue, nValue >= dExpected && nValue <= dExpected * 1.04);
+    }
+    assertEquals (10_000_000L, aSnapshot.getValueAtPercentile (100));
+  }
+
+  @Test
+  public void testOutOfRange ()
+  {
+    final LatencyHistogram aHisto = new LatencyHistogram ();
+    aHisto.record (-5);
+    aHisto.record (Long.MAX_VALUE);
+    final LatencySnapshot aSnapshot = aHisto.getSnapshot ();
+    assertEquals (2, aSnapshot.getCount ());
+    assertEquals (0, aSnapshot.getValueAtPercentile (50));
+    assertEquals (LatencyHistogram.MAX_TRACKABLE_NANOS, aSnapshot.getValueAtPercentile (100));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.latency;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link RollingLatencyRecorder}.
+ *
+ * @author Philip Helger
+ */
+public final class RollingLatencyRecorderTest
+{
+  @Test
+  public void testRolling ()
+  {
+    final AtomicLong aClock = new AtomicLong (0);
+    final RollingLatencyRecorder aRecorder = new RollingLatencyRecorder (Duration.ofNanos (1_000), 3, aClock::get);
+    assertEquals (Duration.ofNanos (3_000), aRecorder.getWindowDuration ());
+    assertEquals (0, aRecorder.getSnapshot ().getCount ());
+
+    aRecorder.record (10);
+    aClock.set (1_500);
+    aRecorder.record (20);
+    aRecorder.record (20);
+    aClock.set (2_999);
+    aRecorder.record (30);
+    assertEquals (4, aRecorder.getSnapshot ().getCount ());
+    assertEquals (30, aRecorder.getSnapshot ().getMaxNanos ());
+
+    // First slot is outdated
+    aClock.set (3_000);
+    assertEquals (3, aRecorder.getSnapshot ().getCount ());
+
+    // First slot is reused
+    aRecorder.record (40);
+    assertEquals (4, aRecorder.getSnapshot ().getCount ());
+    assertEquals (40, aRecorder.getSnapshot ().getMaxNanos ());
+
+    // All outdated
+    aClock.set (10_000);
+    assertEquals (0, aRecorder.getSnapshot ().getCount ());
+  }
+}
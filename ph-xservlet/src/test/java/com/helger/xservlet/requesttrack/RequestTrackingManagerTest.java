@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.requesttrack;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.helger.base.callback.CallbackList;
+import com.helger.base.concurrent.ThreadHelper;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.web.scope.IRequestWebScope;
+import com.helger.web.scope.impl.RequestWebScope;
+
+/**
+ * Test class for class {@link RequestTrackingManager}.
+ *
+ * @author Philip Helger
+ */
+public final class RequestTrackingManagerTest
+{
+  @After
+  public void after ()
+  {
+    RequestTrackerSettings.setParallelRunningRequestBarrier (RequestTrackerSettings.DEFAULT_PARALLEL_RUNNING_REQUESTS_BARRIER);
+    RequestTrackerSettings.setLongRunningRequestWarnDurationMillis (RequestTrackerSettings.DEFAULT_LONG_RUNNING_NOTIFICATION_MILLISECONDS);
+  }
+
+  @Test
+  public void testCallbacks ()
+  {
+    RequestTrackerSettings.setParallelRunningRequestBarrier (2);
+    RequestTrackerSettings.setLongRunningRequestWarnDurationMillis (0);
+
+    final IRequestWebScope aRequestScope = new RequestWebScope (new MockHttpServletRequest (), new MockHttpServletResponse ());
+    final AtomicInteger aAbove = new AtomicInteger ();
+    final AtomicInteger aBelow = new AtomicInteger ();
+    final CallbackList <IParallelRunningRequestCallback> aParallelCallbacks = new CallbackList <> ();
+    aParallelCallbacks.add (new IParallelRunningRequestCallback ()
+    {
+      public void onParallelRunningRequests (final int nParallelRequests, final List <TrackedRequest> aRequests)
+      {
+        assertEquals (nParallelRequests, aRequests.size ());
+        aAbove.incrementAndGet ();
+      }
+
+      public void onParallelRunningRequestsBelowLimit ()
+      {
+        aBelow.incrementAndGet ();
+      }
+    });
+
+    final RequestTrackingManager aMgr = new RequestTrackingManager ();
+    aMgr.addRequest ("r1", aRequestScope, aParallelCallbacks);
+    assertEquals (0, aAbove.get ());
+    aMgr.addRequest ("r2", aRequestScope, aParallelCallbacks);
+    assertEquals (1, aAbove.get ());
+    aMgr.addRequest ("r3", aRequestScope, aParallelCallbacks);
+    assertEquals (2, aAbove.get ());
+    assertEquals (3, aMgr.getOpenRequestCount ());
+    assertEquals (3, aMgr.getAllOpenRequests ().size ());
+
+    // Long running requests
+    final CallbackList <ILongRunningRequestCallback> aLongRunningCallbacks = new CallbackList <> ();
+    final AtomicInteger aLongRunning = new AtomicInteger ();
+    aLongRunningCallbacks.add ( (sRequestID, aScope, nRunningMilliseconds) -> aLongRunning.incrementAndGet ());
+    ThreadHelper.sleep (5);
+    aMgr.checkForLongRunningRequests (aLongRunningCallbacks);
+    assertEquals (3, aLongRunning.get ());
+
+    aMgr.removeRequest ("r3", aParallelCallbacks);
+    assertEquals (0, aBelow.get ());
+    aMgr.removeRequest ("r2", aParallelCallbacks);
+    assertEquals (1, aBelow.get ());
+    aMgr.removeRequest ("r1", aParallelCallbacks);
+    assertEquals (1, aBelow.get ());
+    assertEquals (0, aMgr.getOpenRequestCount ());
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.supplementary.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.callback.CallbackList;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.timing.StopWatch;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.web.scope.IRequestWebScope;
+import com.helger.web.scope.impl.RequestWebScope;
+import com.helger.xservlet.requesttrack.ILongRunningRequestCallback;
+import com.helger.xservlet.requesttrack.IParallelRunningRequestCallback;
+import com.helger.xservlet.requesttrack.RequestTrackingManager;
+import com.helger.xservlet.requesttrack.TrackedRequest;
+
+/**
+ * Multi-threaded benchmark comparing {@link RequestTrackingManager} with the previous globally
+ * locked ordered map, while a monitor thread continuously checks for long running requests.
+ *
+ * @author Philip Helger
+ */
+public final class MainRequestTrackingManagerBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainRequestTrackingManagerBenchmark.class);
+  private static final int REQUESTS_PER_THREAD = 500_000;
+
+  private interface IRegistry
+  {
+    void add (String sRequestID, IRequestWebScope aRequestScope);
+
+    void remove (String sRequestID);
+
+    void check ();
+  }
+
+  /**
+   * The previous implementation: one read-write lock around an ordered map
+   */
+  private static final class LockedRegistry implements IRegistry
+  {
+    private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+    private final ICommonsOrderedMap <String, TrackedRequest> m_aMap = new CommonsLinkedHashMap <> ();
+
+    public void add (final String sRequestID, final IRequestWebScope aRequestScope)
+    {
+      final TrackedRequest aTR = new TrackedRequest (sRequestID, aRequestScope);
+      m_aRWLock.writeLocked ( () -> m_aMap.put (sRequestID, aTR));
+    }
+
+    public void remove (final String sRequestID)
+    {
+      m_aRWLock.writeLocked ( () -> m_aMap.remove (sRequestID));
+    }
+
+    public void check ()
+    {
+      m_aRWLock.readLocked ( () -> {
+        for (final TrackedRequest aTR : m_aMap.values ())
+          if (aTR.getRunningMilliseconds () <= 30_000)
+            break;
+      });
+    }
+  }
+
+  private static final class CurrentRegistry implements IRegistry
+  {
+    private final RequestTrackingManager m_aMgr = new RequestTrackingManager ();
+    private final CallbackList <IParallelRunningRequestCallback> m_aParallelCallbacks = new CallbackList <> ();
+    private final CallbackList <ILongRunningRequestCallback> m_aLongRunningCallbacks = new CallbackList <> ();
+
+    public CurrentRegistry ()
+    {
+      m_aLongRunningCallbacks.add ( (sRequestID, aRequestScope, nRunningMilliseconds) -> {});
+    }
+
+    public void add (final String sRequestID, final IRequestWebScope aRequestScope)
+    {
+      m_aMgr.addRequest (sRequestID, aRequestScope, m_aParallelCallbacks);
+    }
+
+    public void remove (final String sRequestID)
+    {
+      m_aMgr.removeRequest (sRequestID, m_aParallelCallbacks);
+    }
+
+    public void check ()
+    {
+      m_aMgr.checkForLongRunningRequests (m_aLongRunningCallbacks);
+    }
+  }
+
+  private static void _run (final String sName, final IRegistry aRegistry, final int nThreads) throws InterruptedException
+  {
+    final IRequestWebScope aRequestScope = new RequestWebScope (new MockHttpServletRequest (), new MockHttpServletResponse ());
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads + 1);
+    final CountDownLatch aStart = new CountDownLatch (1);
+    final CountDownLatch aDone = new CountDownLatch (nThreads);
+    final AtomicBoolean aRunning = new AtomicBoolean (true);
+
+    for (int nThread = 0; nThread < nThreads; ++nThread)
+    {
+      final String sPrefix = "t" + nThread + "-";
+      aES.submit ( () -> {
+        aStart.await ();
+        for (int i = 0; i < REQUESTS_PER_THREAD; ++i)
+        {
+          final String sRequestID = sPrefix + i;
+          aRegistry.add (sRequestID, aRequestScope);
+          aRegistry.remove (sRequestID);
+        }
+        aDone.countDown ();
+        return null;
+      });
+    }
+    // The monitor thread
+    aES.submit ( () -> {
+      while (aRunning.get ())
+      {
+        aRegistry.check ();
+        Thread.sleep (1);
+      }
+      return null;
+    });
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    aStart.countDown ();
+    aDone.await ();
+    aSW.stop ();
+    aRunning.set (false);
+    aES.shutdown ();
+    aES.awaitTermination (1, TimeUnit.MINUTES);
+
+    final long nOps = (long) nThreads * REQUESTS_PER_THREAD;
+    LOGGER.info (sName +
+                 " with " +
+                 nThreads +
+                 " threads: " +
+                 nOps +
+                 " requests in " +
+                 aSW.getMillis () +
+                 " ms (" +
+                 (nOps * 1000 / Math.max (1, aSW.getMillis ())) +
+                 " requests/s)");
+  }
+
+  public static void main (final String [] args) throws InterruptedException
+  {
+    final int nMaxThreads = Runtime.getRuntime ().availableProcessors ();
+    for (int nThreads = 1; nThreads <= nMaxThreads; nThreads *= 2)
+    {
+      _run ("Locked", new LockedRegistry (), nThreads);
+      _run ("Current", new CurrentRegistry (), nThreads);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xservlet.supplementary.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.timing.StopWatch;
+import com.helger.http.EHttpMethod;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.servlet.mock.MockServletContext;
+import com.helger.web.scope.mock.WebScopeTestRule;
+import com.helger.xservlet.AbstractXServlet;
+
+/**
+ * Small tool to measure the time and the heap allocations of {@link AbstractXServlet} per request
+ * using mock requests and responses. Run it on different revisions to compare the values.
+ *
+ * @author Philip Helger
+ */
+public final class MainXServletServiceBenchmark
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainXServletServiceBenchmark.class);
+
+  private static final class MockXServlet extends AbstractXServlet
+  {
+    public MockXServlet ()
+    {
+      handlerRegistry ().registerHandler (EHttpMethod.GET,
+                                          (aHttpRequest, aHttpResponse, eHttpVersion, eHttpMethod, aRequestScope) -> {},
+                                          false);
+    }
+  }
+
+  private static long _getAllocatedBytes ()
+  {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean ()).getCurrentThreadAllocatedBytes ();
+  }
+
+  private static void _run (final MockServletContext aSC, final MockXServlet aServlet, final int nRuns) throws Exception
+  {
+    final long nStartBytes = _getAllocatedBytes ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < nRuns; ++i)
+    {
+      final MockHttpServletRequest aRequest = new MockHttpServletRequest (aSC, EHttpMethod.GET);
+      aServlet.service (aRequest, new MockHttpServletResponse ());
+      aRequest.invalidate ();
+    }
+    aSW.stop ();
+    final long nBytes = _getAllocatedBytes () - nStartBytes;
+    LOGGER.info (nRuns + " requests in " + aSW.getMillis () + " ms; " + (nBytes / nRuns) + " bytes allocated per request");
+  }
+
+  public static void main (final String [] args) throws Exception
+  {
+    final WebScopeTestRule aRule = new WebScopeTestRule ()
+    {
+      @Override
+      protected MockHttpServletRequest createMockRequest (final MockServletContext aServletContext)
+      {
+        // Requests are created per invocation
+        return null;
+      }
+    };
+    aRule.before ();
+    try
+    {
+      final MockServletContext aSC = aRule.getServletContext ();
+      final MockXServlet aServlet = new MockXServlet ();
+      aServlet.init (aSC.createServletConfig ("benchmark"));
+
+      // Warm up
+      _run (aSC, aServlet, 20_000);
+      for (int i = 0; i < 3; ++i)
+        _run (aSC, aServlet, 100_000);
+      aServlet.destroy ();
+    }
+    finally
+    {
+      aRule.after ();
+    }
+  }
+}